@@ -2,8 +2,13 @@ package org.apereo.cas.support.events;
 
 import org.apereo.cas.support.events.dao.CasEvent;
 
+import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.Collection;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
 
 /**
  * Defines DAO operations over an events repository.
@@ -19,6 +24,15 @@ public interface CasEventRepository {
      */
     void save(CasEvent event);
 
+    /**
+     * Save a batch of events. By default, events are saved one by one.
+     *
+     * @param events the events
+     */
+    default void saveAll(final Collection<CasEvent> events) {
+        events.forEach(this::save);
+    }
+
     /**
      * Load collection.
      *
@@ -86,4 +100,42 @@ public interface CasEventRepository {
      * @return the events for principal
      */
     Collection<CasEvent> getEventsForPrincipal(String id, ZonedDateTime dateTime);
+
+    /**
+     * Count events of type, by the hour in which they were created,
+     * for events created in or after the hour of the given date.
+     * Hours are keyed by their start in UTC; hours without events are left out.
+     * By default, the events are loaded and counted; repositories should override this
+     * to count events where they are stored.
+     *
+     * @param type     the type
+     * @param dateTime the date time
+     * @return the count of events by hour
+     */
+    default SortedMap<ZonedDateTime, Long> countEventsOfType(final String type, final ZonedDateTime dateTime) {
+        final ZonedDateTime hour = dateTime.withZoneSameInstant(ZoneOffset.UTC).truncatedTo(ChronoUnit.HOURS);
+        return getEventsOfType(type, hour).stream()
+                .collect(Collectors.groupingBy(e -> e.getCreationTime().withZoneSameInstant(ZoneOffset.UTC).truncatedTo(ChronoUnit.HOURS),
+                        TreeMap::new, Collectors.counting()));
+    }
+
+    /**
+     * Count events of type for principal, by the hour in which they were created,
+     * for events created in or after the hour of the given date.
+     * Hours are keyed by their start in UTC; hours without events are left out.
+     * By default, the events are loaded and counted; repositories should override this
+     * to count events where they are stored.
+     *
+     * @param type      the type
+     * @param principal the principal
+     * @param dateTime  the date time
+     * @return the count of events by hour
+     */
+    default SortedMap<ZonedDateTime, Long> countEventsOfTypeForPrincipal(final String type, final String principal,
+                                                                         final ZonedDateTime dateTime) {
+        final ZonedDateTime hour = dateTime.withZoneSameInstant(ZoneOffset.UTC).truncatedTo(ChronoUnit.HOURS);
+        return getEventsOfTypeForPrincipal(type, principal, hour).stream()
+                .collect(Collectors.groupingBy(e -> e.getCreationTime().withZoneSameInstant(ZoneOffset.UTC).truncatedTo(ChronoUnit.HOURS),
+                        TreeMap::new, Collectors.counting()));
+    }
 }
@@ -12,11 +12,14 @@ import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.JoinColumn;
 import javax.persistence.MapKeyColumn;
 import javax.persistence.Table;
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
+import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
 import java.util.HashMap;
 import java.util.Map;
@@ -28,7 +31,9 @@ import java.util.Map;
  * @since 5.0.0
  */
 @Entity
-@Table(name = "CasEvent")
+@Table(name = "CasEvent", indexes = {
+        @Index(name = "IDX_CASEVENT_PRINCIPAL_TYPE_TIME", columnList = "principalId,type,creationTime"),
+        @Index(name = "IDX_CASEVENT_TYPE_TIME", columnList = "type,creationTime")})
 public class CasEvent {
 
     @Id
@@ -41,6 +46,9 @@ public class CasEvent {
     @Column(length = 255, updatable = true, insertable = true, nullable = false)
     private String principalId;
 
+    @Column(name = "creationTime")
+    private Instant creationTime;
+
     @ElementCollection
     @MapKeyColumn(name = "name")
     @Column(name = "value")
@@ -79,6 +87,8 @@ public class CasEvent {
      */
     public void putCreationTime(final Object time) {
         put("creationTime", time.toString());
+        final ZonedDateTime dt = parseCreationTime();
+        this.creationTime = dt == null ? null : dt.toInstant();
     }
 
     /**
@@ -121,17 +131,16 @@ public class CasEvent {
      * Gets creation time. Attempts to parse the value
      * as a {@link ZonedDateTime}. Otherwise, assumes a
      * {@link LocalDateTime} and converts it based on system's
-     * default zone.
+     * default zone. If the event carries its typed creation time only,
+     * as when it is loaded without its properties, that is returned in UTC.
      *
-     * @return the creation time
+     * @return the creation time, or null if the event carries none that can be parsed
      */
     public ZonedDateTime getCreationTime() {
-        final ZonedDateTime dt = DateTimeUtils.zonedDateTimeOf(get("creationTime"));
-        if (dt != null) {
-            return dt;
+        if (get("creationTime") == null && this.creationTime != null) {
+            return ZonedDateTime.ofInstant(this.creationTime, ZoneOffset.UTC);
         }
-        final LocalDateTime lt = DateTimeUtils.localDateTimeOf(get("creationTime"));
-        return DateTimeUtils.zonedDateTimeOf(lt.atZone(ZoneId.systemDefault()));
+        return parseCreationTime();
     }
 
     public Long getTimestamp() {
@@ -255,4 +264,13 @@ public class CasEvent {
         request.setLatitude(get("geoLatitude"));
         return request;
     }
+
+    private ZonedDateTime parseCreationTime() {
+        final ZonedDateTime dt = DateTimeUtils.zonedDateTimeOf(get("creationTime"));
+        if (dt != null) {
+            return dt;
+        }
+        final LocalDateTime lt = DateTimeUtils.localDateTimeOf(get("creationTime"));
+        return lt == null ? null : DateTimeUtils.zonedDateTimeOf(lt.atZone(ZoneId.systemDefault()));
+    }
 }
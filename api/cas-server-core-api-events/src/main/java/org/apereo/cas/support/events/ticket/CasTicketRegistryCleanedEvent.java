@@ -0,0 +1,69 @@
+package org.apereo.cas.support.events.ticket;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.apereo.cas.support.events.AbstractCasEvent;
+
+/**
+ * This is {@link CasTicketRegistryCleanedEvent} that is signaled
+ * when a run of the ticket registry cleaner completes, carrying the
+ * metrics of that run.
+ *
+ * @author Misagh Moayyed
+ * @since 5.1.0
+ */
+public class CasTicketRegistryCleanedEvent extends AbstractCasEvent {
+
+    private static final long serialVersionUID = -3614781325413046251L;
+
+    private final long scanned;
+
+    private final long removed;
+
+    private final long duration;
+
+    private final long backlog;
+
+    /**
+     * Instantiates a new cas ticket registry cleaned event.
+     *
+     * @param source   the source
+     * @param scanned  the number of tickets examined
+     * @param removed  the number of tickets removed, including children
+     * @param duration the duration of the run in milliseconds
+     * @param backlog  the number of expired tickets found but left for the next run
+     */
+    public CasTicketRegistryCleanedEvent(final Object source, final long scanned, final long removed,
+                                         final long duration, final long backlog) {
+        super(source);
+        this.scanned = scanned;
+        this.removed = removed;
+        this.duration = duration;
+        this.backlog = backlog;
+    }
+
+    public long getScanned() {
+        return this.scanned;
+    }
+
+    public long getRemoved() {
+        return this.removed;
+    }
+
+    public long getDuration() {
+        return this.duration;
+    }
+
+    public long getBacklog() {
+        return this.backlog;
+    }
+
+    @Override
+    public String toString() {
+        return new ToStringBuilder(this)
+                .append("scanned", this.scanned)
+                .append("removed", this.removed)
+                .append("duration", this.duration)
+                .append("backlog", this.backlog)
+                .toString();
+    }
+}
@@ -0,0 +1,55 @@
+package org.apereo.cas.ticket.registry;
+
+import org.apereo.cas.ticket.Ticket;
+
+import java.util.Collection;
+
+/**
+ * A page of expired tickets collected from a {@link TicketRegistry}, along with
+ * the number of tickets that were examined to find them and the cursor from which
+ * the next page should be collected.
+ *
+ * @author Misagh Moayyed
+ * @since 5.1.0
+ */
+public class ExpiredTicketPage {
+
+    private final Collection<Ticket> tickets;
+
+    private final long scanned;
+
+    private final String nextCursor;
+
+    public ExpiredTicketPage(final Collection<Ticket> tickets, final long scanned, final String nextCursor) {
+        this.tickets = tickets;
+        this.scanned = scanned;
+        this.nextCursor = nextCursor;
+    }
+
+    public Collection<Ticket> getTickets() {
+        return this.tickets;
+    }
+
+    public long getScanned() {
+        return this.scanned;
+    }
+
+    /**
+     * Gets the cursor to pass back to the registry to collect the next page.
+     *
+     * @return the cursor, or null if the registry has been examined entirely
+     * and the next page should start over.
+     */
+    public String getNextCursor() {
+        return this.nextCursor;
+    }
+
+    /**
+     * Indicates whether this page completes a pass over the registry.
+     *
+     * @return true/false
+     */
+    public boolean isLast() {
+        return this.nextCursor == null;
+    }
+}
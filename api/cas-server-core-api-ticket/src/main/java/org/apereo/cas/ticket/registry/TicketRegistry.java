@@ -1,6 +1,9 @@
 package org.apereo.cas.ticket.registry;
 
 import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.apereo.cas.ticket.Ticket;
 
@@ -23,6 +26,19 @@ public interface TicketRegistry {
      */
     void addTicket(Ticket ticket);
 
+    /**
+     * Add a ticket to the registry along with the parent ticket that granted it, and
+     * that has since been updated to keep track of it. Registries that are able to batch
+     * writes should override this to store both tickets in a single round trip.
+     *
+     * @param ticket the ticket to add
+     * @param parent the updated parent ticket
+     */
+    default void addTicketAndUpdateParent(final Ticket ticket, final Ticket parent) {
+        updateTicket(parent);
+        addTicket(ticket);
+    }
+
     /**
      * Retrieve a ticket from the registry. If the ticket retrieved does not
      * match the expected class, an InvalidTicketException is thrown.
@@ -65,6 +81,68 @@ public interface TicketRegistry {
      */
     Collection<Ticket> getTickets();
 
+    /**
+     * Stream the tickets in the registry. Tickets are fetched from the underlying store
+     * as the stream is consumed, rather than collected up front, so that large registries
+     * can be walked without holding every ticket in memory. The stream may hold on to
+     * resources of the underlying store, and should be closed once consumed.
+     *
+     * @return the stream of tickets. Tickets might or might not be valid i.e. expired.
+     */
+    default Stream<Ticket> stream() {
+        return stream(Ticket.class, false);
+    }
+
+    /**
+     * Stream the tickets in the registry that are of the given type, and optionally only those that are expired.
+     * Registries should override this to walk the underlying store natively as the stream is consumed,
+     * and to push the type and expiration filters down to the store where possible.
+     * The stream may hold on to resources of the underlying store, and should be closed once consumed.
+     *
+     * @param <T>         the ticket type
+     * @param type        the type of tickets to stream
+     * @param expiredOnly whether only expired tickets should be streamed
+     * @return the stream of tickets
+     */
+    default <T extends Ticket> Stream<T> stream(final Class<T> type, final boolean expiredOnly) {
+        return getTickets().stream()
+                .filter(type::isInstance)
+                .map(type::cast)
+                .filter(ticket -> !expiredOnly || ticket.isExpired());
+    }
+
+    /**
+     * Retrieve the tickets from the registry that are expired.
+     * Registries that are able to track or query ticket expiration should override this
+     * to avoid examining every ticket in the registry.
+     *
+     * @return collection of expired tickets currently stored in the registry.
+     */
+    default Collection<Ticket> getExpiredTickets() {
+        return getTickets().stream().filter(Ticket::isExpired).collect(Collectors.toList());
+    }
+
+    /**
+     * Retrieve a page of the tickets from the registry that are expired, resuming from the cursor
+     * handed out with the previous page. Expired tickets are expected to be removed once collected, so
+     * registries that cannot resume from a cursor may simply start over with each page.
+     * Registries that are able to query ticket expiration should override this to push the filter down
+     * to the underlying store and bound the number of tickets examined per page.
+     * <p>
+     * Registries that cannot do so examine every ticket in the registry to find the expired ones. Rather than
+     * repeating that scan for every page, the default implementation scans the registry once and returns all
+     * expired tickets in a single, last page, regardless of the limit.
+     *
+     * @param cursor the cursor of the previous page, or null to start from the beginning
+     * @param limit  maximum number of expired tickets to collect
+     * @return the page of expired tickets
+     */
+    default ExpiredTicketPage getExpiredTickets(final String cursor, final int limit) {
+        final Collection<Ticket> tickets = getTickets();
+        final List<Ticket> expired = tickets.stream().filter(Ticket::isExpired).collect(Collectors.toList());
+        return new ExpiredTicketPage(expired, tickets.size(), null);
+    }
+
     /**
      * Update the received ticket.
      *
@@ -0,0 +1,31 @@
+package org.apereo.cas.ticket.registry;
+
+import org.apereo.cas.ticket.Ticket;
+
+/**
+ * Strategy that turns tickets into bytes and back, used by ticket registries
+ * that store tickets in encoded form, i.e. when ticket encryption is turned on.
+ * Implementations are expected to be thread-safe, and to tag what they write so that
+ * tickets written by an older version of the format can still be read or recognized.
+ *
+ * @author Misagh Moayyed
+ * @since 5.1.0
+ */
+public interface TicketSerializer {
+
+    /**
+     * Serialize the ticket.
+     *
+     * @param ticket the ticket
+     * @return the serialized ticket
+     */
+    byte[] serialize(Ticket ticket);
+
+    /**
+     * Deserialize the ticket.
+     *
+     * @param data the serialized ticket
+     * @return the ticket
+     */
+    Ticket deserialize(byte[] data);
+}
@@ -289,7 +289,12 @@ public abstract class AbstractPrincipalAttributesRepository implements Principal
         this.attributeRepository = attributeRepository;
     }
 
-    private IPersonAttributeDao getAttributeRepository() {
+    /**
+     * Gets the attribute repository, which is by default the one defined in the application context.
+     *
+     * @return the attribute repository
+     */
+    protected IPersonAttributeDao getAttributeRepository() {
         if (this.attributeRepository == null) {
             final ApplicationContext context = ApplicationContextProvider.getApplicationContext();
             if (context != null) {
@@ -1,13 +1,13 @@
 package org.apereo.cas.authentication.principal.cache;
 
-import com.google.common.cache.Cache;
-import com.google.common.cache.CacheBuilder;
-import com.google.common.cache.CacheLoader;
 import org.apereo.cas.authentication.principal.Principal;
+import org.apereo.cas.util.spring.ApplicationContextProvider;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationContext;
 
 import java.io.IOException;
+import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
 import java.util.concurrent.TimeUnit;
@@ -15,6 +15,11 @@ import java.util.concurrent.TimeUnit;
 /**
  * Wrapper around an attribute repository where attributes cached for a configurable period
  * based on google guava's caching library.
+ * <p>
+ * Attributes retrieved from the attribute repository are kept in the {@link PrincipalAttributesCache}
+ * that is shared by all instances, and are reloaded from the repository once they are older
+ * than the expiration of this instance. Merging with the attributes of the principal happens on every call.
+ *
  * @author Misagh Moayyed
  * @since 4.2
  */
@@ -23,11 +28,11 @@ public class CachingPrincipalAttributesRepository extends AbstractPrincipalAttri
     private static final long DEFAULT_MAXIMUM_CACHE_SIZE = 1000;
 
     private static final Logger LOGGER = LoggerFactory.getLogger(CachingPrincipalAttributesRepository.class);
-    
-    private transient Cache<String, Map<String, Object>> cache;
-    private transient PrincipalAttributesCacheLoader cacheLoader =
-            new PrincipalAttributesCacheLoader();
 
+    /**
+     * Kept for compatibility with existing service definitions;
+     * the size of the shared cache is set by {@link PrincipalAttributesCache}.
+     */
     private long maxCacheSize = DEFAULT_MAXIMUM_CACHE_SIZE;
 
     /**
@@ -35,8 +40,6 @@ public class CachingPrincipalAttributesRepository extends AbstractPrincipalAttri
      */
     private CachingPrincipalAttributesRepository() {
         super();
-        this.cache = CacheBuilder.newBuilder().maximumSize(this.maxCacheSize)
-                .expireAfterWrite(getExpiration(), TimeUnit.valueOf(getTimeUnit())).build(this.cacheLoader);
     }
 
     /**
@@ -60,39 +63,33 @@ public class CachingPrincipalAttributesRepository extends AbstractPrincipalAttri
                                                 final long expiryDuration) {
         super(expiryDuration, timeUnit);
         this.maxCacheSize = maxCacheSize;
-
-        this.cache = CacheBuilder.newBuilder().maximumSize(maxCacheSize)
-                .expireAfterWrite(getExpiration(), TimeUnit.valueOf(getTimeUnit())).build(this.cacheLoader);
     }
 
     @Override
     protected void addPrincipalAttributes(final String id, final Map<String, Object> attributes) {
-        this.cache.put(id, attributes);
-        LOGGER.debug("Cached attributes for [{}]", id);
+        LOGGER.debug("Attributes for [{}] are cached by the shared principal attributes cache", id);
     }
 
     @Override
     protected Map<String, Object> getPrincipalAttributes(final Principal p) {
-        try {
-            return this.cache.get(p.getId(), () -> {
-                LOGGER.debug("No cached attributes could be found for [{}]", p.getId());
-                return new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
-            });
-        } catch (final Exception e) {
-            LOGGER.error(e.getMessage(), e);
-        }
-        return null;
+        return new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    }
+
+    @Override
+    protected Map<String, List<Object>> retrievePersonAttributesToPrincipalAttributes(final String id) {
+        final long expirationInMillis = TimeUnit.valueOf(getTimeUnit()).toMillis(getExpiration());
+        return getPrincipalAttributesCache().getAttributes(id, getAttributeRepository(), expirationInMillis);
     }
 
     @Override
     public void close() throws IOException {
-        this.cache.cleanUp();
     }
 
-    private static class PrincipalAttributesCacheLoader extends CacheLoader<String, Map<String, Object>> {
-        @Override
-        public Map<String, Object> load(final String key) throws Exception {
-            return new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    private static PrincipalAttributesCache getPrincipalAttributesCache() {
+        final ApplicationContext context = ApplicationContextProvider.getApplicationContext();
+        if (context != null && context.containsBean("principalAttributesCache")) {
+            return context.getBean("principalAttributesCache", PrincipalAttributesCache.class);
         }
+        return PrincipalAttributesCache.getInstance();
     }
 }
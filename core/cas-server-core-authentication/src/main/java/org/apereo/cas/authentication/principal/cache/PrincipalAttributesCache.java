@@ -0,0 +1,210 @@
+package org.apereo.cas.authentication.principal.cache;
+
+import com.codahale.metrics.annotation.Gauge;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import org.apache.commons.lang3.builder.EqualsBuilder;
+import org.apache.commons.lang3.builder.HashCodeBuilder;
+import org.apereo.services.persondir.IPersonAttributeDao;
+import org.apereo.services.persondir.IPersonAttributes;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This is {@link PrincipalAttributesCache} that holds the attributes retrieved for principals from attribute repositories,
+ * shared by all {@link CachingPrincipalAttributesRepository} instances so that a principal's attributes
+ * are kept once per attribute repository rather than once per service.
+ * <p>
+ * Entries are keyed by the principal id and the attribute repository that is consulted, and are compared by equality.
+ * Each entry remembers when it was loaded, so that every caller may decide on its own expiration.
+ * Entries that are read after the refresh interval are reloaded in the background on the given executor,
+ * while the current attributes continue to be returned. Empty results are not cached, and a background reload
+ * that finds no attributes keeps the attributes that were loaded before, until they expire for the caller.
+ * The number of hits and misses are exposed as gauges.
+ *
+ * @author Misagh Moayyed
+ * @since 5.1.0
+ */
+public class PrincipalAttributesCache {
+    private static final Logger LOGGER = LoggerFactory.getLogger(PrincipalAttributesCache.class);
+
+    private static final long DEFAULT_MAXIMUM_SIZE = 10_000;
+
+    private static final int DEFAULT_CONCURRENCY_LEVEL = 16;
+
+    private static final long DEFAULT_REFRESH_AFTER_WRITE_IN_MINUTES = 5;
+
+    private static final long DEFAULT_EXPIRE_AFTER_ACCESS_IN_MINUTES = 120;
+
+    private static final PrincipalAttributesCache INSTANCE = new PrincipalAttributesCache(DEFAULT_MAXIMUM_SIZE, DEFAULT_CONCURRENCY_LEVEL,
+            TimeUnit.MINUTES.toMillis(DEFAULT_REFRESH_AFTER_WRITE_IN_MINUTES), TimeUnit.MINUTES.toMillis(DEFAULT_EXPIRE_AFTER_ACCESS_IN_MINUTES),
+            MoreExecutors.directExecutor());
+
+    private final LoadingCache<Key, CachedAttributes> cache;
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * Instantiates a new principal attributes cache.
+     *
+     * @param maximumSize                 the maximum number of entries
+     * @param concurrencyLevel            the number of concurrent writers to allow for
+     * @param refreshAfterWriteInMillis   the age after which entries are reloaded in the background
+     * @param expireAfterAccessInMillis   the time after which entries that are not read are removed
+     * @param executor                    the executor to reload entries on
+     */
+    public PrincipalAttributesCache(final long maximumSize, final int concurrencyLevel, final long refreshAfterWriteInMillis,
+                                    final long expireAfterAccessInMillis, final Executor executor) {
+        this.cache = CacheBuilder.newBuilder()
+                .maximumSize(maximumSize)
+                .concurrencyLevel(concurrencyLevel)
+                .refreshAfterWrite(refreshAfterWriteInMillis, TimeUnit.MILLISECONDS)
+                .expireAfterAccess(expireAfterAccessInMillis, TimeUnit.MILLISECONDS)
+                .build(CacheLoader.asyncReloading(new CacheLoader<Key, CachedAttributes>() {
+                    @Override
+                    public CachedAttributes load(final Key key) throws Exception {
+                        return loadAttributes(key);
+                    }
+
+                    @Override
+                    public ListenableFuture<CachedAttributes> reload(final Key key, final CachedAttributes oldValue) throws Exception {
+                        return Futures.immediateFuture(reloadAttributes(key, oldValue));
+                    }
+                }, executor));
+    }
+
+    /**
+     * Gets the cache used when none is defined in the application context.
+     *
+     * @return the instance
+     */
+    public static PrincipalAttributesCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Gets the attributes of a principal from the given attribute repository,
+     * loading them if they are not cached or were loaded longer ago than the given expiration.
+     *
+     * @param id                  the principal id
+     * @param attributeRepository the attribute repository
+     * @param expirationInMillis  the expiration
+     * @return the attributes, or an empty map if the principal has no attributes
+     */
+    public Map<String, List<Object>> getAttributes(final String id, final IPersonAttributeDao attributeRepository,
+                                                   final long expirationInMillis) {
+        final Key key = new Key(id, attributeRepository);
+        final CachedAttributes cached = this.cache.getIfPresent(key);
+        if (cached != null && System.currentTimeMillis() - cached.loadedAt < expirationInMillis) {
+            this.hits.increment();
+            return cached.attributes;
+        }
+
+        this.misses.increment();
+        if (cached != null) {
+            this.cache.invalidate(key);
+        }
+        final CachedAttributes loaded = this.cache.getUnchecked(key);
+        if (loaded.attributes.isEmpty()) {
+            this.cache.invalidate(key);
+        }
+        return loaded.attributes;
+    }
+
+    /**
+     * Remove all cached attributes.
+     */
+    public void invalidateAll() {
+        this.cache.invalidateAll();
+    }
+
+    @Gauge(name = "hits")
+    public long getHits() {
+        return this.hits.sum();
+    }
+
+    @Gauge(name = "misses")
+    public long getMisses() {
+        return this.misses.sum();
+    }
+
+    @Gauge(name = "size")
+    public long getSize() {
+        return this.cache.size();
+    }
+
+    private static CachedAttributes loadAttributes(final Key key) {
+        LOGGER.debug("Retrieving attributes for [{}] from [{}]", key.id, key.attributeRepository);
+        final IPersonAttributes person = key.attributeRepository.getPerson(key.id);
+        if (person == null || person.getAttributes() == null) {
+            LOGGER.debug("Could not find attributes for principal [{}] in the repository", key.id);
+            return new CachedAttributes(Collections.emptyMap());
+        }
+        return new CachedAttributes(Collections.unmodifiableMap(new LinkedHashMap<>(person.getAttributes())));
+    }
+
+    private static CachedAttributes reloadAttributes(final Key key, final CachedAttributes oldValue) {
+        final CachedAttributes reloaded = loadAttributes(key);
+        if (reloaded.attributes.isEmpty() && !oldValue.attributes.isEmpty()) {
+            LOGGER.debug("No attributes were reloaded for [{}] from [{}]; keeping the attributes loaded before", key.id, key.attributeRepository);
+            return oldValue;
+        }
+        return reloaded;
+    }
+
+    private static class Key {
+        private final String id;
+        private final IPersonAttributeDao attributeRepository;
+
+        Key(final String id, final IPersonAttributeDao attributeRepository) {
+            this.id = id;
+            this.attributeRepository = attributeRepository;
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (obj == this) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            final Key rhs = (Key) obj;
+            return new EqualsBuilder()
+                    .append(this.id, rhs.id)
+                    .append(this.attributeRepository, rhs.attributeRepository)
+                    .isEquals();
+        }
+
+        @Override
+        public int hashCode() {
+            return new HashCodeBuilder()
+                    .append(this.id)
+                    .append(this.attributeRepository)
+                    .toHashCode();
+        }
+    }
+
+    private static class CachedAttributes {
+        private final long loadedAt = System.currentTimeMillis();
+        private final Map<String, List<Object>> attributes;
+
+        CachedAttributes(final Map<String, List<Object>> attributes) {
+            this.attributes = attributes;
+        }
+    }
+}
@@ -1,14 +1,17 @@
 package org.apereo.cas.config;
 
+import com.codahale.metrics.MetricRegistry;
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
 import groovy.lang.GroovyClassLoader;
 import groovy.lang.GroovyObject;
 import org.apache.commons.collections.map.HashedMap;
 import org.apache.commons.lang3.StringUtils;
+import org.apereo.cas.authentication.principal.cache.PrincipalAttributesCache;
 import org.apereo.cas.configuration.CasConfigurationProperties;
 import org.apereo.cas.configuration.model.core.authentication.PrincipalAttributesProperties;
 import org.apereo.cas.configuration.support.Beans;
+import org.apereo.cas.persondir.support.ParallelMergingPersonAttributeDao;
 import org.apereo.cas.util.CollectionUtils;
 import org.apereo.services.persondir.IPersonAttributeDao;
 import org.apereo.services.persondir.support.BaseGroovyScriptDaoImpl;
@@ -32,8 +35,10 @@ import org.springframework.boot.context.properties.EnableConfigurationProperties
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.core.OrderComparator;
 import org.springframework.core.io.Resource;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 
 import javax.naming.directory.SearchControls;
 import java.io.File;
@@ -42,6 +47,9 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -61,6 +69,9 @@ public class CasPersonDirectoryConfiguration {
     @Autowired
     private CasConfigurationProperties casProperties;
 
+    @Autowired(required = false)
+    private MetricRegistry metricRegistry;
+
     @Bean
     public List<IPersonAttributeDao> attributeRepositories() {
         final List<IPersonAttributeDao> list = new ArrayList<>();
@@ -81,6 +92,43 @@ public class CasPersonDirectoryConfiguration {
         return composeMergedAndCachedAttributeRepositories(attributeRepositories());
     }
 
+    @Lazy
+    @Bean
+    public ExecutorService attributeRepositoryExecutorService() {
+        final PrincipalAttributesProperties.Parallel parallel = casProperties.getAuthn().getAttributeRepository().getParallel();
+        final CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("attributeRepository-");
+        threadFactory.setDaemon(true);
+        final ThreadPoolExecutor executor = new ThreadPoolExecutor(parallel.getPoolSize(), parallel.getPoolSize(),
+                1, TimeUnit.MINUTES, new LinkedBlockingQueue<>(parallel.getQueueCapacity()), threadFactory,
+                new ThreadPoolExecutor.AbortPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    @Lazy
+    @Bean
+    public ExecutorService principalAttributesCacheExecutorService() {
+        final PrincipalAttributesProperties.PrincipalCache cache = casProperties.getAuthn().getAttributeRepository().getPrincipalCache();
+        final CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("principalAttributesCache-");
+        threadFactory.setDaemon(true);
+        // refreshes are not repeated for an entry that is being refreshed, so the queue is bounded by the size of the cache
+        final ThreadPoolExecutor executor = new ThreadPoolExecutor(cache.getRefreshPoolSize(), cache.getRefreshPoolSize(),
+                1, TimeUnit.MINUTES, new LinkedBlockingQueue<>(), threadFactory);
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    @ConditionalOnMissingBean(name = "principalAttributesCache")
+    @Bean
+    public PrincipalAttributesCache principalAttributesCache() {
+        final PrincipalAttributesProperties attrs = casProperties.getAuthn().getAttributeRepository();
+        final PrincipalAttributesProperties.PrincipalCache cache = attrs.getPrincipalCache();
+        return new PrincipalAttributesCache(cache.getMaximumSize(), attrs.getCacheConcurrencyLevel(),
+                TimeUnit.MINUTES.toMillis(cache.getRefreshAfterWriteInMinutes()),
+                TimeUnit.MINUTES.toMillis(cache.getExpireAfterAccessInMinutes()),
+                principalAttributesCacheExecutorService());
+    }
+
     private void addJsonAttributeRepository(final List<IPersonAttributeDao> list) {
         casProperties.getAuthn().getAttributeRepository().getJson().forEach(json -> {
             final Resource r = json.getConfig().getLocation();
@@ -107,7 +155,7 @@ public class CasPersonDirectoryConfiguration {
     }
 
     private IPersonAttributeDao composeMergedAndCachedAttributeRepositories(final List<IPersonAttributeDao> list) {
-        final MergingPersonAttributeDaoImpl mergingDao = new MergingPersonAttributeDaoImpl();
+        final MergingPersonAttributeDaoImpl mergingDao = newMergingPersonAttributeDao();
 
         final String merger = StringUtils.defaultIfBlank(casProperties.getAuthn().getAttributeRepository().getMerger(), "replace".trim());
         LOGGER.debug("Configured merging strategy for attribute sources is [{}]", merger);
@@ -128,8 +176,7 @@ public class CasPersonDirectoryConfiguration {
         impl.setCacheNullResults(false);
 
         final Cache graphs = CacheBuilder.newBuilder()
-                .concurrencyLevel(2)
-                .weakKeys()
+                .concurrencyLevel(casProperties.getAuthn().getAttributeRepository().getCacheConcurrencyLevel())
                 .maximumSize(casProperties.getAuthn().getAttributeRepository().getMaximumCacheSize())
                 .expireAfterWrite(casProperties.getAuthn().getAttributeRepository().getExpireInMinutes(), TimeUnit.MINUTES)
                 .build();
@@ -147,6 +194,21 @@ public class CasPersonDirectoryConfiguration {
         return impl;
     }
 
+    private MergingPersonAttributeDaoImpl newMergingPersonAttributeDao() {
+        final PrincipalAttributesProperties.Parallel parallel = casProperties.getAuthn().getAttributeRepository().getParallel();
+        if (!parallel.isEnabled()) {
+            return new MergingPersonAttributeDaoImpl();
+        }
+        LOGGER.debug("Attribute sources will be queried in parallel, waiting up to [{}] ms", parallel.getTimeoutInMillis());
+        if (this.metricRegistry == null) {
+            LOGGER.info("No metric registry is available; the time taken by each attribute source will not be recorded");
+        }
+        final ParallelMergingPersonAttributeDao dao = new ParallelMergingPersonAttributeDao(attributeRepositoryExecutorService(),
+                parallel.getTimeoutInMillis(), this.metricRegistry);
+        dao.setRecoverExceptions(parallel.isRecoverExceptions());
+        return dao;
+    }
+
     private void addGrouperAttributeRepository(final List<IPersonAttributeDao> list) {
         final PrincipalAttributesProperties.Grouper gp = casProperties.getAuthn().getAttributeRepository().getGrouper();
 
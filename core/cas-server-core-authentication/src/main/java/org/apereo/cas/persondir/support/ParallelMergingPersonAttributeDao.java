@@ -0,0 +1,129 @@
+package org.apereo.cas.persondir.support;
+
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import org.apereo.services.persondir.IPersonAttributeDao;
+import org.apereo.services.persondir.IPersonAttributes;
+import org.apereo.services.persondir.support.MergingPersonAttributeDaoImpl;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * This is {@link ParallelMergingPersonAttributeDao} that queries its attribute sources concurrently
+ * on the given executor, rather than one after another, so that a lookup takes as long as the slowest source
+ * instead of the sum of all sources.
+ * <p>
+ * Results are merged in the order of the sources, as they would be when sources are queried in sequence,
+ * so the configured merger applies in the same way. A source that does not answer within the timeout is cancelled.
+ * Sources that fail or time out are left out of the result if exceptions are recovered, and otherwise fail the lookup.
+ * Sources that the executor rejects, once its threads are busy and its queue is full, are failed in the same way,
+ * so that no source is ever queried on the thread performing the lookup without regard to the timeout.
+ * The time taken by each source is recorded in a timer of the given metric registry, if any.
+ * Sources are queried in sequence when the lookup is to stop on the first successful source.
+ *
+ * @author Misagh Moayyed
+ * @since 5.1.0
+ */
+public class ParallelMergingPersonAttributeDao extends MergingPersonAttributeDaoImpl {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ParallelMergingPersonAttributeDao.class);
+
+    private final ExecutorService executorService;
+
+    private final long timeoutInMillis;
+
+    private final MetricRegistry metricRegistry;
+
+    public ParallelMergingPersonAttributeDao(final ExecutorService executorService, final long timeoutInMillis,
+                                             final MetricRegistry metricRegistry) {
+        this.executorService = executorService;
+        this.timeoutInMillis = timeoutInMillis;
+        this.metricRegistry = metricRegistry;
+    }
+
+    @Override
+    public Set<IPersonAttributes> getPeopleWithMultivaluedAttributes(final Map<String, List<Object>> query) {
+        final List<IPersonAttributeDao> daos = getPersonAttributeDaos();
+        if (isStopOnSuccess() || daos == null || daos.size() <= 1) {
+            return super.getPeopleWithMultivaluedAttributes(query);
+        }
+
+        final List<Future<Set<IPersonAttributes>>> futures = new ArrayList<>(daos.size());
+        for (int i = 0; i < daos.size(); i++) {
+            futures.add(submit(query, daos.get(i), i));
+        }
+
+        final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(this.timeoutInMillis);
+        Set<IPersonAttributes> resultPeople = null;
+        try {
+            for (int i = 0; i < daos.size(); i++) {
+                final Set<IPersonAttributes> results = getResults(daos.get(i), futures.get(i), deadline);
+                if (results != null) {
+                    resultPeople = resultPeople == null ? new LinkedHashSet<>(results) : getMerger().mergeResults(resultPeople, results);
+                }
+            }
+        } catch (final RuntimeException e) {
+            futures.forEach(future -> future.cancel(true));
+            throw e;
+        }
+        LOGGER.debug("Aggregated search results [{}] for query [{}]", resultPeople, query);
+        return resultPeople == null ? null : Collections.unmodifiableSet(resultPeople);
+    }
+
+    private Future<Set<IPersonAttributes>> submit(final Map<String, List<Object>> query, final IPersonAttributeDao dao, final int index) {
+        try {
+            if (this.metricRegistry == null) {
+                return this.executorService.submit(() -> getAttributesFromDao(query, true, dao, null));
+            }
+            final Timer timer = this.metricRegistry.timer(MetricRegistry.name(getClass(), String.valueOf(index), dao.getClass().getSimpleName()));
+            return this.executorService.submit(() -> {
+                try (Timer.Context context = timer.time()) {
+                    return getAttributesFromDao(query, true, dao, null);
+                }
+            });
+        } catch (final RejectedExecutionException e) {
+            final CompletableFuture<Set<IPersonAttributes>> rejected = new CompletableFuture<>();
+            rejected.completeExceptionally(new IllegalStateException("Query of " + dao + " was rejected by the executor", e));
+            return rejected;
+        }
+    }
+
+    private Set<IPersonAttributes> getResults(final IPersonAttributeDao dao, final Future<Set<IPersonAttributes>> future,
+                                              final long deadline) {
+        try {
+            return future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (final TimeoutException e) {
+            future.cancel(true);
+            return handleFailure(dao, new IllegalStateException("Timed out after " + this.timeoutInMillis + " ms waiting for " + dao, e));
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            return handleFailure(dao, new IllegalStateException("Interrupted while waiting for " + dao, e));
+        } catch (final ExecutionException e) {
+            final Throwable cause = e.getCause();
+            return handleFailure(dao, cause instanceof RuntimeException ? (RuntimeException) cause : new IllegalStateException(cause));
+        }
+    }
+
+    private Set<IPersonAttributes> handleFailure(final IPersonAttributeDao dao, final RuntimeException e) {
+        if (isRecoverExceptions()) {
+            LOGGER.warn("Recovering from exception thrown by [{}]: [{}]", dao, e.getMessage(), e);
+            return null;
+        }
+        LOGGER.error("Failing from exception thrown by [{}]: [{}]", dao, e.getMessage(), e);
+        throw e;
+    }
+}
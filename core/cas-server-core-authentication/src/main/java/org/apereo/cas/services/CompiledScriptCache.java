@@ -0,0 +1,235 @@
+package org.apereo.cas.services;
+
+import com.codahale.metrics.annotation.Gauge;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import groovy.lang.Binding;
+import groovy.lang.GroovyClassLoader;
+import groovy.lang.GroovyObject;
+import groovy.lang.Script;
+import org.codehaus.groovy.runtime.InvokerHelper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.script.Invocable;
+import javax.script.ScriptEngine;
+import javax.script.ScriptEngineManager;
+import java.io.File;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This is {@link CompiledScriptCache} that holds the compiled form of the scripts executed by attribute release policies,
+ * so that a script is compiled once rather than every time attributes are released.
+ * <p>
+ * Inline Groovy scripts are keyed by their text. Scripts in files are keyed by their path,
+ * and are compiled again once the last-modified time of the file changes.
+ * Each execution of a Groovy script gets a fresh instance of the compiled class and its own binding.
+ * JSR-223 scripts are evaluated into a script engine once, and their functions are invoked on that engine;
+ * calls are serialized unless the engine declares itself as thread-safe.
+ * The number of compilations and executions, and the time spent in them, are exposed as gauges.
+ *
+ * @author Misagh Moayyed
+ * @since 5.1.0
+ */
+public class CompiledScriptCache {
+    private static final Logger LOGGER = LoggerFactory.getLogger(CompiledScriptCache.class);
+
+    private static final CompiledScriptCache INSTANCE = new CompiledScriptCache();
+
+    private static final long DEFAULT_MAXIMUM_SIZE = 1_000;
+
+    private static final String THREADING = "THREADING";
+
+    private static final String MULTITHREADED = "MULTITHREADED";
+
+    private final Cache<String, Class<?>> groovyScripts = CacheBuilder.newBuilder().maximumSize(DEFAULT_MAXIMUM_SIZE).build();
+
+    private final Cache<String, CompiledFile<Class<?>>> groovyFiles = CacheBuilder.newBuilder().maximumSize(DEFAULT_MAXIMUM_SIZE).build();
+
+    private final Cache<String, CompiledFile<ScriptEngine>> scriptEngines = CacheBuilder.newBuilder().maximumSize(DEFAULT_MAXIMUM_SIZE).build();
+
+    private final LongAdder compilations = new LongAdder();
+
+    private final LongAdder compilationTime = new LongAdder();
+
+    private final LongAdder executions = new LongAdder();
+
+    private final LongAdder executionTime = new LongAdder();
+
+    /**
+     * Gets the cache shared by attribute release policies.
+     *
+     * @return the instance
+     */
+    public static CompiledScriptCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Evaluate an inline Groovy script with the given variables bound.
+     *
+     * @param script    the script text
+     * @param variables the variables
+     * @return the result of the script
+     * @throws Exception if the script cannot be compiled or fails
+     */
+    public Object evaluate(final String script, final Map<String, Object> variables) throws Exception {
+        final Class<?> scriptClass = this.groovyScripts.get(script, () -> compile(script, () -> newGroovyClassLoader().parseClass(script)));
+        return run(scriptClass, variables);
+    }
+
+    /**
+     * Evaluate the Groovy script in the given file with the given variables bound.
+     *
+     * @param file      the script file
+     * @param variables the variables
+     * @return the result of the script
+     * @throws Exception if the script cannot be read, compiled or fails
+     */
+    public Object evaluate(final File file, final Map<String, Object> variables) throws Exception {
+        return run(getGroovyClass(file), variables);
+    }
+
+    /**
+     * Invoke a method on a new instance of the Groovy class or script in the given file.
+     *
+     * @param file   the script file
+     * @param method the method name
+     * @param args   the arguments
+     * @return the result of the method
+     * @throws Exception if the script cannot be read, compiled or fails
+     */
+    public Object invokeMethod(final File file, final String method, final Object... args) throws Exception {
+        final GroovyObject groovyObject = (GroovyObject) getGroovyClass(file).newInstance();
+        return execute(() -> groovyObject.invokeMethod(method, args));
+    }
+
+    /**
+     * Invoke a function defined by the JSR-223 script in the given file.
+     *
+     * @param file       the script file
+     * @param engineName the name of the script engine
+     * @param function   the function name
+     * @param args       the arguments
+     * @return the result of the function, or null if no script engine is available by the given name
+     * @throws Exception if the script cannot be read, evaluated or fails
+     */
+    public Object invokeFunction(final File file, final String engineName, final String function, final Object... args) throws Exception {
+        final String key = engineName + ':' + file.getCanonicalPath();
+        final ScriptEngine engine = getCompiledFile(this.scriptEngines, key, file, () -> {
+            final ScriptEngine newEngine = new ScriptEngineManager().getEngineByName(engineName);
+            if (newEngine == null) {
+                return null;
+            }
+            try (Reader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+                newEngine.eval(reader);
+            }
+            return newEngine;
+        });
+        if (engine == null) {
+            LOGGER.warn("Script engine is not available for [{}]", engineName);
+            return null;
+        }
+        if (MULTITHREADED.equals(engine.getFactory().getParameter(THREADING))) {
+            return execute(() -> ((Invocable) engine).invokeFunction(function, args));
+        }
+        synchronized (engine) {
+            return execute(() -> ((Invocable) engine).invokeFunction(function, args));
+        }
+    }
+
+    @Gauge(name = "compilations")
+    public long getCompilations() {
+        return this.compilations.sum();
+    }
+
+    @Gauge(name = "compilationTimeInMillis")
+    public long getCompilationTimeInMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(this.compilationTime.sum());
+    }
+
+    @Gauge(name = "executions")
+    public long getExecutions() {
+        return this.executions.sum();
+    }
+
+    @Gauge(name = "executionTimeInMillis")
+    public long getExecutionTimeInMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(this.executionTime.sum());
+    }
+
+    private Class<?> getGroovyClass(final File file) throws Exception {
+        return getCompiledFile(this.groovyFiles, file.getCanonicalPath(), file, () -> newGroovyClassLoader().parseClass(file));
+    }
+
+    private <T> T getCompiledFile(final Cache<String, CompiledFile<T>> cache, final String key, final File file,
+                                  final ScriptCallable<T> compiler) throws Exception {
+        final long lastModified = file.lastModified();
+        final CompiledFile<T> compiled = cache.getIfPresent(key);
+        if (compiled != null && compiled.lastModified == lastModified) {
+            return compiled.value;
+        }
+        final T value = compile(key, compiler);
+        if (value != null) {
+            cache.put(key, new CompiledFile<>(lastModified, value));
+        }
+        return value;
+    }
+
+    private <T> T compile(final String name, final ScriptCallable<T> compiler) throws Exception {
+        LOGGER.debug("Compiling script [{}]", name);
+        final long start = System.nanoTime();
+        try {
+            return compiler.call();
+        } finally {
+            this.compilations.increment();
+            this.compilationTime.add(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Each script is compiled by a class loader of its own, so that classes of scripts
+     * that are evicted or recompiled can be unloaded.
+     *
+     * @return the class loader
+     */
+    private GroovyClassLoader newGroovyClassLoader() {
+        return new GroovyClassLoader(getClass().getClassLoader());
+    }
+
+    private Object run(final Class<?> scriptClass, final Map<String, Object> variables) throws Exception {
+        final Script script = InvokerHelper.createScript(scriptClass, new Binding(new HashMap<>(variables)));
+        return execute(script::run);
+    }
+
+    private Object execute(final ScriptCallable<Object> callable) throws Exception {
+        final long start = System.nanoTime();
+        try {
+            return callable.call();
+        } finally {
+            this.executions.increment();
+            this.executionTime.add(System.nanoTime() - start);
+        }
+    }
+
+    @FunctionalInterface
+    private interface ScriptCallable<T> {
+        T call() throws Exception;
+    }
+
+    private static class CompiledFile<T> {
+        private final long lastModified;
+        private final T value;
+
+        CompiledFile(final long lastModified, final T value) {
+            this.lastModified = lastModified;
+            this.value = value;
+        }
+    }
+}
@@ -1,8 +1,5 @@
 package org.apereo.cas.services;
 
-import groovy.lang.Binding;
-import groovy.lang.GroovyShell;
-import org.apache.commons.io.FileUtils;
 import org.apache.commons.lang3.builder.EqualsBuilder;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
 import org.apache.commons.lang3.builder.ToStringBuilder;
@@ -11,8 +8,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
-import java.io.IOException;
-import java.nio.charset.StandardCharsets;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.TreeMap;
@@ -111,18 +107,14 @@ public class ReturnMappedAttributeReleasePolicy extends AbstractRegisteredServic
     private static void processFileBasedGroovyAttributes(final Map<String, Object> resolvedAttributes,
                                                          final Map<String, Object> attributesToRelease,
                                                          final Matcher matcherFile, final Object[] entry) {
-        try {
-            LOGGER.debug("Found groovy script to execute for attribute mapping [{}]", entry[0]);
-            final String script = FileUtils.readFileToString(new File(matcherFile.group(1)), StandardCharsets.UTF_8);
-            final Object result = getGroovyAttributeValue(script, resolvedAttributes);
-            if (result != null) {
-                LOGGER.debug("Mapped attribute [{}] to [{}] from script", entry[0], result);
-                attributesToRelease.put(entry[0].toString(), result);
-            } else {
-                LOGGER.warn("Groovy-scripted attribute returned no value for [{}]", entry[0]);
-            }
-        } catch (final IOException e) {
-            LOGGER.error(e.getMessage(), e);
+        LOGGER.debug("Found groovy script to execute for attribute mapping [{}]", entry[0]);
+        final File script = new File(matcherFile.group(1));
+        final Object result = getGroovyAttributeValue(script, resolvedAttributes);
+        if (result != null) {
+            LOGGER.debug("Mapped attribute [{}] to [{}] from script", entry[0], result);
+            attributesToRelease.put(entry[0].toString(), result);
+        } else {
+            LOGGER.warn("Groovy-scripted attribute returned no value for [{}]", entry[0]);
         }
     }
 
@@ -142,11 +134,17 @@ public class ReturnMappedAttributeReleasePolicy extends AbstractRegisteredServic
     private static Object getGroovyAttributeValue(final String groovyScript,
                                                   final Map<String, Object> resolvedAttributes) {
         try {
-            final Binding binding = new Binding();
-            final GroovyShell shell = new GroovyShell(binding);
-            binding.setVariable("attributes", resolvedAttributes);
-            final Object res = shell.evaluate(groovyScript);
-            return res;
+            return CompiledScriptCache.getInstance().evaluate(groovyScript, Collections.singletonMap("attributes", resolvedAttributes));
+        } catch (final Exception e) {
+            LOGGER.error(e.getMessage(), e);
+        }
+        return null;
+    }
+
+    private static Object getGroovyAttributeValue(final File groovyScript,
+                                                  final Map<String, Object> resolvedAttributes) {
+        try {
+            return CompiledScriptCache.getInstance().evaluate(groovyScript, Collections.singletonMap("attributes", resolvedAttributes));
         } catch (final Exception e) {
             LOGGER.error(e.getMessage(), e);
         }
@@ -5,11 +5,7 @@ import org.apereo.cas.util.ResourceUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import javax.script.Invocable;
-import javax.script.ScriptEngine;
-import javax.script.ScriptEngineManager;
 import java.io.File;
-import java.io.FileReader;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -53,26 +49,23 @@ public class ScriptedRegisteredServiceAttributeReleasePolicy extends AbstractReg
                 engineName = "groovy";
             }
 
-            final ScriptEngine engine = new ScriptEngineManager().getEngineByName("python");
-            if (engine == null || StringUtils.isBlank(engineName)) {
+            if (StringUtils.isBlank(engineName)) {
                 LOGGER.warn("Script engine is not available for [{}]", engineName);
             } else {
                 final File theScriptFile = ResourceUtils.getResourceFrom(this.scriptFile).getFile();
                 if (theScriptFile.exists()) {
-
-                    LOGGER.debug("Created python object instance from class [{}]", theScriptFile.getCanonicalPath());
                     final Object[] args = {attributes, LOGGER};
+                    LOGGER.debug("Executing [{}] script [{}] run method, with parameters [{}]", engineName, theScriptFile.getCanonicalPath(), args);
 
-                    LOGGER.debug("Executing python script's run method, with parameters [{}]", args);
-
-                    engine.eval(new FileReader(theScriptFile));
-                    final Invocable invocable = (Invocable) engine;
-                    final Map<String, Object> personAttributesMap = (Map<String, Object>) invocable.invokeFunction("run", args);
-
-                    LOGGER.debug("Final set of attributes determined by the script are [{}]", personAttributesMap);
-                    return personAttributesMap;
+                    final Map<String, Object> personAttributesMap = (Map<String, Object>)
+                            CompiledScriptCache.getInstance().invokeFunction(theScriptFile, engineName, "run", args);
+                    if (personAttributesMap != null) {
+                        LOGGER.debug("Final set of attributes determined by the script are [{}]", personAttributesMap);
+                        return personAttributesMap;
+                    }
+                } else {
+                    LOGGER.warn("Script [{}] does not exist, or cannot be loaded", scriptFile);
                 }
-                LOGGER.warn("Python script [{}] does not exist, or cannot be loaded", scriptFile);
             }
         } catch (final Exception e) {
             LOGGER.error(e.getMessage(), e);
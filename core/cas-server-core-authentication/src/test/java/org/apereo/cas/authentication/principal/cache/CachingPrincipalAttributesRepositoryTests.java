@@ -2,6 +2,8 @@ package org.apereo.cas.authentication.principal.cache;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.apache.commons.io.FileUtils;
+import org.apereo.cas.authentication.principal.DefaultPrincipalFactory;
+import org.apereo.cas.authentication.principal.Principal;
 import org.apereo.cas.authentication.principal.PrincipalAttributesRepository;
 import org.junit.Test;
 
@@ -10,6 +12,7 @@ import java.io.IOException;
 import java.util.concurrent.TimeUnit;
 
 import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
 
 /**
  * Handles tests for {@link CachingPrincipalAttributesRepository}.
@@ -36,4 +39,14 @@ public class CachingPrincipalAttributesRepositoryTests extends AbstractCachingPr
 
         assertEquals(repositoryWritten, repositoryRead);
     }
+
+    @Test
+    public void verifyAttributesAreSharedAcrossRepositories() throws IOException {
+        try (AbstractPrincipalAttributesRepository first = getPrincipalAttributesRepository(TimeUnit.MINUTES.name(), 1);
+             AbstractPrincipalAttributesRepository second = getPrincipalAttributesRepository(TimeUnit.MINUTES.name(), 1)) {
+            final Principal principal = new DefaultPrincipalFactory().createPrincipal("uid");
+            assertEquals(first.getAttributes(principal), second.getAttributes(principal));
+            verify(this.dao, times(1)).getPerson("uid");
+        }
+    }
 }
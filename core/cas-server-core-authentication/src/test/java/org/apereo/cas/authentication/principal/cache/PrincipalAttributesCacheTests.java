@@ -0,0 +1,117 @@
+package org.apereo.cas.authentication.principal.cache;
+
+import com.google.common.util.concurrent.MoreExecutors;
+import org.apereo.services.persondir.IPersonAttributeDao;
+import org.apereo.services.persondir.IPersonAttributes;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * This is {@link PrincipalAttributesCacheTests}.
+ *
+ * @author Misagh Moayyed
+ * @since 5.1.0
+ */
+public class PrincipalAttributesCacheTests {
+    private static final String UID = "uid";
+
+    private static final long MAXIMUM_SIZE = 100;
+
+    private static final int CONCURRENCY_LEVEL = 4;
+
+    private static final long REFRESH = 100;
+
+    private static final long EXPIRATION = TimeUnit.MINUTES.toMillis(1);
+
+    private final Map<String, List<Object>> attributes = new HashMap<>();
+
+    private IPersonAttributeDao dao;
+
+    @Before
+    public void setUp() {
+        this.attributes.put("mail", Collections.singletonList("casuser@example.org"));
+        this.dao = mock(IPersonAttributeDao.class);
+        final IPersonAttributes person = mock(IPersonAttributes.class);
+        when(person.getAttributes()).thenReturn(this.attributes);
+        when(this.dao.getPerson(UID)).thenReturn(person);
+    }
+
+    @Test
+    public void verifyAttributesAreSharedByPrincipalAndRepository() {
+        final PrincipalAttributesCache cache = newCache(EXPIRATION);
+        assertEquals(this.attributes, cache.getAttributes(UID, this.dao, EXPIRATION));
+        assertEquals(this.attributes, cache.getAttributes(new String(UID), this.dao, EXPIRATION));
+        verify(this.dao, times(1)).getPerson(UID);
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+
+        final IPersonAttributeDao other = mock(IPersonAttributeDao.class);
+        assertTrue(cache.getAttributes(UID, other, EXPIRATION).isEmpty());
+        verify(other, times(1)).getPerson(UID);
+    }
+
+    @Test
+    public void verifyAttributesOlderThanExpirationAreLoadedAgain() throws Exception {
+        final PrincipalAttributesCache cache = newCache(EXPIRATION);
+        cache.getAttributes(UID, this.dao, EXPIRATION);
+        Thread.sleep(REFRESH);
+        this.attributes.put("cn", Collections.singletonList("CAS"));
+
+        assertTrue(cache.getAttributes(UID, this.dao, EXPIRATION).containsKey("mail"));
+        assertFalse(cache.getAttributes(UID, this.dao, EXPIRATION).containsKey("cn"));
+        assertTrue(cache.getAttributes(UID, this.dao, REFRESH / 2).containsKey("cn"));
+        verify(this.dao, times(2)).getPerson(UID);
+        assertEquals(2, cache.getMisses());
+    }
+
+    @Test
+    public void verifyAttributesAreRefreshedAfterWrite() throws Exception {
+        final PrincipalAttributesCache cache = newCache(REFRESH);
+        cache.getAttributes(UID, this.dao, EXPIRATION);
+        Thread.sleep(REFRESH * 2);
+        this.attributes.put("cn", Collections.singletonList("CAS"));
+
+        cache.getAttributes(UID, this.dao, EXPIRATION);
+        assertTrue(cache.getAttributes(UID, this.dao, EXPIRATION).containsKey("cn"));
+        verify(this.dao, times(2)).getPerson(UID);
+        assertEquals(1, cache.getMisses());
+        assertEquals(2, cache.getHits());
+    }
+
+    @Test
+    public void verifyEmptyAttributesDoNotReplaceRefreshedAttributes() throws Exception {
+        final PrincipalAttributesCache cache = newCache(REFRESH);
+        cache.getAttributes(UID, this.dao, EXPIRATION);
+        Thread.sleep(REFRESH * 2);
+        when(this.dao.getPerson(UID)).thenReturn(null);
+
+        assertEquals(this.attributes, cache.getAttributes(UID, this.dao, EXPIRATION));
+        assertEquals(this.attributes, cache.getAttributes(UID, this.dao, EXPIRATION));
+        verify(this.dao, times(2)).getPerson(UID);
+        assertEquals(1, cache.getSize());
+    }
+
+    @Test
+    public void verifyEmptyAttributesAreNotCached() {
+        final PrincipalAttributesCache cache = newCache(EXPIRATION);
+        final IPersonAttributeDao empty = mock(IPersonAttributeDao.class);
+        cache.getAttributes(UID, empty, EXPIRATION);
+        cache.getAttributes(UID, empty, EXPIRATION);
+        verify(empty, times(2)).getPerson(UID);
+        assertEquals(0, cache.getSize());
+    }
+
+    private static PrincipalAttributesCache newCache(final long refreshAfterWriteInMillis) {
+        return new PrincipalAttributesCache(MAXIMUM_SIZE, CONCURRENCY_LEVEL, refreshAfterWriteInMillis, EXPIRATION,
+                MoreExecutors.directExecutor());
+    }
+}
@@ -0,0 +1,160 @@
+package org.apereo.cas.persondir.support;
+
+import com.codahale.metrics.MetricRegistry;
+import org.apereo.services.persondir.IPersonAttributeDao;
+import org.apereo.services.persondir.IPersonAttributes;
+import org.apereo.services.persondir.support.StubPersonAttributeDao;
+import org.apereo.services.persondir.support.merger.ReplacingAttributeAdder;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * This is {@link ParallelMergingPersonAttributeDaoTests}.
+ *
+ * @author Misagh Moayyed
+ * @since 5.1.0
+ */
+public class ParallelMergingPersonAttributeDaoTests {
+    private static final Map<String, List<Object>> QUERY = Collections.singletonMap("username", Collections.singletonList("casuser"));
+
+    private static final long TIMEOUT = 2_000;
+
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
+    private final ExecutorService executorService = Executors.newFixedThreadPool(3);
+
+    private final MetricRegistry metricRegistry = new MetricRegistry();
+
+    @After
+    public void tearDown() {
+        this.executorService.shutdownNow();
+    }
+
+    @Test
+    public void verifyResultsAreMergedInSourceOrder() {
+        final ParallelMergingPersonAttributeDao dao = newDao(
+                new SlowPersonAttributeDao(attributes("uid", "first", "cn", "First"), 200),
+                new SlowPersonAttributeDao(attributes("uid", "second", "mail", "casuser@example.org"), 0));
+
+        final Map<String, List<Object>> attributes = getAttributes(dao);
+        assertEquals(Collections.singletonList("second"), attributes.get("uid"));
+        assertEquals(Collections.singletonList("First"), attributes.get("cn"));
+        assertEquals(Collections.singletonList("casuser@example.org"), attributes.get("mail"));
+        assertEquals(2, this.metricRegistry.getTimers().size());
+        this.metricRegistry.getTimers().values().forEach(timer -> assertEquals(1, timer.getCount()));
+    }
+
+    @Test
+    public void verifySlowAndFailingSourcesAreLeftOut() {
+        final ParallelMergingPersonAttributeDao dao = newDao(
+                new SlowPersonAttributeDao(attributes("uid", "slow"), TIMEOUT * 5),
+                new FailingPersonAttributeDao(),
+                new SlowPersonAttributeDao(attributes("cn", "Fast"), 0));
+
+        final Map<String, List<Object>> attributes = getAttributes(dao);
+        assertEquals(1, attributes.size());
+        assertEquals(Collections.singletonList("Fast"), attributes.get("cn"));
+    }
+
+    @Test
+    public void verifyFailingSourceFailsLookupUnlessRecovered() {
+        final ParallelMergingPersonAttributeDao dao = newDao(
+                new FailingPersonAttributeDao(),
+                new SlowPersonAttributeDao(attributes("cn", "Fast"), 0));
+        dao.setRecoverExceptions(false);
+        this.thrown.expect(IllegalStateException.class);
+        dao.getPeopleWithMultivaluedAttributes(QUERY);
+    }
+
+    @Test
+    public void verifyRejectedSourcesAreLeftOut() {
+        final ExecutorService single = new ThreadPoolExecutor(1, 1, 1, TimeUnit.MINUTES, new LinkedBlockingQueue<>(1),
+                new ThreadPoolExecutor.AbortPolicy());
+        try {
+            final ParallelMergingPersonAttributeDao dao = newDao(single, null,
+                    new SlowPersonAttributeDao(attributes("uid", "first"), 200),
+                    new SlowPersonAttributeDao(attributes("cn", "Second"), 0),
+                    new SlowPersonAttributeDao(attributes("mail", "casuser@example.org"), 0));
+
+            final long start = System.nanoTime();
+            final Map<String, List<Object>> attributes = getAttributes(dao);
+            assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < TIMEOUT);
+            assertEquals(2, attributes.size());
+            assertEquals(Collections.singletonList("first"), attributes.get("uid"));
+            assertEquals(Collections.singletonList("Second"), attributes.get("cn"));
+            assertTrue(this.metricRegistry.getTimers().isEmpty());
+        } finally {
+            single.shutdownNow();
+        }
+    }
+
+    private ParallelMergingPersonAttributeDao newDao(final IPersonAttributeDao... daos) {
+        return newDao(this.executorService, this.metricRegistry, daos);
+    }
+
+    private static ParallelMergingPersonAttributeDao newDao(final ExecutorService executorService, final MetricRegistry metricRegistry,
+                                                            final IPersonAttributeDao... daos) {
+        final ParallelMergingPersonAttributeDao dao = new ParallelMergingPersonAttributeDao(executorService, TIMEOUT, metricRegistry);
+        dao.setMerger(new ReplacingAttributeAdder());
+        dao.setPersonAttributeDaos(Arrays.asList(daos));
+        return dao;
+    }
+
+    private static Map<String, List<Object>> getAttributes(final ParallelMergingPersonAttributeDao dao) {
+        final Set<IPersonAttributes> people = dao.getPeopleWithMultivaluedAttributes(QUERY);
+        assertEquals(1, people.size());
+        return people.iterator().next().getAttributes();
+    }
+
+    private static Map<String, List<Object>> attributes(final String... namesAndValues) {
+        final Map<String, List<Object>> attributes = new HashMap<>();
+        for (int i = 0; i < namesAndValues.length; i += 2) {
+            attributes.put(namesAndValues[i], Collections.singletonList(namesAndValues[i + 1]));
+        }
+        return attributes;
+    }
+
+    private static class SlowPersonAttributeDao extends StubPersonAttributeDao {
+        private final long delay;
+
+        SlowPersonAttributeDao(final Map<String, List<Object>> attributes, final long delay) {
+            super(attributes);
+            this.delay = delay;
+        }
+
+        @Override
+        public Set<IPersonAttributes> getPeopleWithMultivaluedAttributes(final Map<String, List<Object>> query) {
+            try {
+                Thread.sleep(this.delay);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+            return super.getPeopleWithMultivaluedAttributes(query);
+        }
+    }
+
+    private static class FailingPersonAttributeDao extends StubPersonAttributeDao {
+        @Override
+        public Set<IPersonAttributes> getPeopleWithMultivaluedAttributes(final Map<String, List<Object>> query) {
+            throw new IllegalStateException("Source is unavailable");
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package org.apereo.cas.services;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * This is {@link CompiledScriptCacheTests}.
+ *
+ * @author Misagh Moayyed
+ * @since 5.1.0
+ */
+public class CompiledScriptCacheTests {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final CompiledScriptCache cache = new CompiledScriptCache();
+
+    @Test
+    public void verifyInlineScriptIsCompiledOnce() throws Exception {
+        final String script = "return attributes['uid'] + '-' + attributes['uid'].size()";
+        assertEquals("casuser-7", cache.evaluate(script, Collections.singletonMap("attributes", Collections.singletonMap("uid", "casuser"))));
+        assertEquals("cas-3", cache.evaluate(script, Collections.singletonMap("attributes", Collections.singletonMap("uid", "cas"))));
+        assertEquals(1, cache.getCompilations());
+        assertEquals(2, cache.getExecutions());
+    }
+
+    @Test
+    public void verifyScriptFileIsCompiledAgainWhenModified() throws Exception {
+        final File file = folder.newFile("attribute.groovy");
+        FileUtils.write(file, "return attributes['uid'].toUpperCase()", StandardCharsets.UTF_8);
+        final Map<String, Object> variables = Collections.singletonMap("attributes", Collections.singletonMap("uid", "casuser"));
+
+        assertEquals("CASUSER", cache.evaluate(file, variables));
+        assertEquals("CASUSER", cache.evaluate(file, variables));
+        assertEquals(1, cache.getCompilations());
+
+        FileUtils.write(file, "return attributes['uid'].reverse()", StandardCharsets.UTF_8);
+        assertTrue(file.setLastModified(file.lastModified() + 1_000));
+        assertEquals("resusac", cache.evaluate(file, variables));
+        assertEquals(2, cache.getCompilations());
+    }
+
+    @Test
+    public void verifyGroovyMethodIsInvoked() throws Exception {
+        final File file = folder.newFile("policy.groovy");
+        FileUtils.write(file, "def run(Object[] args) { return [released: args[0].uid] }", StandardCharsets.UTF_8);
+        final Map<String, Object> attributes = new HashMap<>();
+        attributes.put("uid", "casuser");
+
+        final Object[] args = {attributes, null};
+        assertEquals(Collections.singletonMap("released", "casuser"), cache.invokeMethod(file, "run", args));
+        assertEquals(Collections.singletonMap("released", "casuser"), cache.invokeMethod(file, "run", args));
+        assertEquals(1, cache.getCompilations());
+    }
+
+    @Test
+    public void verifyScriptEngineFunctionIsInvoked() throws Exception {
+        final File file = folder.newFile("policy.groovy");
+        FileUtils.write(file, "def run(final Object... args) { return [released: args[0].uid] }", StandardCharsets.UTF_8);
+        final Map<String, Object> attributes = Collections.singletonMap("uid", "casuser");
+
+        assertEquals(Collections.singletonMap("released", "casuser"), cache.invokeFunction(file, "groovy", "run", attributes, null));
+        assertEquals(Collections.singletonMap("released", "casuser"), cache.invokeFunction(file, "groovy", "run", attributes, null));
+        assertEquals(1, cache.getCompilations());
+        assertNull(cache.invokeFunction(file, "unknown", "run", attributes, null));
+    }
+}
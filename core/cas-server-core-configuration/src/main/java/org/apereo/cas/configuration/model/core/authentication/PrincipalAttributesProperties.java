@@ -24,6 +24,7 @@ public class PrincipalAttributesProperties {
 
     private int expireInMinutes = 30;
     private int maximumCacheSize = 10000;
+    private int cacheConcurrencyLevel = 16;
     private String merger = "REPLACE";
 
     private Set<String> defaultAttributesToRelease = new HashSet<>();
@@ -34,6 +35,8 @@ public class PrincipalAttributesProperties {
     private List<Ldap> ldap = new ArrayList();
     private List<Json> json = new ArrayList();
     private Grouper grouper = new Grouper();
+    private Parallel parallel = new Parallel();
+    private PrincipalCache principalCache = new PrincipalCache();
 
     public Grouper getGrouper() {
         return grouper;
@@ -91,6 +94,14 @@ public class PrincipalAttributesProperties {
         this.maximumCacheSize = maximumCacheSize;
     }
 
+    public int getCacheConcurrencyLevel() {
+        return cacheConcurrencyLevel;
+    }
+
+    public void setCacheConcurrencyLevel(final int cacheConcurrencyLevel) {
+        this.cacheConcurrencyLevel = cacheConcurrencyLevel;
+    }
+
     public List<Jdbc> getJdbc() {
         return jdbc;
     }
@@ -115,6 +126,109 @@ public class PrincipalAttributesProperties {
         this.defaultAttributesToRelease = defaultAttributesToRelease;
     }
 
+    public Parallel getParallel() {
+        return parallel;
+    }
+
+    public void setParallel(final Parallel parallel) {
+        this.parallel = parallel;
+    }
+
+    public PrincipalCache getPrincipalCache() {
+        return principalCache;
+    }
+
+    public void setPrincipalCache(final PrincipalCache principalCache) {
+        this.principalCache = principalCache;
+    }
+
+    public static class PrincipalCache {
+        private long maximumSize = 10_000;
+        private long refreshAfterWriteInMinutes = 5;
+        private long expireAfterAccessInMinutes = 120;
+        private int refreshPoolSize = 2;
+
+        public long getMaximumSize() {
+            return maximumSize;
+        }
+
+        public void setMaximumSize(final long maximumSize) {
+            this.maximumSize = maximumSize;
+        }
+
+        public long getRefreshAfterWriteInMinutes() {
+            return refreshAfterWriteInMinutes;
+        }
+
+        public void setRefreshAfterWriteInMinutes(final long refreshAfterWriteInMinutes) {
+            this.refreshAfterWriteInMinutes = refreshAfterWriteInMinutes;
+        }
+
+        public long getExpireAfterAccessInMinutes() {
+            return expireAfterAccessInMinutes;
+        }
+
+        public void setExpireAfterAccessInMinutes(final long expireAfterAccessInMinutes) {
+            this.expireAfterAccessInMinutes = expireAfterAccessInMinutes;
+        }
+
+        public int getRefreshPoolSize() {
+            return refreshPoolSize;
+        }
+
+        public void setRefreshPoolSize(final int refreshPoolSize) {
+            this.refreshPoolSize = refreshPoolSize;
+        }
+    }
+
+    public static class Parallel {
+        private boolean enabled;
+        private int poolSize = 10;
+        private int queueCapacity = 100;
+        private long timeoutInMillis = 5_000;
+        private boolean recoverExceptions = true;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(final boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getPoolSize() {
+            return poolSize;
+        }
+
+        public void setPoolSize(final int poolSize) {
+            this.poolSize = poolSize;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(final int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+
+        public long getTimeoutInMillis() {
+            return timeoutInMillis;
+        }
+
+        public void setTimeoutInMillis(final long timeoutInMillis) {
+            this.timeoutInMillis = timeoutInMillis;
+        }
+
+        public boolean isRecoverExceptions() {
+            return recoverExceptions;
+        }
+
+        public void setRecoverExceptions(final boolean recoverExceptions) {
+            this.recoverExceptions = recoverExceptions;
+        }
+    }
+
     public static class Grouper {
         private int order;
         private boolean enabled;
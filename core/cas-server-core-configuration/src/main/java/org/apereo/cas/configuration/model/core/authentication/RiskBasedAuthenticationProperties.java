@@ -19,6 +19,15 @@ public class RiskBasedAuthenticationProperties {
     
     private double threshold = 0.6;
     private long daysInRecentHistory = 30;
+    private long profileTimeToLiveInSeconds = 5;
+
+    public long getProfileTimeToLiveInSeconds() {
+        return profileTimeToLiveInSeconds;
+    }
+
+    public void setProfileTimeToLiveInSeconds(final long profileTimeToLiveInSeconds) {
+        this.profileTimeToLiveInSeconds = profileTimeToLiveInSeconds;
+    }
 
     public long getDaysInRecentHistory() {
         return daysInRecentHistory;
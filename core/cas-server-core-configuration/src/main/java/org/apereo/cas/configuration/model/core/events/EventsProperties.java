@@ -19,6 +19,8 @@ public class EventsProperties {
 
     private Mongodb mongodb = new Mongodb();
 
+    private WriteBehind writeBehind = new WriteBehind();
+
     public Mongodb getMongodb() {
         return mongodb;
     }
@@ -51,6 +53,14 @@ public class EventsProperties {
         this.jpa = jpa;
     }
 
+    public WriteBehind getWriteBehind() {
+        return writeBehind;
+    }
+
+    public void setWriteBehind(final WriteBehind writeBehind) {
+        this.writeBehind = writeBehind;
+    }
+
     public static class Jpa extends AbstractJpaProperties {
     }
 
@@ -59,4 +69,43 @@ public class EventsProperties {
             setCollection("MongoDbCasEventRepository");
         }
     }
+
+    public static class WriteBehind {
+        private boolean enabled = true;
+        private int queueSize = 10_000;
+        private int batchSize = 100;
+        private long enqueueTimeoutInMillis = 100;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(final boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getQueueSize() {
+            return queueSize;
+        }
+
+        public void setQueueSize(final int queueSize) {
+            this.queueSize = queueSize;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(final int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public long getEnqueueTimeoutInMillis() {
+            return enqueueTimeoutInMillis;
+        }
+
+        public void setEnqueueTimeoutInMillis(final long enqueueTimeoutInMillis) {
+            this.enqueueTimeoutInMillis = enqueueTimeoutInMillis;
+        }
+    }
 }
@@ -51,6 +51,20 @@ public class TicketRegistryProperties {
     private InMemory inMemory = new InMemory();
     private Cleaner cleaner = new Cleaner();
 
+    /**
+     * Whether distributed registries should store service and proxy tickets with the id of their
+     * ticket-granting ticket rather than with a copy of it.
+     */
+    private boolean storeGrantingTicketById;
+
+    public boolean isStoreGrantingTicketById() {
+        return storeGrantingTicketById;
+    }
+
+    public void setStoreGrantingTicketById(final boolean storeGrantingTicketById) {
+        this.storeGrantingTicketById = storeGrantingTicketById;
+    }
+
     public MongoTicketRegistryProperties getMongo() {
         return mongo;
     }
@@ -184,6 +198,8 @@ public class TicketRegistryProperties {
         private boolean enabled = true;
         private String startDelay = "PT10S";
         private String repeatInterval = "PT1M";
+        private int batchSize = 500;
+        private String maxRunTime = "PT30S";
 
         private String appId = "cas-ticket-registry-cleaner";
 
@@ -218,5 +234,21 @@ public class TicketRegistryProperties {
         public void setRepeatInterval(final String repeatInterval) {
             this.repeatInterval = repeatInterval;
         }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(final int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public long getMaxRunTime() {
+            return Beans.newDuration(maxRunTime).toMillis();
+        }
+
+        public void setMaxRunTime(final String maxRunTime) {
+            this.maxRunTime = maxRunTime;
+        }
     }
 }
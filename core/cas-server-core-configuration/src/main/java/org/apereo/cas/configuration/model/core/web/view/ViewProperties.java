@@ -9,6 +9,8 @@ package org.apereo.cas.configuration.model.core.web.view;
 
 public class ViewProperties {
     private String defaultRedirectUrl;
+
+    private boolean streamValidationResponses;
     
     private Cas2 cas2 = new Cas2();
     private Cas3 cas3 = new Cas3();
@@ -37,6 +39,14 @@ public class ViewProperties {
         this.defaultRedirectUrl = defaultRedirectUrl;
     }
 
+    public boolean isStreamValidationResponses() {
+        return streamValidationResponses;
+    }
+
+    public void setStreamValidationResponses(final boolean streamValidationResponses) {
+        this.streamValidationResponses = streamValidationResponses;
+    }
+
     public static class Cas2 {
         private String success = "protocol/2.0/casServiceValidationSuccess";
         private String failure = "protocol/2.0/casServiceValidationFailure";
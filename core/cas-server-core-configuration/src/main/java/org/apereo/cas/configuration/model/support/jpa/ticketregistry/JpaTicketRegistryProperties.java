@@ -24,6 +24,8 @@ public class JpaTicketRegistryProperties extends AbstractJpaProperties {
 
     private String jpaLockingTimeout = DEFAULT_LOCK_TIMEOUT;
 
+    private boolean storeServiceSessionsInTable;
+
     @NestedConfigurationProperty
     private CryptographyProperties crypto = new CryptographyProperties();
 
@@ -47,6 +49,14 @@ public class JpaTicketRegistryProperties extends AbstractJpaProperties {
         this.jpaLockingTimeout = jpaLockingTimeout;
     }
 
+    public boolean isStoreServiceSessionsInTable() {
+        return storeServiceSessionsInTable;
+    }
+
+    public void setStoreServiceSessionsInTable(final boolean storeServiceSessionsInTable) {
+        this.storeServiceSessionsInTable = storeServiceSessionsInTable;
+    }
+
     public LockModeType getTicketLockType() {
         return ticketLockType;
     }
@@ -15,6 +15,9 @@ public class MemcachedTicketRegistryProperties {
     private String failureMode = "Redistribute";
     private String locatorType = "ARRAY_MOD";
     private String hashAlgorithm = "FNV1_64_HASH";
+    private int compressionThreshold;
+    private int maxInFlightWrites = 1000;
+    private int indexShards = 16;
 
     @NestedConfigurationProperty
     private CryptographyProperties crypto = new CryptographyProperties();
@@ -58,6 +61,30 @@ public class MemcachedTicketRegistryProperties {
     public void setHashAlgorithm(final String hashAlgorithm) {
         this.hashAlgorithm = hashAlgorithm;
     }
+
+    public int getCompressionThreshold() {
+        return compressionThreshold;
+    }
+
+    public void setCompressionThreshold(final int compressionThreshold) {
+        this.compressionThreshold = compressionThreshold;
+    }
+
+    public int getMaxInFlightWrites() {
+        return maxInFlightWrites;
+    }
+
+    public void setMaxInFlightWrites(final int maxInFlightWrites) {
+        this.maxInFlightWrites = maxInFlightWrites;
+    }
+
+    public int getIndexShards() {
+        return indexShards;
+    }
+
+    public void setIndexShards(final int indexShards) {
+        this.indexShards = indexShards;
+    }
 }
 
 
@@ -36,6 +36,12 @@ public class RedisTicketRegistryProperties {
      */
     private int timeout;
 
+    /**
+     * Number of keys fetched per SCAN iteration, and per batch of commands
+     * issued for the keys that are fetched.
+     */
+    private int scanCount = 1000;
+
     private Pool pool;
 
     @NestedConfigurationProperty
@@ -89,6 +95,14 @@ public class RedisTicketRegistryProperties {
         return this.timeout;
     }
 
+    public int getScanCount() {
+        return this.scanCount;
+    }
+
+    public void setScanCount(final int scanCount) {
+        this.scanCount = scanCount;
+    }
+
     public Pool getPool() {
         return this.pool;
     }
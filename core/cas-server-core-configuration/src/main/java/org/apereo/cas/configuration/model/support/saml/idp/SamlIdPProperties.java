@@ -91,6 +91,7 @@ public class SamlIdPProperties {
         private boolean failFast = true;
         private boolean requireValidMetadata = true;
         private long cacheExpirationMinutes = TimeUnit.DAYS.toMinutes(1);
+        private long cacheMaximumSize = 100;
         private Resource location = new FileSystemResource("/etc/cas/saml");
         private String privateKeyAlgName = "RSA";
         private String basicAuthnUsername;
@@ -121,6 +122,14 @@ public class SamlIdPProperties {
             this.cacheExpirationMinutes = cacheExpirationMinutes;
         }
 
+        public long getCacheMaximumSize() {
+            return cacheMaximumSize;
+        }
+
+        public void setCacheMaximumSize(final long cacheMaximumSize) {
+            this.cacheMaximumSize = cacheMaximumSize;
+        }
+
         public Resource getLocation() {
             return location;
         }
@@ -18,6 +18,7 @@ public class ThrottleProperties {
         
     private Failure failure = new Failure();
     private Jdbc jdbc = new Jdbc();
+    private SlidingWindow slidingWindow = new SlidingWindow();
     
     private String usernameParameter;
     private String appcode = DEFAULT_APPLICATION_CODE;
@@ -29,6 +30,14 @@ public class ThrottleProperties {
         return jdbc;
     }
 
+    public SlidingWindow getSlidingWindow() {
+        return slidingWindow;
+    }
+
+    public void setSlidingWindow(final SlidingWindow slidingWindow) {
+        this.slidingWindow = slidingWindow;
+    }
+
     public Failure getFailure() {
         return failure;
     }
@@ -102,12 +111,47 @@ public class ThrottleProperties {
         }
     }
 
+    /**
+     * Sliding window.
+     */
+    public static class SlidingWindow {
+        private boolean enabled;
+        private int capacity = 100_000;
+        private int buckets = 10;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(final boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getCapacity() {
+            return capacity;
+        }
+
+        public void setCapacity(final int capacity) {
+            this.capacity = capacity;
+        }
+
+        public int getBuckets() {
+            return buckets;
+        }
+
+        public void setBuckets(final int buckets) {
+            this.buckets = buckets;
+        }
+    }
+
     public static class Jdbc extends AbstractJpaProperties {
         private static final String SQL_AUDIT_QUERY = "SELECT AUD_DATE FROM COM_AUDIT_TRAIL WHERE AUD_CLIENT_IP = ? AND AUD_USER = ? "
                 + "AND AUD_ACTION = ? AND APPLIC_CD = ? AND AUD_DATE >= ? ORDER BY AUD_DATE DESC";
         
         private String auditQuery = SQL_AUDIT_QUERY;
 
+        private FailureCache failureCache = new FailureCache();
+
         public String getAuditQuery() {
             return auditQuery;
         }
@@ -115,6 +159,47 @@ public class ThrottleProperties {
         public void setAuditQuery(final String auditQuery) {
             this.auditQuery = auditQuery;
         }
+
+        public FailureCache getFailureCache() {
+            return failureCache;
+        }
+
+        public void setFailureCache(final FailureCache failureCache) {
+            this.failureCache = failureCache;
+        }
+    }
+
+    /**
+     * Failure cache.
+     */
+    public static class FailureCache {
+        private boolean enabled;
+        private long maximumSize = 100_000;
+        private String reconcileInterval = "PT5S";
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(final boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public long getMaximumSize() {
+            return maximumSize;
+        }
+
+        public void setMaximumSize(final long maximumSize) {
+            this.maximumSize = maximumSize;
+        }
+
+        public long getReconcileInterval() {
+            return Beans.newDuration(reconcileInterval).toMillis();
+        }
+
+        public void setReconcileInterval(final String reconcileInterval) {
+            this.reconcileInterval = reconcileInterval;
+        }
     }
     
     
@@ -1,12 +1,15 @@
 package org.apereo.cas.support.events.config;
 
 import org.apereo.cas.configuration.CasConfigurationProperties;
+import org.apereo.cas.configuration.model.core.events.EventsProperties;
 import org.apereo.cas.support.events.CasEventRepository;
 import org.apereo.cas.support.events.dao.NoOpCasEventRepository;
+import org.apereo.cas.support.events.dao.WriteBehindCasEventRepository;
 import org.apereo.cas.support.events.listener.DefaultCasEventListener;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -20,13 +23,30 @@ import org.springframework.context.annotation.Configuration;
 @Configuration("casCoreEventsConfiguration")
 @EnableConfigurationProperties(CasConfigurationProperties.class)
 public class CasCoreEventsConfiguration {
+
+    @Autowired
+    private CasConfigurationProperties casProperties;
+
     @Autowired
     @Bean
     public DefaultCasEventListener defaultCasEventListener(@Qualifier("casEventRepository")
                                                            final CasEventRepository casEventRepository) {
+        if (casProperties.getEvents().getWriteBehind().isEnabled()) {
+            return new DefaultCasEventListener(casEventWriteBehindRepository(casEventRepository));
+        }
         return new DefaultCasEventListener(casEventRepository);
     }
 
+    @ConditionalOnProperty(prefix = "cas.events.writeBehind", name = "enabled", havingValue = "true", matchIfMissing = true)
+    @Autowired
+    @Bean
+    public WriteBehindCasEventRepository casEventWriteBehindRepository(@Qualifier("casEventRepository")
+                                                                       final CasEventRepository casEventRepository) {
+        final EventsProperties.WriteBehind writeBehind = casProperties.getEvents().getWriteBehind();
+        return new WriteBehindCasEventRepository(casEventRepository, writeBehind.getQueueSize(),
+                writeBehind.getBatchSize(), writeBehind.getEnqueueTimeoutInMillis());
+    }
+
     @ConditionalOnMissingBean(name = "casEventRepository")
     @Bean
     public CasEventRepository casEventRepository() {
@@ -4,9 +4,15 @@ import org.apereo.cas.support.events.CasEventRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.time.Instant;
+import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.Collection;
+import java.util.SortedMap;
+import java.util.TreeMap;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * This is {@link AbstractCasEventRepository}.
@@ -66,4 +72,25 @@ public abstract class AbstractCasEventRepository implements CasEventRepository {
                 .filter(e -> e.getCreationTime().isEqual(dateTime) || e.getCreationTime().isAfter(dateTime))
                 .collect(Collectors.toSet());
     }
+
+    /**
+     * Truncate the date to the start of its hour in UTC.
+     *
+     * @param dateTime the date time
+     * @return the start of the hour
+     */
+    protected static ZonedDateTime truncateToHour(final ZonedDateTime dateTime) {
+        return dateTime.withZoneSameInstant(ZoneOffset.UTC).truncatedTo(ChronoUnit.HOURS);
+    }
+
+    /**
+     * Count creation times by the hour, keyed by the start of the hour in UTC.
+     *
+     * @param creationTimes the creation times
+     * @return the count of creation times by hour
+     */
+    protected static SortedMap<ZonedDateTime, Long> countByHour(final Stream<Instant> creationTimes) {
+        return creationTimes.collect(Collectors.groupingBy(t -> truncateToHour(ZonedDateTime.ofInstant(t, ZoneOffset.UTC)),
+                TreeMap::new, Collectors.counting()));
+    }
 }
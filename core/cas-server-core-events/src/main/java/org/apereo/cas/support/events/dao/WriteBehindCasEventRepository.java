@@ -0,0 +1,235 @@
+package org.apereo.cas.support.events.dao;
+
+import com.codahale.metrics.annotation.Gauge;
+import org.apereo.cas.support.events.CasEventRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.PreDestroy;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This is {@link WriteBehindCasEventRepository} that saves events into the repository it wraps
+ * on a background thread, so that threads that publish events, such as those processing a login,
+ * do not wait for the repository to store them.
+ * <p>
+ * Events are held in a bounded queue, and written in batches of up to {@code batchSize} events
+ * via {@link CasEventRepository#saveAll(Collection)}. Once the queue is full, saving an event waits
+ * up to {@code enqueueTimeoutInMillis} for room in the queue, after which the event is dropped.
+ * The depth of the queue and the number of events written, dropped and failed are exposed as gauges.
+ * Events still queued are written when the repository is shut down; events saved from then on are written
+ * on the calling thread.
+ * <p>
+ * Queries are answered by the wrapped repository, and do not see events that are still queued.
+ *
+ * @author Misagh Moayyed
+ * @since 5.1.0
+ */
+public class WriteBehindCasEventRepository implements CasEventRepository {
+    private static final Logger LOGGER = LoggerFactory.getLogger(WriteBehindCasEventRepository.class);
+
+    private static final long POLL_TIMEOUT_IN_MILLIS = 500;
+
+    private static final long SHUTDOWN_TIMEOUT_IN_MILLIS = 10_000;
+
+    private final CasEventRepository casEventRepository;
+
+    private final BlockingQueue<CasEvent> queue;
+
+    private final int batchSize;
+
+    private final long enqueueTimeoutInMillis;
+
+    private final AtomicLong writtenEvents = new AtomicLong();
+
+    private final AtomicLong droppedEvents = new AtomicLong();
+
+    private final AtomicLong failedEvents = new AtomicLong();
+
+    private final Thread writer;
+
+    private volatile boolean running = true;
+
+    public WriteBehindCasEventRepository(final CasEventRepository casEventRepository, final int queueSize,
+                                         final int batchSize, final long enqueueTimeoutInMillis) {
+        this.casEventRepository = casEventRepository;
+        this.queue = new ArrayBlockingQueue<>(queueSize);
+        this.batchSize = batchSize;
+        this.enqueueTimeoutInMillis = enqueueTimeoutInMillis;
+        this.writer = new Thread(this::writeQueuedEvents, "casEventWriteBehind");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + '[' + this.casEventRepository + ']';
+    }
+
+    @Override
+    public void save(final CasEvent event) {
+        if (!this.running) {
+            write(Collections.singletonList(event));
+            return;
+        }
+        try {
+            if (!this.queue.offer(event, this.enqueueTimeoutInMillis, TimeUnit.MILLISECONDS)) {
+                this.droppedEvents.incrementAndGet();
+                LOGGER.warn("Queue of events to save is full; dropped event of type [{}] for [{}]", event.getType(), event.getPrincipalId());
+                return;
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            this.droppedEvents.incrementAndGet();
+            LOGGER.warn("Interrupted while waiting to queue event of type [{}] for [{}]", event.getType(), event.getPrincipalId());
+            return;
+        }
+        if (!this.running) {
+            flush();
+        }
+    }
+
+    @Override
+    public void saveAll(final Collection<CasEvent> events) {
+        events.forEach(this::save);
+    }
+
+    /**
+     * Write all queued events on the calling thread.
+     */
+    public void flush() {
+        final List<CasEvent> batch = new ArrayList<>(this.batchSize);
+        while (this.queue.drainTo(batch, this.batchSize) > 0) {
+            write(batch);
+            batch.clear();
+        }
+    }
+
+    /**
+     * Stop the background writer and write the events still queued.
+     */
+    @PreDestroy
+    public void destroy() {
+        this.running = false;
+        try {
+            this.writer.join(SHUTDOWN_TIMEOUT_IN_MILLIS);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+        LOGGER.info("Stopped writing events via [{}]; [{}] written, [{}] dropped, [{}] failed", this.casEventRepository,
+                getWrittenEvents(), getDroppedEvents(), getFailedEvents());
+    }
+
+    @Gauge(name = "queueDepth")
+    public int getQueueDepth() {
+        return this.queue.size();
+    }
+
+    @Gauge(name = "writtenEvents")
+    public long getWrittenEvents() {
+        return this.writtenEvents.get();
+    }
+
+    @Gauge(name = "droppedEvents")
+    public long getDroppedEvents() {
+        return this.droppedEvents.get();
+    }
+
+    @Gauge(name = "failedEvents")
+    public long getFailedEvents() {
+        return this.failedEvents.get();
+    }
+
+    public CasEventRepository getCasEventRepository() {
+        return this.casEventRepository;
+    }
+
+    @Override
+    public Collection<CasEvent> load() {
+        return this.casEventRepository.load();
+    }
+
+    @Override
+    public Collection<CasEvent> load(final ZonedDateTime dateTime) {
+        return this.casEventRepository.load(dateTime);
+    }
+
+    @Override
+    public Collection<CasEvent> getEventsOfTypeForPrincipal(final String type, final String principal) {
+        return this.casEventRepository.getEventsOfTypeForPrincipal(type, principal);
+    }
+
+    @Override
+    public Collection<CasEvent> getEventsOfTypeForPrincipal(final String type, final String principal, final ZonedDateTime dateTime) {
+        return this.casEventRepository.getEventsOfTypeForPrincipal(type, principal, dateTime);
+    }
+
+    @Override
+    public Collection<CasEvent> getEventsOfType(final String type) {
+        return this.casEventRepository.getEventsOfType(type);
+    }
+
+    @Override
+    public Collection<CasEvent> getEventsOfType(final String type, final ZonedDateTime dateTime) {
+        return this.casEventRepository.getEventsOfType(type, dateTime);
+    }
+
+    @Override
+    public Collection<CasEvent> getEventsForPrincipal(final String id) {
+        return this.casEventRepository.getEventsForPrincipal(id);
+    }
+
+    @Override
+    public Collection<CasEvent> getEventsForPrincipal(final String id, final ZonedDateTime dateTime) {
+        return this.casEventRepository.getEventsForPrincipal(id, dateTime);
+    }
+
+    @Override
+    public SortedMap<ZonedDateTime, Long> countEventsOfType(final String type, final ZonedDateTime dateTime) {
+        return this.casEventRepository.countEventsOfType(type, dateTime);
+    }
+
+    @Override
+    public SortedMap<ZonedDateTime, Long> countEventsOfTypeForPrincipal(final String type, final String principal,
+                                                                        final ZonedDateTime dateTime) {
+        return this.casEventRepository.countEventsOfTypeForPrincipal(type, principal, dateTime);
+    }
+
+    private void writeQueuedEvents() {
+        final List<CasEvent> batch = new ArrayList<>(this.batchSize);
+        while (this.running) {
+            try {
+                final CasEvent event = this.queue.poll(POLL_TIMEOUT_IN_MILLIS, TimeUnit.MILLISECONDS);
+                if (event != null) {
+                    batch.add(event);
+                    this.queue.drainTo(batch, this.batchSize - 1);
+                    write(batch);
+                    batch.clear();
+                }
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void write(final List<CasEvent> events) {
+        try {
+            this.casEventRepository.saveAll(events);
+            this.writtenEvents.addAndGet(events.size());
+        } catch (final Exception e) {
+            this.failedEvents.addAndGet(events.size());
+            LOGGER.error("Failed to save [{}] event(s) via [{}]: [{}]", events.size(), this.casEventRepository, e.getMessage(), e);
+        }
+    }
+}
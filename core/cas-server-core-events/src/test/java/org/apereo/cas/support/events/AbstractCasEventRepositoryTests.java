@@ -6,7 +6,11 @@ import org.apereo.cas.support.events.ticket.CasTicketGrantingTicketCreatedEvent;
 import org.apereo.cas.ticket.TicketGrantingTicket;
 import org.junit.Test;
 
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.Collection;
+import java.util.SortedMap;
 
 import static org.junit.Assert.*;
 
@@ -35,6 +39,17 @@ public abstract class AbstractCasEventRepositoryTests {
         final Collection<CasEvent> col = getRepositoryInstance().load();
         assertEquals(col.size(), 1);
         assertFalse(col.stream().findFirst().get().getProperties().isEmpty());
+
+        final ZonedDateTime creationTime = event.getTicketGrantingTicket().getCreationTime();
+        assertEquals(1, getRepositoryInstance().getEventsOfTypeForPrincipal(dto.getType(), "casuser", creationTime.minusHours(1)).size());
+        assertTrue(getRepositoryInstance().getEventsOfTypeForPrincipal(dto.getType(), "casuser", creationTime.plusHours(1)).isEmpty());
+
+        final SortedMap<ZonedDateTime, Long> counts = getRepositoryInstance().countEventsOfTypeForPrincipal(dto.getType(), "casuser",
+                creationTime.minusDays(1));
+        assertEquals(1, counts.size());
+        assertEquals(Long.valueOf(1), counts.get(creationTime.withZoneSameInstant(ZoneOffset.UTC).truncatedTo(ChronoUnit.HOURS)));
+        assertEquals(counts, getRepositoryInstance().countEventsOfType(dto.getType(), creationTime));
+        assertTrue(getRepositoryInstance().countEventsOfType(dto.getType(), creationTime.plusHours(1)).isEmpty());
     }
 
     public abstract CasEventRepository getRepositoryInstance();
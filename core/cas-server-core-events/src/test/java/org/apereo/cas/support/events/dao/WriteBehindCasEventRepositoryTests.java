@@ -0,0 +1,103 @@
+package org.apereo.cas.support.events.dao;
+
+import org.junit.Test;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * This is {@link WriteBehindCasEventRepositoryTests}.
+ *
+ * @author Misagh Moayyed
+ * @since 5.1.0
+ */
+public class WriteBehindCasEventRepositoryTests {
+    private static final int QUEUE_SIZE = 10;
+
+    private static final int BATCH_SIZE = 3;
+
+    @Test
+    public void verifyQueuedEventsAreWrittenOnShutdown() {
+        final RecordingCasEventRepository target = new RecordingCasEventRepository();
+        final WriteBehindCasEventRepository repository = new WriteBehindCasEventRepository(target, QUEUE_SIZE, BATCH_SIZE, 0);
+        for (int i = 0; i < QUEUE_SIZE; i++) {
+            repository.save(createEvent("casuser" + i));
+        }
+        repository.destroy();
+
+        assertEquals(QUEUE_SIZE, target.events.size());
+        assertTrue(target.batches.stream().allMatch(size -> size <= BATCH_SIZE));
+        assertEquals(QUEUE_SIZE, repository.getWrittenEvents());
+        assertEquals(0, repository.getDroppedEvents());
+        assertEquals(0, repository.getQueueDepth());
+    }
+
+    @Test
+    public void verifyEventsAreDroppedWhenQueueIsFull() throws Exception {
+        final CountDownLatch writing = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final RecordingCasEventRepository target = new RecordingCasEventRepository() {
+            @Override
+            public void saveAll(final Collection<CasEvent> events) {
+                writing.countDown();
+                try {
+                    release.await();
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                super.saveAll(events);
+            }
+        };
+        final WriteBehindCasEventRepository repository = new WriteBehindCasEventRepository(target, 1, BATCH_SIZE, 0);
+        repository.save(createEvent("casuser1"));
+        assertTrue(writing.await(1, TimeUnit.MINUTES));
+        repository.save(createEvent("casuser2"));
+        repository.save(createEvent("casuser3"));
+        assertEquals(1, repository.getQueueDepth());
+        assertEquals(1, repository.getDroppedEvents());
+
+        release.countDown();
+        repository.destroy();
+        assertEquals(2, target.events.size());
+        assertEquals(2, repository.getWrittenEvents());
+    }
+
+    @Test
+    public void verifyFailedWritesAreCounted() {
+        final RecordingCasEventRepository target = new RecordingCasEventRepository() {
+            @Override
+            public void saveAll(final Collection<CasEvent> events) {
+                throw new IllegalStateException("Repository is unavailable");
+            }
+        };
+        final WriteBehindCasEventRepository repository = new WriteBehindCasEventRepository(target, QUEUE_SIZE, BATCH_SIZE, 0);
+        repository.destroy();
+        repository.save(createEvent("casuser"));
+        assertEquals(1, repository.getFailedEvents());
+        assertEquals(0, repository.getWrittenEvents());
+    }
+
+    private static CasEvent createEvent(final String principal) {
+        final CasEvent event = new CasEvent();
+        event.setType("type");
+        event.setPrincipalId(principal);
+        return event;
+    }
+
+    private static class RecordingCasEventRepository extends NoOpCasEventRepository {
+        private final List<CasEvent> events = new CopyOnWriteArrayList<>();
+
+        private final List<Integer> batches = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void saveAll(final Collection<CasEvent> events) {
+            this.batches.add(events.size());
+            this.events.addAll(events);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package org.apereo.cas.monitor;
+
+import com.google.common.cache.CacheStats;
+
+/**
+ * Cache statistics of an in-memory Guava cache whose size and capacity
+ * are measured in number of items, along with its hit and miss counts.
+ *
+ * @author Misagh Moayyed
+ * @since 5.1.0
+ */
+public class GuavaCacheStatistics implements CacheStatistics {
+
+    private static final int PERCENTAGE_VALUE = 100;
+
+    private final CacheStats stats;
+
+    private final long size;
+
+    private final long capacity;
+
+    private final String name;
+
+    /**
+     * Creates a new named instance with given parameters.
+     *
+     * @param stats    the cache stats
+     * @param size     current number of items in the cache
+     * @param capacity maximum number of items in the cache
+     * @param name     name of cache instance to which statistics apply
+     */
+    public GuavaCacheStatistics(final CacheStats stats, final long size, final long capacity, final String name) {
+        this.stats = stats;
+        this.size = size;
+        this.capacity = capacity;
+        this.name = name;
+    }
+
+    @Override
+    public long getSize() {
+        return this.size;
+    }
+
+    @Override
+    public long getCapacity() {
+        return this.capacity;
+    }
+
+    @Override
+    public long getEvictions() {
+        return this.stats.evictionCount();
+    }
+
+    public long getHits() {
+        return this.stats.hitCount();
+    }
+
+    public long getMisses() {
+        return this.stats.missCount();
+    }
+
+    @Override
+    public int getPercentFree() {
+        if (this.capacity == 0) {
+            return 0;
+        }
+        return (int) ((this.capacity - this.size) * PERCENTAGE_VALUE / this.capacity);
+    }
+
+    @Override
+    public String getName() {
+        return this.name;
+    }
+
+    @Override
+    public void toString(final StringBuilder builder) {
+        if (this.name != null) {
+            builder.append(this.name).append(':');
+        }
+        builder.append(this.size).append(" items, ");
+        builder.append(getPercentFree()).append("% free, ");
+        builder.append(getEvictions()).append(" evictions, ");
+        builder.append(getHits()).append(" hits, ");
+        builder.append(getMisses()).append(" misses");
+    }
+}
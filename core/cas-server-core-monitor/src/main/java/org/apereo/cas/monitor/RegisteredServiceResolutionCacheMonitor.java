@@ -0,0 +1,34 @@
+package org.apereo.cas.monitor;
+
+import org.apereo.cas.services.RegisteredServiceResolutionCache;
+
+/**
+ * Monitors the cache of service URL to registered service resolutions,
+ * reporting hits, misses and evictions. The statistics are informational only:
+ * resolutions expire and are evicted as a matter of course, so the cache is always reported as healthy.
+ *
+ * @author Misagh Moayyed
+ * @since 5.1.0
+ */
+public class RegisteredServiceResolutionCacheMonitor extends AbstractCacheMonitor {
+
+    private final RegisteredServiceResolutionCache resolutionCache;
+
+    public RegisteredServiceResolutionCacheMonitor(final RegisteredServiceResolutionCache resolutionCache) {
+        super(RegisteredServiceResolutionCacheMonitor.class.getSimpleName());
+        this.resolutionCache = resolutionCache;
+    }
+
+    @Override
+    protected CacheStatistics[] getStatistics() {
+        return new CacheStatistics[]{
+            new GuavaCacheStatistics(this.resolutionCache.getStatistics(), this.resolutionCache.getSize(),
+                    this.resolutionCache.getMaximumSize(), "registeredServices")
+        };
+    }
+
+    @Override
+    protected StatusCode status(final CacheStatistics statistics) {
+        return StatusCode.OK;
+    }
+}
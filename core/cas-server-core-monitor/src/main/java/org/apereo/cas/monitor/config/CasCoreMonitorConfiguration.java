@@ -5,7 +5,9 @@ import org.apereo.cas.configuration.model.core.monitor.MonitorProperties;
 import org.apereo.cas.monitor.HealthCheckMonitor;
 import org.apereo.cas.monitor.MemoryMonitor;
 import org.apereo.cas.monitor.Monitor;
+import org.apereo.cas.monitor.RegisteredServiceResolutionCacheMonitor;
 import org.apereo.cas.monitor.SessionMonitor;
+import org.apereo.cas.services.RegisteredServiceResolutionCache;
 import org.apereo.cas.ticket.registry.TicketRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
@@ -33,6 +35,10 @@ public class CasCoreMonitorConfiguration {
     @Qualifier("ticketRegistry")
     private TicketRegistry ticketRegistry;
 
+    @Autowired
+    @Qualifier("registeredServiceResolutionCache")
+    private RegisteredServiceResolutionCache registeredServiceResolutionCache;
+
     @Autowired
     private CasConfigurationProperties casProperties;
 
@@ -60,4 +66,10 @@ public class CasCoreMonitorConfiguration {
 
         return new HealthCheckMonitor(monitors);
     }
+
+    @ConditionalOnMissingBean(name = "registeredServiceResolutionCacheMonitor")
+    @Bean
+    public Monitor registeredServiceResolutionCacheMonitor() {
+        return new RegisteredServiceResolutionCacheMonitor(registeredServiceResolutionCache);
+    }
 }
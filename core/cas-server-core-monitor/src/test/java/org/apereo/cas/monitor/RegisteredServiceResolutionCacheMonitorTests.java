@@ -0,0 +1,50 @@
+package org.apereo.cas.monitor;
+
+import org.apereo.cas.configuration.CasConfigurationProperties;
+import org.apereo.cas.services.RegisteredServiceResolutionCache;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit test for {@link RegisteredServiceResolutionCacheMonitor} class.
+ *
+ * @author Misagh Moayyed
+ * @since 5.1.0
+ */
+public class RegisteredServiceResolutionCacheMonitorTests {
+
+    @Test
+    public void verifyObserveReportsHitsAndMisses() throws Exception {
+        final RegisteredServiceResolutionCache cache = new RegisteredServiceResolutionCache(100);
+        cache.get("https://app.example.org", id -> null);
+        cache.get("https://app.example.org", id -> null);
+
+        final RegisteredServiceResolutionCacheMonitor monitor = new RegisteredServiceResolutionCacheMonitor(cache);
+        monitor.casProperties = new CasConfigurationProperties();
+        final CacheStatus status = monitor.observe();
+        assertEquals(StatusCode.OK, status.getCode());
+
+        final GuavaCacheStatistics statistics = (GuavaCacheStatistics) status.getStatistics()[0];
+        assertEquals(1, statistics.getSize());
+        assertEquals(1, statistics.getHits());
+        assertEquals(1, statistics.getMisses());
+        assertEquals(0, statistics.getEvictions());
+        assertTrue(status.getDescription().contains("1 hits, 1 misses"));
+    }
+
+    @Test
+    public void verifyEvictionsAndFullCacheAreReportedAsHealthy() throws Exception {
+        final RegisteredServiceResolutionCache cache = new RegisteredServiceResolutionCache(1);
+        cache.get("https://app1.example.org", id -> null);
+        cache.get("https://app2.example.org", id -> null);
+
+        final RegisteredServiceResolutionCacheMonitor monitor = new RegisteredServiceResolutionCacheMonitor(cache);
+        monitor.casProperties = new CasConfigurationProperties();
+        final CacheStatus status = monitor.observe();
+        final GuavaCacheStatistics statistics = (GuavaCacheStatistics) status.getStatistics()[0];
+        assertEquals(1, statistics.getEvictions());
+        assertEquals(0, statistics.getPercentFree());
+        assertEquals(StatusCode.OK, status.getCode());
+    }
+}
@@ -0,0 +1,128 @@
+package org.apereo.cas.authentication.support;
+
+import com.google.common.base.Throwables;
+import org.apache.commons.io.FileUtils;
+import org.apereo.cas.CasViewConstants;
+import org.apereo.cas.services.RegexRegisteredService;
+import org.apereo.cas.services.RegisteredService;
+import org.apereo.cas.services.RegisteredServiceCipherExecutor;
+import org.apereo.cas.services.RegisteredServicePublicKeyImpl;
+import org.apereo.cas.services.ReturnAllowedAttributeReleasePolicy;
+import org.apereo.cas.util.EncodingUtils;
+import org.apereo.cas.util.cipher.NoOpCipherExecutor;
+import org.apereo.cas.util.crypto.PublicKeyFactoryBean;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.FileSystemResource;
+
+import javax.crypto.Cipher;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.security.PublicKey;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of encoding the attributes of a CAS3 validation response for a service
+ * that receives the encrypted credential and proxy-granting ticket, comparing the public keys cached by
+ * {@link org.apereo.cas.services.RegisteredServicePublicKeyCache} and the ciphers reused by
+ * {@link org.apereo.cas.util.services.DefaultRegisteredServiceCipherExecutor} with reading the key
+ * and initializing a cipher for every value.
+ *
+ * @author Misagh Moayyed
+ * @since 5.1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(1)
+@Fork(1)
+public class DefaultCasProtocolAttributeEncoderBenchmark {
+
+    private File keyFile;
+
+    private RegisteredService service;
+
+    private Map<String, Object> attributes;
+
+    private DefaultCasProtocolAttributeEncoder cachedEncoder;
+
+    private DefaultCasProtocolAttributeEncoder uncachedEncoder;
+
+    @Setup
+    public void setup() throws Exception {
+        this.keyFile = File.createTempFile("RSA1024Public", ".key");
+        FileUtils.copyInputStreamToFile(new ClassPathResource("keys/RSA1024Public.key").getInputStream(), this.keyFile);
+
+        final RegexRegisteredService registeredService = new RegexRegisteredService();
+        registeredService.setServiceId("https://app.example.org/.*");
+        registeredService.setPublicKey(new RegisteredServicePublicKeyImpl(this.keyFile.getCanonicalPath(), "RSA"));
+        final ReturnAllowedAttributeReleasePolicy policy = new ReturnAllowedAttributeReleasePolicy();
+        policy.setAuthorizedToReleaseCredentialPassword(true);
+        policy.setAuthorizedToReleaseProxyGrantingTicket(true);
+        registeredService.setAttributeReleasePolicy(policy);
+        this.service = registeredService;
+
+        this.attributes = new HashMap<>();
+        this.attributes.put("uid", Collections.singleton("casuser"));
+        this.attributes.put("mail", Collections.singleton("casuser@example.org"));
+        this.attributes.put(CasViewConstants.MODEL_ATTRIBUTE_NAME_PRINCIPAL_CREDENTIAL, Collections.singleton("PrincipalPassword"));
+        this.attributes.put(CasViewConstants.MODEL_ATTRIBUTE_NAME_PROXY_GRANTING_TICKET,
+                Collections.singleton("PGT-1-Kx0mpJ3G5zQvB6ExAMpLe-cas.example.org"));
+
+        this.cachedEncoder = new DefaultCasProtocolAttributeEncoder(null, NoOpCipherExecutor.getInstance());
+        this.uncachedEncoder = new DefaultCasProtocolAttributeEncoder(null, new UncachedCipherExecutor(), NoOpCipherExecutor.getInstance());
+    }
+
+    @TearDown
+    public void tearDown() {
+        FileUtils.deleteQuietly(this.keyFile);
+    }
+
+    @Benchmark
+    public Map<String, Object> cachedKeyAndCipher() {
+        return this.cachedEncoder.encodeAttributes(this.attributes, this.service);
+    }
+
+    @Benchmark
+    public Map<String, Object> uncachedKeyAndCipher() {
+        return this.uncachedEncoder.encodeAttributes(this.attributes, this.service);
+    }
+
+    /**
+     * Reads the public key and initializes a cipher for every value, as was done before keys were cached.
+     */
+    private static class UncachedCipherExecutor implements RegisteredServiceCipherExecutor {
+        @Override
+        public String encode(final String data, final RegisteredService service) {
+            try {
+                final PublicKeyFactoryBean factory = new PublicKeyFactoryBean();
+                factory.setLocation(new FileSystemResource(service.getPublicKey().getLocation()));
+                factory.setAlgorithm(service.getPublicKey().getAlgorithm());
+                factory.setSingleton(false);
+                final PublicKey publicKey = factory.getObject();
+
+                final Cipher cipher = Cipher.getInstance(publicKey.getAlgorithm());
+                cipher.init(Cipher.ENCRYPT_MODE, publicKey);
+                return EncodingUtils.encodeBase64(cipher.doFinal(data.getBytes(StandardCharsets.UTF_8)));
+            } catch (final Exception e) {
+                throw Throwables.propagate(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package org.apereo.cas.services;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of resolving a registered service by its service id
+ * against the number of registered services, comparing the matching index used by
+ * {@link DefaultServicesManager} with a linear scan over all definitions.
+ *
+ * @author Misagh Moayyed
+ * @since 5.1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DefaultServicesManagerBenchmark {
+
+    @Param({"10", "100", "1000", "4000"})
+    private int serviceCount;
+
+    private DefaultServicesManager servicesManager;
+
+    private Collection<RegisteredService> orderedServices;
+
+    private String[] serviceIds;
+
+    private int counter;
+
+    @Setup
+    public void setup() {
+        final List<RegisteredService> services = new ArrayList<>(serviceCount + 1);
+        for (int i = 0; i < serviceCount; i++) {
+            final RegexRegisteredService r = new RegexRegisteredService();
+            r.setId(i);
+            r.setName("service" + i);
+            r.setServiceId("^https://app" + i + "\\.example\\.org/.*");
+            r.setEvaluationOrder(i);
+            services.add(r);
+        }
+        final RegexRegisteredService catchAll = new RegexRegisteredService();
+        catchAll.setId(serviceCount);
+        catchAll.setName("catchAll");
+        catchAll.setServiceId("^(https?|imaps?)://.*");
+        catchAll.setEvaluationOrder(Integer.MAX_VALUE);
+        services.add(catchAll);
+
+        this.servicesManager = new DefaultServicesManager(new InMemoryServiceRegistry(services));
+        this.servicesManager.load();
+        this.orderedServices = this.servicesManager.getAllServices();
+
+        this.serviceIds = new String[]{
+            "https://app0.example.org/login",
+            "https://app" + serviceCount / 2 + ".example.org/page?param=value",
+            "https://app" + (serviceCount - 1) + ".example.org/",
+            "https://unknown.example.org/",
+        };
+    }
+
+    @Benchmark
+    public RegisteredService indexedLookup() {
+        return this.servicesManager.findServiceBy(nextServiceId());
+    }
+
+    @Benchmark
+    public RegisteredService linearScan() {
+        final String serviceId = nextServiceId();
+        return this.orderedServices.stream().filter(r -> r.matches(serviceId)).findFirst().orElse(null);
+    }
+
+    private String nextServiceId() {
+        return this.serviceIds[this.counter++ & (this.serviceIds.length - 1)];
+    }
+}
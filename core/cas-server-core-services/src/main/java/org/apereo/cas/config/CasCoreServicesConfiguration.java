@@ -16,10 +16,13 @@ import org.apereo.cas.authentication.support.DefaultCasProtocolAttributeEncoder;
 import org.apereo.cas.authentication.support.NoOpProtocolAttributeEncoder;
 import org.apereo.cas.configuration.CasConfigurationProperties;
 import org.apereo.cas.services.AbstractResourceBasedServiceRegistryDao;
+import org.apereo.cas.services.CompiledScriptCache;
+import org.apereo.cas.services.RegisteredServicePublicKeyCache;
 import org.apereo.cas.services.DefaultServicesManager;
 import org.apereo.cas.services.InMemoryServiceRegistry;
 import org.apereo.cas.services.RegisteredService;
 import org.apereo.cas.services.RegisteredServiceCipherExecutor;
+import org.apereo.cas.services.RegisteredServiceResolutionCache;
 import org.apereo.cas.services.ServiceRegistryDao;
 import org.apereo.cas.services.ServiceRegistryInitializer;
 import org.apereo.cas.services.ServicesManager;
@@ -72,6 +75,16 @@ public class CasCoreServicesConfiguration {
         return new DefaultMultifactorTriggerSelectionStrategy(attributeNameTriggers, requestParameter);
     }
 
+    @Bean
+    public CompiledScriptCache compiledScriptCache() {
+        return CompiledScriptCache.getInstance();
+    }
+
+    @Bean
+    public RegisteredServicePublicKeyCache registeredServicePublicKeyCache() {
+        return RegisteredServicePublicKeyCache.getInstance();
+    }
+
     @RefreshScope
     @Bean
     public PersistentIdGenerator shibbolethCompatiblePersistentIdGenerator() {
@@ -109,9 +122,14 @@ public class CasCoreServicesConfiguration {
         return new DefaultRegisteredServiceCipherExecutor();
     }
 
+    @Bean
+    public RegisteredServiceResolutionCache registeredServiceResolutionCache() {
+        return new RegisteredServiceResolutionCache(casProperties.getServiceRegistry().getCacheSize());
+    }
+
     @Bean
     public ServicesManager servicesManager(@Qualifier("serviceRegistryDao") final ServiceRegistryDao serviceRegistryDao) {
-        return new DefaultServicesManager(serviceRegistryDao);
+        return new DefaultServicesManager(serviceRegistryDao, registeredServiceResolutionCache());
     }
 
     @ConditionalOnMissingBean(name = BEAN_NAME_SERVICE_REGISTRY_DAO)
@@ -48,6 +48,11 @@ public abstract class AbstractResourceBasedServiceRegistryDao implements Resourc
      */
     private Map<Long, RegisteredService> serviceMap = new ConcurrentHashMap<>();
 
+    /**
+     * Cache of service id resolutions against the service map.
+     */
+    private final RegisteredServiceResolutionCache resolutionCache = new RegisteredServiceResolutionCache();
+
     /**
      * The Registered service json serializer.
      */
@@ -136,7 +141,8 @@ public abstract class AbstractResourceBasedServiceRegistryDao implements Resourc
 
     @Override
     public RegisteredService findServiceById(final String id) {
-        return this.serviceMap.values().stream().filter(r -> r.matches(id)).findFirst().orElse(null);
+        return this.resolutionCache.get(id, serviceId -> this.serviceMap.values().stream()
+                .filter(r -> r.matches(serviceId)).findFirst().orElse(null));
     }
 
     @Override
@@ -153,6 +159,7 @@ public abstract class AbstractResourceBasedServiceRegistryDao implements Resourc
                 LOGGER.warn("Failed to delete service definition file [{}]", f.getCanonicalPath());
             } else {
                 this.serviceMap.remove(service.getId());
+                this.resolutionCache.invalidate();
                 LOGGER.debug("Successfully deleted service definition file [{}]", f.getCanonicalPath());
             }
             return result;
@@ -185,6 +192,7 @@ public abstract class AbstractResourceBasedServiceRegistryDao implements Resourc
                 .stream()
                 .sorted(Map.Entry.comparingByValue())
                 .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, (e1, e2) -> e1, LinkedHashMap::new));
+        this.resolutionCache.invalidate();
         
         return new ArrayList(this.serviceMap.values());
     }
@@ -235,6 +243,7 @@ public abstract class AbstractResourceBasedServiceRegistryDao implements Resourc
                 LOGGER.debug("Found existing service definition by id [{}]. Saving...", service.getId());
             }
             this.serviceMap.put(service.getId(), service);
+            this.resolutionCache.invalidate();
             LOGGER.debug("Saved service to [{}]", f.getCanonicalPath());
         } catch (final IOException e) {
             throw new IllegalArgumentException("IO error opening file stream.", e);
@@ -279,5 +288,6 @@ public abstract class AbstractResourceBasedServiceRegistryDao implements Resourc
     @Override
     public void update(final RegisteredService service) {
         this.serviceMap.put(service.getId(), service);
+        this.resolutionCache.invalidate();
     }
 }
@@ -37,11 +37,14 @@ public class DefaultServicesManager implements ServicesManager, Serializable {
 
     private final ServiceRegistryDao serviceRegistryDao;
 
+    private final transient RegisteredServiceResolutionCache resolutionCache;
+
     @Autowired
     private transient ApplicationEventPublisher eventPublisher;
 
     private Map<Long, RegisteredService> services = new ConcurrentHashMap<>();
     private Set<RegisteredService> orderedServices = new ConcurrentSkipListSet<>();
+    private volatile RegisteredServiceMatchingIndex servicesIndex = new RegisteredServiceMatchingIndex(this.orderedServices);
 
     /**
      * Instantiates a new default services manager impl.
@@ -49,7 +52,19 @@ public class DefaultServicesManager implements ServicesManager, Serializable {
      * @param serviceRegistryDao the service registry dao
      */
     public DefaultServicesManager(final ServiceRegistryDao serviceRegistryDao) {
+        this(serviceRegistryDao, new RegisteredServiceResolutionCache());
+    }
+
+    /**
+     * Instantiates a new default services manager impl.
+     *
+     * @param serviceRegistryDao the service registry dao
+     * @param resolutionCache    the cache of service id resolutions
+     */
+    public DefaultServicesManager(final ServiceRegistryDao serviceRegistryDao,
+                                  final RegisteredServiceResolutionCache resolutionCache) {
         this.serviceRegistryDao = serviceRegistryDao;
+        this.resolutionCache = resolutionCache;
     }
 
     @Audit(action = "DELETE_SERVICE", actionResolverName = "DELETE_SERVICE_ACTION_RESOLVER",
@@ -61,6 +76,8 @@ public class DefaultServicesManager implements ServicesManager, Serializable {
             this.serviceRegistryDao.delete(service);
             this.services.remove(id);
             this.orderedServices.remove(service);
+            this.servicesIndex = new RegisteredServiceMatchingIndex(this.orderedServices);
+            this.resolutionCache.invalidate();
             publishEvent(new CasRegisteredServiceDeletedEvent(this, service));
         }
         return service;
@@ -68,7 +85,10 @@ public class DefaultServicesManager implements ServicesManager, Serializable {
 
     @Override
     public RegisteredService findServiceBy(final Service service) {
-        return orderedServices.stream().filter(r -> r.matches(service)).findFirst().orElse(null);
+        if (service == null) {
+            return this.servicesIndex.find((Service) null);
+        }
+        return this.resolutionCache.get(service.getId(), id -> this.servicesIndex.find(service));
     }
 
     @Override
@@ -106,6 +126,8 @@ public class DefaultServicesManager implements ServicesManager, Serializable {
         final RegisteredService r = this.serviceRegistryDao.save(registeredService);
         this.services.put(r.getId(), r);
         this.orderedServices = new ConcurrentSkipListSet<>(this.services.values());
+        this.servicesIndex = new RegisteredServiceMatchingIndex(this.orderedServices);
+        this.resolutionCache.invalidate();
         publishEvent(new CasRegisteredServiceSavedEvent(this, r));
         return r;
     }
@@ -125,12 +147,16 @@ public class DefaultServicesManager implements ServicesManager, Serializable {
                     return r.getId();
                 }, r -> r, (r, s) -> s == null ? r : s));
         this.orderedServices = new ConcurrentSkipListSet<>(this.services.values());
+        this.servicesIndex = new RegisteredServiceMatchingIndex(this.orderedServices);
+        this.resolutionCache.invalidate();
+        LOGGER.debug("Indexed [{}] service(s), with [{}] service(s) evaluated for every request",
+                this.servicesIndex.size(), this.servicesIndex.getUnindexedCount());
         LOGGER.info("Loaded [{}] service(s) from [{}].", this.services.size(), this.serviceRegistryDao);
     }
 
     @Override
     public RegisteredService findServiceBy(final String serviceId) {
-        return orderedServices.stream().filter(r -> r.matches(serviceId)).findFirst().orElse(null);
+        return this.resolutionCache.get(serviceId, this.servicesIndex::find);
     }
 
     @Override
@@ -153,6 +179,26 @@ public class DefaultServicesManager implements ServicesManager, Serializable {
         load();
     }
 
+    /**
+     * Handle registered service saved event, discarding cached service resolutions.
+     *
+     * @param event the event
+     */
+    @EventListener
+    protected void handleRegisteredServiceSavedEvent(final CasRegisteredServiceSavedEvent event) {
+        this.resolutionCache.invalidate();
+    }
+
+    /**
+     * Handle registered service deleted event, discarding cached service resolutions.
+     *
+     * @param event the event
+     */
+    @EventListener
+    protected void handleRegisteredServiceDeletedEvent(final CasRegisteredServiceDeletedEvent event) {
+        this.resolutionCache.invalidate();
+    }
+
     private void publishEvent(final ApplicationEvent event) {
         if (this.eventPublisher != null) {
             this.eventPublisher.publishEvent(event);
@@ -0,0 +1,228 @@
+package org.apereo.cas.services;
+
+import org.apereo.cas.authentication.principal.Service;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Immutable matching index over a set of registered services that avoids evaluating
+ * every service definition for each lookup.
+ * <p>
+ * The literal prefix of each {@link RegexRegisteredService} pattern is extracted
+ * and placed into a character trie. A lookup walks the trie along the requested service id
+ * and only evaluates the definitions whose prefix is a prefix of the id, along with those
+ * definitions that cannot be indexed (i.e. patterns that start with a group, use alternation
+ * or are not regular expressions at all). Candidates are always evaluated in the original
+ * evaluation order of the services, so the first match is identical to that of a linear scan.
+ *
+ * @author Misagh Moayyed
+ * @since 5.1.0
+ */
+public class RegisteredServiceMatchingIndex implements Serializable {
+
+    private static final long serialVersionUID = -2741617925683408151L;
+
+    /**
+     * Prefixes are truncated to this length. A shorter prefix is still a valid
+     * requirement for a match, and this keeps the depth of the trie in check.
+     */
+    private static final int MAX_PREFIX_LENGTH = 64;
+
+    private static final String REGEX_META_CHARACTERS = ".[]{}()*+?^$|";
+
+    private static final String OPTIONAL_QUANTIFIERS = "?*{";
+
+    private final RegisteredService[] services;
+
+    private final int[] unindexedPositions;
+
+    private final Node root = new Node();
+
+    /**
+     * Instantiates a new index.
+     *
+     * @param orderedServices the services, in the order in which they should be evaluated
+     */
+    public RegisteredServiceMatchingIndex(final Collection<RegisteredService> orderedServices) {
+        this.services = orderedServices.toArray(new RegisteredService[orderedServices.size()]);
+
+        final List<Integer> unindexed = new ArrayList<>();
+        for (int i = 0; i < this.services.length; i++) {
+            final String prefix = getLiteralPrefix(this.services[i]);
+            if (prefix.isEmpty()) {
+                unindexed.add(i);
+            } else {
+                this.root.add(prefix, i);
+            }
+        }
+        this.unindexedPositions = unindexed.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * Find the first service, in evaluation order, that matches the given service.
+     *
+     * @param service the service
+     * @return the registered service, or null
+     */
+    public RegisteredService find(final Service service) {
+        return find(service == null ? null : service.getId(), r -> r.matches(service));
+    }
+
+    /**
+     * Find the first service, in evaluation order, that matches the given service id.
+     *
+     * @param serviceId the service id
+     * @return the registered service, or null
+     */
+    public RegisteredService find(final String serviceId) {
+        return find(serviceId, r -> r.matches(serviceId));
+    }
+
+    /**
+     * Number of services in this index.
+     *
+     * @return the count
+     */
+    public int size() {
+        return this.services.length;
+    }
+
+    /**
+     * Number of services that could not be indexed, and are evaluated for every lookup.
+     *
+     * @return the count
+     */
+    public int getUnindexedCount() {
+        return this.unindexedPositions.length;
+    }
+
+    private RegisteredService find(final String serviceId, final Predicate<RegisteredService> matcher) {
+        final int[] candidates = collectCandidates(serviceId);
+        for (final int position : candidates) {
+            final RegisteredService registeredService = this.services[position];
+            if (matcher.test(registeredService)) {
+                return registeredService;
+            }
+        }
+        return null;
+    }
+
+    private int[] collectCandidates(final String serviceId) {
+        if (serviceId == null) {
+            return this.unindexedPositions;
+        }
+        int[] candidates = this.unindexedPositions;
+        int count = candidates.length;
+        boolean copied = false;
+
+        Node node = this.root;
+        final int length = Math.min(serviceId.length(), MAX_PREFIX_LENGTH);
+        for (int i = 0; i < length && node != null; i++) {
+            node = node.children.get(toLowerCaseAscii(serviceId.charAt(i)));
+            if (node != null && !node.positions.isEmpty()) {
+                if (!copied) {
+                    candidates = Arrays.copyOf(candidates, count + node.positions.size());
+                    copied = true;
+                } else if (candidates.length < count + node.positions.size()) {
+                    candidates = Arrays.copyOf(candidates, Math.max(candidates.length * 2, count + node.positions.size()));
+                }
+                for (final Integer position : node.positions) {
+                    candidates[count++] = position;
+                }
+            }
+        }
+        if (!copied) {
+            return candidates;
+        }
+        Arrays.sort(candidates, 0, count);
+        return count == candidates.length ? candidates : Arrays.copyOf(candidates, count);
+    }
+
+    /**
+     * Gets the literal prefix that any matching service id must start with.
+     * Only regex services are indexed, given they are matched case-insensitively
+     * against the entire service id.
+     *
+     * @param registeredService the registered service
+     * @return the lower-cased literal prefix, or an empty string if none can be determined.
+     */
+    static String getLiteralPrefix(final RegisteredService registeredService) {
+        if (!(registeredService instanceof RegexRegisteredService) || registeredService.getServiceId() == null) {
+            return "";
+        }
+        return getLiteralPrefix(registeredService.getServiceId());
+    }
+
+    /**
+     * Gets the literal prefix of a regular expression pattern. Alternations
+     * disqualify the pattern completely; otherwise the prefix ends at the first
+     * meta character, escape class or quantifier that makes the previous character optional.
+     *
+     * @param pattern the pattern
+     * @return the lower-cased literal prefix, or an empty string if none can be determined.
+     */
+    static String getLiteralPrefix(final String pattern) {
+        if (pattern.indexOf('|') >= 0) {
+            return "";
+        }
+        final StringBuilder prefix = new StringBuilder();
+        int i = pattern.startsWith("^") ? 1 : 0;
+        while (i < pattern.length() && prefix.length() < MAX_PREFIX_LENGTH) {
+            final char c = pattern.charAt(i);
+            final char literal;
+            final int advance;
+            if (c == '\\') {
+                if (i + 1 >= pattern.length() || Character.isLetterOrDigit(pattern.charAt(i + 1))) {
+                    break;
+                }
+                literal = pattern.charAt(i + 1);
+                advance = 2;
+            } else if (REGEX_META_CHARACTERS.indexOf(c) >= 0) {
+                break;
+            } else {
+                literal = c;
+                advance = 1;
+            }
+            if (i + advance < pattern.length() && OPTIONAL_QUANTIFIERS.indexOf(pattern.charAt(i + advance)) >= 0) {
+                break;
+            }
+            prefix.append(toLowerCaseAscii(literal));
+            i += advance;
+        }
+        return prefix.toString();
+    }
+
+    /**
+     * Patterns are compiled as case-insensitive without unicode case folding,
+     * so only US-ASCII characters are folded here.
+     */
+    private static char toLowerCaseAscii(final char c) {
+        return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+    }
+
+    /**
+     * A node in the prefix trie, carrying the positions of services
+     * whose literal prefix ends at this node.
+     */
+    private static class Node implements Serializable {
+        private static final long serialVersionUID = 3523581349474283744L;
+
+        private final Map<Character, Node> children = new HashMap<>();
+        private final List<Integer> positions = new ArrayList<>(1);
+
+        void add(final String prefix, final int position) {
+            Node node = this;
+            for (int i = 0; i < prefix.length(); i++) {
+                node = node.children.computeIfAbsent(prefix.charAt(i), k -> new Node());
+            }
+            node.positions.add(position);
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package org.apereo.cas.services;
+
+import com.codahale.metrics.annotation.Gauge;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.apache.commons.lang3.builder.EqualsBuilder;
+import org.apache.commons.lang3.builder.HashCodeBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.security.PublicKey;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This is {@link RegisteredServicePublicKeyCache} that holds the public keys of registered services,
+ * so that a key is read and parsed once rather than every time attributes are encrypted for a service.
+ * <p>
+ * Keys are cached by their location, algorithm and the factory that creates them,
+ * and are read again once the last-modified time of the key resource changes.
+ * The number of loaded keys is exposed as a gauge.
+ *
+ * @author Misagh Moayyed
+ * @since 5.1.0
+ */
+public class RegisteredServicePublicKeyCache {
+    private static final Logger LOGGER = LoggerFactory.getLogger(RegisteredServicePublicKeyCache.class);
+
+    private static final RegisteredServicePublicKeyCache INSTANCE = new RegisteredServicePublicKeyCache();
+
+    private static final long DEFAULT_MAXIMUM_SIZE = 1_000;
+
+    private final Cache<Key, CachedPublicKey> publicKeys = CacheBuilder.newBuilder().maximumSize(DEFAULT_MAXIMUM_SIZE).build();
+
+    private final LongAdder loads = new LongAdder();
+
+    /**
+     * Gets the cache shared by registered service public keys.
+     *
+     * @return the instance
+     */
+    public static RegisteredServicePublicKeyCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Gets the public key at the given resource, creating it if it is not cached
+     * or if the resource was modified since it was created.
+     *
+     * @param resource     the key resource
+     * @param algorithm    the key algorithm
+     * @param factoryClass the class of the factory that creates the key
+     * @param factory      creates the key
+     * @return the public key
+     * @throws Exception if the key cannot be created
+     */
+    public PublicKey getPublicKey(final Resource resource, final String algorithm, final Class<?> factoryClass,
+                                  final Callable<PublicKey> factory) throws Exception {
+        final Key key = new Key(resource.getDescription(), algorithm, factoryClass);
+        final long lastModified = getLastModified(resource);
+        final CachedPublicKey cached = this.publicKeys.getIfPresent(key);
+        if (cached != null && cached.lastModified == lastModified) {
+            return cached.publicKey;
+        }
+
+        LOGGER.debug("Loading public key from [{}] using [{}]", resource, algorithm);
+        final PublicKey publicKey = factory.call();
+        this.loads.increment();
+        if (publicKey != null) {
+            this.publicKeys.put(key, new CachedPublicKey(lastModified, publicKey));
+        }
+        return publicKey;
+    }
+
+    /**
+     * Remove all cached keys.
+     */
+    public void invalidateAll() {
+        this.publicKeys.invalidateAll();
+    }
+
+    @Gauge(name = "loads")
+    public long getLoads() {
+        return this.loads.sum();
+    }
+
+    private static long getLastModified(final Resource resource) {
+        try {
+            return resource.lastModified();
+        } catch (final IOException e) {
+            LOGGER.trace("Last-modified time of [{}] cannot be determined: [{}]", resource, e.getMessage());
+            return 0;
+        }
+    }
+
+    private static class Key {
+        private final String location;
+        private final String algorithm;
+        private final Class<?> factoryClass;
+
+        Key(final String location, final String algorithm, final Class<?> factoryClass) {
+            this.location = location;
+            this.algorithm = algorithm;
+            this.factoryClass = factoryClass;
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (obj == this) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            final Key rhs = (Key) obj;
+            return new EqualsBuilder()
+                    .append(this.location, rhs.location)
+                    .append(this.algorithm, rhs.algorithm)
+                    .append(this.factoryClass, rhs.factoryClass)
+                    .isEquals();
+        }
+
+        @Override
+        public int hashCode() {
+            return new HashCodeBuilder()
+                    .append(this.location)
+                    .append(this.algorithm)
+                    .append(this.factoryClass)
+                    .toHashCode();
+        }
+    }
+
+    private static class CachedPublicKey {
+        private final long lastModified;
+        private final PublicKey publicKey;
+
+        CachedPublicKey(final long lastModified, final PublicKey publicKey) {
+            this.lastModified = lastModified;
+            this.publicKey = publicKey;
+        }
+    }
+}
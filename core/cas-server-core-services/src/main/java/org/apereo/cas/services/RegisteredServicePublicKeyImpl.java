@@ -10,6 +10,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
 import org.springframework.util.ResourceUtils;
 
 import java.security.PublicKey;
@@ -74,18 +75,28 @@ public class RegisteredServicePublicKeyImpl implements RegisteredServicePublicKe
         this.publicKeyFactoryBeanClass = publicKeyFactoryBeanClass;
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Keys are kept by the {@link RegisteredServicePublicKeyCache} and are only read again
+     * once the key resource is modified.
+     */
     @Override
     public PublicKey createInstance() throws Exception {
         try {
-            final PublicKeyFactoryBean factory = this.publicKeyFactoryBeanClass.newInstance();
+            final Resource resource;
             if (this.location.startsWith(ResourceUtils.CLASSPATH_URL_PREFIX)) {
-                factory.setLocation(new ClassPathResource(StringUtils.removeStart(this.location, ResourceUtils.CLASSPATH_URL_PREFIX)));
+                resource = new ClassPathResource(StringUtils.removeStart(this.location, ResourceUtils.CLASSPATH_URL_PREFIX));
             } else {
-                factory.setLocation(new FileSystemResource(this.location));
+                resource = new FileSystemResource(this.location);
             }
-            factory.setAlgorithm(this.algorithm);
-            factory.setSingleton(false);
-            return factory.getObject();
+            return RegisteredServicePublicKeyCache.getInstance().getPublicKey(resource, this.algorithm, this.publicKeyFactoryBeanClass, () -> {
+                final PublicKeyFactoryBean factory = this.publicKeyFactoryBeanClass.newInstance();
+                factory.setLocation(resource);
+                factory.setAlgorithm(this.algorithm);
+                factory.setSingleton(false);
+                return factory.getObject();
+            });
         } catch (final Exception e) {
             LOGGER.warn(e.getMessage(), e);
             throw Throwables.propagate(e);
@@ -0,0 +1,111 @@
+package org.apereo.cas.services;
+
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Bounded cache of service id to {@link RegisteredService} resolutions.
+ * Unregistered service ids are cached as well, as negative results.
+ * Service ids are expected to be normalized already by the service factory
+ * that produced them, and are used as the cache key as they are.
+ * <p>
+ * The cache is meant to be invalidated wholesale whenever the collection of
+ * services from which results are resolved changes. Resolutions that are in flight
+ * while the cache is invalidated are not retained.
+ *
+ * @author Misagh Moayyed
+ * @since 5.1.0
+ */
+public class RegisteredServiceResolutionCache {
+
+    /**
+     * Default number of resolutions kept in the cache.
+     */
+    public static final long DEFAULT_MAXIMUM_SIZE = 1000;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RegisteredServiceResolutionCache.class);
+
+    private final Cache<String, Optional<RegisteredService>> cache;
+
+    private final long maximumSize;
+
+    private final AtomicLong generation = new AtomicLong();
+
+    public RegisteredServiceResolutionCache() {
+        this(DEFAULT_MAXIMUM_SIZE);
+    }
+
+    public RegisteredServiceResolutionCache(final long maximumSize) {
+        this.maximumSize = maximumSize;
+        this.cache = CacheBuilder.newBuilder()
+                .maximumSize(maximumSize)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Get the registered service resolved for the service id, resolving
+     * and caching it via the given function if not already cached.
+     *
+     * @param serviceId the service id
+     * @param resolver  the function that resolves the registered service, may return null
+     * @return the registered service, or null
+     */
+    public RegisteredService get(final String serviceId, final Function<String, RegisteredService> resolver) {
+        if (serviceId == null) {
+            return resolver.apply(null);
+        }
+        final long current = this.generation.get();
+        try {
+            final Optional<RegisteredService> result = this.cache.get(serviceId, () -> Optional.ofNullable(resolver.apply(serviceId)));
+            if (this.generation.get() != current) {
+                LOGGER.trace("Cache was invalidated while resolving [{}]; discarding cached resolution", serviceId);
+                this.cache.invalidate(serviceId);
+            }
+            return result.orElse(null);
+        } catch (final ExecutionException | UncheckedExecutionException e) {
+            throw Throwables.propagate(e.getCause());
+        }
+    }
+
+    /**
+     * Discard all cached resolutions.
+     */
+    public void invalidate() {
+        this.generation.incrementAndGet();
+        this.cache.invalidateAll();
+        LOGGER.trace("Invalidated all cached registered service resolutions");
+    }
+
+    /**
+     * Current number of cached resolutions.
+     *
+     * @return the size
+     */
+    public long getSize() {
+        return this.cache.size();
+    }
+
+    public long getMaximumSize() {
+        return this.maximumSize;
+    }
+
+    /**
+     * Hit, miss and eviction statistics of this cache.
+     *
+     * @return the stats
+     */
+    public CacheStats getStatistics() {
+        return this.cache.stats();
+    }
+}
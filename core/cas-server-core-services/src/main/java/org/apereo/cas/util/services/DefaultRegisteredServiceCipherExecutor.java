@@ -11,9 +11,12 @@ import org.slf4j.LoggerFactory;
 import javax.crypto.Cipher;
 import java.nio.charset.StandardCharsets;
 import java.security.PublicKey;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 /**
  * Default cipher implementation based on public keys.
+ * Ciphers are initialized once per public key and thread, and are reused for later encryptions.
  *
  * @author Misagh Moayyed
  * @since 4.1
@@ -22,6 +25,20 @@ public class DefaultRegisteredServiceCipherExecutor implements RegisteredService
 
     private static final Logger LOGGER = LoggerFactory.getLogger(DefaultRegisteredServiceCipherExecutor.class);
 
+    private static final int MAXIMUM_CIPHERS_PER_THREAD = 16;
+
+    private static final float LOAD_FACTOR = 0.75f;
+
+    private final ThreadLocal<Map<PublicKey, Cipher>> ciphers = ThreadLocal.withInitial(
+            () -> new LinkedHashMap<PublicKey, Cipher>(MAXIMUM_CIPHERS_PER_THREAD, LOAD_FACTOR, true) {
+                private static final long serialVersionUID = -2407386563128936374L;
+
+                @Override
+                protected boolean removeEldestEntry(final Map.Entry<PublicKey, Cipher> eldest) {
+                    return size() > MAXIMUM_CIPHERS_PER_THREAD;
+                }
+            });
+
     /**
      * Encrypt using the given cipher associated with the service,
      * and encode the data in base 64.
@@ -63,6 +80,7 @@ public class DefaultRegisteredServiceCipherExecutor implements RegisteredService
                 return cipher.doFinal(data.getBytes(StandardCharsets.UTF_8));
             }
         } catch (final Exception e) {
+            this.ciphers.get().remove(publicKey);
             throw Throwables.propagate(e);
         }
         return null;
@@ -92,6 +110,8 @@ public class DefaultRegisteredServiceCipherExecutor implements RegisteredService
 
     /**
      * Initialize cipher based on service public key.
+     * A cipher that was already initialized by this thread for the same public key is reused,
+     * as a cipher returns to its initialized state once it finishes an encryption.
      *
      * @param publicKey the public key
      * @param registeredService the registered service
@@ -100,6 +120,11 @@ public class DefaultRegisteredServiceCipherExecutor implements RegisteredService
      */
     private Cipher initializeCipherBasedOnServicePublicKey(final PublicKey publicKey,
                                                            final RegisteredService registeredService) {
+        final Map<PublicKey, Cipher> threadCiphers = this.ciphers.get();
+        final Cipher initializedCipher = threadCiphers.get(publicKey);
+        if (initializedCipher != null) {
+            return initializedCipher;
+        }
         try {
             LOGGER.debug("Using public key [{}] to initialize the cipher",
                     registeredService.getPublicKey());
@@ -108,6 +133,7 @@ public class DefaultRegisteredServiceCipherExecutor implements RegisteredService
             cipher.init(Cipher.ENCRYPT_MODE, publicKey);
             LOGGER.debug("Initialized cipher in encrypt-mode via the public key algorithm [{}]",
                     publicKey.getAlgorithm());
+            threadCiphers.put(publicKey, cipher);
             return cipher;
         } catch (final Exception e) {
             LOGGER.warn("Cipher could not be initialized for service [{}]. Error [{}]",
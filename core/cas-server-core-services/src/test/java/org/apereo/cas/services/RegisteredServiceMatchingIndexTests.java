@@ -0,0 +1,94 @@
+package org.apereo.cas.services;
+
+import org.apereo.cas.authentication.principal.Service;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+import static org.junit.Assert.*;
+
+/**
+ * This is {@link RegisteredServiceMatchingIndexTests}.
+ *
+ * @author Misagh Moayyed
+ * @since 5.1.0
+ */
+public class RegisteredServiceMatchingIndexTests {
+
+    @Test
+    public void verifyLiteralPrefixes() {
+        assertEquals("https://app.example.org/", RegisteredServiceMatchingIndex.getLiteralPrefix("^https://app\\.example\\.org/.*"));
+        assertEquals("https://app.example.org/", RegisteredServiceMatchingIndex.getLiteralPrefix("HTTPS://App\\.Example\\.org/.+"));
+        assertEquals("http", RegisteredServiceMatchingIndex.getLiteralPrefix("https?://app\\.example\\.org/.*"));
+        assertEquals("http", RegisteredServiceMatchingIndex.getLiteralPrefix("https*://app\\.example\\.org/.*"));
+        assertEquals("http", RegisteredServiceMatchingIndex.getLiteralPrefix("https{0,1}://app\\.example\\.org/.*"));
+        assertEquals("https://", RegisteredServiceMatchingIndex.getLiteralPrefix("https://\\w+\\.example\\.org"));
+        assertEquals("", RegisteredServiceMatchingIndex.getLiteralPrefix("^(https?|imaps?)://.*"));
+        assertEquals("", RegisteredServiceMatchingIndex.getLiteralPrefix("https://app1\\.example\\.org|https://app2\\.example\\.org"));
+        assertEquals("", RegisteredServiceMatchingIndex.getLiteralPrefix(".*"));
+        assertEquals("", RegisteredServiceMatchingIndex.getLiteralPrefix("(?i)https://app\\.example\\.org"));
+    }
+
+    @Test
+    public void verifyFirstMatchHonorsEvaluationOrder() {
+        final List<RegisteredService> services = new ArrayList<>();
+        services.add(newService(1, "https://app\\.example\\.org/secure/.*", 10));
+        services.add(newService(2, "^(https?|imaps?)://.*", 100));
+        services.add(newService(3, "https://app\\.example\\.org/.*", 1));
+        services.add(newService(4, "https://other\\.example\\.org/.*", 5));
+        final RegisteredServiceMatchingIndex index = newIndex(services);
+
+        assertEquals(4, index.size());
+        assertEquals(1, index.getUnindexedCount());
+        assertEquals(3, index.find("https://app.example.org/secure/page").getId());
+        assertEquals(3, index.find("HTTPS://APP.EXAMPLE.ORG/secure/page").getId());
+        assertEquals(4, index.find("https://other.example.org/").getId());
+        assertEquals(2, index.find("https://unknown.example.org/").getId());
+        assertNull(index.find("ftp://app.example.org/"));
+    }
+
+    @Test
+    public void verifyIndexMatchesLinearScan() {
+        final List<RegisteredService> services = new ArrayList<>();
+        services.add(newService(1, "https://app\\.example\\.org/a.*", 5));
+        services.add(newService(2, "https?://app\\.example\\.org/.*", 3));
+        services.add(newService(3, "https://app\\.example\\.org/.*", 4));
+        services.add(newService(4, "https://app\\.example\\.org/ab", 1));
+        services.add(newService(5, ".*example.*", 6));
+        final RegisteredServiceMatchingIndex index = newIndex(services);
+        final Set<RegisteredService> ordered = new ConcurrentSkipListSet<>(services);
+
+        final String[] ids = {"https://app.example.org/ab", "https://app.example.org/abc", "http://app.example.org/abc",
+                "https://app.example.org", "https://www.example.org", "https://www.google.com", ""};
+        for (final String id : ids) {
+            final RegisteredService expected = ordered.stream().filter(r -> r.matches(id)).findFirst().orElse(null);
+            assertEquals(id, expected, index.find(id));
+        }
+    }
+
+    @Test
+    public void verifyNullService() {
+        final List<RegisteredService> services = new ArrayList<>();
+        services.add(newService(1, "https://app\\.example\\.org/.*", 1));
+        final RegisteredServiceMatchingIndex index = newIndex(services);
+        assertNull(index.find((Service) null));
+        assertNull(index.find(RegisteredServiceTestUtils.getService("https://www.google.com")));
+        assertNotNull(index.find(RegisteredServiceTestUtils.getService("https://app.example.org/")));
+    }
+
+    private static RegisteredServiceMatchingIndex newIndex(final List<RegisteredService> services) {
+        return new RegisteredServiceMatchingIndex(new ConcurrentSkipListSet<>(services));
+    }
+
+    private static RegexRegisteredService newService(final long id, final String serviceId, final int order) {
+        final RegexRegisteredService r = new RegexRegisteredService();
+        r.setId(id);
+        r.setName("service" + id);
+        r.setServiceId(serviceId);
+        r.setEvaluationOrder(order);
+        return r;
+    }
+}
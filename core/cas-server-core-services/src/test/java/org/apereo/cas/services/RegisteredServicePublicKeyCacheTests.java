@@ -0,0 +1,47 @@
+package org.apereo.cas.services;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.File;
+import java.security.PublicKey;
+
+import static org.junit.Assert.*;
+
+/**
+ * This is {@link RegisteredServicePublicKeyCacheTests}.
+ *
+ * @author Misagh Moayyed
+ * @since 5.1.0
+ */
+public class RegisteredServicePublicKeyCacheTests {
+    private static final String PUBLIC_KEY = "keys/RSA1024Public.key";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void verifyKeyIsCreatedOnce() throws Exception {
+        final PublicKey publicKey = new RegisteredServicePublicKeyImpl("classpath:" + PUBLIC_KEY, "RSA").createInstance();
+        assertNotNull(publicKey);
+        assertSame(publicKey, new RegisteredServicePublicKeyImpl("classpath:" + PUBLIC_KEY, "RSA").createInstance());
+    }
+
+    @Test
+    public void verifyKeyIsCreatedAgainWhenModified() throws Exception {
+        final File file = this.folder.newFile("public.key");
+        FileUtils.copyInputStreamToFile(new ClassPathResource(PUBLIC_KEY).getInputStream(), file);
+        final RegisteredServicePublicKeyImpl key = new RegisteredServicePublicKeyImpl(file.getCanonicalPath(), "RSA");
+
+        final PublicKey publicKey = key.createInstance();
+        assertSame(publicKey, key.createInstance());
+
+        assertTrue(file.setLastModified(file.lastModified() + 1_000));
+        final PublicKey modifiedKey = key.createInstance();
+        assertNotSame(publicKey, modifiedKey);
+        assertEquals(publicKey, modifiedKey);
+    }
+}
@@ -0,0 +1,86 @@
+package org.apereo.cas.services;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * This is {@link RegisteredServiceResolutionCacheTests}.
+ *
+ * @author Misagh Moayyed
+ * @since 5.1.0
+ */
+public class RegisteredServiceResolutionCacheTests {
+
+    @Test
+    public void verifyResolutionsAreCached() {
+        final RegisteredServiceResolutionCache cache = new RegisteredServiceResolutionCache(10);
+        final RegisteredService service = RegisteredServiceTestUtils.getRegisteredService("https://app.example.org");
+        final AtomicInteger resolutions = new AtomicInteger();
+
+        assertSame(service, cache.get("https://app.example.org", id -> {
+            resolutions.incrementAndGet();
+            return service;
+        }));
+        assertSame(service, cache.get("https://app.example.org", id -> {
+            resolutions.incrementAndGet();
+            return null;
+        }));
+        assertEquals(1, resolutions.get());
+        assertEquals(1, cache.getStatistics().hitCount());
+        assertEquals(1, cache.getStatistics().missCount());
+    }
+
+    @Test
+    public void verifyNegativeResolutionsAreCached() {
+        final RegisteredServiceResolutionCache cache = new RegisteredServiceResolutionCache(10);
+        final AtomicInteger resolutions = new AtomicInteger();
+        for (int i = 0; i < 3; i++) {
+            assertNull(cache.get("https://unknown.example.org", id -> {
+                resolutions.incrementAndGet();
+                return null;
+            }));
+        }
+        assertEquals(1, resolutions.get());
+        assertEquals(1, cache.getSize());
+    }
+
+    @Test
+    public void verifyInvalidationAndEviction() {
+        final RegisteredServiceResolutionCache cache = new RegisteredServiceResolutionCache(2);
+        cache.get("https://app1.example.org", id -> null);
+        cache.get("https://app2.example.org", id -> null);
+        cache.get("https://app3.example.org", id -> null);
+        assertEquals(2, cache.getSize());
+        assertEquals(1, cache.getStatistics().evictionCount());
+
+        cache.invalidate();
+        assertEquals(0, cache.getSize());
+    }
+
+    @Test
+    public void verifyServicesManagerInvalidatesOnSave() {
+        final List<RegisteredService> list = new ArrayList<>();
+        final RegisteredServiceResolutionCache cache = new RegisteredServiceResolutionCache(10);
+        final DefaultServicesManager manager = new DefaultServicesManager(new InMemoryServiceRegistry(list), cache);
+        manager.load();
+
+        assertNull(manager.findServiceBy("https://app.example.org/cas"));
+        assertNull(manager.findServiceBy("https://app.example.org/cas"));
+        assertEquals(1, cache.getStatistics().hitCount());
+
+        final RegexRegisteredService r = new RegexRegisteredService();
+        r.setId(1000);
+        r.setName("app");
+        r.setServiceId("https://app\\.example\\.org/.*");
+        manager.save(r);
+
+        assertEquals(0, cache.getSize());
+        assertNotNull(manager.findServiceBy("https://app.example.org/cas"));
+        assertNotNull(manager.findServiceBy(RegisteredServiceTestUtils.getService("https://app.example.org/cas")));
+    }
+}
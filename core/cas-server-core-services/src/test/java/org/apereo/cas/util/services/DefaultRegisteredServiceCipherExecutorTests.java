@@ -0,0 +1,49 @@
+package org.apereo.cas.util.services;
+
+import org.apereo.cas.services.RegexRegisteredService;
+import org.apereo.cas.services.RegisteredServicePublicKeyImpl;
+import org.apereo.cas.util.EncodingUtils;
+import org.apereo.cas.util.crypto.PrivateKeyFactoryBean;
+import org.junit.Test;
+import org.springframework.core.io.ClassPathResource;
+
+import javax.crypto.Cipher;
+import java.nio.charset.StandardCharsets;
+import java.security.PrivateKey;
+
+import static org.junit.Assert.*;
+
+/**
+ * This is {@link DefaultRegisteredServiceCipherExecutorTests}.
+ *
+ * @author Misagh Moayyed
+ * @since 5.1.0
+ */
+public class DefaultRegisteredServiceCipherExecutorTests {
+
+    @Test
+    public void verifyValuesAreEncryptedWithReusedCipher() throws Exception {
+        final RegexRegisteredService service = new RegexRegisteredService();
+        service.setServiceId("https://www.example.org");
+        service.setPublicKey(new RegisteredServicePublicKeyImpl("classpath:keys/RSA1024Public.key", "RSA"));
+
+        final DefaultRegisteredServiceCipherExecutor cipherExecutor = new DefaultRegisteredServiceCipherExecutor();
+        final String password = cipherExecutor.encode("PrincipalPassword", service);
+        final String pgt = cipherExecutor.encode("PGT-1234567", service);
+
+        assertEquals("PrincipalPassword", decrypt(password));
+        assertEquals("PGT-1234567", decrypt(pgt));
+    }
+
+    private static String decrypt(final String value) throws Exception {
+        final PrivateKeyFactoryBean factory = new PrivateKeyFactoryBean();
+        factory.setAlgorithm("RSA");
+        factory.setLocation(new ClassPathResource("keys/RSA1024Private.p8"));
+        factory.setSingleton(false);
+        final PrivateKey privateKey = factory.getObject();
+
+        final Cipher cipher = Cipher.getInstance(privateKey.getAlgorithm());
+        cipher.init(Cipher.DECRYPT_MODE, privateKey);
+        return new String(cipher.doFinal(EncodingUtils.decodeBase64(value)), StandardCharsets.UTF_8);
+    }
+}
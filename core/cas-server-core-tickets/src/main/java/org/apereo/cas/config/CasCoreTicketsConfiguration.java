@@ -238,8 +238,9 @@ public class CasCoreTicketsConfiguration implements TransactionManagementConfigu
     @ConditionalOnMissingBean(name = "ticketRegistryCleaner")
     @Bean
     public TicketRegistryCleaner ticketRegistryCleaner() {
-        final boolean isCleanerEnabled = casProperties.getTicket().getRegistry().getCleaner().isEnabled();
-        return new DefaultTicketRegistryCleaner(lockingStrategy(), logoutManager, ticketRegistry, isCleanerEnabled);
+        final TicketRegistryProperties.Cleaner cleaner = casProperties.getTicket().getRegistry().getCleaner();
+        return new DefaultTicketRegistryCleaner(lockingStrategy(), logoutManager, ticketRegistry, cleaner.isEnabled(),
+                cleaner.getBatchSize(), cleaner.getMaxRunTime());
     }
 
     @ConditionalOnMissingBean(name = "ticketTransactionManager")
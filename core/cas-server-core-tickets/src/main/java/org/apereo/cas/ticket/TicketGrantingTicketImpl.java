@@ -26,9 +26,11 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Function;
 
 /**
  * Concrete implementation of a TicketGrantingTicket. A TicketGrantingTicket is
@@ -93,6 +95,32 @@ public class TicketGrantingTicketImpl extends AbstractTicket implements TicketGr
     @JsonIgnore
     private Set<ProxyGrantingTicket> proxyGrantingTickets = new HashSet<>();
 
+    /**
+     * Looks up the services of this ticket that are stored apart from it, if any.
+     */
+    private transient Function<String, Map<String, Service>> servicesLoader;
+
+    /**
+     * The services of this ticket that are stored apart from it, once looked up.
+     */
+    private transient Map<String, Service> loadedServices;
+
+    /**
+     * Whether the services of this ticket are stored apart from it, in which case sessions are not tracked
+     * in the services that are stored with the ticket.
+     */
+    private transient boolean servicesStoredApart;
+
+    /**
+     * The sessions tracked by this ticket before its services that are stored apart from it were looked up.
+     */
+    private transient Map<String, Service> trackedServices;
+
+    /**
+     * Whether only the most recent session of a service was tracked by this ticket.
+     */
+    private transient boolean onlyTrackMostRecentTrackedSession;
+
     /**
      * Instantiates a new ticket granting ticket impl.
      */
@@ -188,15 +216,30 @@ public class TicketGrantingTicketImpl extends AbstractTicket implements TicketGr
         final List<Authentication> authentications = getChainedAuthentications();
         service.setPrincipal(authentications.get(authentications.size() - 1).getPrincipal());
 
+        if (!this.servicesStoredApart) {
+            trackServiceSession(this.services, id, service, onlyTrackMostRecentSession);
+        } else if (this.loadedServices != null) {
+            trackServiceSession(this.loadedServices, id, service, onlyTrackMostRecentSession);
+        } else {
+            if (this.trackedServices == null) {
+                this.trackedServices = new LinkedHashMap<>();
+            }
+            this.onlyTrackMostRecentTrackedSession = onlyTrackMostRecentSession;
+            trackServiceSession(this.trackedServices, id, service, onlyTrackMostRecentSession);
+        }
+    }
+
+    private static void trackServiceSession(final Map<String, Service> services, final String id, final Service service,
+                                            final boolean onlyTrackMostRecentSession) {
         if (onlyTrackMostRecentSession) {
             final String path = normalizePath(service);
-            final Collection<Service> existingServices = this.services.values();
+            final Collection<Service> existingServices = services.values();
             // loop on existing services
             existingServices.stream()
                     .filter(existingService -> path.equals(normalizePath(existingService)))
                     .findFirst().ifPresent(existingServices::remove);
         }
-        this.services.put(id, service);
+        services.put(id, service);
     }
 
     /**
@@ -205,7 +248,7 @@ public class TicketGrantingTicketImpl extends AbstractTicket implements TicketGr
      * @param service the service to normalize
      * @return the normalized path
      */
-    private static String normalizePath(final Service service) {
+    public static String normalizePath(final Service service) {
         String path = service.getId();
         path = StringUtils.substringBefore(path, "?");
         path = StringUtils.substringBefore(path, ";");
@@ -220,7 +263,41 @@ public class TicketGrantingTicketImpl extends AbstractTicket implements TicketGr
      */
     @Override
     public synchronized Map<String, Service> getServices() {
-        return new HashMap<>(this.services);
+        final Map<String, Service> services = new HashMap<>(getLoadedServices());
+        services.putAll(this.services);
+        return services;
+    }
+
+    /**
+     * Sets the function that looks up the services of this ticket by its id, when they are stored apart from it.
+     * The services are looked up once, the first time they are needed, and are merged with those stored with the ticket.
+     * Sessions tracked from then on are kept with the services looked up, and not with those stored with the ticket,
+     * so that storing the session is left to whoever stores the services apart from the ticket.
+     *
+     * @param servicesLoader the services loader
+     */
+    @JsonIgnore
+    public synchronized void setServicesLoader(final Function<String, Map<String, Service>> servicesLoader) {
+        this.servicesLoader = servicesLoader;
+        this.servicesStoredApart = servicesLoader != null;
+        this.loadedServices = null;
+        this.trackedServices = null;
+    }
+
+    private Map<String, Service> getLoadedServices() {
+        if (this.servicesLoader != null) {
+            this.loadedServices = new LinkedHashMap<>(this.servicesLoader.apply(getId()));
+            this.servicesLoader = null;
+            if (this.trackedServices != null) {
+                this.trackedServices.forEach((id, service) ->
+                        trackServiceSession(this.loadedServices, id, service, this.onlyTrackMostRecentTrackedSession));
+                this.trackedServices = null;
+            }
+        }
+        if (this.loadedServices != null) {
+            return this.loadedServices;
+        }
+        return this.trackedServices == null ? Collections.emptyMap() : this.trackedServices;
     }
 
     @Override
@@ -232,8 +309,11 @@ public class TicketGrantingTicketImpl extends AbstractTicket implements TicketGr
      * Remove all services of the TGT (at logout).
      */
     @Override
-    public void removeAllServices() {
+    public synchronized void removeAllServices() {
         this.services.clear();
+        this.servicesLoader = null;
+        this.loadedServices = null;
+        this.trackedServices = null;
     }
 
     /**
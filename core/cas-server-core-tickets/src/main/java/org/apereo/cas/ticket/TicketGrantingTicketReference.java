@@ -0,0 +1,225 @@
+package org.apereo.cas.ticket;
+
+import org.apache.commons.lang3.builder.EqualsBuilder;
+import org.apache.commons.lang3.builder.HashCodeBuilder;
+import org.apereo.cas.authentication.Authentication;
+import org.apereo.cas.authentication.principal.Service;
+import org.apereo.cas.ticket.proxy.ProxyGrantingTicket;
+import org.apereo.cas.ticket.registry.TicketRegistry;
+
+import java.time.ZonedDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This is {@link TicketGrantingTicketReference} that stands in for the ticket-granting ticket of a service
+ * or proxy ticket in distributed ticket registries, so that the ticket is stored with the id of its
+ * granting ticket rather than with a copy of it. Only the id is serialized; the granting ticket itself is
+ * looked up from the registry the first time it is needed, and every operation is delegated to it.
+ * If the granting ticket can no longer be found, the reference is considered expired.
+ *
+ * @author Misagh Moayyed
+ * @since 5.1.0
+ */
+public class TicketGrantingTicketReference implements TicketGrantingTicket, TicketState {
+
+    private static final long serialVersionUID = -2835441366473926582L;
+
+    private static final char TICKET_ID_SEPARATOR = '-';
+
+    private String id;
+
+    private transient TicketGrantingTicket ticketGrantingTicket;
+
+    private transient TicketRegistry ticketRegistry;
+
+    /**
+     * Instantiates a new reference, for serialization purposes.
+     */
+    public TicketGrantingTicketReference() {
+    }
+
+    /**
+     * Instantiates a new reference to the given ticket-granting ticket, which is kept until the
+     * reference is serialized.
+     *
+     * @param ticketGrantingTicket the ticket-granting ticket
+     */
+    public TicketGrantingTicketReference(final TicketGrantingTicket ticketGrantingTicket) {
+        this.id = ticketGrantingTicket.getId();
+        this.ticketGrantingTicket = ticketGrantingTicket;
+    }
+
+    /**
+     * Sets the registry from which the ticket-granting ticket is looked up.
+     *
+     * @param ticketRegistry the ticket registry
+     */
+    public void setTicketRegistry(final TicketRegistry ticketRegistry) {
+        this.ticketRegistry = ticketRegistry;
+    }
+
+    @Override
+    public String getId() {
+        return this.id;
+    }
+
+    @Override
+    public boolean isExpired() {
+        final TicketGrantingTicket tgt = resolve();
+        return tgt == null || tgt.isExpired();
+    }
+
+    @Override
+    public TicketGrantingTicket getGrantingTicket() {
+        return getTicketGrantingTicket().getGrantingTicket();
+    }
+
+    @Override
+    public ZonedDateTime getCreationTime() {
+        return getTicketGrantingTicket().getCreationTime();
+    }
+
+    @Override
+    public int getCountOfUses() {
+        return getTicketGrantingTicket().getCountOfUses();
+    }
+
+    @Override
+    public ExpirationPolicy getExpirationPolicy() {
+        return getTicketGrantingTicket().getExpirationPolicy();
+    }
+
+    /**
+     * Gets the prefix of the referenced ticket, which may be a ticket-granting or proxy-granting ticket.
+     * The prefix is that of the ticket, if it is at hand, or else the leading part of the ticket id.
+     *
+     * @return the prefix
+     */
+    @Override
+    public String getPrefix() {
+        if (this.ticketGrantingTicket != null) {
+            return this.ticketGrantingTicket.getPrefix();
+        }
+        final int index = this.id.indexOf(TICKET_ID_SEPARATOR);
+        return index > 0 ? this.id.substring(0, index) : TicketGrantingTicket.PREFIX;
+    }
+
+    @Override
+    public Authentication getAuthentication() {
+        return getTicketGrantingTicket().getAuthentication();
+    }
+
+    @Override
+    public ServiceTicket grantServiceTicket(final String id, final Service service, final ExpirationPolicy expirationPolicy,
+                                            final boolean credentialProvided, final boolean onlyTrackMostRecentSession) {
+        return getTicketGrantingTicket().grantServiceTicket(id, service, expirationPolicy, credentialProvided, onlyTrackMostRecentSession);
+    }
+
+    @Override
+    public Map<String, Service> getServices() {
+        return getTicketGrantingTicket().getServices();
+    }
+
+    @Override
+    public Collection<ProxyGrantingTicket> getProxyGrantingTickets() {
+        return getTicketGrantingTicket().getProxyGrantingTickets();
+    }
+
+    @Override
+    public void removeAllServices() {
+        getTicketGrantingTicket().removeAllServices();
+    }
+
+    @Override
+    public void markTicketExpired() {
+        getTicketGrantingTicket().markTicketExpired();
+    }
+
+    @Override
+    public boolean isRoot() {
+        return getTicketGrantingTicket().isRoot();
+    }
+
+    @Override
+    public TicketGrantingTicket getRoot() {
+        return getTicketGrantingTicket().getRoot();
+    }
+
+    @Override
+    public List<Authentication> getChainedAuthentications() {
+        return getTicketGrantingTicket().getChainedAuthentications();
+    }
+
+    @Override
+    public Service getProxiedBy() {
+        return getTicketGrantingTicket().getProxiedBy();
+    }
+
+    @Override
+    public ZonedDateTime getLastTimeUsed() {
+        return getTicketState().getLastTimeUsed();
+    }
+
+    @Override
+    public ZonedDateTime getPreviousTimeUsed() {
+        return getTicketState().getPreviousTimeUsed();
+    }
+
+    @Override
+    public void update() {
+        getTicketState().update();
+    }
+
+    @Override
+    public int compareTo(final Ticket o) {
+        return getId().compareTo(o.getId());
+    }
+
+    @Override
+    public boolean equals(final Object object) {
+        if (object == null) {
+            return false;
+        }
+        if (object == this) {
+            return true;
+        }
+        if (!(object instanceof TicketGrantingTicket)) {
+            return false;
+        }
+        final Ticket ticket = (Ticket) object;
+        return new EqualsBuilder()
+                .append(ticket.getId(), this.getId())
+                .isEquals();
+    }
+
+    @Override
+    public int hashCode() {
+        return new HashCodeBuilder(13, 133).append(this.getId()).toHashCode();
+    }
+
+    @Override
+    public String toString() {
+        return this.id;
+    }
+
+    private TicketGrantingTicket resolve() {
+        if (this.ticketGrantingTicket == null && this.ticketRegistry != null) {
+            this.ticketGrantingTicket = this.ticketRegistry.getTicket(this.id, TicketGrantingTicket.class);
+        }
+        return this.ticketGrantingTicket;
+    }
+
+    private TicketGrantingTicket getTicketGrantingTicket() {
+        final TicketGrantingTicket tgt = resolve();
+        if (tgt == null) {
+            throw new IllegalStateException("Ticket-granting ticket [" + this.id + "] cannot be found in the ticket registry");
+        }
+        return tgt;
+    }
+
+    private TicketState getTicketState() {
+        return TicketState.class.cast(getTicketGrantingTicket());
+    }
+}
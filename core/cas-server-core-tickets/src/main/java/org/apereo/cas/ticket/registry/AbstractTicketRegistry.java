@@ -6,11 +6,12 @@ import org.apache.commons.lang3.StringUtils;
 import org.apereo.cas.CipherExecutor;
 import org.apereo.cas.authentication.principal.Service;
 import org.apereo.cas.ticket.ServiceTicket;
+import org.apereo.cas.ticket.ServiceTicketImpl;
 import org.apereo.cas.ticket.Ticket;
 import org.apereo.cas.ticket.TicketGrantingTicket;
+import org.apereo.cas.ticket.TicketGrantingTicketReference;
 import org.apereo.cas.ticket.proxy.ProxyGrantingTicket;
 import org.apereo.cas.util.DigestUtils;
-import org.apereo.cas.util.serialization.SerializationUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.util.Assert;
@@ -19,6 +20,7 @@ import java.util.Collection;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * @author Scott Battaglia
@@ -38,6 +40,17 @@ public abstract class AbstractTicketRegistry implements TicketRegistry {
      */
     protected CipherExecutor cipherExecutor;
 
+    /**
+     * The serializer for ticket objects, when encoded.
+     */
+    protected TicketSerializer ticketSerializer = new JavaTicketSerializer();
+
+    /**
+     * Whether service and proxy tickets are stored with the id of their ticket-granting ticket
+     * rather than with a copy of it.
+     */
+    protected boolean storeGrantingTicketById;
+
     /**
      * Default constructor.
      */
@@ -74,8 +87,8 @@ public abstract class AbstractTicketRegistry implements TicketRegistry {
 
     @Override
     public long sessionCount() {
-        try {
-            return getTickets().stream().filter(TicketGrantingTicket.class::isInstance).count();
+        try (Stream<TicketGrantingTicket> tickets = stream(TicketGrantingTicket.class, false)) {
+            return tickets.count();
         } catch (final Throwable t) {
             LOGGER.trace("sessionCount() operation is not implemented by the ticket registry instance [{}]. "
                             + "Message is: [{}] Returning unknown as [{}]",
@@ -86,8 +99,8 @@ public abstract class AbstractTicketRegistry implements TicketRegistry {
 
     @Override
     public long serviceTicketCount() {
-        try {
-            return getTickets().stream().filter(ServiceTicket.class::isInstance).count();
+        try (Stream<ServiceTicket> tickets = stream(ServiceTicket.class, false)) {
+            return tickets.count();
         } catch (final Throwable t) {
             LOGGER.trace("serviceTicketCount() operation is not implemented by the ticket registry instance [{}]. "
                             + "Message is: [{}] Returning unknown as [[{}]]",
@@ -178,6 +191,14 @@ public abstract class AbstractTicketRegistry implements TicketRegistry {
         this.cipherExecutor = cipherExecutor;
     }
 
+    public void setTicketSerializer(final TicketSerializer ticketSerializer) {
+        this.ticketSerializer = ticketSerializer;
+    }
+
+    public void setStoreGrantingTicketById(final boolean storeGrantingTicketById) {
+        this.storeGrantingTicketById = storeGrantingTicketById;
+    }
+
     /**
      * Encode ticket id into a SHA-512.
      *
@@ -204,6 +225,7 @@ public abstract class AbstractTicketRegistry implements TicketRegistry {
      * @return the ticket
      */
     protected Ticket encodeTicket(final Ticket ticket) {
+        referenceGrantingTicket(ticket);
         if (!isCipherExecutorEnabled()) {
             LOGGER.trace(MESSAGE);
             return ticket;
@@ -215,7 +237,7 @@ public abstract class AbstractTicketRegistry implements TicketRegistry {
         }
 
         LOGGER.info("Encoding [{}]", ticket);
-        final byte[] encodedTicketObject = SerializationUtils.serializeAndEncodeObject(this.cipherExecutor, ticket);
+        final byte[] encodedTicketObject = (byte[]) this.cipherExecutor.encode(this.ticketSerializer.serialize(ticket));
         final String encodedTicketId = encodeTicketId(ticket.getId());
         final Ticket encodedTicket = new EncodedTicket(ByteSource.wrap(encodedTicketObject), encodedTicketId);
         LOGGER.info("Created [{}]", encodedTicket);
@@ -232,7 +254,7 @@ public abstract class AbstractTicketRegistry implements TicketRegistry {
         try {
             if (!isCipherExecutorEnabled()) {
                 LOGGER.trace(MESSAGE);
-                return result;
+                return resolveGrantingTicket(result);
             }
 
             if (result == null) {
@@ -243,10 +265,9 @@ public abstract class AbstractTicketRegistry implements TicketRegistry {
             LOGGER.info("Attempting to decode [{}]", result);
             final EncodedTicket encodedTicket = (EncodedTicket) result;
 
-            final Ticket ticket = SerializationUtils.decodeAndDeserializeObject(
-                    encodedTicket.getEncoded(), this.cipherExecutor, Ticket.class);
+            final Ticket ticket = this.ticketSerializer.deserialize((byte[]) this.cipherExecutor.decode(encodedTicket.getEncoded()));
             LOGGER.info("Decoded [{}]", ticket);
-            return ticket;
+            return resolveGrantingTicket(ticket);
         } catch (final Exception e) {
             throw Throwables.propagate(e);
         }
@@ -261,12 +282,64 @@ public abstract class AbstractTicketRegistry implements TicketRegistry {
     protected Collection<Ticket> decodeTickets(final Collection<Ticket> items) {
         if (!isCipherExecutorEnabled()) {
             LOGGER.trace(MESSAGE);
+            items.forEach(this::resolveGrantingTicket);
             return items;
         }
 
         return items.stream().map(this::decodeTicket).collect(Collectors.toSet());
     }
 
+    /**
+     * Decode the tickets of a stream, and filter them down to the given type and, optionally, to those that are expired.
+     * Registries use this to apply what the underlying store could not filter on its own.
+     *
+     * @param <T>         the ticket type
+     * @param tickets     the tickets, as stored
+     * @param type        the type of tickets to keep
+     * @param expiredOnly whether only expired tickets should be kept
+     * @return the stream of decoded tickets
+     */
+    protected <T extends Ticket> Stream<T> decodeTickets(final Stream<Ticket> tickets, final Class<T> type, final boolean expiredOnly) {
+        return tickets.map(this::decodeTicket)
+                .filter(type::isInstance)
+                .map(type::cast)
+                .filter(ticket -> !expiredOnly || ticket.isExpired());
+    }
+
+    /**
+     * Replace the ticket-granting ticket of a service or proxy ticket with a reference to it, if so configured,
+     * so that the ticket is stored with the id of its granting ticket only. The granting ticket remains available
+     * through the reference to the caller until the ticket is read back from the registry.
+     *
+     * @param ticket the ticket
+     */
+    protected void referenceGrantingTicket(final Ticket ticket) {
+        if (this.storeGrantingTicketById && ticket instanceof ServiceTicketImpl) {
+            final ServiceTicketImpl serviceTicket = (ServiceTicketImpl) ticket;
+            final TicketGrantingTicket ticketGrantingTicket = serviceTicket.getGrantingTicket();
+            if (ticketGrantingTicket != null && !(ticketGrantingTicket instanceof TicketGrantingTicketReference)) {
+                LOGGER.trace("Storing [{}] with a reference to its ticket-granting ticket [{}]", ticket, ticketGrantingTicket);
+                serviceTicket.setTicketGrantingTicket(new TicketGrantingTicketReference(ticketGrantingTicket));
+            }
+        }
+    }
+
+    /**
+     * Let the ticket look up its ticket-granting ticket from this registry, if it was stored with a reference to it.
+     *
+     * @param ticket the ticket, as read from the registry
+     * @return the ticket
+     */
+    protected Ticket resolveGrantingTicket(final Ticket ticket) {
+        if (ticket != null) {
+            final TicketGrantingTicket ticketGrantingTicket = ticket.getGrantingTicket();
+            if (ticketGrantingTicket instanceof TicketGrantingTicketReference) {
+                ((TicketGrantingTicketReference) ticketGrantingTicket).setTicketRegistry(this);
+            }
+        }
+        return ticket;
+    }
+
     protected boolean isCipherExecutorEnabled() {
         return this.cipherExecutor != null && this.cipherExecutor.isEnabled();
     }
@@ -1,35 +1,61 @@
 package org.apereo.cas.ticket.registry;
 
 import org.apereo.cas.CipherExecutor;
+import org.apereo.cas.ticket.ServiceTicket;
 import org.apereo.cas.ticket.Ticket;
+import org.apereo.cas.ticket.TicketGrantingTicket;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.util.Assert;
 
+import java.util.AbstractCollection;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
 
 /**
  * Implementation of the TicketRegistry that is backed by a ConcurrentHashMap.
+ * <p>
+ * Tickets are partitioned by their id prefix (i.e. {@code TGT}, {@code ST}, etc), and the registry
+ * keeps running counts of sessions and service tickets along with a {@link TicketExpirationIndex},
+ * so that counting tickets and cleaning expired tickets do not need to visit every ticket in the registry.
  *
  * @author Scott Battaglia
  * @since 3.0.0
  */
 public class DefaultTicketRegistry extends AbstractTicketRegistry {
     private static final Logger LOGGER = LoggerFactory.getLogger(DefaultTicketRegistry.class);
-    
+
+    private static final int DEFAULT_INITIAL_CAPACITY = 16;
+    private static final float DEFAULT_LOAD_FACTOR = 0.75F;
+    private static final int DEFAULT_CONCURRENCY_LEVEL = 1;
+
     /**
-     * A HashMap to contain the tickets.
+     * Maps of tickets, keyed by ticket id prefix.
      */
-    private Map<String, Ticket> cache;
+    private final Map<String, Map<String, Ticket>> cache = new ConcurrentHashMap<>();
+
+    private final LongAdder ticketGrantingTicketCount = new LongAdder();
+
+    private final LongAdder serviceTicketCount = new LongAdder();
+
+    private final TicketExpirationIndex expirationIndex = new TicketExpirationIndex();
+
+    private final int initialCapacity;
+    private final float loadFactor;
+    private final int concurrencyLevel;
 
     /**
      * Instantiates a new default ticket registry.
      */
     public DefaultTicketRegistry() {
-        this.cache = new ConcurrentHashMap<>();
+        this.initialCapacity = DEFAULT_INITIAL_CAPACITY;
+        this.loadFactor = DEFAULT_LOAD_FACTOR;
+        this.concurrencyLevel = DEFAULT_CONCURRENCY_LEVEL;
     }
 
     /**
@@ -49,7 +75,9 @@ public class DefaultTicketRegistry extends AbstractTicketRegistry {
                                  final float loadFactor,
                                  final int concurrencyLevel,
                                  final CipherExecutor cipherExecutor) {
-        this.cache = new ConcurrentHashMap<>(initialCapacity, loadFactor, concurrencyLevel);
+        this.initialCapacity = initialCapacity;
+        this.loadFactor = loadFactor;
+        this.concurrencyLevel = concurrencyLevel;
         setCipherExecutor(cipherExecutor);
     }
 
@@ -58,7 +86,14 @@ public class DefaultTicketRegistry extends AbstractTicketRegistry {
         Assert.notNull(ticket, "ticket cannot be null");
 
         LOGGER.debug("Added ticket [{}] to registry.", ticket.getId());
-        this.cache.put(ticket.getId(), ticket);
+        final Map<String, Ticket> tickets = this.cache.computeIfAbsent(getTicketPrefix(ticket.getId()),
+                prefix -> new ConcurrentHashMap<>(this.initialCapacity, this.loadFactor, this.concurrencyLevel));
+        tickets.compute(ticket.getId(), (id, previous) -> {
+            updateCounts(previous, -1);
+            updateCounts(ticket, 1);
+            this.expirationIndex.schedule(ticket);
+            return ticket;
+        });
     }
 
     @Override
@@ -67,24 +102,74 @@ public class DefaultTicketRegistry extends AbstractTicketRegistry {
         if (ticketId == null) {
             return null;
         }
-        return decodeTicket(this.cache.get(encTicketId));
+        return decodeTicket(getTicketInternal(encTicketId));
     }
 
     @Override
     public boolean deleteSingleTicket(final String ticketId) {
-        return this.cache.remove(ticketId) != null;
+        final Map<String, Ticket> tickets = ticketId == null ? null : this.cache.get(getTicketPrefix(ticketId));
+        if (tickets == null) {
+            return false;
+        }
+        final boolean[] removed = {false};
+        tickets.computeIfPresent(ticketId, (id, previous) -> {
+            updateCounts(previous, -1);
+            this.expirationIndex.remove(id);
+            removed[0] = true;
+            return null;
+        });
+        return removed[0];
     }
 
     @Override
     public long deleteAll() {
-        final int size = this.cache.size();
-        this.cache.clear();
-        return size;
+        long count = 0;
+        for (final Map<String, Ticket> tickets : this.cache.values()) {
+            for (final String ticketId : tickets.keySet()) {
+                if (deleteSingleTicket(ticketId)) {
+                    count++;
+                }
+            }
+        }
+        return count;
     }
 
     @Override
     public Collection<Ticket> getTickets() {
-        return Collections.unmodifiableCollection(this.cache.values());
+        return Collections.unmodifiableCollection(new AbstractCollection<Ticket>() {
+            @Override
+            public Iterator<Ticket> iterator() {
+                return cache.values().stream().flatMap(tickets -> tickets.values().stream()).iterator();
+            }
+
+            @Override
+            public int size() {
+                return cache.values().stream().mapToInt(Map::size).sum();
+            }
+        });
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Every ticket is visited, even when only expired tickets are requested, since tickets may expire
+     * ahead of the check time recorded in the expiration index, such as when their uses run out or when
+     * they are marked expired; the expiration index only paces the registry cleaner.
+     */
+    @Override
+    public <T extends Ticket> Stream<T> stream(final Class<T> type, final boolean expiredOnly) {
+        final Stream<Ticket> tickets = this.cache.values().stream().flatMap(partition -> partition.values().stream());
+        return decodeTickets(tickets, type, expiredOnly);
+    }
+
+    @Override
+    public Collection<Ticket> getExpiredTickets() {
+        return getExpiredTickets(null, Integer.MAX_VALUE).getTickets();
+    }
+
+    @Override
+    public ExpiredTicketPage getExpiredTickets(final String cursor, final int limit) {
+        return this.expirationIndex.getExpiredTickets(this::getTicketInternal, limit);
     }
 
     @Override
@@ -92,4 +177,38 @@ public class DefaultTicketRegistry extends AbstractTicketRegistry {
         addTicket(ticket);
         return ticket;
     }
+
+    @Override
+    public long sessionCount() {
+        return this.ticketGrantingTicketCount.sum();
+    }
+
+    @Override
+    public long serviceTicketCount() {
+        return this.serviceTicketCount.sum();
+    }
+
+    private Ticket getTicketInternal(final String ticketId) {
+        final Map<String, Ticket> tickets = this.cache.get(getTicketPrefix(ticketId));
+        return tickets == null ? null : tickets.get(ticketId);
+    }
+
+    private void updateCounts(final Ticket ticket, final int delta) {
+        if (ticket instanceof TicketGrantingTicket) {
+            this.ticketGrantingTicketCount.add(delta);
+        } else if (ticket instanceof ServiceTicket) {
+            this.serviceTicketCount.add(delta);
+        }
+    }
+
+    /**
+     * Gets the ticket id prefix, which is the portion of the id before the first separator.
+     *
+     * @param ticketId the ticket id
+     * @return the prefix, or an empty string if the id carries none
+     */
+    private static String getTicketPrefix(final String ticketId) {
+        final int index = ticketId.indexOf('-');
+        return index > 0 ? ticketId.substring(0, index) : "";
+    }
 }
@@ -1,17 +1,19 @@
 package org.apereo.cas.ticket.registry;
 
 import org.apereo.cas.logout.LogoutManager;
+import org.apereo.cas.support.events.ticket.CasTicketRegistryCleanedEvent;
 import org.apereo.cas.ticket.ServiceTicket;
 import org.apereo.cas.ticket.Ticket;
 import org.apereo.cas.ticket.TicketGrantingTicket;
 import org.apereo.cas.ticket.registry.support.LockingStrategy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.ApplicationEventPublisherAware;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.Collection;
-import java.util.stream.Collectors;
+import java.util.Iterator;
 
 /**
  * This is {@link DefaultTicketRegistryCleaner}.
@@ -20,7 +22,7 @@ import java.util.stream.Collectors;
  * @since 5.0.0
  */
 @Transactional(transactionManager = "ticketTransactionManager", readOnly = false)
-public class DefaultTicketRegistryCleaner implements TicketRegistryCleaner {
+public class DefaultTicketRegistryCleaner implements TicketRegistryCleaner, ApplicationEventPublisherAware {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(DefaultTicketRegistryCleaner.class);
 
@@ -28,16 +30,43 @@ public class DefaultTicketRegistryCleaner implements TicketRegistryCleaner {
     private final TicketRegistry ticketRegistry;
     private final LockingStrategy lockingStrategy;
     private final boolean isCleanerEnabled;
+    private final int batchSize;
+    private final long maxRunTime;
+
+    private ApplicationEventPublisher applicationEventPublisher;
+
+    private volatile String cursor;
 
     public DefaultTicketRegistryCleaner(final LockingStrategy lockingStrategy, 
                                         final LogoutManager logoutManager, 
                                         final TicketRegistry ticketRegistry,
                                         final boolean isCleanerEnabled) {
+        this(lockingStrategy, logoutManager, ticketRegistry, isCleanerEnabled, 0, 0);
+    }
+
+    /**
+     * Instantiates a new ticket registry cleaner that collects and removes expired tickets in pages.
+     *
+     * @param lockingStrategy  the locking strategy
+     * @param logoutManager    the logout manager
+     * @param ticketRegistry   the ticket registry
+     * @param isCleanerEnabled whether the cleaner is enabled
+     * @param batchSize        the number of expired tickets collected per page; zero or less collects all in one page
+     * @param maxRunTime       the time in milliseconds after which a run stops removing tickets; zero or less for no limit
+     */
+    public DefaultTicketRegistryCleaner(final LockingStrategy lockingStrategy,
+                                        final LogoutManager logoutManager,
+                                        final TicketRegistry ticketRegistry,
+                                        final boolean isCleanerEnabled,
+                                        final int batchSize,
+                                        final long maxRunTime) {
 
         this.lockingStrategy = lockingStrategy;
         this.logoutManager = logoutManager;
         this.ticketRegistry = ticketRegistry;
         this.isCleanerEnabled = isCleanerEnabled;
+        this.batchSize = batchSize > 0 ? batchSize : Integer.MAX_VALUE;
+        this.maxRunTime = maxRunTime;
     }
 
     @Scheduled(initialDelayString = "${cas.ticket.registry.cleaner.startDelay:20000}",
@@ -74,30 +103,81 @@ public class DefaultTicketRegistryCleaner implements TicketRegistryCleaner {
     }
 
     /**
-     * Clean tickets.
+     * Clean tickets, one page at a time. Pages are collected from the registry until
+     * a pass over the registry completes or the run exceeds its allotted time, in which case
+     * the next run resumes from the cursor of the last page. Each run removes at least one expired ticket, if any.
+     * Registries that start over with each page are asked for another page as long as the last one was full; a
+     * last page with more tickets than requested holds every expired ticket in the registry, and completes the run.
      */
     protected void cleanInternal() {
-        final Collection<Ticket> ticketsToRemove = ticketRegistry.getTickets()
-                .stream()
-                .filter(Ticket::isExpired)
-                .collect(Collectors.toSet());
-        LOGGER.debug("[{}] expired tickets found.", ticketsToRemove.size());
-
-        int count = 0;
-
-        for (final Ticket ticket : ticketsToRemove) {
-            if (ticket instanceof TicketGrantingTicket) {
-                LOGGER.debug("Cleaning up expired ticket-granting ticket [{}]", ticket.getId());
-                logoutManager.performLogout((TicketGrantingTicket) ticket);
-                count += ticketRegistry.deleteTicket(ticket.getId());
-            } else if (ticket instanceof ServiceTicket) {
-                LOGGER.debug("Cleaning up expired service ticket [{}]", ticket.getId());
-                count += ticketRegistry.deleteTicket(ticket.getId());
-            } else {
-                LOGGER.warn("Unknown ticket type [{}] found to clean", ticket.getClass().getSimpleName());
+        final long startTime = System.currentTimeMillis();
+        long scanned = 0;
+        long removed = 0;
+        long backlog = 0;
+        boolean proceed = true;
+
+        while (proceed) {
+            final ExpiredTicketPage page = this.ticketRegistry.getExpiredTickets(this.cursor, this.batchSize);
+            this.cursor = page.getNextCursor();
+            scanned += page.getScanned();
+            LOGGER.debug("[{}] expired tickets found in a page of [{}] examined tickets.", page.getTickets().size(), page.getScanned());
+
+            long removedFromPage = 0;
+            boolean overTimeBudget = false;
+            final Iterator<Ticket> it = page.getTickets().iterator();
+            while (it.hasNext() && !overTimeBudget) {
+                removedFromPage += cleanTicket(it.next());
+                overTimeBudget = isOverTimeBudget(startTime);
+            }
+            while (it.hasNext()) {
+                it.next();
+                backlog++;
+            }
+            removed += removedFromPage;
+
+            if (overTimeBudget || isOverTimeBudget(startTime)) {
+                LOGGER.debug("Ticket registry cleaner exceeded its allotted time of [{}] ms", this.maxRunTime);
+                proceed = false;
+            } else if (page.isLast()) {
+                proceed = page.getTickets().size() == this.batchSize && removedFromPage > 0;
             }
         }
-        LOGGER.info("[{}] expired tickets removed.", count);
+
+        final long duration = System.currentTimeMillis() - startTime;
+        LOGGER.info("[{}] expired tickets removed. [{}] tickets examined in [{}] ms; [{}] expired tickets left for the next run.",
+                removed, scanned, duration, backlog);
+        if (this.applicationEventPublisher != null) {
+            this.applicationEventPublisher.publishEvent(new CasTicketRegistryCleanedEvent(this, scanned, removed, duration, backlog));
+        }
+    }
+
+    /**
+     * Clean a single expired ticket, and its children.
+     *
+     * @param ticket the ticket
+     * @return the number of tickets removed
+     */
+    protected int cleanTicket(final Ticket ticket) {
+        if (ticket instanceof TicketGrantingTicket) {
+            LOGGER.debug("Cleaning up expired ticket-granting ticket [{}]", ticket.getId());
+            this.logoutManager.performLogout((TicketGrantingTicket) ticket);
+            return this.ticketRegistry.deleteTicket(ticket.getId());
+        }
+        if (ticket instanceof ServiceTicket) {
+            LOGGER.debug("Cleaning up expired service ticket [{}]", ticket.getId());
+            return this.ticketRegistry.deleteTicket(ticket.getId());
+        }
+        LOGGER.warn("Unknown ticket type [{}] found to clean", ticket.getClass().getSimpleName());
+        return 0;
+    }
+
+    private boolean isOverTimeBudget(final long startTime) {
+        return this.maxRunTime > 0 && System.currentTimeMillis() - startTime >= this.maxRunTime;
+    }
+
+    @Override
+    public void setApplicationEventPublisher(final ApplicationEventPublisher applicationEventPublisher) {
+        this.applicationEventPublisher = applicationEventPublisher;
     }
 
     /**
@@ -0,0 +1,25 @@
+package org.apereo.cas.ticket.registry;
+
+import org.apereo.cas.ticket.Ticket;
+import org.apereo.cas.util.serialization.SerializationUtils;
+
+/**
+ * This is {@link JavaTicketSerializer} that relies on standard java serialization.
+ * It is the default serializer of ticket registries. Serialized tickets carry the
+ * java serialization stream header, by which they can be recognized.
+ *
+ * @author Misagh Moayyed
+ * @since 5.1.0
+ */
+public class JavaTicketSerializer implements TicketSerializer {
+
+    @Override
+    public byte[] serialize(final Ticket ticket) {
+        return SerializationUtils.serialize(ticket);
+    }
+
+    @Override
+    public Ticket deserialize(final byte[] data) {
+        return SerializationUtils.deserializeAndCheckObject(data, Ticket.class);
+    }
+}
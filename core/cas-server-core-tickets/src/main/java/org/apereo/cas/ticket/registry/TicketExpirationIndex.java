@@ -0,0 +1,230 @@
+package org.apereo.cas.ticket.registry;
+
+import org.apereo.cas.ticket.ExpirationPolicy;
+import org.apereo.cas.ticket.Ticket;
+import org.apereo.cas.ticket.TicketState;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Index of ticket ids ordered by the time at which each ticket should next be checked for expiration.
+ * <p>
+ * The check time is derived from the time-to-live and time-to-idle of the ticket expiration policy,
+ * relative to the ticket creation and last-used times. Since expiration policies are free to
+ * implement their own rules, the check time is only a hint: tickets whose policy does not
+ * describe a usable duration are checked on every pass, and no ticket is deferred longer than
+ * {@link #MAX_CHECK_DEFERRAL}. Tickets that are due but found not to be expired yet are
+ * rescheduled, so the cost of a pass is proportional to the number of tickets that are due
+ * rather than the number of tickets in the registry.
+ *
+ * @author Misagh Moayyed
+ * @since 5.1.0
+ */
+public class TicketExpirationIndex {
+
+    /**
+     * The longest time a ticket is left alone before it is checked again,
+     * regardless of what its expiration policy reports.
+     */
+    public static final Duration MAX_CHECK_DEFERRAL = Duration.ofHours(1);
+
+    private final NavigableSet<Entry> entries = new ConcurrentSkipListSet<>();
+
+    private final Map<String, Entry> entriesById = new ConcurrentHashMap<>();
+
+    /**
+     * Schedule the ticket for its next expiration check, replacing any existing schedule.
+     *
+     * @param ticket the ticket
+     */
+    public void schedule(final Ticket ticket) {
+        schedule(ticket.getId(), getCheckTime(ticket, Instant.now()));
+    }
+
+    /**
+     * Remove the ticket from the index.
+     *
+     * @param ticketId the ticket id
+     */
+    public void remove(final String ticketId) {
+        this.entriesById.computeIfPresent(ticketId, (id, existing) -> {
+            this.entries.remove(existing);
+            return null;
+        });
+    }
+
+    /**
+     * Remove all tickets from the index.
+     */
+    public void clear() {
+        this.entriesById.clear();
+        this.entries.clear();
+    }
+
+    /**
+     * Number of tickets in the index.
+     *
+     * @return the size
+     */
+    public int size() {
+        return this.entriesById.size();
+    }
+
+    /**
+     * Collect the tickets that are due for an expiration check and are expired.
+     * Due tickets that are not expired are rescheduled past the current time, so
+     * each is visited at most once per pass; due ids that no longer resolve to a ticket
+     * are dropped from the index. The index always resumes with the earliest check time,
+     * so the page carries no cursor.
+     *
+     * @param ticketResolver function that resolves the ticket for an id, may return null
+     * @param limit          maximum number of expired tickets to collect
+     * @return the expired tickets, oldest check time first
+     */
+    public ExpiredTicketPage getExpiredTickets(final Function<String, Ticket> ticketResolver, final int limit) {
+        final Instant now = Instant.now();
+        final long nextCheckTime = now.toEpochMilli() + 1;
+        final List<Ticket> expired = new ArrayList<>();
+        long scanned = 0;
+        for (final Entry entry : this.entries.headSet(new Entry(nextCheckTime, null))) {
+            if (expired.size() >= limit) {
+                break;
+            }
+            scanned++;
+            final Ticket ticket = ticketResolver.apply(entry.ticketId);
+            if (ticket == null) {
+                remove(entry.ticketId);
+            } else if (ticket.isExpired()) {
+                expired.add(ticket);
+            } else {
+                reschedule(entry, Math.max(getCheckTime(ticket, now), nextCheckTime));
+            }
+        }
+        return new ExpiredTicketPage(expired, scanned, null);
+    }
+
+    /**
+     * Stream the ids of the tickets that are due for an expiration check at the given time,
+     * earliest check time first. Unlike {@link #getExpiredTickets(Function, int)}, the index is left as is.
+     * Check times are derived from the time-to-live and time-to-idle of expiration policies, so tickets
+     * that expire ahead of their check time, such as tickets whose uses have run out, tickets that were
+     * marked expired or tickets whose policy depends on the authentication, are not due until that time.
+     *
+     * @param now the current time
+     * @return the stream of ticket ids
+     */
+    public Stream<String> getDueTicketIds(final Instant now) {
+        return this.entries.headSet(new Entry(now.toEpochMilli() + 1, null)).stream().map(entry -> entry.ticketId);
+    }
+
+    private void schedule(final String ticketId, final long checkTime) {
+        this.entriesById.compute(ticketId, (id, existing) -> {
+            if (existing != null) {
+                this.entries.remove(existing);
+            }
+            final Entry entry = new Entry(checkTime, id);
+            this.entries.add(entry);
+            return entry;
+        });
+    }
+
+    private void reschedule(final Entry current, final long checkTime) {
+        this.entriesById.computeIfPresent(current.ticketId, (id, existing) -> {
+            if (existing != current) {
+                return existing;
+            }
+            this.entries.remove(existing);
+            final Entry entry = new Entry(checkTime, id);
+            this.entries.add(entry);
+            return entry;
+        });
+    }
+
+    /**
+     * Gets the time at which the ticket should be checked for expiration.
+     *
+     * @param ticket the ticket
+     * @param now    the current time
+     * @return the check time, in epoch milliseconds
+     */
+    public static long getCheckTime(final Ticket ticket, final Instant now) {
+        final ExpirationPolicy policy = ticket.getExpirationPolicy();
+        final long latest = now.plus(MAX_CHECK_DEFERRAL).toEpochMilli();
+        if (policy == null) {
+            return now.toEpochMilli();
+        }
+        long checkTime = latest;
+        boolean described = false;
+        final ZonedDateTime creationTime = ticket.getCreationTime();
+        if (isUsableDuration(policy.getTimeToLive()) && creationTime != null) {
+            checkTime = Math.min(checkTime, plusSeconds(creationTime, policy.getTimeToLive()));
+            described = true;
+        }
+        final ZonedDateTime lastTimeUsed = ticket instanceof TicketState ? ((TicketState) ticket).getLastTimeUsed() : null;
+        if (isUsableDuration(policy.getTimeToIdle()) && lastTimeUsed != null) {
+            checkTime = Math.min(checkTime, plusSeconds(lastTimeUsed, policy.getTimeToIdle()));
+            described = true;
+        }
+        return described ? checkTime : now.toEpochMilli();
+    }
+
+    private static boolean isUsableDuration(final Long seconds) {
+        return seconds != null && seconds > 0;
+    }
+
+    private static long plusSeconds(final ZonedDateTime time, final long seconds) {
+        if (seconds >= Integer.MAX_VALUE) {
+            return Long.MAX_VALUE;
+        }
+        return time.toInstant().plusSeconds(seconds).toEpochMilli();
+    }
+
+    /**
+     * An entry in the index, ordered by check time and then ticket id.
+     * The lowest possible entry for a given time carries a null ticket id.
+     */
+    private static class Entry implements Comparable<Entry> {
+        private final long checkTime;
+        private final String ticketId;
+
+        Entry(final long checkTime, final String ticketId) {
+            this.checkTime = checkTime;
+            this.ticketId = ticketId;
+        }
+
+        @Override
+        public int compareTo(final Entry other) {
+            final int result = Long.compare(this.checkTime, other.checkTime);
+            if (result != 0) {
+                return result;
+            }
+            if (this.ticketId == null) {
+                return other.ticketId == null ? 0 : -1;
+            }
+            return other.ticketId == null ? 1 : this.ticketId.compareTo(other.ticketId);
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (!(obj instanceof Entry)) {
+                return false;
+            }
+            return compareTo((Entry) obj) == 0;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(this.checkTime) * 31 + (this.ticketId == null ? 0 : this.ticketId.hashCode());
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package org.apereo.cas.ticket;
+
+import org.apache.commons.lang3.SerializationUtils;
+import org.apereo.cas.authentication.CoreAuthenticationTestUtils;
+import org.apereo.cas.services.RegisteredServiceTestUtils;
+import org.apereo.cas.ticket.proxy.ProxyGrantingTicket;
+import org.apereo.cas.ticket.proxy.ProxyTicket;
+import org.apereo.cas.ticket.registry.AbstractTicketRegistry;
+import org.apereo.cas.ticket.support.NeverExpiresExpirationPolicy;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+/**
+ * This is {@link TicketGrantingTicketReferenceTests}.
+ *
+ * @author Misagh Moayyed
+ * @since 5.1.0
+ */
+public class TicketGrantingTicketReferenceTests {
+
+    private SerializingTicketRegistry ticketRegistry;
+
+    private TicketGrantingTicket ticketGrantingTicket;
+
+    @Before
+    public void setUp() {
+        this.ticketRegistry = new SerializingTicketRegistry();
+        this.ticketRegistry.setStoreGrantingTicketById(true);
+        this.ticketGrantingTicket = new TicketGrantingTicketImpl("TGT-1", CoreAuthenticationTestUtils.getAuthentication(),
+                new NeverExpiresExpirationPolicy());
+        this.ticketRegistry.addTicket(this.ticketGrantingTicket);
+    }
+
+    @Test
+    public void verifyServiceTicketIsStoredWithIdOfGrantingTicket() {
+        final ServiceTicket st = this.ticketGrantingTicket.grantServiceTicket("ST-1", RegisteredServiceTestUtils.getService(),
+                new NeverExpiresExpirationPolicy(), false, true);
+        this.ticketRegistry.addTicket(st);
+        assertTrue(st.getGrantingTicket() instanceof TicketGrantingTicketReference);
+        assertEquals(this.ticketGrantingTicket.getAuthentication(), st.getGrantingTicket().getAuthentication());
+
+        this.ticketRegistry.setStoreGrantingTicketById(false);
+        final ServiceTicket embedded = this.ticketGrantingTicket.grantServiceTicket("ST-2", RegisteredServiceTestUtils.getService(),
+                new NeverExpiresExpirationPolicy(), false, true);
+        this.ticketRegistry.addTicket(embedded);
+        assertTrue(this.ticketRegistry.getSize("ST-1") < this.ticketRegistry.getSize("ST-2"));
+
+        final ServiceTicket stored = this.ticketRegistry.getTicket("ST-1", ServiceTicket.class);
+        assertEquals(st, stored);
+        assertEquals(this.ticketGrantingTicket, stored.getGrantingTicket());
+        assertEquals(stored.getGrantingTicket(), this.ticketGrantingTicket);
+        assertFalse(stored.isExpired());
+        assertTrue(stored.isValidFor(RegisteredServiceTestUtils.getService()));
+        assertEquals(this.ticketGrantingTicket, stored.getGrantingTicket().getRoot());
+        assertEquals(this.ticketGrantingTicket.getAuthentication(), stored.getGrantingTicket().getAuthentication());
+        assertEquals(1, stored.getGrantingTicket().getChainedAuthentications().size());
+    }
+
+    @Test
+    public void verifyProxyGrantingTicketOfStoredServiceTicket() {
+        this.ticketRegistry.addTicket(this.ticketGrantingTicket.grantServiceTicket("ST-1", RegisteredServiceTestUtils.getService(),
+                new NeverExpiresExpirationPolicy(), false, true));
+        final ServiceTicket st = this.ticketRegistry.getTicket("ST-1", ServiceTicket.class);
+        final ProxyGrantingTicket pgt = st.grantProxyGrantingTicket("PGT-1", CoreAuthenticationTestUtils.getAuthentication(),
+                new NeverExpiresExpirationPolicy());
+        this.ticketRegistry.addTicket(pgt);
+
+        final ProxyGrantingTicket stored = this.ticketRegistry.getTicket("PGT-1", ProxyGrantingTicket.class);
+        assertEquals(this.ticketGrantingTicket, stored.getRoot());
+        assertEquals(2, stored.getChainedAuthentications().size());
+        assertFalse(stored.isExpired());
+
+        this.ticketRegistry.addTicket(stored.grantProxyTicket("PT-1", RegisteredServiceTestUtils.getService(),
+                new NeverExpiresExpirationPolicy(), true));
+        final ProxyTicket pt = this.ticketRegistry.getTicket("PT-1", ProxyTicket.class);
+        assertTrue(pt.getGrantingTicket() instanceof TicketGrantingTicketReference);
+        assertEquals(ProxyGrantingTicket.PROXY_GRANTING_TICKET_PREFIX, pt.getGrantingTicket().getPrefix());
+        assertEquals(TicketGrantingTicket.PREFIX, this.ticketRegistry.getTicket("ST-1", ServiceTicket.class).getGrantingTicket().getPrefix());
+    }
+
+    @Test
+    public void verifyServiceTicketExpiresWithoutGrantingTicket() {
+        this.ticketRegistry.addTicket(this.ticketGrantingTicket.grantServiceTicket("ST-1", RegisteredServiceTestUtils.getService(),
+                new NeverExpiresExpirationPolicy(), false, true));
+        this.ticketRegistry.deleteSingleTicket(this.ticketGrantingTicket.getId());
+
+        final ServiceTicket stored = this.ticketRegistry.getTicket("ST-1", ServiceTicket.class);
+        assertNotNull(stored);
+        assertTrue(stored.isExpired());
+    }
+
+    private static class SerializingTicketRegistry extends AbstractTicketRegistry {
+        private final Map<String, byte[]> tickets = new HashMap<>();
+
+        int getSize(final String ticketId) {
+            return this.tickets.get(ticketId).length;
+        }
+
+        @Override
+        public Ticket updateTicket(final Ticket ticket) {
+            addTicket(ticket);
+            return ticket;
+        }
+
+        @Override
+        public void addTicket(final Ticket ticket) {
+            this.tickets.put(ticket.getId(), SerializationUtils.serialize(encodeTicket(ticket)));
+        }
+
+        @Override
+        public Ticket getTicket(final String ticketId) {
+            final byte[] ticket = this.tickets.get(ticketId);
+            return ticket == null ? null : decodeTicket(SerializationUtils.deserialize(ticket));
+        }
+
+        @Override
+        public Collection<Ticket> getTickets() {
+            return this.tickets.keySet().stream().map(this::getTicket).collect(Collectors.toList());
+        }
+
+        @Override
+        public boolean deleteSingleTicket(final String ticketId) {
+            return this.tickets.remove(ticketId) != null;
+        }
+
+        @Override
+        public long deleteAll() {
+            final int size = this.tickets.size();
+            this.tickets.clear();
+            return size;
+        }
+    }
+}
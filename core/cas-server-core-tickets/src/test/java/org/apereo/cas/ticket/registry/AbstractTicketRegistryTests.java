@@ -13,6 +13,7 @@ import org.junit.Test;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.stream.Stream;
 
 import static org.junit.Assert.*;
 
@@ -217,6 +218,32 @@ public abstract class AbstractTicketRegistryTests {
         }
     }
 
+    @Test
+    public void verifyStreamedTicketsAreFiltered() {
+        for (int i = 0; i < TICKETS_IN_REGISTRY; i++) {
+            final TicketGrantingTicket ticketGrantingTicket = new TicketGrantingTicketImpl(TicketGrantingTicket.PREFIX + i,
+                    CoreAuthenticationTestUtils.getAuthentication(), new NeverExpiresExpirationPolicy());
+            final ServiceTicket st = ticketGrantingTicket.grantServiceTicket(ServiceTicket.PREFIX + i,
+                    RegisteredServiceTestUtils.getService(),
+                    new NeverExpiresExpirationPolicy(), false, true);
+            this.ticketRegistry.addTicket(ticketGrantingTicket);
+            this.ticketRegistry.addTicket(st);
+        }
+
+        try (Stream<Ticket> tickets = this.ticketRegistry.stream()) {
+            assertEquals(TICKETS_IN_REGISTRY * 2, tickets.count());
+        }
+        try (Stream<TicketGrantingTicket> tickets = this.ticketRegistry.stream(TicketGrantingTicket.class, false)) {
+            assertEquals(TICKETS_IN_REGISTRY, tickets.filter(t -> t.getId().startsWith(TicketGrantingTicket.PREFIX)).count());
+        }
+        try (Stream<ServiceTicket> tickets = this.ticketRegistry.stream(ServiceTicket.class, false)) {
+            assertEquals(TICKETS_IN_REGISTRY, tickets.filter(t -> t.getId().startsWith(ServiceTicket.PREFIX)).count());
+        }
+        try (Stream<Ticket> tickets = this.ticketRegistry.stream(Ticket.class, true)) {
+            assertEquals(0, tickets.count());
+        }
+    }
+
     @Test
     public void verifyDeleteTicketWithChildren() {
         try {
@@ -0,0 +1,150 @@
+package org.apereo.cas.ticket.registry;
+
+import org.apereo.cas.authentication.CoreAuthenticationTestUtils;
+import org.apereo.cas.logout.LogoutManager;
+import org.apereo.cas.support.events.ticket.CasTicketRegistryCleanedEvent;
+import org.apereo.cas.ticket.Ticket;
+import org.apereo.cas.ticket.TicketGrantingTicketImpl;
+import org.apereo.cas.ticket.support.AlwaysExpiresExpirationPolicy;
+import org.apereo.cas.ticket.support.NeverExpiresExpirationPolicy;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * This is {@link DefaultTicketRegistryCleanerTests}.
+ *
+ * @author Misagh Moayyed
+ * @since 5.1.0
+ */
+public class DefaultTicketRegistryCleanerTests {
+
+    @Test
+    public void verifyExpiredTicketsAreRemovedInBatches() {
+        final TicketRegistry registry = newTicketRegistry(25, 5);
+        final LogoutManager logoutManager = mock(LogoutManager.class);
+        final ApplicationEventPublisher publisher = mock(ApplicationEventPublisher.class);
+        final DefaultTicketRegistryCleaner cleaner = new DefaultTicketRegistryCleaner(new NoOpLockingStrategy(),
+                logoutManager, registry, true, 10, 0);
+        cleaner.setApplicationEventPublisher(publisher);
+        cleaner.clean();
+
+        assertEquals(5, registry.getTickets().size());
+        verify(logoutManager, times(25)).performLogout(any());
+
+        final ArgumentCaptor<CasTicketRegistryCleanedEvent> event = ArgumentCaptor.forClass(CasTicketRegistryCleanedEvent.class);
+        verify(publisher).publishEvent(event.capture());
+        assertEquals(25, event.getValue().getRemoved());
+        assertEquals(25, event.getValue().getScanned());
+        assertEquals(0, event.getValue().getBacklog());
+    }
+
+    @Test
+    public void verifyRunStopsOnceOverTime() {
+        final TicketRegistry registry = newTicketRegistry(10, 0);
+        final LogoutManager logoutManager = mock(LogoutManager.class);
+        when(logoutManager.performLogout(any())).thenAnswer(invocation -> {
+            Thread.sleep(20);
+            return null;
+        });
+        final ApplicationEventPublisher publisher = mock(ApplicationEventPublisher.class);
+        final DefaultTicketRegistryCleaner cleaner = new DefaultTicketRegistryCleaner(new NoOpLockingStrategy(),
+                logoutManager, registry, true, 100, 1);
+        cleaner.setApplicationEventPublisher(publisher);
+        cleaner.clean();
+
+        final ArgumentCaptor<CasTicketRegistryCleanedEvent> event = ArgumentCaptor.forClass(CasTicketRegistryCleanedEvent.class);
+        verify(publisher).publishEvent(event.capture());
+        assertEquals(1, event.getValue().getRemoved());
+        assertEquals(9, event.getValue().getBacklog());
+        assertEquals(9, registry.getTickets().size());
+
+        cleaner.clean();
+        assertEquals(8, registry.getTickets().size());
+    }
+
+    @Test
+    public void verifyRegistryWithoutExpirationQueriesIsScannedOnce() {
+        final ScanningTicketRegistry registry = new ScanningTicketRegistry();
+        addTickets(registry, 25, 5);
+        final LogoutManager logoutManager = mock(LogoutManager.class);
+        final ApplicationEventPublisher publisher = mock(ApplicationEventPublisher.class);
+        final DefaultTicketRegistryCleaner cleaner = new DefaultTicketRegistryCleaner(new NoOpLockingStrategy(),
+                logoutManager, registry, true, 10, 0);
+        cleaner.setApplicationEventPublisher(publisher);
+        cleaner.clean();
+
+        assertEquals(1, registry.scans.get());
+        verify(logoutManager, times(25)).performLogout(any());
+
+        final ArgumentCaptor<CasTicketRegistryCleanedEvent> event = ArgumentCaptor.forClass(CasTicketRegistryCleanedEvent.class);
+        verify(publisher).publishEvent(event.capture());
+        assertEquals(25, event.getValue().getRemoved());
+        assertEquals(30, event.getValue().getScanned());
+        assertEquals(5, registry.getTickets().size());
+    }
+
+    private static TicketRegistry newTicketRegistry(final int expired, final int valid) {
+        final TicketRegistry registry = new DefaultTicketRegistry();
+        addTickets(registry, expired, valid);
+        return registry;
+    }
+
+    private static void addTickets(final TicketRegistry registry, final int expired, final int valid) {
+        for (int i = 0; i < expired; i++) {
+            registry.addTicket(new TicketGrantingTicketImpl("TGT-expired-" + i, CoreAuthenticationTestUtils.getAuthentication(),
+                    new AlwaysExpiresExpirationPolicy()));
+        }
+        for (int i = 0; i < valid; i++) {
+            registry.addTicket(new TicketGrantingTicketImpl("TGT-valid-" + i, CoreAuthenticationTestUtils.getAuthentication(),
+                    new NeverExpiresExpirationPolicy()));
+        }
+    }
+
+    private static class ScanningTicketRegistry extends AbstractTicketRegistry {
+        private final Map<String, Ticket> tickets = new HashMap<>();
+        private final AtomicInteger scans = new AtomicInteger();
+
+        @Override
+        public Ticket updateTicket(final Ticket ticket) {
+            this.tickets.put(ticket.getId(), ticket);
+            return ticket;
+        }
+
+        @Override
+        public void addTicket(final Ticket ticket) {
+            this.tickets.put(ticket.getId(), ticket);
+        }
+
+        @Override
+        public Ticket getTicket(final String ticketId) {
+            return this.tickets.get(ticketId);
+        }
+
+        @Override
+        public Collection<Ticket> getTickets() {
+            this.scans.incrementAndGet();
+            return this.tickets.values();
+        }
+
+        @Override
+        public boolean deleteSingleTicket(final String ticketId) {
+            return this.tickets.remove(ticketId) != null;
+        }
+
+        @Override
+        public long deleteAll() {
+            final int size = this.tickets.size();
+            this.tickets.clear();
+            return size;
+        }
+    }
+}
@@ -1,8 +1,23 @@
 package org.apereo.cas.ticket.registry;
 
+import org.apereo.cas.authentication.CoreAuthenticationTestUtils;
+import org.apereo.cas.services.RegisteredServiceTestUtils;
+import org.apereo.cas.ticket.ExpirationPolicy;
+import org.apereo.cas.ticket.ServiceTicket;
+import org.apereo.cas.ticket.Ticket;
+import org.apereo.cas.ticket.TicketGrantingTicket;
+import org.apereo.cas.ticket.TicketGrantingTicketImpl;
+import org.apereo.cas.ticket.support.AlwaysExpiresExpirationPolicy;
+import org.apereo.cas.ticket.support.MultiTimeUseOrTimeoutExpirationPolicy;
+import org.apereo.cas.ticket.support.NeverExpiresExpirationPolicy;
 import org.apereo.cas.util.cipher.NoOpCipherExecutor;
 import org.junit.Test;
 
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
 import static org.junit.Assert.*;
 
 /**
@@ -23,4 +38,66 @@ public class DefaultTicketRegistryTests extends AbstractTicketRegistryTests {
     public void verifyOtherConstructor() {
         assertNotNull(new DefaultTicketRegistry(10, 10F, 5, NoOpCipherExecutor.getInstance()));
     }
+
+    @Test
+    public void verifyCountsAreTracked() {
+        final DefaultTicketRegistry registry = new DefaultTicketRegistry();
+        final TicketGrantingTicket tgt = newTicketGrantingTicket("TGT-1", new NeverExpiresExpirationPolicy());
+        registry.addTicket(tgt);
+        final ServiceTicket st = tgt.grantServiceTicket("ST-1", RegisteredServiceTestUtils.getService(),
+                new NeverExpiresExpirationPolicy(), false, true);
+        registry.addTicket(st);
+        registry.updateTicket(tgt);
+        assertEquals(1, registry.sessionCount());
+        assertEquals(1, registry.serviceTicketCount());
+        assertEquals(2, registry.getTickets().size());
+        assertSame(st, registry.getTicket("ST-1", ServiceTicket.class));
+
+        assertEquals(2, registry.deleteTicket(tgt.getId()));
+        assertEquals(0, registry.sessionCount());
+        assertEquals(0, registry.serviceTicketCount());
+        assertTrue(registry.getTickets().isEmpty());
+    }
+
+    @Test
+    public void verifyExpiredTicketsAreFound() {
+        final DefaultTicketRegistry registry = new DefaultTicketRegistry();
+        registry.addTicket(newTicketGrantingTicket("TGT-1", new NeverExpiresExpirationPolicy()));
+        registry.addTicket(newTicketGrantingTicket("TGT-2", new AlwaysExpiresExpirationPolicy()));
+        final Collection<Ticket> expired = registry.getExpiredTickets();
+        assertEquals(1, expired.size());
+        assertEquals("TGT-2", expired.iterator().next().getId());
+        try (Stream<TicketGrantingTicket> tickets = registry.stream(TicketGrantingTicket.class, true)) {
+            assertEquals("TGT-2", tickets.map(Ticket::getId).collect(Collectors.joining()));
+        }
+
+        registry.deleteSingleTicket("TGT-2");
+        assertTrue(registry.getExpiredTickets().isEmpty());
+        assertEquals(1, registry.deleteAll());
+        assertEquals(0, registry.sessionCount());
+    }
+
+    @Test
+    public void verifyTicketsThatExpireEarlyAreStreamed() {
+        final DefaultTicketRegistry registry = new DefaultTicketRegistry();
+        final TicketGrantingTicket tgt = newTicketGrantingTicket("TGT-1", new NeverExpiresExpirationPolicy());
+        registry.addTicket(tgt);
+        final TicketGrantingTicket other = newTicketGrantingTicket("TGT-2", new NeverExpiresExpirationPolicy());
+        registry.addTicket(other);
+        final ServiceTicket st = other.grantServiceTicket("ST-1", RegisteredServiceTestUtils.getService(),
+                new MultiTimeUseOrTimeoutExpirationPolicy(1, TimeUnit.HOURS.toSeconds(1)), false, true);
+        registry.addTicket(st);
+        assertEquals(0, registry.stream(Ticket.class, true).count());
+
+        tgt.markTicketExpired();
+        st.isValidFor(RegisteredServiceTestUtils.getService());
+        try (Stream<Ticket> tickets = registry.stream(Ticket.class, true)) {
+            assertEquals(Stream.of("TGT-1", "ST-1").collect(Collectors.toSet()), tickets.map(Ticket::getId).collect(Collectors.toSet()));
+        }
+        assertEquals(1, registry.stream(ServiceTicket.class, true).count());
+    }
+
+    private static TicketGrantingTicket newTicketGrantingTicket(final String id, final ExpirationPolicy policy) {
+        return new TicketGrantingTicketImpl(id, CoreAuthenticationTestUtils.getAuthentication(), policy);
+    }
 }
@@ -0,0 +1,74 @@
+package org.apereo.cas.ticket.registry;
+
+import org.apereo.cas.authentication.CoreAuthenticationTestUtils;
+import org.apereo.cas.ticket.Ticket;
+import org.apereo.cas.ticket.TicketGrantingTicketImpl;
+import org.apereo.cas.ticket.support.AlwaysExpiresExpirationPolicy;
+import org.apereo.cas.ticket.support.HardTimeoutExpirationPolicy;
+import org.apereo.cas.ticket.support.NeverExpiresExpirationPolicy;
+import org.junit.Test;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * This is {@link TicketExpirationIndexTests}.
+ *
+ * @author Misagh Moayyed
+ * @since 5.1.0
+ */
+public class TicketExpirationIndexTests {
+
+    @Test
+    public void verifyCheckTimes() {
+        final Instant now = Instant.now();
+        final Ticket hardTimeout = new TicketGrantingTicketImpl("TGT-1", CoreAuthenticationTestUtils.getAuthentication(),
+                new HardTimeoutExpirationPolicy(60));
+        final long checkTime = TicketExpirationIndex.getCheckTime(hardTimeout, now);
+        assertEquals(hardTimeout.getCreationTime().toInstant().plusSeconds(60).toEpochMilli(), checkTime);
+
+        final Ticket neverExpires = new TicketGrantingTicketImpl("TGT-2", CoreAuthenticationTestUtils.getAuthentication(),
+                new NeverExpiresExpirationPolicy());
+        assertEquals(now.plus(TicketExpirationIndex.MAX_CHECK_DEFERRAL).toEpochMilli(),
+                TicketExpirationIndex.getCheckTime(neverExpires, now));
+
+        final Ticket alwaysExpires = new TicketGrantingTicketImpl("TGT-3", CoreAuthenticationTestUtils.getAuthentication(),
+                new AlwaysExpiresExpirationPolicy());
+        assertEquals(now.toEpochMilli(), TicketExpirationIndex.getCheckTime(alwaysExpires, now));
+    }
+
+    @Test
+    public void verifyOnlyDueTicketsAreExamined() {
+        final Map<String, Ticket> tickets = new HashMap<>();
+        final TicketExpirationIndex index = new TicketExpirationIndex();
+        for (int i = 0; i < 10; i++) {
+            final Ticket ticket = new TicketGrantingTicketImpl("TGT-" + i, CoreAuthenticationTestUtils.getAuthentication(),
+                    i % 2 == 0 ? new AlwaysExpiresExpirationPolicy() : new NeverExpiresExpirationPolicy());
+            tickets.put(ticket.getId(), ticket);
+            index.schedule(ticket);
+        }
+        assertEquals(10, index.size());
+
+        final Map<String, Integer> visits = new HashMap<>();
+        assertEquals(2, index.getExpiredTickets(id -> {
+            visits.merge(id, 1, Integer::sum);
+            return tickets.get(id);
+        }, 2).getTickets().size());
+        assertEquals(5, index.getExpiredTickets(id -> {
+            visits.merge(id, 1, Integer::sum);
+            return tickets.get(id);
+        }, Integer.MAX_VALUE).getTickets().size());
+        assertFalse(visits.keySet().stream().anyMatch(id -> Integer.parseInt(id.substring(4)) % 2 != 0));
+
+        tickets.remove("TGT-0");
+        index.getExpiredTickets(tickets::get, Integer.MAX_VALUE);
+        assertEquals(9, index.size());
+        index.remove("TGT-1");
+        assertEquals(8, index.size());
+        index.clear();
+        assertEquals(0, index.size());
+    }
+}
@@ -0,0 +1,89 @@
+package org.apereo.cas.util.cipher;
+
+import org.apache.shiro.crypto.AesCipherService;
+import org.apache.shiro.crypto.CipherService;
+import org.apereo.cas.util.EncodingUtils;
+import org.jose4j.keys.AesKey;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the single-threaded throughput of encrypting and signing values with
+ * {@link BaseBinaryCipherExecutor}, and of verifying and decrypting them, against the
+ * same operations carried out with a new shiro cipher service and a jose4j signature per call.
+ * Both produce the same wire format. Run with {@code -t} to see how throughput scales with threads.
+ *
+ * @author Misagh Moayyed
+ * @since 5.1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(1)
+@Fork(1)
+public class BinaryCipherExecutorBenchmark {
+
+    private static final String ENCRYPTION_KEY = "1234567890123456";
+
+    private static final String SIGNING_KEY = "szxK-5_eJjs-aUj-64MpUZ-GPPzGLhYPLGl0wrYjYNVAGva2P0lLe6UGKGM7k8dWxsOVGutZWgvmY3l5oVPO3w";
+
+    @Param({"256", "4096"})
+    private int valueSize;
+
+    private BaseBinaryCipherExecutor cipherExecutor;
+
+    private AesKey signingKey;
+
+    private byte[] value;
+
+    private byte[] encoded;
+
+    @Setup
+    public void setup() {
+        this.cipherExecutor = new DefaultTicketCipherExecutor(ENCRYPTION_KEY, SIGNING_KEY, "AES", 512, 16);
+        this.signingKey = new AesKey(SIGNING_KEY.getBytes(StandardCharsets.UTF_8));
+        this.value = new byte[this.valueSize];
+        new Random(this.valueSize).nextBytes(this.value);
+        this.encoded = this.cipherExecutor.encode(this.value);
+    }
+
+    @Benchmark
+    public byte[] encryptAndSign() {
+        return this.cipherExecutor.encode(this.value);
+    }
+
+    @Benchmark
+    public byte[] verifyAndDecrypt() {
+        return this.cipherExecutor.decode(this.encoded);
+    }
+
+    @Benchmark
+    public byte[] encryptAndSignPerCall() {
+        final CipherService cipher = new AesCipherService();
+        final byte[] result = cipher.encrypt(this.value, ENCRYPTION_KEY.getBytes(StandardCharsets.UTF_8)).getBytes();
+        return EncodingUtils.signJws(this.signingKey, result);
+    }
+
+    @Benchmark
+    public byte[] verifyAndDecryptPerCall() {
+        final byte[] verifiedValue = EncodingUtils.verifyJwsSignature(this.signingKey, this.encoded);
+        final CipherService cipher = new AesCipherService();
+        return cipher.decrypt(verifiedValue, ENCRYPTION_KEY.getBytes(StandardCharsets.UTF_8)).getBytes();
+    }
+}
@@ -3,23 +3,38 @@ package org.apereo.cas.util.cipher;
 import com.google.common.base.Throwables;
 import org.apache.commons.lang3.RandomStringUtils;
 import org.apache.commons.lang3.StringUtils;
-import org.apache.shiro.crypto.AesCipherService;
-import org.apache.shiro.crypto.CipherService;
+import org.apache.shiro.crypto.CryptoException;
 import org.jose4j.jwk.JsonWebKey;
 import org.jose4j.jwk.OctJwkGenerator;
 import org.jose4j.jwk.OctetSequenceJsonWebKey;
+import org.jose4j.jws.AlgorithmIdentifiers;
+import org.jose4j.jws.JsonWebSignature;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.crypto.Cipher;
+import javax.crypto.Mac;
+import javax.crypto.spec.IvParameterSpec;
 import javax.crypto.spec.SecretKeySpec;
 import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Base64;
 import java.util.Map;
 
 /**
  * A implementation that is based on algorithms
  * provided by the default platform's JCE. By default AES encryption is
  * used.
+ * <p>
+ * Values are encrypted with AES in CBC mode with a random initialization vector
+ * that is prepended to the cipher text, and then signed as a compact JWS using HMAC SHA-512,
+ * whose payload is the base64-encoded cipher text. Keys are prepared once, and the {@link Cipher}
+ * and {@link Mac} instances are kept per thread, given they are not thread-safe and
+ * are expensive to look up on every call.
  *
  * @author Misagh Moayyed
  * @since 4.2
@@ -28,12 +43,31 @@ public abstract class BaseBinaryCipherExecutor extends AbstractCipherExecutor<by
     private static final Logger LOGGER = LoggerFactory.getLogger(BaseBinaryCipherExecutor.class);
 
     /**
-     * Secret key IV algorithm. Default is {@code AES}.
+     * Same transformation and initialization vector size as the defaults of shiro's {@code AesCipherService}.
      */
-    private String secretKeyAlgorithm = "AES";
+    private static final String CIPHER_TRANSFORMATION = "AES/CBC/PKCS5Padding";
+    private static final String CIPHER_ALGORITHM = "AES";
+    private static final int IV_LENGTH = 16;
+
+    /**
+     * Signing keys shorter than the output of the hash are rejected by jose4j,
+     * and such keys are left to {@link AbstractCipherExecutor} to sign and verify.
+     */
+    private static final String MAC_ALGORITHM = "HmacSHA512";
+    private static final int MINIMUM_SIGNING_KEY_LENGTH = 64;
+
+    private static final byte JWS_SEPARATOR = '.';
+    private static final byte[] JWS_HEADER = getEncodedJwsHeader();
+
+    private static final SecureRandom RANDOM = new SecureRandom();
 
     private String encryptionSecretKey;
 
+    private final Key encryptionKey;
+
+    private final ThreadLocal<Cipher> ciphers = ThreadLocal.withInitial(BaseBinaryCipherExecutor::newCipher);
+
+    private ThreadLocal<Mac> macs;
 
     /**
      * Instantiates a new cryptic ticket cipher executor.
@@ -65,21 +99,39 @@ public abstract class BaseBinaryCipherExecutor extends AbstractCipherExecutor<by
         } else {
             this.encryptionSecretKey = encryptionSecretKey;
         }
+        this.encryptionKey = new SecretKeySpec(this.encryptionSecretKey.getBytes(StandardCharsets.UTF_8), CIPHER_ALGORITHM);
     }
 
 
+    /**
+     * Sets the secret key algorithm.
+     *
+     * @param secretKeyAlgorithm the secret key algorithm
+     * @deprecated Values are always encrypted with {@code AES}; the algorithm is ignored.
+     */
+    @Deprecated
     public void setSecretKeyAlgorithm(final String secretKeyAlgorithm) {
-        this.secretKeyAlgorithm = secretKeyAlgorithm;
+        if (!CIPHER_ALGORITHM.equalsIgnoreCase(secretKeyAlgorithm)) {
+            LOGGER.warn("Secret key algorithm [{}] is ignored; values are encrypted with [{}]", secretKeyAlgorithm, CIPHER_ALGORITHM);
+        }
+    }
+
+    @Override
+    public void setSigningKey(final String signingSecretKey) {
+        super.setSigningKey(signingSecretKey);
+        final byte[] key = signingSecretKey.getBytes(StandardCharsets.UTF_8);
+        if (key.length >= MINIMUM_SIGNING_KEY_LENGTH) {
+            final Key macKey = new SecretKeySpec(key, MAC_ALGORITHM);
+            this.macs = ThreadLocal.withInitial(() -> newMac(macKey));
+        } else {
+            this.macs = null;
+        }
     }
 
     @Override
     public byte[] encode(final byte[] value) {
         try {
-            final Key key = new SecretKeySpec(this.encryptionSecretKey.getBytes(StandardCharsets.UTF_8),
-                    this.secretKeyAlgorithm);
-            final CipherService cipher = new AesCipherService();
-            final byte[] result = cipher.encrypt(value, key.getEncoded()).getBytes();
-            return sign(result);
+            return sign(encrypt(value));
         } catch (final Exception e) {
             LOGGER.error(e.getMessage(), e);
             throw Throwables.propagate(e);
@@ -90,11 +142,131 @@ public abstract class BaseBinaryCipherExecutor extends AbstractCipherExecutor<by
     public byte[] decode(final byte[] value) {
         try {
             final byte[] verifiedValue = verifySignature(value);
-            final Key key = new SecretKeySpec(this.encryptionSecretKey.getBytes(StandardCharsets.UTF_8),
-                    this.secretKeyAlgorithm);
-            final CipherService cipher = new AesCipherService();
-            final byte[] result = cipher.decrypt(verifiedValue, key.getEncoded()).getBytes();
-            return result;
+            if (verifiedValue == null) {
+                throw new CryptoException("Unable to verify the signature of the given value");
+            }
+            return decrypt(verifiedValue);
+        } catch (final Exception e) {
+            throw Throwables.propagate(e);
+        }
+    }
+
+    @Override
+    protected byte[] sign(final byte[] value) {
+        if (this.macs == null) {
+            return super.sign(value);
+        }
+        final byte[] payload = Base64.getUrlEncoder().withoutPadding().encode(Base64.getEncoder().encode(value));
+        final Mac mac = this.macs.get();
+        mac.update(JWS_HEADER);
+        mac.update(JWS_SEPARATOR);
+        mac.update(payload);
+        final byte[] signature = Base64.getUrlEncoder().withoutPadding().encode(mac.doFinal());
+
+        final byte[] result = new byte[JWS_HEADER.length + payload.length + signature.length + 2];
+        System.arraycopy(JWS_HEADER, 0, result, 0, JWS_HEADER.length);
+        int position = JWS_HEADER.length;
+        result[position++] = JWS_SEPARATOR;
+        System.arraycopy(payload, 0, result, position, payload.length);
+        position += payload.length;
+        result[position++] = JWS_SEPARATOR;
+        System.arraycopy(signature, 0, result, position, signature.length);
+        return result;
+    }
+
+    @Override
+    protected byte[] verifySignature(final byte[] value) {
+        final int payloadEnd = getJwsPayloadEnd(value);
+        if (this.macs == null || payloadEnd < 0) {
+            return super.verifySignature(value);
+        }
+        final Mac mac = this.macs.get();
+        mac.update(value, 0, payloadEnd);
+        final byte[] expectedSignature = mac.doFinal();
+        final byte[] signature = Base64.getUrlDecoder().decode(Arrays.copyOfRange(value, payloadEnd + 1, value.length));
+        if (!MessageDigest.isEqual(expectedSignature, signature)) {
+            return null;
+        }
+        final byte[] payload = Arrays.copyOfRange(value, JWS_HEADER.length + 1, payloadEnd);
+        return Base64.getDecoder().decode(Base64.getUrlDecoder().decode(payload));
+    }
+
+    private byte[] encrypt(final byte[] value) throws GeneralSecurityException {
+        final byte[] iv = new byte[IV_LENGTH];
+        RANDOM.nextBytes(iv);
+        final Cipher cipher = initCipher(Cipher.ENCRYPT_MODE, iv);
+
+        final byte[] result = new byte[IV_LENGTH + cipher.getOutputSize(value.length)];
+        System.arraycopy(iv, 0, result, 0, IV_LENGTH);
+        final int length = IV_LENGTH + cipher.doFinal(value, 0, value.length, result, IV_LENGTH);
+        return length == result.length ? result : Arrays.copyOf(result, length);
+    }
+
+    private byte[] decrypt(final byte[] value) throws GeneralSecurityException {
+        if (value.length <= IV_LENGTH) {
+            throw new CryptoException("Unable to correctly extract the initialization vector or ciphertext.");
+        }
+        final Cipher cipher = initCipher(Cipher.DECRYPT_MODE, Arrays.copyOf(value, IV_LENGTH));
+        return cipher.doFinal(value, IV_LENGTH, value.length - IV_LENGTH);
+    }
+
+    private Cipher initCipher(final int mode, final byte[] iv) {
+        final Cipher cipher = this.ciphers.get();
+        try {
+            cipher.init(mode, this.encryptionKey, new IvParameterSpec(iv), RANDOM);
+            return cipher;
+        } catch (final GeneralSecurityException e) {
+            throw new CryptoException("Unable to init cipher instance.", e);
+        }
+    }
+
+    /**
+     * Locate the separator between the payload and the signature of a compact JWS
+     * that carries the header produced by {@link #sign(byte[])}.
+     *
+     * @param value the value
+     * @return the position of the separator, or -1 if the value was not signed with the expected header
+     */
+    private static int getJwsPayloadEnd(final byte[] value) {
+        if (value.length <= JWS_HEADER.length + 1 || value[JWS_HEADER.length] != JWS_SEPARATOR) {
+            return -1;
+        }
+        for (int i = 0; i < JWS_HEADER.length; i++) {
+            if (value[i] != JWS_HEADER[i]) {
+                return -1;
+            }
+        }
+        int payloadEnd = -1;
+        for (int i = JWS_HEADER.length + 1; i < value.length; i++) {
+            if (value[i] == JWS_SEPARATOR) {
+                if (payloadEnd >= 0) {
+                    return -1;
+                }
+                payloadEnd = i;
+            }
+        }
+        return payloadEnd;
+    }
+
+    private static byte[] getEncodedJwsHeader() {
+        final JsonWebSignature jws = new JsonWebSignature();
+        jws.setAlgorithmHeaderValue(AlgorithmIdentifiers.HMAC_SHA512);
+        return jws.getHeaders().getEncodedHeader().getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static Cipher newCipher() {
+        try {
+            return Cipher.getInstance(CIPHER_TRANSFORMATION);
+        } catch (final Exception e) {
+            throw Throwables.propagate(e);
+        }
+    }
+
+    private static Mac newMac(final Key key) {
+        try {
+            final Mac mac = Mac.getInstance(MAC_ALGORITHM);
+            mac.init(key);
+            return mac;
         } catch (final Exception e) {
             throw Throwables.propagate(e);
         }
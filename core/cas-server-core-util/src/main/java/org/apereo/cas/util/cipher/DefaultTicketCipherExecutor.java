@@ -15,7 +15,6 @@ public class DefaultTicketCipherExecutor extends BaseBinaryCipherExecutor {
             final int signingKeySize,
             final int encryptionKeySize) {
         super(encryptionSecretKey, signingSecretKey, signingKeySize, encryptionKeySize);
-        setSecretKeyAlgorithm(secretKeyAlg);
     }
 
 
@@ -14,7 +14,7 @@ public class WebflowConversationStateCipherExecutor extends BaseBinaryCipherExec
      *
      * @param secretKeyEncryption the secret key encryption
      * @param secretKeySigning    the secret key signing
-     * @param secretKeyAlg        the secret key alg
+     * @param secretKeyAlg        the secret key alg, which is ignored since values are encrypted with AES
      * @param signingKeySize      the signing key size
      * @param encryptionKeySize   the encryption key size
      */
@@ -24,7 +24,6 @@ public class WebflowConversationStateCipherExecutor extends BaseBinaryCipherExec
                                                   final int signingKeySize,
                                                   final int encryptionKeySize){
         super(secretKeyEncryption, secretKeySigning, signingKeySize, encryptionKeySize);
-        setSecretKeyAlgorithm(secretKeyAlg);
     }
 
     @Override
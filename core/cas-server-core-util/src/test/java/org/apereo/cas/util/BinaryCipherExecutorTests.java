@@ -1,11 +1,15 @@
 package org.apereo.cas.util;
 
 import org.apereo.cas.CipherExecutor;
+import org.apache.shiro.crypto.AesCipherService;
 import org.apereo.cas.util.cipher.BaseBinaryCipherExecutor;
+import org.jose4j.keys.AesKey;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 
+import java.nio.charset.StandardCharsets;
+
 import static org.junit.Assert.*;
 
 /**
@@ -16,6 +20,10 @@ import static org.junit.Assert.*;
  */
 public class BinaryCipherExecutorTests {
 
+    private static final String ENCRYPTION_KEY = "1234567890123456";
+
+    private static final String SIGNING_KEY = "szxK-5_eJjs-aUj-64MpUZ-GPPzGLhYPLGl0wrYjYNVAGva2P0lLe6UGKGM7k8dWxsOVGutZWgvmY3l5oVPO3w";
+
     @Rule
     public ExpectedException thrown = ExpectedException.none();
 
@@ -43,4 +51,33 @@ public class BinaryCipherExecutorTests {
 
         cc.encode(value.getBytes());
     }
+
+    @Test
+    public void checkWireFormatIsCompatibleWithJwsAndShiro() {
+        final byte[] value = "ThisIsATestValueThatIsGoingToBeEncodedAndDecodedAgainAndAgain".getBytes(StandardCharsets.UTF_8);
+        final CipherExecutor<byte[], byte[]> cc = new BaseBinaryCipherExecutor(ENCRYPTION_KEY, SIGNING_KEY, 512, 16) {
+        };
+        final AesKey signingKey = new AesKey(SIGNING_KEY.getBytes(StandardCharsets.UTF_8));
+        final AesCipherService cipherService = new AesCipherService();
+        final byte[] encryptionKey = ENCRYPTION_KEY.getBytes(StandardCharsets.UTF_8);
+
+        final byte[] encoded = cc.encode(value);
+        final byte[] verified = EncodingUtils.verifyJwsSignature(signingKey, encoded);
+        assertArrayEquals(value, cipherService.decrypt(verified, encryptionKey).getBytes());
+
+        final byte[] legacy = EncodingUtils.signJws(signingKey, cipherService.encrypt(value, encryptionKey).getBytes());
+        assertArrayEquals(value, cc.decode(legacy));
+    }
+
+    @Test
+    public void checkTamperedValueIsRejected() {
+        final CipherExecutor<byte[], byte[]> cc = new BaseBinaryCipherExecutor(ENCRYPTION_KEY, SIGNING_KEY, 512, 16) {
+        };
+        final byte[] encoded = cc.encode("ThisIsATestValue".getBytes(StandardCharsets.UTF_8));
+        encoded[encoded.length - 2] = (byte) (encoded[encoded.length - 2] == 'A' ? 'B' : 'A');
+
+        this.thrown.expect(RuntimeException.class);
+        this.thrown.expectMessage("Unable to verify the signature");
+        cc.decode(encoded);
+    }
 }
@@ -157,8 +157,7 @@ public class DefaultCentralAuthenticationService extends AbstractCentralAuthenti
         final ServiceTicketFactory factory = this.ticketFactory.get(ServiceTicket.class);
         final ServiceTicket serviceTicket = factory.create(ticketGrantingTicket, service,
                 authenticationResult != null && authenticationResult.isCredentialProvided());
-        this.ticketRegistry.updateTicket(ticketGrantingTicket);
-        this.ticketRegistry.addTicket(serviceTicket);
+        this.ticketRegistry.addTicketAndUpdateParent(serviceTicket, ticketGrantingTicket);
 
         LOGGER.info("Granted ticket [{}] for service [{}] and principal [{}]",
                 serviceTicket.getId(), service.getId(), principal.getId());
@@ -205,8 +204,7 @@ public class DefaultCentralAuthenticationService extends AbstractCentralAuthenti
         final ProxyTicketFactory factory = this.ticketFactory.get(ProxyTicket.class);
         final ProxyTicket proxyTicket = factory.create(proxyGrantingTicketObject, service);
 
-        this.ticketRegistry.updateTicket(proxyGrantingTicketObject);
-        this.ticketRegistry.addTicket(proxyTicket);
+        this.ticketRegistry.addTicketAndUpdateParent(proxyTicket, proxyGrantingTicketObject);
 
         LOGGER.info("Granted ticket [{}] for service [{}] for user [{}]",
                 proxyTicket.getId(), service.getId(), principal.getId());
@@ -51,6 +51,7 @@ public class CouchbaseTicketRegistryConfiguration {
         final CouchbaseTicketRegistryProperties couchbase = casProperties.getTicket().getRegistry().getCouchbase();
         final CouchbaseTicketRegistry c = new CouchbaseTicketRegistry(ticketRegistryCouchbaseClientFactory(), couchbase.isQueryEnabled());
         c.setCipherExecutor(Beans.newTicketRegistryCipherExecutor(couchbase.getCrypto()));
+        c.setStoreGrantingTicketById(casProperties.getTicket().getRegistry().isStoreGrantingTicketById());
         return c;
     }
 
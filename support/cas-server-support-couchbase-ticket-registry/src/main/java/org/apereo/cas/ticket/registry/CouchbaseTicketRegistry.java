@@ -74,7 +74,8 @@ public class CouchbaseTicketRegistry extends AbstractTicketRegistry {
     public Ticket updateTicket(final Ticket ticket) {
         LOGGER.debug("Updating ticket [{}]", ticket);
         try {
-            final SerializableDocument document = SerializableDocument.create(ticket.getId(), getTimeToLive(ticket), ticket);
+            final Ticket encodedTicket = encodeTicket(ticket);
+            final SerializableDocument document = SerializableDocument.create(encodedTicket.getId(), getTimeToLive(ticket), encodedTicket);
 
             LOGGER.debug("Upserting document [{}] into couchbase bucket [{}]", document.id(), this.couchbase.bucket().name());
             this.couchbase.bucket().upsert(document);
@@ -109,7 +110,7 @@ public class CouchbaseTicketRegistry extends AbstractTicketRegistry {
 
             final SerializableDocument document = this.couchbase.bucket().get(encTicketId, SerializableDocument.class);
             if (document != null) {
-                final Ticket t = (Ticket) document.content();
+                final Ticket t = decodeTicket((Ticket) document.content());
                 LOGGER.debug("Got ticket [{}] from the registry.", t);
                 return t;
             }
@@ -14,6 +14,7 @@ import org.apereo.cas.configuration.model.support.sms.SmsProperties;
 import org.apereo.cas.impl.calcs.DateTimeAuthenticationRequestRiskCalculator;
 import org.apereo.cas.impl.calcs.GeoLocationAuthenticationRequestRiskCalculator;
 import org.apereo.cas.impl.calcs.IpAddressAuthenticationRequestRiskCalculator;
+import org.apereo.cas.impl.calcs.PrincipalAuthenticationProfileLoader;
 import org.apereo.cas.impl.calcs.UserAgentAuthenticationRequestRiskCalculator;
 import org.apereo.cas.impl.engine.DefaultAuthenticationRiskEvaluator;
 import org.apereo.cas.impl.engine.DefaultAuthenticationRiskMitigator;
@@ -166,25 +167,34 @@ public class ElectronicFenceConfiguration {
         return new DefaultAuthenticationRiskMitigator(multifactorAuthenticationContingencyPlan());
     }
 
+    @ConditionalOnMissingBean(name = "principalAuthenticationProfileLoader")
+    @Bean
+    @RefreshScope
+    public PrincipalAuthenticationProfileLoader principalAuthenticationProfileLoader() {
+        final RiskBasedAuthenticationProperties risk = casProperties.getAuthn().getAdaptive().getRisk();
+        return new PrincipalAuthenticationProfileLoader(this.casEventRepository, risk.getDaysInRecentHistory(),
+                risk.getProfileTimeToLiveInSeconds());
+    }
+
     @ConditionalOnMissingBean(name = "ipAddressAuthenticationRequestRiskCalculator")
     @Bean
     @RefreshScope
     public AuthenticationRequestRiskCalculator ipAddressAuthenticationRequestRiskCalculator() {
-        return new IpAddressAuthenticationRequestRiskCalculator(this.casEventRepository);
+        return new IpAddressAuthenticationRequestRiskCalculator(principalAuthenticationProfileLoader());
     }
 
     @ConditionalOnMissingBean(name = "userAgentAuthenticationRequestRiskCalculator")
     @Bean
     @RefreshScope
     public AuthenticationRequestRiskCalculator userAgentAuthenticationRequestRiskCalculator() {
-        return new UserAgentAuthenticationRequestRiskCalculator(this.casEventRepository);
+        return new UserAgentAuthenticationRequestRiskCalculator(principalAuthenticationProfileLoader());
     }
 
     @ConditionalOnMissingBean(name = "dateTimeAuthenticationRequestRiskCalculator")
     @Bean
     @RefreshScope
     public AuthenticationRequestRiskCalculator dateTimeAuthenticationRequestRiskCalculator() {
-        return new DateTimeAuthenticationRequestRiskCalculator(this.casEventRepository,
+        return new DateTimeAuthenticationRequestRiskCalculator(principalAuthenticationProfileLoader(),
                 casProperties.getAuthn().getAdaptive().getRisk().getDateTime().getWindowInHours());
     }
 
@@ -192,7 +202,7 @@ public class ElectronicFenceConfiguration {
     @Bean
     @RefreshScope
     public AuthenticationRequestRiskCalculator geoLocationAuthenticationRequestRiskCalculator() {
-        return new GeoLocationAuthenticationRequestRiskCalculator(this.casEventRepository);
+        return new GeoLocationAuthenticationRequestRiskCalculator(principalAuthenticationProfileLoader());
     }
 
     @ConditionalOnMissingBean(name = "riskAwareAuthenticationWebflowConfigurer")
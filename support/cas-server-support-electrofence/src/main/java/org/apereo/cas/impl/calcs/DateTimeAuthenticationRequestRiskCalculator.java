@@ -2,15 +2,12 @@ package org.apereo.cas.impl.calcs;
 
 import org.apereo.cas.authentication.Authentication;
 import org.apereo.cas.services.RegisteredService;
-import org.apereo.cas.support.events.dao.CasEvent;
-import org.apereo.cas.support.events.CasEventRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.servlet.http.HttpServletRequest;
 import java.math.BigDecimal;
 import java.time.ZonedDateTime;
-import java.util.Collection;
 
 /**
  * This is {@link DateTimeAuthenticationRequestRiskCalculator}.
@@ -23,26 +20,24 @@ public class DateTimeAuthenticationRequestRiskCalculator extends BaseAuthenticat
     
     private final int windowInHours;
 
-    public DateTimeAuthenticationRequestRiskCalculator(final CasEventRepository casEventRepository, final int windowInHours) {
-        super(casEventRepository);
+    public DateTimeAuthenticationRequestRiskCalculator(final PrincipalAuthenticationProfileLoader profileLoader, final int windowInHours) {
+        super(profileLoader);
         this.windowInHours = windowInHours;
     }
 
     @Override
     protected BigDecimal calculateScore(final HttpServletRequest request, final Authentication authentication,
-                                        final RegisteredService service, final Collection<CasEvent> events) {
+                                        final RegisteredService service, final PrincipalAuthenticationProfile profile) {
         final ZonedDateTime timestamp = ZonedDateTime.now();
         LOGGER.debug("Filtering authentication events for timestamp [{}]", timestamp);
 
-        final long count = events.stream().filter(e -> e.getCreationTime().getHour() == timestamp.getHour()
-                || e.getCreationTime().plusHours(windowInHours).getHour() == timestamp.getHour()
-                || e.getCreationTime().minusHours(windowInHours).getHour() == timestamp.getHour()).count();
+        final long count = profile.countByHourOfDay(timestamp.getHour(), windowInHours);
         
         LOGGER.debug("Total authentication events found for [{}]: [{}]", timestamp, count);
-        if (count == events.size()) {
+        if (count == profile.getTotal()) {
             LOGGER.debug("Principal [{}] has always authenticated from [{}]", authentication.getPrincipal(), timestamp);
             return LOWEST_RISK_SCORE;
         }
-        return getFinalAveragedScore(count, events.size());
+        return getFinalAveragedScore(count, profile.getTotal());
     }
 }
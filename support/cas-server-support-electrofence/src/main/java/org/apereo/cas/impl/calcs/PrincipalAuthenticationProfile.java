@@ -0,0 +1,151 @@
+package org.apereo.cas.impl.calcs;
+
+import com.google.common.base.Suppliers;
+import org.apache.commons.lang3.StringUtils;
+import org.apereo.cas.authentication.adaptive.geo.GeoLocationRequest;
+import org.apereo.cas.support.events.dao.CasEvent;
+
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * This is {@link PrincipalAuthenticationProfile} that summarizes the recent authentication history
+ * of a principal. The number of authentication events and their hours of day are taken from
+ * the counts of events by the hour, which event repositories compute without loading the events.
+ * Events are only loaded, once, when they are first counted by client ip address, user agent or geolocation,
+ * so that risk calculators can look up how often the principal has authenticated with the attributes
+ * of the current request without scanning the events again.
+ *
+ * @author Misagh Moayyed
+ * @since 5.1.0
+ */
+public class PrincipalAuthenticationProfile {
+    private static final int HOURS_IN_DAY = 24;
+
+    private final String principalId;
+
+    private final long total;
+
+    private final long[] hoursOfDay = new long[HOURS_IN_DAY];
+
+    private final Supplier<EventAttributeCounts> attributeCounts;
+
+    public PrincipalAuthenticationProfile(final String principalId, final Collection<CasEvent> events) {
+        this(principalId, events.stream().collect(Collectors.groupingBy(e -> e.getCreationTime().truncatedTo(ChronoUnit.HOURS),
+                TreeMap::new, Collectors.counting())), () -> events);
+    }
+
+    /**
+     * Instantiates a new profile from the counts of authentication events by the hour.
+     *
+     * @param principalId  the principal id
+     * @param countsByHour the counts of authentication events keyed by the start of the hour in which they were created
+     * @param events       loads the authentication events counted by hour, when they are first needed
+     */
+    public PrincipalAuthenticationProfile(final String principalId, final SortedMap<ZonedDateTime, Long> countsByHour,
+                                          final Supplier<Collection<CasEvent>> events) {
+        this.principalId = principalId;
+        this.total = countsByHour.values().stream().mapToLong(Long::longValue).sum();
+        countsByHour.forEach((hour, count) -> this.hoursOfDay[hour.withZoneSameInstant(ZoneId.systemDefault()).getHour()] += count);
+        this.attributeCounts = Suppliers.memoize(() -> new EventAttributeCounts(events.get()))::get;
+    }
+
+    public String getPrincipalId() {
+        return principalId;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public boolean isEmpty() {
+        return this.total == 0;
+    }
+
+    /**
+     * Count of authentication events from the given client ip address, ignoring case.
+     *
+     * @param ipAddress the client ip address
+     * @return the count
+     */
+    public long countByIpAddress(final String ipAddress) {
+        return count(this.attributeCounts.get().ipAddresses, StringUtils.lowerCase(ipAddress));
+    }
+
+    /**
+     * Count of authentication events from the given user agent, ignoring case.
+     *
+     * @param userAgent the user agent
+     * @return the count
+     */
+    public long countByUserAgent(final String userAgent) {
+        return count(this.attributeCounts.get().userAgents, StringUtils.lowerCase(userAgent));
+    }
+
+    /**
+     * Count of authentication events from the given geolocation.
+     *
+     * @param location the geolocation
+     * @return the count
+     */
+    public long countByGeoLocation(final GeoLocationRequest location) {
+        return count(this.attributeCounts.get().geoLocations, location);
+    }
+
+    /**
+     * Count of authentication events whose hour of day is the given hour,
+     * or the given hour shifted by the window in either direction.
+     *
+     * @param hour          the hour of day
+     * @param windowInHours the window in hours
+     * @return the count
+     */
+    public long countByHourOfDay(final int hour, final int windowInHours) {
+        return IntStream.of(hour, hour + windowInHours, hour - windowInHours)
+                .map(h -> Math.floorMod(h, HOURS_IN_DAY))
+                .distinct()
+                .mapToLong(h -> this.hoursOfDay[h])
+                .sum();
+    }
+
+    private static <K> long count(final Map<K, Long> counts, final K key) {
+        if (key == null) {
+            return 0;
+        }
+        return counts.getOrDefault(key, 0L);
+    }
+
+    /**
+     * Counts of authentication events by client ip address, user agent and geolocation.
+     */
+    private static class EventAttributeCounts {
+        private final Map<String, Long> ipAddresses = new HashMap<>();
+
+        private final Map<String, Long> userAgents = new HashMap<>();
+
+        private final Map<GeoLocationRequest, Long> geoLocations = new HashMap<>();
+
+        EventAttributeCounts(final Collection<CasEvent> events) {
+            events.forEach(e -> {
+                increment(this.ipAddresses, StringUtils.lowerCase(e.getClientIpAddress()));
+                increment(this.userAgents, StringUtils.lowerCase(e.getAgent()));
+                increment(this.geoLocations, e.getGeoLocation());
+            });
+        }
+
+        private static <K> void increment(final Map<K, Long> counts, final K key) {
+            if (key != null) {
+                counts.merge(key, 1L, Long::sum);
+            }
+        }
+    }
+}
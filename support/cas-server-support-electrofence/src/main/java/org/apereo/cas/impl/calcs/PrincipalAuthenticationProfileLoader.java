@@ -0,0 +1,98 @@
+package org.apereo.cas.impl.calcs;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import org.apereo.cas.support.events.CasEventRepository;
+import org.apereo.cas.support.events.dao.CasEvent;
+import org.apereo.cas.support.events.ticket.CasTicketGrantingTicketCreatedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.SortedMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This is {@link PrincipalAuthenticationProfileLoader} that builds the {@link PrincipalAuthenticationProfile}
+ * of a principal from the ticket-granting ticket creation events recorded for it in recent history.
+ * The profile is built from the counts of those events by the hour, and the events themselves are only
+ * loaded once a risk calculator examines their attributes. Recent history starts at the beginning of the hour,
+ * so that the counts and the events cover the same period.
+ * Profiles are kept for a short while, so that all risk calculators that examine an authentication
+ * request share the same profile and the event repository is queried once per request.
+ *
+ * @author Misagh Moayyed
+ * @since 5.1.0
+ */
+public class PrincipalAuthenticationProfileLoader {
+    private static final Logger LOGGER = LoggerFactory.getLogger(PrincipalAuthenticationProfileLoader.class);
+
+    private static final long DEFAULT_MAXIMUM_SIZE = 10_000;
+
+    private final CasEventRepository casEventRepository;
+
+    private final long daysInRecentHistory;
+
+    private final LoadingCache<String, PrincipalAuthenticationProfile> profiles;
+
+    public PrincipalAuthenticationProfileLoader(final CasEventRepository casEventRepository, final long daysInRecentHistory,
+                                                final long timeToLiveInSeconds) {
+        this.casEventRepository = casEventRepository;
+        this.daysInRecentHistory = daysInRecentHistory;
+        this.profiles = CacheBuilder.newBuilder()
+                .maximumSize(DEFAULT_MAXIMUM_SIZE)
+                .expireAfterWrite(timeToLiveInSeconds, TimeUnit.SECONDS)
+                .build(new CacheLoader<String, PrincipalAuthenticationProfile>() {
+                    @Override
+                    public PrincipalAuthenticationProfile load(final String principalId) {
+                        final ZonedDateTime date = getStartOfRecentHistory();
+                        return new PrincipalAuthenticationProfile(principalId, countCasTicketGrantingTicketCreatedEventsFor(principalId, date),
+                                () -> getCasTicketGrantingTicketCreatedEventsFor(principalId, date));
+                    }
+                });
+    }
+
+    /**
+     * Gets the authentication profile of the principal, loading it if not already loaded.
+     *
+     * @param principalId the principal id
+     * @return the authentication profile
+     */
+    public PrincipalAuthenticationProfile load(final String principalId) {
+        return this.profiles.getUnchecked(principalId);
+    }
+
+    /**
+     * Count cas ticket granting ticket created events by the hour.
+     *
+     * @param principal the principal
+     * @param date      the start of recent history
+     * @return the count of cas ticket granting ticket created events by hour
+     */
+    protected SortedMap<ZonedDateTime, Long> countCasTicketGrantingTicketCreatedEventsFor(final String principal, final ZonedDateTime date) {
+        final String type = CasTicketGrantingTicketCreatedEvent.class.getName();
+        LOGGER.debug("Counting events of type [{}] for [{}] since [{}]", type, principal, date);
+        return this.casEventRepository.countEventsOfTypeForPrincipal(type, principal, date);
+    }
+
+    /**
+     * Gets cas ticket granting ticket created events.
+     *
+     * @param principal the principal
+     * @param date      the start of recent history
+     * @return the cas ticket granting ticket created events for
+     */
+    protected Collection<CasEvent> getCasTicketGrantingTicketCreatedEventsFor(final String principal, final ZonedDateTime date) {
+        final String type = CasTicketGrantingTicketCreatedEvent.class.getName();
+        LOGGER.debug("Retrieving events of type [{}] for [{}] since [{}]", type, principal, date);
+        return this.casEventRepository.getEventsOfTypeForPrincipal(type, principal, date);
+    }
+
+    private ZonedDateTime getStartOfRecentHistory() {
+        return ZonedDateTime.now(ZoneOffset.UTC).minusDays(this.daysInRecentHistory).truncatedTo(ChronoUnit.HOURS);
+    }
+}
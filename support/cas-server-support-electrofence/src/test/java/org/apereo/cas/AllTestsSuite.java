@@ -3,6 +3,7 @@ package org.apereo.cas;
 import org.apereo.cas.impl.calcs.DateTimeAuthenticationRequestRiskCalculatorTests;
 import org.apereo.cas.impl.calcs.GeoLocationAuthenticationRequestRiskCalculatorTests;
 import org.apereo.cas.impl.calcs.IpAddressAuthenticationRequestRiskCalculatorTests;
+import org.apereo.cas.impl.calcs.PrincipalAuthenticationProfileTests;
 import org.apereo.cas.impl.calcs.UserAgentAuthenticationRequestRiskCalculatorTests;
 import org.junit.runner.RunWith;
 import org.junit.runners.Suite;
@@ -16,6 +17,7 @@ import org.junit.runners.Suite;
 @Suite.SuiteClasses({DateTimeAuthenticationRequestRiskCalculatorTests.class,
         GeoLocationAuthenticationRequestRiskCalculatorTests.class,
         IpAddressAuthenticationRequestRiskCalculatorTests.class,
-        UserAgentAuthenticationRequestRiskCalculatorTests.class})
+        UserAgentAuthenticationRequestRiskCalculatorTests.class,
+        PrincipalAuthenticationProfileTests.class})
 public class AllTestsSuite {
 }
@@ -0,0 +1,83 @@
+package org.apereo.cas.impl.calcs;
+
+import org.apereo.cas.authentication.adaptive.geo.GeoLocationRequest;
+import org.apereo.cas.support.events.CasEventRepository;
+import org.apereo.cas.support.events.dao.CasEvent;
+import org.junit.Test;
+
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * This is {@link PrincipalAuthenticationProfileTests}.
+ *
+ * @author Misagh Moayyed
+ * @since 5.1.0
+ */
+public class PrincipalAuthenticationProfileTests {
+
+    @Test
+    public void verifyEventsAreCounted() {
+        final List<CasEvent> events = new ArrayList<>();
+        events.add(createEvent("107.181.69.221", "Firefox", "40.71", "-74.005", 23));
+        events.add(createEvent("107.181.69.221", "FIREFOX", "40.71", "-74.005", 1));
+        events.add(createEvent("85.90.227.224", "Chrome", "48.85", "2.35", 12));
+
+        final PrincipalAuthenticationProfile profile = new PrincipalAuthenticationProfile("casuser", events);
+        assertFalse(profile.isEmpty());
+        assertEquals(3, profile.getTotal());
+        assertEquals(2, profile.countByIpAddress("107.181.69.221"));
+        assertEquals(0, profile.countByIpAddress(null));
+        assertEquals(2, profile.countByUserAgent("firefox"));
+        assertEquals(1, profile.countByGeoLocation(new GeoLocationRequest(48.85, 2.35)));
+        assertEquals(2, profile.countByHourOfDay(0, 1));
+        assertEquals(1, profile.countByHourOfDay(12, 0));
+        assertEquals(0, profile.countByHourOfDay(6, 2));
+    }
+
+    @Test
+    public void verifyProfileIsLoadedOnce() {
+        final CasEventRepository repository = mock(CasEventRepository.class);
+        final Collection<CasEvent> events = new ArrayList<>();
+        events.add(createEvent("107.181.69.221", "Firefox", "40.71", "-74.005", 1));
+        final SortedMap<ZonedDateTime, Long> counts = new TreeMap<>();
+        counts.put(events.iterator().next().getCreationTime().truncatedTo(ChronoUnit.HOURS), 1L);
+        when(repository.countEventsOfTypeForPrincipal(anyString(), eq("casuser"), any(ZonedDateTime.class))).thenReturn(counts);
+        when(repository.getEventsOfTypeForPrincipal(anyString(), eq("casuser"), any(ZonedDateTime.class))).thenReturn(events);
+
+        final PrincipalAuthenticationProfileLoader loader = new PrincipalAuthenticationProfileLoader(repository, 30, 60);
+        final PrincipalAuthenticationProfile profile = loader.load("casuser");
+        assertSame(profile, loader.load("casuser"));
+        assertEquals(1, profile.getTotal());
+        assertEquals(1, profile.countByHourOfDay(1, 0));
+        verify(repository, times(1)).countEventsOfTypeForPrincipal(anyString(), eq("casuser"), any(ZonedDateTime.class));
+        verify(repository, never()).getEventsOfTypeForPrincipal(anyString(), anyString(), any(ZonedDateTime.class));
+
+        assertEquals(1, profile.countByIpAddress("107.181.69.221"));
+        assertEquals(1, profile.countByUserAgent("firefox"));
+        verify(repository, times(1)).getEventsOfTypeForPrincipal(anyString(), eq("casuser"), any(ZonedDateTime.class));
+    }
+
+    private static CasEvent createEvent(final String ip, final String agent, final String latitude,
+                                        final String longitude, final int hour) {
+        final CasEvent event = new CasEvent();
+        event.setPrincipalId("casuser");
+        event.putClientIpAddress(ip);
+        event.putAgent(agent);
+        final GeoLocationRequest location = new GeoLocationRequest();
+        location.setLatitude(latitude);
+        location.setLongitude(longitude);
+        event.putGeoLocation(location);
+        event.putCreationTime(ZonedDateTime.now().withHour(hour).format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+        return event;
+    }
+}
@@ -7,8 +7,10 @@ import org.springframework.transaction.annotation.Transactional;
 
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
+import java.time.Instant;
 import java.time.ZonedDateTime;
 import java.util.Collection;
+import java.util.SortedMap;
 
 /**
  * This is {@link JpaCasEventRepository} that stores event data into a RDBMS database.
@@ -22,6 +24,8 @@ public class JpaCasEventRepository extends AbstractCasEventRepository {
 
     private static final String SELECT_QUERY = "SELECT r from CasEvent r ";
 
+    private static final String SELECT_CREATION_TIME_QUERY = "SELECT r.creationTime from CasEvent r ";
+
     @PersistenceContext(unitName = "eventsEntityManagerFactory")
     private EntityManager entityManager;
 
@@ -35,6 +39,17 @@ public class JpaCasEventRepository extends AbstractCasEventRepository {
         this.entityManager.merge(event);
     }
 
+    /**
+     * Save the batch of events in one transaction, so the inserts are flushed together
+     * and sent as JDBC batches when {@code hibernate.jdbc.batch_size} is set.
+     *
+     * @param events the events
+     */
+    @Override
+    public void saveAll(final Collection<CasEvent> events) {
+        events.forEach(this.entityManager::merge);
+    }
+
     @Override
     public Collection<CasEvent> load() {
         return this.entityManager.createQuery(SELECT_QUERY.trim(), CasEvent.class).getResultList();
@@ -49,7 +64,7 @@ public class JpaCasEventRepository extends AbstractCasEventRepository {
     @Override
     public Collection<CasEvent> load(final ZonedDateTime dateTime) {
         return this.entityManager.createQuery(SELECT_QUERY.concat("where r.creationTime >= :creationTime"),
-                CasEvent.class).setParameter("creationTime", dateTime.toString()).getResultList();
+                CasEvent.class).setParameter("creationTime", dateTime.toInstant()).getResultList();
     }
 
     @Override
@@ -59,7 +74,7 @@ public class JpaCasEventRepository extends AbstractCasEventRepository {
                 CasEvent.class)
                 .setParameter("type", type)
                 .setParameter("principalId", principal)
-                .setParameter("creationTime", dateTime.toString())
+                .setParameter("creationTime", dateTime.toInstant())
                 .getResultList();
     }
 
@@ -68,7 +83,7 @@ public class JpaCasEventRepository extends AbstractCasEventRepository {
         return this.entityManager.createQuery(
                 SELECT_QUERY.concat("where r.type = :type and r.creationTime >= :creationTime"), CasEvent.class)
                 .setParameter("type", type)
-                .setParameter("creationTime", dateTime.toString())
+                .setParameter("creationTime", dateTime.toInstant())
                 .getResultList();
     }
 
@@ -77,7 +92,7 @@ public class JpaCasEventRepository extends AbstractCasEventRepository {
         return this.entityManager.createQuery(
                 SELECT_QUERY.concat("where r.principalId = :principalId and r.creationTime >= :creationTime"), CasEvent.class)
                 .setParameter("principalId", id)
-                .setParameter("creationTime", dateTime.toString())
+                .setParameter("creationTime", dateTime.toInstant())
                 .getResultList();
     }
 
@@ -98,4 +113,27 @@ public class JpaCasEventRepository extends AbstractCasEventRepository {
                 .setParameter("principalId", principal)
                 .getResultList();
     }
+
+    @Override
+    public SortedMap<ZonedDateTime, Long> countEventsOfType(final String type, final ZonedDateTime dateTime) {
+        return countByHour(this.entityManager.createQuery(
+                SELECT_CREATION_TIME_QUERY.concat("where r.type = :type and r.creationTime >= :creationTime"), Instant.class)
+                .setParameter("type", type)
+                .setParameter("creationTime", truncateToHour(dateTime).toInstant())
+                .getResultList()
+                .stream());
+    }
+
+    @Override
+    public SortedMap<ZonedDateTime, Long> countEventsOfTypeForPrincipal(final String type, final String principal,
+                                                                        final ZonedDateTime dateTime) {
+        return countByHour(this.entityManager.createQuery(
+                SELECT_CREATION_TIME_QUERY.concat("where r.type = :type and r.principalId = :principalId and r.creationTime >= :creationTime"),
+                Instant.class)
+                .setParameter("type", type)
+                .setParameter("principalId", principal)
+                .setParameter("creationTime", truncateToHour(dateTime).toInstant())
+                .getResultList()
+                .stream());
+    }
 }
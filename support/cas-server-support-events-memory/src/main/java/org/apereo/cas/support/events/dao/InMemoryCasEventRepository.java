@@ -1,26 +1,69 @@
 package org.apereo.cas.support.events.dao;
 
-import com.google.common.cache.LoadingCache;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalNotification;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
 import java.util.UUID;
-import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
 
 /**
- * This is {@link InMemoryCasEventRepository}.
+ * This is {@link InMemoryCasEventRepository}. Events are indexed by principal,
+ * and counted by type and by type and principal in hourly buckets as they are saved
+ * and evicted, so that events of a principal and counts of events are
+ * looked up without scanning all events. Events saved without a creation time are
+ * recorded as created when they are saved.
  *
  * @author Misagh Moayyed
  * @since 5.1.0
  */
 public class InMemoryCasEventRepository extends AbstractCasEventRepository {
-    private final LoadingCache<String, CasEvent> cache;
+    private static final Logger LOGGER = LoggerFactory.getLogger(InMemoryCasEventRepository.class);
 
-    public InMemoryCasEventRepository(final LoadingCache<String, CasEvent> cache) {
-        this.cache = cache;
+    private final Cache<String, CasEvent> cache;
+
+    private final ConcurrentMap<String, Set<CasEvent>> eventsByPrincipal = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<String, ConcurrentNavigableMap<Instant, Long>> countsByHour = new ConcurrentHashMap<>();
+
+    public InMemoryCasEventRepository(final CacheBuilder<Object, Object> cacheBuilder) {
+        this.cache = cacheBuilder.removalListener(this::onRemoval).build();
     }
 
     @Override
     public void save(final CasEvent event) {
+        if (event.getCreationTime() == null) {
+            LOGGER.debug("Event [{}] carries no creation time, and is recorded as created now", event);
+            event.putCreationTime(ZonedDateTime.now(ZoneOffset.UTC));
+        }
+        final String principal = StringUtils.lowerCase(event.getPrincipalId());
+        if (principal != null) {
+            this.eventsByPrincipal.compute(principal, (k, events) -> {
+                final Set<CasEvent> results = events == null ? ConcurrentHashMap.newKeySet() : events;
+                results.add(event);
+                return results;
+            });
+        }
+        getCountKeys(event).forEach(key -> this.countsByHour.compute(key, (k, hours) -> {
+            final ConcurrentNavigableMap<Instant, Long> results = hours == null ? new ConcurrentSkipListMap<>() : hours;
+            results.merge(getHour(event), 1L, Long::sum);
+            return results;
+        }));
         cache.put(UUID.randomUUID().toString(), event);
     }
 
@@ -28,9 +71,65 @@ public class InMemoryCasEventRepository extends AbstractCasEventRepository {
     public Collection<CasEvent> load() {
         return cache.asMap().values();
     }
-    
+
     @Override
     public Collection<CasEvent> getEventsForPrincipal(final String id) {
-        return cache.asMap().values().stream().filter(e -> e.getPrincipalId().equalsIgnoreCase(id)).collect(Collectors.toSet());
+        cache.cleanUp();
+        final Set<CasEvent> events = this.eventsByPrincipal.get(StringUtils.lowerCase(id));
+        return events == null ? Collections.emptySet() : new HashSet<>(events);
+    }
+
+    @Override
+    public SortedMap<ZonedDateTime, Long> countEventsOfType(final String type, final ZonedDateTime dateTime) {
+        return getCounts(getCountKey(type, null), dateTime);
+    }
+
+    @Override
+    public SortedMap<ZonedDateTime, Long> countEventsOfTypeForPrincipal(final String type, final String principal,
+                                                                        final ZonedDateTime dateTime) {
+        return getCounts(getCountKey(type, principal), dateTime);
+    }
+
+    private SortedMap<ZonedDateTime, Long> getCounts(final String key, final ZonedDateTime dateTime) {
+        cache.cleanUp();
+        final SortedMap<ZonedDateTime, Long> counts = new TreeMap<>();
+        final ConcurrentNavigableMap<Instant, Long> hours = this.countsByHour.get(key);
+        if (hours != null) {
+            hours.tailMap(truncateToHour(dateTime).toInstant(), true)
+                    .forEach((hour, count) -> counts.put(ZonedDateTime.ofInstant(hour, ZoneOffset.UTC), count));
+        }
+        return counts;
+    }
+
+    private void onRemoval(final RemovalNotification<Object, Object> notification) {
+        final CasEvent event = (CasEvent) notification.getValue();
+        final String principal = StringUtils.lowerCase(event.getPrincipalId());
+        if (principal != null) {
+            this.eventsByPrincipal.computeIfPresent(principal, (k, events) -> {
+                events.remove(event);
+                return events.isEmpty() ? null : events;
+            });
+        }
+        getCountKeys(event).forEach(key -> this.countsByHour.computeIfPresent(key, (k, hours) -> {
+            hours.computeIfPresent(getHour(event), (hour, count) -> count > 1 ? count - 1 : null);
+            return hours.isEmpty() ? null : hours;
+        }));
+    }
+
+    private static Set<String> getCountKeys(final CasEvent event) {
+        final Set<String> keys = new HashSet<>();
+        keys.add(getCountKey(event.getType(), null));
+        if (event.getPrincipalId() != null) {
+            keys.add(getCountKey(event.getType(), event.getPrincipalId()));
+        }
+        return keys;
+    }
+
+    private static String getCountKey(final String type, final String principal) {
+        return principal == null ? type : type + '|' + principal.toLowerCase();
+    }
+
+    private static Instant getHour(final CasEvent event) {
+        return truncateToHour(event.getCreationTime()).toInstant();
     }
 }
@@ -0,0 +1,70 @@
+package org.apereo.cas.support.events.dao;
+
+import com.google.common.cache.CacheBuilder;
+import org.apereo.cas.support.events.AbstractCasEventRepositoryTests;
+import org.apereo.cas.support.events.CasEventRepository;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.ZonedDateTime;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for {@link InMemoryCasEventRepository}.
+ *
+ * @author Misagh Moayyed
+ * @since 5.1.0
+ */
+public class InMemoryCasEventRepositoryTests extends AbstractCasEventRepositoryTests {
+
+    private CasEventRepository repository;
+
+    @Before
+    public void setUp() {
+        this.repository = new InMemoryCasEventRepository(CacheBuilder.newBuilder().concurrencyLevel(1).maximumSize(2));
+    }
+
+    @Test
+    public void verifyEvictedEventsAreNotCounted() {
+        final ZonedDateTime now = ZonedDateTime.now();
+        this.repository.save(createEvent("CasUser", now));
+        this.repository.save(createEvent("casuser", now));
+        assertEquals(2, this.repository.getEventsForPrincipal("casuser").size());
+        assertEquals(2, count(this.repository.countEventsOfTypeForPrincipal("test", "CASUSER", now)));
+
+        this.repository.save(createEvent("anotheruser", now));
+        assertEquals(1, this.repository.getEventsForPrincipal("casuser").size());
+        assertEquals(1, count(this.repository.countEventsOfTypeForPrincipal("test", "casuser", now)));
+        assertEquals(2, count(this.repository.countEventsOfType("test", now)));
+    }
+
+    @Test
+    public void verifyEventWithoutCreationTimeIsCountedAsCreatedNow() {
+        final ZonedDateTime now = ZonedDateTime.now();
+        final CasEvent event = new CasEvent();
+        event.setType("test");
+        event.setPrincipalId("casuser");
+        this.repository.save(event);
+        assertNotNull(event.getCreationTime());
+        assertEquals(1, count(this.repository.countEventsOfTypeForPrincipal("test", "casuser", now)));
+    }
+
+    @Override
+    public CasEventRepository getRepositoryInstance() {
+        return this.repository;
+    }
+
+    private static long count(final Map<ZonedDateTime, Long> counts) {
+        return counts.values().stream().mapToLong(Long::longValue).sum();
+    }
+
+    private static CasEvent createEvent(final String principal, final ZonedDateTime creationTime) {
+        final CasEvent event = new CasEvent();
+        event.setType("test");
+        event.setPrincipalId(principal);
+        event.putCreationTime(creationTime);
+        return event;
+    }
+}
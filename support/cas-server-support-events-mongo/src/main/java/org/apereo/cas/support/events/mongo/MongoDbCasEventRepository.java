@@ -4,13 +4,17 @@ import org.apereo.cas.support.events.dao.AbstractCasEventRepository;
 import org.apereo.cas.support.events.dao.CasEvent;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.index.Index;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.util.Assert;
 
 import java.time.ZonedDateTime;
 import java.util.Collection;
+import java.util.Date;
+import java.util.SortedMap;
 
 /**
  * This is {@link MongoDbCasEventRepository} that stores event data into a mongodb database.
@@ -20,6 +24,8 @@ import java.util.Collection;
  */
 public class MongoDbCasEventRepository extends AbstractCasEventRepository {
     private static final Logger LOGGER = LoggerFactory.getLogger(MongoDbCasEventRepository.class);
+
+    private static final String CREATION_TIME_FIELD = "creationTime";
     
     private final String collectionName;
     private final MongoOperations mongoTemplate;
@@ -39,6 +45,15 @@ public class MongoDbCasEventRepository extends AbstractCasEventRepository {
             LOGGER.debug("Creating database collection: [{}]", this.collectionName);
             this.mongoTemplate.createCollection(this.collectionName);
         }
+
+        LOGGER.debug("Ensuring indexes on creation time of events in database collection: [{}]", this.collectionName);
+        this.mongoTemplate.indexOps(this.collectionName).ensureIndex(new Index()
+                .on("principalId", Sort.Direction.ASC)
+                .on("type", Sort.Direction.ASC)
+                .on(CREATION_TIME_FIELD, Sort.Direction.ASC));
+        this.mongoTemplate.indexOps(this.collectionName).ensureIndex(new Index()
+                .on("type", Sort.Direction.ASC)
+                .on(CREATION_TIME_FIELD, Sort.Direction.ASC));
     }
 
     @Override
@@ -80,28 +95,49 @@ public class MongoDbCasEventRepository extends AbstractCasEventRepository {
     @Override
     public Collection<CasEvent> load(final ZonedDateTime dateTime) {
         final Query query = new Query();
-        query.addCriteria(Criteria.where("creationTime").gte(dateTime.toString()));
+        query.addCriteria(Criteria.where(CREATION_TIME_FIELD).gte(Date.from(dateTime.toInstant())));
         return this.mongoTemplate.find(query, CasEvent.class, this.collectionName);
     }
 
     @Override
     public Collection<CasEvent> getEventsOfTypeForPrincipal(final String type, final String principal, final ZonedDateTime dateTime) {
         final Query query = new Query();
-        query.addCriteria(Criteria.where("type").is(type).and("principalId").is(principal).and("creationTime").gte(dateTime.toString()));
+        query.addCriteria(Criteria.where("type").is(type).and("principalId").is(principal).and(CREATION_TIME_FIELD).gte(Date.from(dateTime.toInstant())));
         return this.mongoTemplate.find(query, CasEvent.class, this.collectionName);
     }
 
     @Override
     public Collection<CasEvent> getEventsOfType(final String type, final ZonedDateTime dateTime) {
         final Query query = new Query();
-        query.addCriteria(Criteria.where("type").is(type).and("creationTime").gte(dateTime.toString()));
+        query.addCriteria(Criteria.where("type").is(type).and(CREATION_TIME_FIELD).gte(Date.from(dateTime.toInstant())));
         return this.mongoTemplate.find(query, CasEvent.class, this.collectionName);
     }
 
     @Override
     public Collection<CasEvent> getEventsForPrincipal(final String principal, final ZonedDateTime dateTime) {
         final Query query = new Query();
-        query.addCriteria(Criteria.where("principalId").is(principal).and("creationTime").gte(dateTime.toString()));
+        query.addCriteria(Criteria.where("principalId").is(principal).and(CREATION_TIME_FIELD).gte(Date.from(dateTime.toInstant())));
         return this.mongoTemplate.find(query, CasEvent.class, this.collectionName);
     }
+
+    @Override
+    public SortedMap<ZonedDateTime, Long> countEventsOfType(final String type, final ZonedDateTime dateTime) {
+        return countCreationTimes(Criteria.where("type").is(type)
+                .and(CREATION_TIME_FIELD).gte(Date.from(truncateToHour(dateTime).toInstant())));
+    }
+
+    @Override
+    public SortedMap<ZonedDateTime, Long> countEventsOfTypeForPrincipal(final String type, final String principal,
+                                                                        final ZonedDateTime dateTime) {
+        return countCreationTimes(Criteria.where("type").is(type).and("principalId").is(principal)
+                .and(CREATION_TIME_FIELD).gte(Date.from(truncateToHour(dateTime).toInstant())));
+    }
+
+    private SortedMap<ZonedDateTime, Long> countCreationTimes(final Criteria criteria) {
+        final Query query = new Query(criteria);
+        query.fields().include(CREATION_TIME_FIELD);
+        return countByHour(this.mongoTemplate.find(query, CasEvent.class, this.collectionName)
+                .stream()
+                .map(e -> e.getCreationTime().toInstant()));
+    }
 }
@@ -72,6 +72,7 @@ public class HazelcastTicketRegistryConfiguration {
                 ticketCatalog,
                 hz.getPageSize());
         r.setCipherExecutor(Beans.newTicketRegistryCipherExecutor(hz.getCrypto()));
+        r.setStoreGrantingTicketById(casProperties.getTicket().getRegistry().isStoreGrantingTicketById());
         return r;
     }
 
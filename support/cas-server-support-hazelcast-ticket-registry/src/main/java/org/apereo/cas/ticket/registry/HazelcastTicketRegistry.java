@@ -1,7 +1,10 @@
 package org.apereo.cas.ticket.registry;
 
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.Iterators;
 import com.hazelcast.core.HazelcastInstance;
 import com.hazelcast.core.IMap;
+import com.hazelcast.query.PagingPredicate;
 import org.apache.commons.lang3.StringUtils;
 import org.apereo.cas.ticket.Ticket;
 import org.apereo.cas.ticket.TicketCatalog;
@@ -13,11 +16,20 @@ import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
 import java.io.Closeable;
 import java.io.IOException;
+import java.io.Serializable;
 import java.util.Collection;
+import java.util.Comparator;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Hazelcast-based implementation of a {@link TicketRegistry}.
@@ -117,18 +129,52 @@ public class HazelcastTicketRegistry extends AbstractTicketRegistry implements C
 
     @Override
     public Collection<Ticket> getTickets() {
-        final Collection<Ticket> tickets = new HashSet<>();
-        try {
-            final Collection<TicketDefinition> metadata = this.ticketCatalog.findAll();
-            metadata.forEach(t -> {
-                final IMap<String, Ticket> map = getTicketMapInstanceByMetadata(t);
-                tickets.addAll(map.values().stream().limit(this.pageSize).collect(Collectors.toList()));
-            });
-            return tickets;
+        try (Stream<Ticket> tickets = stream()) {
+            return tickets.collect(Collectors.toSet());
         } catch (final Exception e) {
             LOGGER.warn(e.getMessage(), e);
         }
-        return tickets;
+        return new HashSet<>();
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Only the maps of the ticket definitions that match the type are visited, and each map is
+     * paged through with a {@link PagingPredicate} ordered by ticket id, one page of tickets at a time
+     * as the stream is consumed. Expired tickets are evicted by Hazelcast itself, so the expiration
+     * filter is applied as tickets are decoded.
+     */
+    @Override
+    public <T extends Ticket> Stream<T> stream(final Class<T> type, final boolean expiredOnly) {
+        final Iterator<IMap<String, Ticket>> maps = this.ticketCatalog.findAll().stream()
+                .filter(t -> type.isAssignableFrom(t.getImplementationClass()) || t.getImplementationClass().isAssignableFrom(type))
+                .map(t -> t.getProperties().getStorageName())
+                .distinct()
+                .map(this::getTicketMapInstance)
+                .filter(Objects::nonNull)
+                .iterator();
+        final Iterator<Ticket> tickets = Iterators.concat(Iterators.transform(maps, this::pageTickets));
+        return decodeTickets(StreamSupport.stream(Spliterators.spliteratorUnknownSize(tickets,
+                Spliterator.ORDERED | Spliterator.NONNULL), false), type, expiredOnly);
+    }
+
+    private Iterator<Ticket> pageTickets(final IMap<String, Ticket> map) {
+        final PagingPredicate<String, Ticket> predicate = new PagingPredicate<>(new TicketIdComparator(), this.pageSize);
+        return Iterators.concat(new AbstractIterator<Iterator<Ticket>>() {
+            private boolean last;
+
+            @Override
+            protected Iterator<Ticket> computeNext() {
+                if (this.last) {
+                    return endOfData();
+                }
+                final Collection<Ticket> page = map.values(predicate);
+                this.last = page.size() < pageSize;
+                predicate.nextPage();
+                return page.iterator();
+            }
+        });
     }
 
     /**
@@ -159,4 +205,16 @@ public class HazelcastTicketRegistry extends AbstractTicketRegistry implements C
         }
         return null;
     }
+
+    /**
+     * Orders map entries by ticket id, so that pages are stable as the map is paged through.
+     */
+    private static class TicketIdComparator implements Comparator<Map.Entry<String, Ticket>>, Serializable {
+        private static final long serialVersionUID = -6318522335464428283L;
+
+        @Override
+        public int compare(final Map.Entry<String, Ticket> first, final Map.Entry<String, Ticket> second) {
+            return first.getKey().compareTo(second.getKey());
+        }
+    }
 }
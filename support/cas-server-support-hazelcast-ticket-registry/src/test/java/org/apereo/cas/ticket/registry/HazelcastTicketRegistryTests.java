@@ -51,7 +51,8 @@ import org.springframework.test.context.junit4.SpringRunner;
         CasCoreServicesConfiguration.class,
         CasCoreLogoutConfiguration.class
 })
-@TestPropertySource(properties = {"cas.ticket.registry.hazelcast.cluster.instanceName=testlocalhostinstance"})
+@TestPropertySource(properties = {"cas.ticket.registry.hazelcast.cluster.instanceName=testlocalhostinstance",
+        "cas.ticket.registry.hazelcast.pageSize=3"})
 public class HazelcastTicketRegistryTests extends AbstractTicketRegistryTests {
     @Autowired
     @Qualifier("ticketRegistry")
@@ -81,6 +81,8 @@ public class JpaTicketRegistryConfiguration {
         final JpaTicketRegistryProperties jpa = casProperties.getTicket().getRegistry().getJpa();
         final JpaTicketRegistry bean = new JpaTicketRegistry(jpa.getTicketLockType(), ticketCatalog);
         bean.setCipherExecutor(Beans.newTicketRegistryCipherExecutor(jpa.getCrypto()));
+        bean.setStoreServiceSessionsInTable(jpa.isStoreServiceSessionsInTable());
+        bean.setOnlyTrackMostRecentSession(casProperties.getTicket().getTgt().isOnlyTrackMostRecentSession());
         return bean;
     }
 
@@ -1,23 +1,45 @@
 package org.apereo.cas.ticket.registry;
 
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.Iterators;
+import org.apache.commons.lang3.StringUtils;
+import org.apereo.cas.authentication.principal.Service;
 import org.apereo.cas.ticket.ServiceTicket;
 import org.apereo.cas.ticket.Ticket;
 import org.apereo.cas.ticket.TicketCatalog;
 import org.apereo.cas.ticket.TicketDefinition;
 import org.apereo.cas.ticket.TicketGrantingTicket;
+import org.apereo.cas.ticket.TicketGrantingTicketImpl;
+import org.apereo.cas.ticket.TicketState;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
 import org.springframework.transaction.annotation.Transactional;
 
 import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
 import javax.persistence.LockModeType;
 import javax.persistence.PersistenceContext;
+import javax.persistence.PersistenceUnit;
 import javax.persistence.Query;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.TreeMap;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * JPA implementation of a CAS {@link TicketRegistry}. This implementation of
@@ -33,17 +55,42 @@ public class JpaTicketRegistry extends AbstractTicketRegistry {
    
     private static final Logger LOGGER = LoggerFactory.getLogger(JpaTicketRegistry.class);
 
+    private static final String CURSOR_SEPARATOR = ":";
+
+    /**
+     * Number of rows fetched per round trip when streaming tickets, after which the
+     * persistence context of the stream is cleared.
+     */
+    private static final int STREAM_FETCH_SIZE = 100;
+
+    private static final String SERVICE_SESSION_ENTITY_NAME = TicketGrantingTicketServiceSession.class.getSimpleName();
+
     private final TicketCatalog ticketCatalog;
     private final LockModeType lockType;
 
+    private boolean storeServiceSessionsInTable;
+
+    private boolean onlyTrackMostRecentSession = true;
+
     @PersistenceContext(unitName = "ticketEntityManagerFactory")
     private EntityManager entityManager;
 
+    @PersistenceUnit(unitName = "ticketEntityManagerFactory")
+    private EntityManagerFactory entityManagerFactory;
+
     public JpaTicketRegistry(final LockModeType lockType, final TicketCatalog ticketCatalog) {
         this.lockType = lockType;
         this.ticketCatalog = ticketCatalog;
     }
 
+    public void setStoreServiceSessionsInTable(final boolean storeServiceSessionsInTable) {
+        this.storeServiceSessionsInTable = storeServiceSessionsInTable;
+    }
+
+    public void setOnlyTrackMostRecentSession(final boolean onlyTrackMostRecentSession) {
+        this.onlyTrackMostRecentSession = onlyTrackMostRecentSession;
+    }
+
     @Override
     public Ticket updateTicket(final Ticket ticket) {
         this.entityManager.merge(ticket);
@@ -57,10 +104,57 @@ public class JpaTicketRegistry extends AbstractTicketRegistry {
         LOGGER.debug("Added ticket [{}] to registry.", ticket);
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * When service sessions are stored in their own table, the service ticket and its service session are inserted,
+     * and only the usage columns of the ticket-granting ticket are updated, rather than the whole ticket along with
+     * all of the services it has granted access to. Earlier sessions of the same service are deleted if only the most
+     * recent session is tracked. The ticket-granting ticket is detached beforehand, so that its row is not rewritten
+     * as the persistence context is flushed.
+     */
+    @Override
+    public void addTicketAndUpdateParent(final Ticket ticket, final Ticket parent) {
+        if (!this.storeServiceSessionsInTable || !(ticket instanceof ServiceTicket) || !(parent instanceof TicketGrantingTicket)) {
+            updateTicket(parent);
+            addTicket(ticket);
+            return;
+        }
+
+        addTicket(ticket);
+        final ServiceTicket serviceTicket = (ServiceTicket) ticket;
+        final TicketGrantingTicketServiceSession session = new TicketGrantingTicketServiceSession(serviceTicket.getId(),
+                parent.getId(), serviceTicket.getService());
+        if (this.entityManager.contains(parent)) {
+            this.entityManager.detach(parent);
+        }
+        if (this.onlyTrackMostRecentSession) {
+            final int superseded = this.entityManager.createQuery("delete from " + SERVICE_SESSION_ENTITY_NAME
+                    + " s where s.ticketGrantingTicketId = :id and s.servicePath = :servicePath")
+                    .setParameter("id", parent.getId())
+                    .setParameter("servicePath", session.getServicePath())
+                    .executeUpdate();
+            LOGGER.debug("Deleted [{}] earlier service session(s) of [{}] for [{}]", superseded, parent, session.getServicePath());
+        }
+        this.entityManager.persist(session);
+
+        final TicketState state = (TicketState) parent;
+        final int count = this.entityManager.createQuery("update " + getTicketEntityName(this.ticketCatalog.find(parent))
+                + " t set t.lastTimeUsed = :lastTimeUsed, t.previousLastTimeUsed = :previousLastTimeUsed, t.countOfUses = :countOfUses"
+                + " where t.id = :id")
+                .setParameter("lastTimeUsed", state.getLastTimeUsed())
+                .setParameter("previousLastTimeUsed", state.getPreviousTimeUsed())
+                .setParameter("countOfUses", state.getCountOfUses())
+                .setParameter("id", parent.getId())
+                .executeUpdate();
+        LOGGER.debug("Added ticket [{}] and its service session, and updated [{}] row(s) of [{}]", ticket, count, parent);
+    }
+
     @Override
     public long deleteAll() {
         final Collection<TicketDefinition> tkts = this.ticketCatalog.findAll();
         final AtomicLong count = new AtomicLong();
+        entityManager.createQuery("delete from " + SERVICE_SESSION_ENTITY_NAME).executeUpdate();
         tkts.forEach(t -> {
             final String entityName = getTicketEntityName(t);
             final Query query = entityManager.createQuery("delete from " + entityName);
@@ -85,7 +179,7 @@ public class JpaTicketRegistry extends AbstractTicketRegistry {
     public Ticket getRawTicket(final String ticketId) {
         try {
             final TicketDefinition tkt = this.ticketCatalog.find(ticketId);
-            return this.entityManager.find(tkt.getImplementationClass(), ticketId, this.lockType);
+            return trackServiceSessions(this.entityManager.find(tkt.getImplementationClass(), ticketId, this.lockType));
         } catch (final Exception e) {
             LOGGER.error("Error getting ticket [{}] from registry.", ticketId, e);
         }
@@ -100,9 +194,79 @@ public class JpaTicketRegistry extends AbstractTicketRegistry {
             final Query query = this.entityManager.createQuery("select t from " + getTicketEntityName(t) + " t", t.getImplementationClass());
             tickets.addAll(query.getResultList());
         });
+        tickets.forEach(this::trackServiceSessions);
         return tickets;
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Tickets are read with forward-only scrollable results, one ticket entity at a time, restricted
+     * to the entities whose ticket type matches. The stream runs in its own entity manager and read-only
+     * transaction, whose persistence context is cleared as rows are fetched, until the stream is closed.
+     * Ticket entities carry no column from which expiration can be queried, so the expiration filter
+     * is applied as tickets are read.
+     */
+    @Override
+    public <T extends Ticket> Stream<T> stream(final Class<T> type, final boolean expiredOnly) {
+        final List<TicketDefinition> definitions = this.ticketCatalog.findAll().stream()
+                .filter(t -> type.isAssignableFrom(t.getImplementationClass()) || t.getImplementationClass().isAssignableFrom(type))
+                .collect(Collectors.toList());
+        final EntityManager streamEntityManager = this.entityManagerFactory.createEntityManager();
+        try {
+            streamEntityManager.getTransaction().begin();
+            final Iterator<Ticket> tickets = Iterators.concat(Iterators.transform(definitions.iterator(),
+                    t -> scrollTickets(streamEntityManager, t)));
+            final Stream<Ticket> stream = StreamSupport.stream(Spliterators.spliteratorUnknownSize(tickets,
+                    Spliterator.ORDERED | Spliterator.NONNULL), false);
+            return decodeTickets(stream.map(this::trackServiceSessions), type, expiredOnly)
+                    .onClose(() -> closeEntityManager(streamEntityManager));
+        } catch (final RuntimeException e) {
+            closeEntityManager(streamEntityManager);
+            throw e;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Ticket entities carry no column from which expiration can be queried, so tickets are
+     * examined one entity at a time, in pages of at most the given limit ordered by ticket id.
+     * The cursor is the entity name and the last ticket id examined.
+     */
+    @Override
+    public ExpiredTicketPage getExpiredTickets(final String cursor, final int limit) {
+        final NavigableMap<String, Class<? extends Ticket>> entities = new TreeMap<>();
+        this.ticketCatalog.findAll().forEach(t -> entities.put(getTicketEntityName(t), t.getImplementationClass()));
+        if (entities.isEmpty()) {
+            return new ExpiredTicketPage(Collections.emptyList(), 0, null);
+        }
+
+        String entityName = entities.keySet().iterator().next();
+        String lastTicketId = StringUtils.EMPTY;
+        if (cursor != null && entities.containsKey(StringUtils.substringBefore(cursor, CURSOR_SEPARATOR))) {
+            entityName = StringUtils.substringBefore(cursor, CURSOR_SEPARATOR);
+            lastTicketId = StringUtils.substringAfter(cursor, CURSOR_SEPARATOR);
+        }
+
+        final List<? extends Ticket> tickets = this.entityManager
+                .createQuery("select t from " + entityName + " t where t.id > :id order by t.id", entities.get(entityName))
+                .setParameter("id", lastTicketId)
+                .setMaxResults(limit)
+                .getResultList();
+        final List<Ticket> expired = tickets.stream().filter(Ticket::isExpired).map(this::trackServiceSessions).collect(Collectors.toList());
+
+        final String nextCursor;
+        if (tickets.size() >= limit) {
+            nextCursor = entityName + CURSOR_SEPARATOR + tickets.get(tickets.size() - 1).getId();
+        } else {
+            final String nextEntityName = entities.higherKey(entityName);
+            nextCursor = nextEntityName == null ? null : nextEntityName + CURSOR_SEPARATOR;
+        }
+        LOGGER.debug("Examined [{}] tickets of [{}] and found [{}] expired", tickets.size(), entityName, expired.size());
+        return new ExpiredTicketPage(expired, tickets.size(), nextCursor);
+    }
+
     @Override
     public long sessionCount() {
         final TicketDefinition md = this.ticketCatalog.find(TicketGrantingTicket.PREFIX);
@@ -130,6 +294,92 @@ public class JpaTicketRegistry extends AbstractTicketRegistry {
         return totalCount != 0;
     }
 
+    /**
+     * Scroll through the tickets of a single entity. Subclass entities that are mapped to the same table
+     * are left out, since they are scrolled through with their own definition.
+     *
+     * @param streamEntityManager the entity manager of the stream
+     * @param definition          the ticket definition
+     * @return the tickets, as they are fetched
+     */
+    private Iterator<Ticket> scrollTickets(final EntityManager streamEntityManager, final TicketDefinition definition) {
+        final String entityName = getTicketEntityName(definition);
+        LOGGER.debug("Streaming tickets of entity [{}]", entityName);
+        final ScrollableResults results = streamEntityManager
+                .createQuery("select t from " + entityName + " t where type(t) = " + entityName)
+                .unwrap(org.hibernate.query.Query.class)
+                .setFetchSize(STREAM_FETCH_SIZE)
+                .setReadOnly(true)
+                .scroll(ScrollMode.FORWARD_ONLY);
+        return new AbstractIterator<Ticket>() {
+            private int count;
+
+            @Override
+            protected Ticket computeNext() {
+                if (++this.count % STREAM_FETCH_SIZE == 0) {
+                    streamEntityManager.clear();
+                }
+                if (results.next()) {
+                    return (Ticket) results.get(0);
+                }
+                results.close();
+                return endOfData();
+            }
+        };
+    }
+
+    private static void closeEntityManager(final EntityManager streamEntityManager) {
+        try {
+            if (streamEntityManager.getTransaction().isActive()) {
+                streamEntityManager.getTransaction().rollback();
+            }
+        } finally {
+            streamEntityManager.close();
+        }
+    }
+
+    /**
+     * Let a ticket-granting ticket look up the services it granted access to from their own table,
+     * if service sessions are stored there, the first time they are needed.
+     *
+     * @param ticket the ticket
+     * @return the ticket
+     */
+    private Ticket trackServiceSessions(final Ticket ticket) {
+        if (this.storeServiceSessionsInTable && ticket instanceof TicketGrantingTicketImpl) {
+            ((TicketGrantingTicketImpl) ticket).setServicesLoader(this::getServiceSessions);
+        }
+        return ticket;
+    }
+
+    /**
+     * Gets the services a ticket-granting ticket granted access to, keyed by service ticket id.
+     * If only the most recent session is tracked, earlier sessions for the same service are left out.
+     *
+     * @param ticketGrantingTicketId the ticket-granting ticket id
+     * @return the services
+     */
+    private Map<String, Service> getServiceSessions(final String ticketGrantingTicketId) {
+        final List<TicketGrantingTicketServiceSession> sessions = this.entityManager
+                .createQuery("select s from " + SERVICE_SESSION_ENTITY_NAME + " s where s.ticketGrantingTicketId = :id order by s.creationTime",
+                        TicketGrantingTicketServiceSession.class)
+                .setParameter("id", ticketGrantingTicketId)
+                .getResultList();
+        final Map<String, Service> services = new LinkedHashMap<>();
+        final Map<String, String> sessionsByPath = new HashMap<>();
+        sessions.forEach(session -> {
+            if (this.onlyTrackMostRecentSession) {
+                final String previous = sessionsByPath.put(TicketGrantingTicketImpl.normalizePath(session.getService()), session.getId());
+                if (previous != null) {
+                    services.remove(previous);
+                }
+            }
+            services.put(session.getId(), session.getService());
+        });
+        LOGGER.debug("Found [{}] service session(s) of [{}]", services.size(), ticketGrantingTicketId);
+        return services;
+    }
+
     private String getTicketEntityName(final TicketDefinition tk) {
         return tk.getImplementationClass().getSimpleName();
     }
@@ -144,12 +394,17 @@ public class JpaTicketRegistry extends AbstractTicketRegistry {
         int totalCount = 0;
 
         final TicketDefinition st = this.ticketCatalog.find(ServiceTicket.PREFIX);
+        final TicketDefinition tgt = this.ticketCatalog.find(TicketGrantingTicket.PREFIX);
+
+        Query query = entityManager.createQuery("delete from " + SERVICE_SESSION_ENTITY_NAME + " s where s.ticketGrantingTicketId = :id"
+                + " or s.ticketGrantingTicketId in (select t.id from " + getTicketEntityName(tgt) + " t where t.ticketGrantingTicket.id = :id)");
+        query.setParameter("id", ticketId);
+        query.executeUpdate();
 
-        Query query = entityManager.createQuery("delete from " + getTicketEntityName(st) + " s where s.ticketGrantingTicket.id = :id");
+        query = entityManager.createQuery("delete from " + getTicketEntityName(st) + " s where s.ticketGrantingTicket.id = :id");
         query.setParameter("id", ticketId);
         totalCount += query.executeUpdate();
 
-        final TicketDefinition tgt = this.ticketCatalog.find(TicketGrantingTicket.PREFIX);
         query = entityManager.createQuery("delete from " + getTicketEntityName(tgt) + " t where t.ticketGrantingTicket.id = :id");
         query.setParameter("id", ticketId);
         totalCount += query.executeUpdate();
@@ -0,0 +1,78 @@
+package org.apereo.cas.ticket.registry;
+
+import org.apereo.cas.authentication.principal.Service;
+import org.apereo.cas.ticket.TicketGrantingTicketImpl;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Lob;
+import javax.persistence.Table;
+import java.io.Serializable;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+
+/**
+ * This is {@link TicketGrantingTicketServiceSession} that records a service to which a ticket-granting ticket
+ * granted access, by the id of the service ticket that was issued for it. Service sessions are stored in their own
+ * table so that granting a service ticket inserts a row rather than rewriting the services of the ticket-granting ticket.
+ *
+ * @author Misagh Moayyed
+ * @since 5.1.0
+ */
+@Entity
+@Table(name = "TICKETGRANTINGTICKET_SERVICES",
+        indexes = @Index(name = "IDX_TGT_SERVICES_TGT_ID", columnList = "TICKET_GRANTING_TICKET_ID"))
+public class TicketGrantingTicketServiceSession implements Serializable {
+
+    private static final long serialVersionUID = 4473263434720826421L;
+
+    @Id
+    @Column(name = "ID", nullable = false)
+    private String id;
+
+    @Column(name = "TICKET_GRANTING_TICKET_ID", nullable = false)
+    private String ticketGrantingTicketId;
+
+    @Lob
+    @Column(name = "SERVICE", nullable = false, length = Integer.MAX_VALUE)
+    private Service service;
+
+    @Column(name = "SERVICE_PATH", nullable = false, length = 2048)
+    private String servicePath;
+
+    @Column(name = "CREATION_TIME", nullable = false)
+    private ZonedDateTime creationTime;
+
+    public TicketGrantingTicketServiceSession() {
+    }
+
+    public TicketGrantingTicketServiceSession(final String id, final String ticketGrantingTicketId, final Service service) {
+        this.id = id;
+        this.ticketGrantingTicketId = ticketGrantingTicketId;
+        this.service = service;
+        this.servicePath = TicketGrantingTicketImpl.normalizePath(service);
+        this.creationTime = ZonedDateTime.now(ZoneOffset.UTC);
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getTicketGrantingTicketId() {
+        return ticketGrantingTicketId;
+    }
+
+    public Service getService() {
+        return service;
+    }
+
+    public String getServicePath() {
+        return servicePath;
+    }
+
+    public ZonedDateTime getCreationTime() {
+        return creationTime;
+    }
+}
@@ -0,0 +1,96 @@
+package org.apereo.cas.ticket.registry;
+
+import org.apereo.cas.mock.MockService;
+import org.apereo.cas.ticket.ServiceTicket;
+import org.apereo.cas.ticket.TicketGrantingTicket;
+import org.apereo.cas.ticket.support.MultiTimeUseOrTimeoutExpirationPolicy;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * This is {@link JpaTicketRegistryServiceSessionTests} that runs the tests of the registry
+ * with service sessions stored in their own table.
+ *
+ * @author Misagh Moayyed
+ * @since 5.1.0
+ */
+@TestPropertySource(properties = "cas.ticket.registry.jpa.storeServiceSessionsInTable=true")
+public class JpaTicketRegistryServiceSessionTests extends JpaTicketRegistryTests {
+
+    @Autowired
+    @Qualifier("ticketTransactionManager")
+    private PlatformTransactionManager txManager;
+
+    @Autowired
+    @Qualifier("ticketRegistry")
+    private TicketRegistry ticketRegistry;
+
+    @PersistenceContext(unitName = "ticketEntityManagerFactory")
+    private EntityManager entityManager;
+
+    @Test
+    public void verifyServiceSessionsAreStoredInTable() {
+        final TicketGrantingTicket tgt = newTGT();
+        execute(() -> this.ticketRegistry.addTicket(tgt));
+
+        final ServiceTicket st1 = grantServiceTicket(tgt.getId(), "https://service.example.com/app1?page=1");
+        grantServiceTicket(tgt.getId(), "https://service.example.com/app2");
+        final ServiceTicket st3 = grantServiceTicket(tgt.getId(), "https://service.example.com/app1?page=2");
+
+        final TicketGrantingTicket tgtFromDb = new TransactionTemplate(this.txManager)
+                .execute(status -> this.ticketRegistry.getTicket(tgt.getId(), TicketGrantingTicket.class));
+        assertEquals(3, tgtFromDb.getCountOfUses());
+        assertEquals(2, tgtFromDb.getServices().size());
+        assertTrue(tgtFromDb.getServices().containsKey(st3.getId()));
+        assertFalse(tgtFromDb.getServices().containsKey(st1.getId()));
+        assertEquals(2L, countServiceSessions(tgt.getId()));
+        assertTrue(getServicesGrantedAccessTo(tgt.getId()).isEmpty());
+
+        execute(() -> this.ticketRegistry.deleteTicket(tgt.getId()));
+        assertNull(this.ticketRegistry.getTicket(tgt.getId()));
+        assertNull(this.ticketRegistry.getTicket(st3.getId()));
+        assertEquals(0L, countServiceSessions(tgt.getId()));
+    }
+
+    private ServiceTicket grantServiceTicket(final String ticketGrantingTicketId, final String service) {
+        return new TransactionTemplate(this.txManager).execute(status -> {
+            final TicketGrantingTicket tgt = this.ticketRegistry.getTicket(ticketGrantingTicketId, TicketGrantingTicket.class);
+            final ServiceTicket st = tgt.grantServiceTicket(ticketGrantingTicketId.replace(TicketGrantingTicket.PREFIX, ServiceTicket.PREFIX)
+                            + '-' + tgt.getCountOfUses(), new MockService(service), new MultiTimeUseOrTimeoutExpirationPolicy(1, 1000),
+                    false, true);
+            this.ticketRegistry.addTicketAndUpdateParent(st, tgt);
+            return st;
+        });
+    }
+
+    private long countServiceSessions(final String ticketGrantingTicketId) {
+        return new TransactionTemplate(this.txManager).execute(status -> (Long) this.entityManager
+                .createQuery("select count(s) from TicketGrantingTicketServiceSession s where s.ticketGrantingTicketId = :id")
+                .setParameter("id", ticketGrantingTicketId)
+                .getSingleResult());
+    }
+
+    private Map<?, ?> getServicesGrantedAccessTo(final String ticketGrantingTicketId) {
+        return new TransactionTemplate(this.txManager).execute(status -> (Map<?, ?>) this.entityManager
+                .createQuery("select t.services from TicketGrantingTicketImpl t where t.id = :id")
+                .setParameter("id", ticketGrantingTicketId)
+                .getSingleResult());
+    }
+
+    private void execute(final Runnable runnable) {
+        new TransactionTemplate(this.txManager).execute(status -> {
+            runnable.run();
+            return null;
+        });
+    }
+}
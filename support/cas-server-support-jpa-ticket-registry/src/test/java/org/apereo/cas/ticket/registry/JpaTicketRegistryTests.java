@@ -29,6 +29,7 @@ import org.apereo.cas.ticket.TicketGrantingTicketImpl;
 import org.apereo.cas.ticket.UniqueTicketIdGenerator;
 import org.apereo.cas.ticket.proxy.ProxyGrantingTicket;
 import org.apereo.cas.ticket.proxy.ProxyTicket;
+import org.apereo.cas.ticket.support.AlwaysExpiresExpirationPolicy;
 import org.apereo.cas.ticket.support.HardTimeoutExpirationPolicy;
 import org.apereo.cas.ticket.support.MultiTimeUseOrTimeoutExpirationPolicy;
 import org.apereo.cas.util.DefaultUniqueTicketIdGenerator;
@@ -52,6 +53,7 @@ import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.stream.Stream;
 
 import static org.junit.Assert.*;
 
@@ -209,6 +211,61 @@ public class JpaTicketRegistryTests {
         assertEquals(CONCURRENT_SIZE, this.ticketRegistry.getTickets().size() - 1);
     }
     
+    @Test
+    public void verifyExpiredTicketsArePaged() {
+        deleteTicketsInTransaction();
+        final TicketGrantingTicket validTgt = newTGT();
+        addTicketInTransaction(validTgt);
+        for (int i = 0; i < 3; i++) {
+            addTicketInTransaction(new TicketGrantingTicketImpl(ID_GENERATOR.getNewTicketId(TicketGrantingTicket.PREFIX),
+                    CoreAuthenticationTestUtils.getAuthentication(), new AlwaysExpiresExpirationPolicy()));
+        }
+        grantServiceTicketInTransaction((TicketGrantingTicket) getTicketInTransaction(validTgt.getId()));
+
+        final List<Ticket> expired = new ArrayList<>();
+        long scanned = 0;
+        ExpiredTicketPage page = null;
+        do {
+            final String cursor = page == null ? null : page.getNextCursor();
+            page = new TransactionTemplate(txManager).execute(status -> ticketRegistry.getExpiredTickets(cursor, 2));
+            expired.addAll(page.getTickets());
+            scanned += page.getScanned();
+        } while (!page.isLast());
+
+        assertEquals(3, expired.size());
+        assertEquals(5, scanned);
+        deleteTicketsInTransaction();
+    }
+
+    @Test
+    public void verifyTicketsAreStreamed() {
+        deleteTicketsInTransaction();
+        final TicketGrantingTicket tgt = newTGT();
+        addTicketInTransaction(tgt);
+        final ServiceTicket st = grantServiceTicketInTransaction((TicketGrantingTicket) getTicketInTransaction(tgt.getId()));
+        final ProxyGrantingTicket pgt = grantProxyGrantingTicketInTransaction(st);
+        grantProxyTicketInTransaction(pgt);
+        addTicketInTransaction(new TicketGrantingTicketImpl(ID_GENERATOR.getNewTicketId(TicketGrantingTicket.PREFIX),
+                CoreAuthenticationTestUtils.getAuthentication(), new AlwaysExpiresExpirationPolicy()));
+
+        try (Stream<Ticket> tickets = this.ticketRegistry.stream()) {
+            assertEquals(5, tickets.map(Ticket::getId).distinct().count());
+        }
+        try (Stream<TicketGrantingTicket> tickets = this.ticketRegistry.stream(TicketGrantingTicket.class, false)) {
+            assertEquals(3, tickets.count());
+        }
+        try (Stream<ServiceTicket> tickets = this.ticketRegistry.stream(ServiceTicket.class, false)) {
+            assertEquals(2, tickets.count());
+        }
+        try (Stream<ProxyGrantingTicket> tickets = this.ticketRegistry.stream(ProxyGrantingTicket.class, false)) {
+            assertEquals(pgt.getId(), tickets.findFirst().get().getId());
+        }
+        try (Stream<Ticket> tickets = this.ticketRegistry.stream(Ticket.class, true)) {
+            assertEquals(1, tickets.count());
+        }
+        deleteTicketsInTransaction();
+    }
+
     static TicketGrantingTicket newTGT() {
         final Principal principal = new DefaultPrincipalFactory().createPrincipal(
                 "bob", Collections.singletonMap("displayName", "Bob"));
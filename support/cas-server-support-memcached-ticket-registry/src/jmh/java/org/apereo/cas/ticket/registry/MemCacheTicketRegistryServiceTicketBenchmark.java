@@ -0,0 +1,150 @@
+package org.apereo.cas.ticket.registry;
+
+import net.spy.memcached.AddrUtil;
+import net.spy.memcached.ConnectionFactoryBuilder;
+import net.spy.memcached.MemcachedClient;
+import org.apereo.cas.MockMemcachedServer;
+import org.apereo.cas.authentication.Authentication;
+import org.apereo.cas.authentication.CoreAuthenticationTestUtils;
+import org.apereo.cas.authentication.principal.Service;
+import org.apereo.cas.services.RegisteredServiceTestUtils;
+import org.apereo.cas.ticket.ServiceTicket;
+import org.apereo.cas.ticket.ServiceTicketImpl;
+import org.apereo.cas.ticket.TicketGrantingTicket;
+import org.apereo.cas.ticket.TicketGrantingTicketImpl;
+import org.apereo.cas.ticket.TicketGrantingTicketReference;
+import org.apereo.cas.ticket.registry.support.kryo.KryoTranscoder;
+import org.apereo.cas.ticket.support.HardTimeoutExpirationPolicy;
+import org.apereo.cas.ticket.support.MultiTimeUseOrTimeoutExpirationPolicy;
+import org.apereo.cas.ticket.support.NeverExpiresExpirationPolicy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures the latency of granting and validating service tickets with the {@link MemCacheTicketRegistry},
+ * against an in-process memcached server, with service tickets stored along with a copy of their ticket-granting
+ * ticket and with its id only. Granting encodes the service ticket and the updated ticket-granting ticket and
+ * issues both writes; validating reads the service ticket, and the ticket-granting ticket when stored by id,
+ * and checks it as the central authentication service does. Percentiles are reported by the sample mode.
+ * The number of bytes written to memcached for a service ticket in each case is logged on setup.
+ *
+ * @author Misagh Moayyed
+ * @since 5.1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MemCacheTicketRegistryServiceTicketBenchmark {
+    private static final Logger LOGGER = LoggerFactory.getLogger(MemCacheTicketRegistryServiceTicketBenchmark.class);
+
+    private static final String TGT_ID = "TGT-1-1234567890ABCDEFGHIJKLMNOPQRSTUVWXYZ01234567890ABCDEFGHIJK-cas1";
+
+    private static final String ST_ID = "ST-1-1234567890ABCDEFGHIJKLMNOPQRSTUVWXYZ01234567890ABCDEFGHIJK";
+
+    @Param({"false", "true"})
+    private boolean storeGrantingTicketById;
+
+    @Param("50")
+    private int attributeCount;
+
+    private final AtomicLong counter = new AtomicLong();
+
+    private MockMemcachedServer server;
+
+    private MemcachedClient client;
+
+    private MemCacheTicketRegistry registry;
+
+    private Service service;
+
+    private TicketGrantingTicket ticketGrantingTicket;
+
+    @Setup
+    public void setup() throws Exception {
+        final Map<String, Object> attributes = new HashMap<>();
+        for (int i = 0; i < this.attributeCount; i++) {
+            final List<String> values = new ArrayList<>();
+            for (int j = 0; j <= i % 4; j++) {
+                values.add("value-" + i + '-' + j + "-of-the-attribute-released-to-services");
+            }
+            attributes.put("attribute" + i, values);
+        }
+        final Authentication authentication = CoreAuthenticationTestUtils.getAuthentication(
+                CoreAuthenticationTestUtils.getPrincipal("casuser", attributes), attributes);
+        this.ticketGrantingTicket = new TicketGrantingTicketImpl(TGT_ID, authentication, new HardTimeoutExpirationPolicy(28800));
+        this.service = RegisteredServiceTestUtils.getService();
+
+        this.server = new MockMemcachedServer();
+        final KryoTranscoder transcoder = new KryoTranscoder();
+        transcoder.initialize();
+        this.client = new MemcachedClient(new ConnectionFactoryBuilder().setTranscoder(transcoder).build(),
+                AddrUtil.getAddresses("127.0.0.1:" + this.server.getAddress().getPort()));
+        this.registry = new MemCacheTicketRegistry(this.client);
+        this.registry.setStoreGrantingTicketById(this.storeGrantingTicketById);
+
+        final ServiceTicketImpl st = (ServiceTicketImpl) this.ticketGrantingTicket.grantServiceTicket(ST_ID, this.service,
+                new NeverExpiresExpirationPolicy(), false, true);
+        final int embeddedSize = transcoder.encode(st).getData().length;
+        st.setTicketGrantingTicket(new TicketGrantingTicketReference(this.ticketGrantingTicket));
+        LOGGER.info("Service ticket written as [{}] bytes; [{}] bytes with a copy of its ticket-granting ticket",
+                transcoder.encode(st).getData().length, embeddedSize);
+    }
+
+    @Setup(Level.Iteration)
+    public void addTickets() {
+        this.registry.addTicket(this.ticketGrantingTicket);
+        this.registry.addTicket(this.ticketGrantingTicket.grantServiceTicket(ST_ID, this.service,
+                new NeverExpiresExpirationPolicy(), false, true));
+    }
+
+    @TearDown(Level.Iteration)
+    public void flush() throws Exception {
+        this.client.flush().get();
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        this.client.shutdown(1, TimeUnit.SECONDS);
+        this.server.close();
+    }
+
+    @Benchmark
+    public ServiceTicket grant() {
+        final ServiceTicket st = this.ticketGrantingTicket.grantServiceTicket("ST-" + this.counter.incrementAndGet(),
+                this.service, new MultiTimeUseOrTimeoutExpirationPolicy(1, 10), false, true);
+        this.registry.addTicketAndUpdateParent(st, this.ticketGrantingTicket);
+        return st;
+    }
+
+    @Benchmark
+    public Authentication validate() {
+        final ServiceTicket st = this.registry.getTicket(ST_ID, ServiceTicket.class);
+        if (st == null || st.isExpired() || !st.isValidFor(this.service)) {
+            throw new IllegalStateException("Service ticket " + ST_ID + " cannot be validated");
+        }
+        return st.getGrantingTicket().getRoot().getAuthentication();
+    }
+}
@@ -0,0 +1,136 @@
+package org.apereo.cas.ticket.registry.support.kryo;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import net.spy.memcached.CachedData;
+import org.apereo.cas.authentication.Authentication;
+import org.apereo.cas.authentication.CoreAuthenticationTestUtils;
+import org.apereo.cas.services.RegisteredServiceTestUtils;
+import org.apereo.cas.ticket.TicketGrantingTicket;
+import org.apereo.cas.ticket.TicketGrantingTicketImpl;
+import org.apereo.cas.ticket.support.HardTimeoutExpirationPolicy;
+import org.apereo.cas.ticket.support.MultiTimeUseOrTimeoutExpirationPolicy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the throughput of encoding and decoding ticket-granting tickets with the {@link KryoTranscoder}
+ * from several threads at once, as the memcached client does on behalf of concurrent requests.
+ * The {@code locked} benchmarks encode and decode with a single Kryo instance guarded by a lock,
+ * allocating new streams for each payload, which is what sharing one instance safely would take.
+ * The encoded size of the ticket with and without compression is logged on setup.
+ *
+ * @author Misagh Moayyed
+ * @since 5.1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(4)
+@Fork(1)
+public class KryoTranscoderBenchmark {
+    private static final Logger LOGGER = LoggerFactory.getLogger(KryoTranscoderBenchmark.class);
+
+    @Param("50")
+    private int attributeCount;
+
+    @Param({"0", "4096"})
+    private int compressionThreshold;
+
+    private final KryoTranscoder transcoder = new KryoTranscoder();
+
+    private Kryo lockedKryo;
+
+    private TicketGrantingTicket ticket;
+
+    private CachedData data;
+
+    private byte[] lockedData;
+
+    @Setup
+    public void setup() {
+        final Map<String, Object> attributes = new HashMap<>();
+        for (int i = 0; i < this.attributeCount; i++) {
+            final List<String> values = new ArrayList<>();
+            for (int j = 0; j <= i % 4; j++) {
+                values.add("value-" + i + '-' + j + "-of-the-attribute-released-to-services");
+            }
+            attributes.put("attribute" + i, values);
+        }
+        final Authentication authentication = CoreAuthenticationTestUtils.getAuthentication(
+                CoreAuthenticationTestUtils.getPrincipal("casuser", attributes), attributes);
+        this.ticket = new TicketGrantingTicketImpl("TGT-1-1234567890ABCDEFGHIJKLMNOPQRSTUVWXYZ01234567890ABCDEFGHIJK-cas1",
+                authentication, new HardTimeoutExpirationPolicy(28800));
+        this.ticket.grantServiceTicket("ST-1-1234567890ABCDEFGHIJKLMNOPQRSTUVWXYZ01234567890ABCDEFGHIJK",
+                RegisteredServiceTestUtils.getService(), new MultiTimeUseOrTimeoutExpirationPolicy(1, 10), false, true);
+
+        this.transcoder.setCompressionThreshold(this.compressionThreshold);
+        this.transcoder.initialize();
+        this.data = this.transcoder.encode(this.ticket);
+
+        final KryoTranscoder lockedTranscoder = new KryoTranscoder();
+        lockedTranscoder.initialize();
+        this.lockedKryo = lockedTranscoder.getKryo();
+        this.lockedData = lockedEncode();
+        LOGGER.info("TGT encoded size: [{}] bytes, flags [{}], uncompressed size: [{}] bytes",
+                this.data.getData().length, this.data.getFlags(), this.lockedData.length);
+    }
+
+    @Benchmark
+    public CachedData encode() {
+        return this.transcoder.encode(this.ticket);
+    }
+
+    @Benchmark
+    public Object decode() {
+        return this.transcoder.decode(this.data);
+    }
+
+    @Benchmark
+    public byte[] lockedEncode() {
+        synchronized (this.lockedKryo) {
+            final ByteArrayOutputStream byteStream = new ByteArrayOutputStream();
+            try (Output output = new Output(byteStream)) {
+                this.lockedKryo.writeClassAndObject(output, this.ticket);
+                output.flush();
+                return byteStream.toByteArray();
+            } finally {
+                this.lockedKryo.reset();
+            }
+        }
+    }
+
+    @Benchmark
+    public Object lockedDecode() {
+        synchronized (this.lockedKryo) {
+            try (Input input = new Input(new ByteArrayInputStream(this.lockedData))) {
+                return this.lockedKryo.readClassAndObject(input);
+            } finally {
+                this.lockedKryo.reset();
+            }
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package org.apereo.cas.ticket.registry.support.kryo;
+
+import org.apereo.cas.authentication.Authentication;
+import org.apereo.cas.authentication.CoreAuthenticationTestUtils;
+import org.apereo.cas.services.RegisteredServiceTestUtils;
+import org.apereo.cas.ticket.BaseTicketSerializers;
+import org.apereo.cas.ticket.ServiceTicket;
+import org.apereo.cas.ticket.Ticket;
+import org.apereo.cas.ticket.TicketGrantingTicket;
+import org.apereo.cas.ticket.TicketGrantingTicketImpl;
+import org.apereo.cas.ticket.registry.JavaTicketSerializer;
+import org.apereo.cas.ticket.registry.TicketSerializer;
+import org.apereo.cas.ticket.support.HardTimeoutExpirationPolicy;
+import org.apereo.cas.ticket.support.MultiTimeUseOrTimeoutExpirationPolicy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the cost of serializing and deserializing tickets with the {@link KryoTicketSerializer},
+ * the {@link JavaTicketSerializer} used by ticket registries when tickets are encoded, and the JSON
+ * serializers used by the MongoDb ticket registry. The tickets carry an authentication whose principal
+ * has a sizable attribute map. The serialized size of each ticket in each format is printed on setup.
+ *
+ * @author Misagh Moayyed
+ * @since 5.1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TicketSerializerBenchmark {
+
+    @Param({"TGT", "ST", "PGT"})
+    private String ticketType;
+
+    @Param({"50"})
+    private int attributeCount;
+
+    private final TicketSerializer kryoSerializer = new KryoTicketSerializer();
+
+    private final TicketSerializer javaSerializer = new JavaTicketSerializer();
+
+    private Ticket ticket;
+
+    private byte[] kryoData;
+
+    private byte[] javaData;
+
+    private String json;
+
+    @Setup
+    public void setup() {
+        final Map<String, Object> attributes = new HashMap<>();
+        for (int i = 0; i < this.attributeCount; i++) {
+            final List<String> values = new ArrayList<>();
+            for (int j = 0; j <= i % 4; j++) {
+                values.add("value-" + i + '-' + j + "-of-the-attribute-released-to-services");
+            }
+            attributes.put("attribute" + i, values);
+        }
+        final Authentication authentication = CoreAuthenticationTestUtils.getAuthentication(
+                CoreAuthenticationTestUtils.getPrincipal("casuser", attributes), attributes);
+
+        final TicketGrantingTicket tgt = new TicketGrantingTicketImpl("TGT-1-" + randomPart(), authentication,
+                new HardTimeoutExpirationPolicy(28800));
+        final ServiceTicket st = tgt.grantServiceTicket("ST-1-" + randomPart(), RegisteredServiceTestUtils.getService(),
+                new MultiTimeUseOrTimeoutExpirationPolicy(1, 10), false, true);
+        switch (this.ticketType) {
+            case "ST":
+                this.ticket = st;
+                break;
+            case "PGT":
+                this.ticket = st.grantProxyGrantingTicket("PGT-1-" + randomPart(), authentication,
+                        new HardTimeoutExpirationPolicy(28800));
+                break;
+            default:
+                this.ticket = tgt;
+        }
+
+        this.kryoData = this.kryoSerializer.serialize(this.ticket);
+        this.javaData = this.javaSerializer.serialize(this.ticket);
+        this.json = BaseTicketSerializers.serializeTicket(this.ticket);
+        System.out.printf("%n%s serialized size: kryo=%d bytes, java=%d bytes, json=%d bytes%n",
+                this.ticketType, this.kryoData.length, this.javaData.length, this.json.length());
+    }
+
+    @Benchmark
+    public byte[] kryoSerialize() {
+        return this.kryoSerializer.serialize(this.ticket);
+    }
+
+    @Benchmark
+    public Ticket kryoDeserialize() {
+        return this.kryoSerializer.deserialize(this.kryoData);
+    }
+
+    @Benchmark
+    public byte[] javaSerialize() {
+        return this.javaSerializer.serialize(this.ticket);
+    }
+
+    @Benchmark
+    public Ticket javaDeserialize() {
+        return this.javaSerializer.deserialize(this.javaData);
+    }
+
+    @Benchmark
+    public String jsonSerialize() {
+        return BaseTicketSerializers.serializeTicket(this.ticket);
+    }
+
+    @Benchmark
+    public Ticket jsonDeserialize() {
+        return BaseTicketSerializers.deserializeTicket(this.json, this.ticket.getClass());
+    }
+
+    private static String randomPart() {
+        return "1234567890ABCDEFGHIJKLMNOPQRSTUVWXYZ01234567890ABCDEFGHIJK-cas1";
+    }
+}
@@ -7,6 +7,7 @@ import net.spy.memcached.FailureMode;
 import net.spy.memcached.MemcachedClientIF;
 import net.spy.memcached.spring.MemcachedClientFactoryBean;
 import org.apereo.cas.configuration.CasConfigurationProperties;
+import org.apereo.cas.configuration.model.support.memcached.MemcachedTicketRegistryProperties;
 import org.apereo.cas.configuration.support.Beans;
 import org.apereo.cas.logout.LogoutManager;
 import org.apereo.cas.ticket.registry.MemCacheTicketRegistry;
@@ -14,6 +15,7 @@ import org.apereo.cas.ticket.registry.NoOpLockingStrategy;
 import org.apereo.cas.ticket.registry.NoOpTicketRegistryCleaner;
 import org.apereo.cas.ticket.registry.TicketRegistry;
 import org.apereo.cas.ticket.registry.TicketRegistryCleaner;
+import org.apereo.cas.ticket.registry.support.kryo.KryoTicketSerializer;
 import org.apereo.cas.ticket.registry.support.kryo.KryoTranscoder;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
@@ -57,14 +59,20 @@ public class MemcachedTicketRegistryConfiguration {
 
     @Bean
     public KryoTranscoder kryoTranscoder() {
-        return new KryoTranscoder();
+        final KryoTranscoder transcoder = new KryoTranscoder();
+        transcoder.setCompressionThreshold(casProperties.getTicket().getRegistry().getMemcached().getCompressionThreshold());
+        return transcoder;
     }
 
     @Autowired
     @Bean
     public TicketRegistry ticketRegistry(@Qualifier("memcachedClient") final MemcachedClientIF memcachedClientIF) {
-        final MemCacheTicketRegistry registry = new MemCacheTicketRegistry(memcachedClientIF);
-        registry.setCipherExecutor(Beans.newTicketRegistryCipherExecutor(casProperties.getTicket().getRegistry().getMemcached().getCrypto()));
+        final MemcachedTicketRegistryProperties memcached = casProperties.getTicket().getRegistry().getMemcached();
+        final MemCacheTicketRegistry registry = new MemCacheTicketRegistry(memcachedClientIF,
+                memcached.getMaxInFlightWrites(), memcached.getIndexShards());
+        registry.setCipherExecutor(Beans.newTicketRegistryCipherExecutor(memcached.getCrypto()));
+        registry.setTicketSerializer(new KryoTicketSerializer());
+        registry.setStoreGrantingTicketById(casProperties.getTicket().getRegistry().isStoreGrantingTicketById());
         return registry;
     }
 
@@ -0,0 +1,167 @@
+package org.apereo.cas.ticket.registry;
+
+import net.spy.memcached.CASResponse;
+import net.spy.memcached.CASValue;
+import net.spy.memcached.CachedData;
+import net.spy.memcached.MemcachedClientIF;
+import net.spy.memcached.transcoders.Transcoder;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * This is {@link MemCacheTicketGrantingTicketIndex} that keeps track of the keys of the ticket-granting tickets
+ * stored in memcached, since memcached itself cannot enumerate its keys.
+ * <p>
+ * Keys are spread over a fixed number of index entries, or shards, each of which holds a list of keys
+ * separated by new lines. Keys are added by appending to their shard, which takes a single round trip
+ * and needs no coordination between CAS nodes. Keys are removed with a compare-and-set of their shard
+ * when tickets are deleted, while keys of tickets that expired in memcached are removed by readers that find
+ * the tickets gone, or when the registry compacts the index. Shards are subject to the item size limit of memcached,
+ * and may be evicted like any other item, in which case the tickets they tracked are no longer listed.
+ *
+ * @author Misagh Moayyed
+ * @since 5.1.0
+ */
+public class MemCacheTicketGrantingTicketIndex {
+    /**
+     * Prefix of the keys of the index shards.
+     */
+    public static final String KEY_PREFIX = "cas-tgt-index-";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MemCacheTicketGrantingTicketIndex.class);
+
+    private static final char SEPARATOR = '\n';
+
+    private static final int MAX_CAS_ATTEMPTS = 3;
+
+    private static final Transcoder<String> TRANSCODER = new IndexTranscoder();
+
+    private final MemcachedClientIF client;
+
+    private final List<String> shardKeys;
+
+    /**
+     * Instantiates a new index.
+     *
+     * @param client the memcached client
+     * @param shards the number of shards
+     */
+    public MemCacheTicketGrantingTicketIndex(final MemcachedClientIF client, final int shards) {
+        if (shards <= 0) {
+            throw new IllegalArgumentException("The number of index shards must be positive");
+        }
+        this.client = client;
+        this.shardKeys = IntStream.range(0, shards).mapToObj(i -> KEY_PREFIX + i).collect(Collectors.toList());
+    }
+
+    /**
+     * Add the key of a ticket-granting ticket to the index. The key is appended to its shard asynchronously,
+     * and the shard is created if it does not exist yet.
+     *
+     * @param key the key of the ticket
+     */
+    public void add(final String key) {
+        final String shardKey = getShardKey(key);
+        final String entry = key + SEPARATOR;
+        MemCacheTicketRegistry.onCompletion(this.client.append(shardKey, entry, TRANSCODER), appended -> {
+            if (!appended) {
+                MemCacheTicketRegistry.onCompletion(this.client.add(shardKey, 0, entry, TRANSCODER), added -> {
+                    if (!added) {
+                        MemCacheTicketRegistry.onCompletion(this.client.append(shardKey, entry, TRANSCODER), retried -> {
+                            if (!retried) {
+                                LOGGER.warn("Unable to add [{}] to the ticket-granting ticket index shard [{}]", key, shardKey);
+                            }
+                        });
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Gets the keys in the index, reading all shards in a single round trip.
+     *
+     * @return the keys
+     */
+    public Set<String> getKeys() {
+        final Map<String, String> shards = this.client.getBulk(this.shardKeys, TRANSCODER);
+        final Set<String> keys = new LinkedHashSet<>();
+        shards.values().forEach(shard -> keys.addAll(split(shard)));
+        return keys;
+    }
+
+    /**
+     * Remove the given keys from the index, typically because their tickets are gone.
+     * Shards that change concurrently are retried a few times, and left as they are otherwise.
+     *
+     * @param keys the keys to remove
+     */
+    public void remove(final Collection<String> keys) {
+        keys.stream().collect(Collectors.groupingBy(this::getShardKey)).forEach(this::removeFromShard);
+    }
+
+    private void removeFromShard(final String shardKey, final List<String> keys) {
+        for (int attempt = 0; attempt < MAX_CAS_ATTEMPTS; attempt++) {
+            final CASValue<String> shard = this.client.gets(shardKey, TRANSCODER);
+            if (shard == null) {
+                return;
+            }
+            final Set<String> entries = split(shard.getValue());
+            if (!entries.removeAll(keys)) {
+                return;
+            }
+            final String value = entries.stream().map(entry -> entry + SEPARATOR).collect(Collectors.joining());
+            final CASResponse response = this.client.cas(shardKey, shard.getCas(), value, TRANSCODER);
+            if (response != CASResponse.EXISTS) {
+                LOGGER.debug("Removed [{}] key(s) from the ticket-granting ticket index shard [{}]: [{}]", keys.size(), shardKey, response);
+                return;
+            }
+        }
+        LOGGER.debug("Ticket-granting ticket index shard [{}] is being modified concurrently; keys will be removed later", shardKey);
+    }
+
+    private String getShardKey(final String key) {
+        return this.shardKeys.get(Math.floorMod(key.hashCode(), this.shardKeys.size()));
+    }
+
+    private static Set<String> split(final String shard) {
+        return Stream.of(StringUtils.split(shard, SEPARATOR)).collect(Collectors.toCollection(LinkedHashSet::new));
+    }
+
+    /**
+     * Stores shards as plain UTF-8 text, so that keys can be appended to them.
+     */
+    private static class IndexTranscoder implements Transcoder<String> {
+        @Override
+        public boolean asyncDecode(final CachedData d) {
+            return false;
+        }
+
+        @Override
+        public CachedData encode(final String o) {
+            final byte[] bytes = o.getBytes(StandardCharsets.UTF_8);
+            return new CachedData(0, bytes, getMaxSize());
+        }
+
+        @Override
+        public String decode(final CachedData d) {
+            return new String(d.getData(), StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public int getMaxSize() {
+            return CachedData.MAX_SIZE;
+        }
+    }
+}
@@ -1,17 +1,52 @@
 package org.apereo.cas.ticket.registry;
 
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Iterators;
+import net.spy.memcached.CachedData;
 import net.spy.memcached.MemcachedClientIF;
+import net.spy.memcached.internal.OperationCompletionListener;
+import net.spy.memcached.internal.OperationFuture;
+import net.spy.memcached.transcoders.Transcoder;
 import org.apereo.cas.ticket.Ticket;
+import org.apereo.cas.ticket.TicketGrantingTicket;
+import org.apereo.cas.ticket.proxy.ProxyGrantingTicket;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.util.Assert;
 
 import javax.annotation.PreDestroy;
-import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Key-value ticket registry implementation that stores tickets in memcached keyed on the ticket ID.
+ * <p>
+ * Tickets are added without waiting for memcached to acknowledge the write, so that creating a ticket
+ * takes no round trip on the calling thread; the client sends operations to a node in the order they are issued,
+ * so a ticket that is read back through the same client is found. Failed writes are logged once they complete.
+ * The number of writes in flight is bounded, and callers wait once the bound is reached.
+ * <p>
+ * Since memcached cannot enumerate its keys, the keys of ticket-granting tickets are tracked in a
+ * {@link MemCacheTicketGrantingTicketIndex}, and tickets are fetched in batches with multi-gets.
+ * Listing tickets and counting sessions are thus limited to ticket-granting tickets, including proxy-granting tickets;
+ * service tickets are not tracked, and cannot be counted. Keys are removed from the index as tickets are deleted,
+ * and the index is compacted periodically to drop the keys of tickets that expired in memcached,
+ * so that index shards stay well below the item size limit of memcached.
  *
  * @author Scott Battaglia
  * @author Marvin S. Addison
@@ -19,12 +54,24 @@ import java.util.Collection;
  */
 public class MemCacheTicketRegistry extends AbstractTicketRegistry {
     private static final Logger LOGGER = LoggerFactory.getLogger(MemCacheTicketRegistry.class);
-    
+
+    private static final int DEFAULT_MAX_IN_FLIGHT_WRITES = 1000;
+
+    private static final int DEFAULT_INDEX_SHARDS = 16;
+
+    private static final int BATCH_SIZE = 500;
+
+    private static final Transcoder<Boolean> PRESENCE_TRANSCODER = new PresenceTranscoder();
+
     /**
      * Memcached client.
      */
     private final MemcachedClientIF client;
 
+    private final Semaphore inFlightWrites;
+
+    private final MemCacheTicketGrantingTicketIndex ticketGrantingTicketIndex;
+
     /**
      * Creates a new instance using the given memcached client instance, which is presumably configured via
      * {@code net.spy.memcached.spring.MemcachedClientFactoryBean}.
@@ -32,7 +79,20 @@ public class MemCacheTicketRegistry extends AbstractTicketRegistry {
      * @param client Memcached client.
      */
     public MemCacheTicketRegistry(final MemcachedClientIF client) {
+        this(client, DEFAULT_MAX_IN_FLIGHT_WRITES, DEFAULT_INDEX_SHARDS);
+    }
+
+    /**
+     * Creates a new instance using the given memcached client instance.
+     *
+     * @param client            Memcached client.
+     * @param maxInFlightWrites the maximum number of writes that may be awaiting acknowledgement
+     * @param indexShards       the number of shards of the ticket-granting ticket index
+     */
+    public MemCacheTicketRegistry(final MemcachedClientIF client, final int maxInFlightWrites, final int indexShards) {
         this.client = client;
+        this.inFlightWrites = new Semaphore(maxInFlightWrites);
+        this.ticketGrantingTicketIndex = new MemCacheTicketGrantingTicketIndex(client, indexShards);
     }
 
     @Override
@@ -59,25 +119,25 @@ public class MemCacheTicketRegistry extends AbstractTicketRegistry {
     public void addTicket(final Ticket ticketToAdd) {
         Assert.notNull(this.client, "No memcached client is defined.");
         try {
-            final Ticket ticket = encodeTicket(ticketToAdd);
-            LOGGER.debug("Adding ticket [{}]", ticket);
-            final int timeout = getTimeout(ticketToAdd);
-            if (!this.client.add(ticket.getId(), getTimeout(ticketToAdd), ticket).get()) {
-                LOGGER.error("Failed to add [{}] without timeout [{}]", ticketToAdd, timeout);
-            }
-            // Sanity check to ensure ticket can retrieved
-            if (this.client.get(ticket.getId()) == null) {
-                LOGGER.warn("Ticket [{}] was added to memcached with timeout [{}], yet it cannot be retrieved. "
-                        + "Ticket expiration policy may be too aggressive ?", ticketToAdd, timeout);
-            }
-        } catch (final InterruptedException e) {
-            LOGGER.warn("Interrupted while waiting for response to async add operation for ticket [{}]."
-                    + "Cannot determine whether add was successful.", ticketToAdd);
+            writeTicket(ticketToAdd);
         } catch (final Exception e) {
             LOGGER.error("Failed adding [{}]", ticketToAdd, e);
         }
     }
 
+    @Override
+    public void addTicketAndUpdateParent(final Ticket ticket, final Ticket parent) {
+        Assert.notNull(this.client, "No memcached client is defined.");
+        try {
+            final Ticket encodedParent = encodeTicket(parent);
+            LOGGER.debug("Updating ticket [{}]", encodedParent);
+            write(encodedParent, "update", () -> this.client.replace(encodedParent.getId(), getTimeout(parent), encodedParent));
+            writeTicket(ticket);
+        } catch (final Exception e) {
+            LOGGER.error("Failed to update [{}] and add [{}]", parent, ticket, e);
+        }
+    }
+
     @Override
     public long deleteAll() {
         LOGGER.debug("deleteAll() isn't supported. Returning empty list");
@@ -88,11 +148,15 @@ public class MemCacheTicketRegistry extends AbstractTicketRegistry {
     public boolean deleteSingleTicket(final String ticketId) {
         Assert.notNull(this.client, "No memcached client is defined.");
         try {
-            if (this.client.delete(ticketId).get()) {
+            final String key = encodeTicketId(ticketId);
+            if (this.client.delete(key).get()) {
                 LOGGER.debug("Removed ticket [{}] from the cache", ticketId);
             } else {
                 LOGGER.info("Ticket [{}] not found or is already removed.", ticketId);
             }
+            if (isTicketGrantingTicketId(ticketId)) {
+                this.ticketGrantingTicketIndex.remove(Collections.singleton(key));
+            }
         } catch (final Exception e) {
             LOGGER.error("Ticket not found or is already removed. Failed deleting [{}]", ticketId, e);
         }
@@ -117,8 +181,76 @@ public class MemCacheTicketRegistry extends AbstractTicketRegistry {
 
     @Override
     public Collection<Ticket> getTickets() {
-        LOGGER.debug("getTickets() isn't supported. Returning empty list");
-        return new ArrayList<>();
+        try (Stream<Ticket> tickets = stream()) {
+            return tickets.collect(Collectors.toSet());
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Only ticket-granting tickets are tracked, so streams of other types of tickets are empty.
+     * The keys of the index are fetched with multi-gets in batches as the stream is consumed.
+     * Keys of tickets that are no longer found are removed from the index once the stream is closed.
+     */
+    @Override
+    public <T extends Ticket> Stream<T> stream(final Class<T> type, final boolean expiredOnly) {
+        Assert.notNull(this.client, "No memcached client is defined.");
+        if (!type.isAssignableFrom(TicketGrantingTicket.class) && !TicketGrantingTicket.class.isAssignableFrom(type)) {
+            return Stream.empty();
+        }
+        final Set<String> missingKeys = ConcurrentHashMap.newKeySet();
+        final Iterator<List<String>> batches = Iterators.partition(this.ticketGrantingTicketIndex.getKeys().iterator(), BATCH_SIZE);
+        final Stream<Ticket> tickets = StreamSupport.stream(Spliterators.spliteratorUnknownSize(batches,
+                Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .flatMap(batch -> {
+                    final Map<String, Object> found = this.client.getBulk(batch);
+                    batch.stream().filter(key -> !found.containsKey(key)).forEach(missingKeys::add);
+                    return found.values().stream().map(Ticket.class::cast);
+                });
+        return decodeTickets(tickets, type, expiredOnly).onClose(() -> removeFromIndex(missingKeys));
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Sessions are counted by checking which of the tracked ticket-granting tickets are still stored,
+     * without fetching and decoding them.
+     */
+    @Override
+    public long sessionCount() {
+        Assert.notNull(this.client, "No memcached client is defined.");
+        try {
+            return countTrackedTickets();
+        } catch (final Exception e) {
+            LOGGER.warn("Unable to count sessions: [{}]", e.getMessage());
+            return Long.MIN_VALUE;
+        }
+    }
+
+    /**
+     * Compact the ticket-granting ticket index, removing the keys of tickets that expired in memcached
+     * and that were thus never deleted from the registry.
+     */
+    @Scheduled(initialDelayString = "${cas.ticket.registry.memcached.indexCompaction.startDelay:60000}",
+               fixedDelayString = "${cas.ticket.registry.memcached.indexCompaction.repeatInterval:300000}")
+    public void compactIndex() {
+        Assert.notNull(this.client, "No memcached client is defined.");
+        try {
+            LOGGER.debug("Compacted the ticket-granting ticket index, which tracks [{}] ticket(s)", countTrackedTickets());
+        } catch (final Exception e) {
+            LOGGER.warn("Unable to compact the ticket-granting ticket index: [{}]", e.getMessage());
+        }
+    }
+
+    /**
+     * Service tickets are not tracked, so they cannot be counted.
+     *
+     * @return {@link Long#MIN_VALUE}
+     */
+    @Override
+    public long serviceTicketCount() {
+        return Long.MIN_VALUE;
     }
 
     /**
@@ -132,6 +264,91 @@ public class MemCacheTicketRegistry extends AbstractTicketRegistry {
         this.client.shutdown();
     }
 
+    /**
+     * Invoke the callback with the outcome of a memcached operation once it completes, without waiting for it
+     * if the future is able to notify listeners. Futures of operations that failed or timed out report false.
+     *
+     * @param future   the future of the operation
+     * @param callback the callback
+     */
+    static void onCompletion(final Future<Boolean> future, final Consumer<Boolean> callback) {
+        if (future instanceof OperationFuture) {
+            ((OperationFuture<Boolean>) future).addListener((OperationCompletionListener) f -> callback.accept(f.getStatus().isSuccess()));
+            return;
+        }
+        boolean success;
+        try {
+            success = Boolean.TRUE.equals(future.get());
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            success = false;
+        } catch (final Exception e) {
+            success = false;
+        }
+        callback.accept(success);
+    }
+
+    private void writeTicket(final Ticket ticketToAdd) {
+        final Ticket ticket = encodeTicket(ticketToAdd);
+        LOGGER.debug("Adding ticket [{}]", ticket);
+        final int timeout = getTimeout(ticketToAdd);
+        write(ticket, "add", () -> this.client.add(ticket.getId(), timeout, ticket));
+        if (ticketToAdd instanceof TicketGrantingTicket) {
+            this.ticketGrantingTicketIndex.add(ticket.getId());
+        }
+    }
+
+    /**
+     * Issue a write once fewer than the maximum number of writes are in flight, and log it if it fails.
+     *
+     * @param ticket    the ticket that is written
+     * @param operation the name of the operation, for logging
+     * @param writer    issues the write
+     */
+    private void write(final Ticket ticket, final String operation, final Supplier<Future<Boolean>> writer) {
+        this.inFlightWrites.acquireUninterruptibly();
+        try {
+            onCompletion(writer.get(), success -> {
+                this.inFlightWrites.release();
+                if (!success) {
+                    LOGGER.error("Failed to [{}] [{}]", operation, ticket);
+                }
+            });
+        } catch (final RuntimeException e) {
+            this.inFlightWrites.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Count the tracked tickets that are still stored, without fetching and decoding them,
+     * and remove the keys of those that are gone from the index.
+     *
+     * @return the number of tracked tickets
+     */
+    private long countTrackedTickets() {
+        final Set<String> missingKeys = ConcurrentHashMap.newKeySet();
+        long count = 0;
+        for (final List<String> batch : Iterables.partition(this.ticketGrantingTicketIndex.getKeys(), BATCH_SIZE)) {
+            final Map<String, Boolean> found = this.client.getBulk(batch, PRESENCE_TRANSCODER);
+            count += found.size();
+            batch.stream().filter(key -> !found.containsKey(key)).forEach(missingKeys::add);
+        }
+        removeFromIndex(missingKeys);
+        return count;
+    }
+
+    private static boolean isTicketGrantingTicketId(final String ticketId) {
+        return ticketId.startsWith(TicketGrantingTicket.PREFIX) || ticketId.startsWith(ProxyGrantingTicket.PROXY_GRANTING_TICKET_PREFIX);
+    }
+
+    private void removeFromIndex(final Set<String> missingKeys) {
+        if (!missingKeys.isEmpty()) {
+            LOGGER.debug("Removing [{}] ticket-granting ticket(s) that are no longer found from the index", missingKeys.size());
+            this.ticketGrantingTicketIndex.remove(missingKeys);
+        }
+    }
+
     /**
      * If not time out value is specified, expire the ticket immediately.
      *
@@ -145,4 +362,29 @@ public class MemCacheTicketRegistry extends AbstractTicketRegistry {
         }
         return ttl;
     }
+
+    /**
+     * Decodes any value to {@link Boolean#TRUE}, so that the presence of keys can be checked without decoding their values.
+     */
+    private static class PresenceTranscoder implements Transcoder<Boolean> {
+        @Override
+        public boolean asyncDecode(final CachedData d) {
+            return false;
+        }
+
+        @Override
+        public CachedData encode(final Boolean o) {
+            throw new UnsupportedOperationException("Presence of keys can only be checked");
+        }
+
+        @Override
+        public Boolean decode(final CachedData d) {
+            return Boolean.TRUE;
+        }
+
+        @Override
+        public int getMaxSize() {
+            return CachedData.MAX_SIZE;
+        }
+    }
 }
@@ -0,0 +1,109 @@
+package org.apereo.cas.ticket.registry.support.kryo;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.Serializer;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import com.esotericsoftware.kryo.pool.KryoPool;
+import org.apereo.cas.ticket.Ticket;
+import org.apereo.cas.ticket.registry.JavaTicketSerializer;
+import org.apereo.cas.ticket.registry.TicketSerializer;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * This is {@link KryoTicketSerializer} that serializes tickets into a compact binary form
+ * using Kryo, configured with the same registrations as the {@link KryoTranscoder}.
+ * <p>
+ * Serialized tickets start with a format marker and a version byte, so the layout of the
+ * payload can evolve. Data that does not carry the marker is assumed to be written by the
+ * {@link JavaTicketSerializer}, so tickets encoded before switching serializers remain readable.
+ * References are tracked, since a ticket-granting ticket and its proxy-granting tickets refer to each other.
+ * Kryo instances are not thread-safe, and are borrowed from a pool for each operation.
+ *
+ * @author Misagh Moayyed
+ * @since 5.1.0
+ */
+@SuppressWarnings("rawtypes")
+public class KryoTicketSerializer implements TicketSerializer {
+
+    /**
+     * Marks data written by this serializer. Java serialization streams always start with {@code 0xAC}.
+     */
+    public static final byte FORMAT_MARKER = 'K';
+
+    /**
+     * Current version of the serialized layout.
+     */
+    public static final byte VERSION = 1;
+
+    private static final int HEADER_LENGTH = 2;
+
+    private static final int INITIAL_BUFFER_SIZE = 1024;
+
+    private final KryoPool kryoPool;
+
+    private final TicketSerializer fallbackSerializer = new JavaTicketSerializer();
+
+    public KryoTicketSerializer() {
+        this(Collections.emptyMap());
+    }
+
+    /**
+     * Instantiates a new Kryo ticket serializer.
+     *
+     * @param serializerMap additional types that should be registered with Kryo, and the serializers that handle them
+     */
+    public KryoTicketSerializer(final Map<Class<?>, Serializer> serializerMap) {
+        this.kryoPool = new KryoPool.Builder(() -> {
+            final KryoTranscoder transcoder = new KryoTranscoder();
+            transcoder.setSerializerMap(serializerMap);
+            transcoder.initialize();
+            final Kryo kryo = transcoder.getKryo();
+            kryo.setReferences(true);
+            return kryo;
+        }).softReferences().build();
+    }
+
+    @Override
+    public byte[] serialize(final Ticket ticket) {
+        final Kryo kryo = this.kryoPool.borrow();
+        try (Output output = new Output(INITIAL_BUFFER_SIZE, -1)) {
+            output.writeByte(FORMAT_MARKER);
+            output.writeByte(VERSION);
+            kryo.writeClassAndObject(output, ticket);
+            return output.toBytes();
+        } finally {
+            release(kryo);
+        }
+    }
+
+    @Override
+    public Ticket deserialize(final byte[] data) {
+        if (data.length < HEADER_LENGTH || data[0] != FORMAT_MARKER) {
+            return this.fallbackSerializer.deserialize(data);
+        }
+        if (data[1] != VERSION) {
+            throw new IllegalArgumentException("Ticket was serialized with unsupported version " + data[1]
+                    + "; expected version " + VERSION);
+        }
+        final Kryo kryo = this.kryoPool.borrow();
+        try (Input input = new Input(data, HEADER_LENGTH, data.length - HEADER_LENGTH)) {
+            return (Ticket) kryo.readClassAndObject(input);
+        } finally {
+            release(kryo);
+        }
+    }
+
+    /**
+     * Reset the state Kryo collects while reading or writing, i.e. the names of unregistered classes,
+     * since the next payload may be handled by another instance, and return the instance to the pool.
+     *
+     * @param kryo the kryo instance
+     */
+    private void release(final Kryo kryo) {
+        kryo.reset();
+        this.kryoPool.release(kryo);
+    }
+}
@@ -4,6 +4,7 @@ import com.esotericsoftware.kryo.Kryo;
 import com.esotericsoftware.kryo.Serializer;
 import com.esotericsoftware.kryo.io.Input;
 import com.esotericsoftware.kryo.io.Output;
+import com.esotericsoftware.kryo.pool.KryoPool;
 import com.esotericsoftware.kryo.serializers.DefaultSerializers;
 import de.javakaffee.kryoserializers.CollectionsEmptyListSerializer;
 import de.javakaffee.kryoserializers.CollectionsEmptyMapSerializer;
@@ -22,18 +23,26 @@ import de.javakaffee.kryoserializers.guava.ImmutableSetSerializer;
 import net.spy.memcached.CachedData;
 import net.spy.memcached.transcoders.Transcoder;
 import org.apereo.cas.authentication.BasicCredentialMetaData;
+import org.apereo.cas.authentication.BasicIdentifiableCredential;
 import org.apereo.cas.authentication.DefaultHandlerResult;
+import org.apereo.cas.authentication.HttpBasedServiceCredential;
+import org.apereo.cas.authentication.RememberMeUsernamePasswordCredential;
 import org.apereo.cas.authentication.UsernamePasswordCredential;
+import org.apereo.cas.authentication.principal.NullPrincipal;
 import org.apereo.cas.authentication.principal.SimplePrincipal;
 import org.apereo.cas.authentication.principal.SimpleWebApplicationServiceImpl;
 import org.apereo.cas.services.RegexRegisteredService;
+import org.apereo.cas.ticket.ProxyGrantingTicketImpl;
+import org.apereo.cas.ticket.ProxyTicketImpl;
 import org.apereo.cas.ticket.ServiceTicketImpl;
 import org.apereo.cas.ticket.TicketGrantingTicketImpl;
+import org.apereo.cas.ticket.TicketGrantingTicketReference;
 import org.apereo.cas.ticket.registry.EncodedTicket;
 import org.apereo.cas.ticket.registry.support.kryo.serial.RegisteredServiceSerializer;
 import org.apereo.cas.ticket.registry.support.kryo.serial.SimpleWebApplicationServiceSerializer;
 import org.apereo.cas.ticket.registry.support.kryo.serial.URLSerializer;
 import org.apereo.cas.ticket.registry.support.kryo.serial.ZonedDateTimeTranscoder;
+import org.apereo.cas.ticket.support.AlwaysExpiresExpirationPolicy;
 import org.apereo.cas.ticket.support.HardTimeoutExpirationPolicy;
 import org.apereo.cas.ticket.support.MultiTimeUseOrTimeoutExpirationPolicy;
 import org.apereo.cas.ticket.support.NeverExpiresExpirationPolicy;
@@ -46,6 +55,9 @@ import org.apereo.cas.authentication.DefaultAuthentication;
 import javax.annotation.PostConstruct;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.net.URI;
 import java.net.URL;
 import java.time.ZonedDateTime;
@@ -56,13 +68,26 @@ import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
 import java.util.Map;
+import java.util.TreeMap;
 import java.util.UUID;
 import java.util.regex.Pattern;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
 
 /**
  * {@link net.spy.memcached.MemcachedClient} transcoder implementation based on Kryo fast serialization framework
  * suited for efficient serialization of tickets.
+ * <p>
+ * Kryo instances are not thread-safe; the memcached client encodes and decodes on the threads that call it,
+ * so instances are borrowed from a pool for each operation, and each thread reuses its own input and output buffers.
+ * References are tracked, since a ticket-granting ticket and its proxy-granting tickets refer to each other.
+ * Payloads larger than the compression threshold, typically ticket-granting tickets whose authentication
+ * carries many attributes, are deflated and flagged as such, so that they can be told apart when decoded.
  *
  * @author Marvin S. Addison
  * @since 3.0.0
@@ -71,10 +96,34 @@ import java.util.regex.Pattern;
 public class KryoTranscoder implements Transcoder<Object> {
 
     /**
-     * Kryo serializer.
+     * Flag of cached data whose payload is compressed.
+     */
+    public static final int COMPRESSED = 2;
+
+    private static final int INITIAL_BUFFER_SIZE = 4096;
+
+    private static final int MAX_RETAINED_BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Kryo serializer that is configured first, and is the first instance in the pool.
      */
     private final Kryo kryo = new KryoReflectionFactorySupport();
 
+    private final ThreadLocal<Output> outputs = ThreadLocal.withInitial(KryoTranscoder::newOutput);
+
+    /**
+     * Inputs read through a stream rather than the cached data itself, since Kryo modifies
+     * the buffer it reads strings from, and the data may be decoded by several threads at once.
+     */
+    private final ThreadLocal<Input> inputs = ThreadLocal.withInitial(() -> new Input(INITIAL_BUFFER_SIZE));
+
+    private KryoPool kryoPool;
+
+    /**
+     * Payloads larger than this number of bytes are compressed; zero or less disables compression.
+     */
+    private int compressionThreshold;
+
     /**
      * Map of class to serializer that handles it.
      */
@@ -96,69 +145,107 @@ public class KryoTranscoder implements Transcoder<Object> {
         this.serializerMap = map;
     }
 
+    /**
+     * Sets the size in bytes above which encoded payloads are compressed.
+     * Zero or less disables compression, which is the default.
+     *
+     * @param compressionThreshold the compression threshold
+     */
+    public void setCompressionThreshold(final int compressionThreshold) {
+        this.compressionThreshold = compressionThreshold;
+    }
+
     /**
      * Initialize and register classes with kryo.
      */
     @PostConstruct
     public void initialize() {
+        configure(this.kryo);
+        this.kryoPool = new KryoPool.Builder(() -> configure(new KryoReflectionFactorySupport())).softReferences().build();
+        this.kryoPool.release(this.kryo);
+    }
+
+    /**
+     * Register the classes this transcoder knows about with the given kryo instance, and configure it.
+     *
+     * @param kryo the kryo instance
+     * @return the kryo instance
+     */
+    private Kryo configure(final Kryo kryo) {
         // Register types we know about and do not require external configuration
-        this.kryo.register(EncodedTicket.class);
-        this.kryo.register(ArrayList.class);
-        this.kryo.register(BasicCredentialMetaData.class);
-        this.kryo.register(Class.class, new DefaultSerializers.ClassSerializer());
-        this.kryo.register(ZonedDateTime.class, new ZonedDateTimeTranscoder());
-        this.kryo.register(HardTimeoutExpirationPolicy.class);
-        this.kryo.register(HashMap.class);
-        this.kryo.register(LinkedHashMap.class);
-        this.kryo.register(HashSet.class);
-        this.kryo.register(DefaultHandlerResult.class);
-        this.kryo.register(DefaultAuthentication.class);
-        this.kryo.register(MultiTimeUseOrTimeoutExpirationPolicy.class);
-        this.kryo.register(NeverExpiresExpirationPolicy.class);
-        this.kryo.register(RememberMeDelegatingExpirationPolicy.class);
-        this.kryo.register(ServiceTicketImpl.class);
-        this.kryo.register(SimpleWebApplicationServiceImpl.class, new SimpleWebApplicationServiceSerializer());
-        this.kryo.register(ThrottledUseAndTimeoutExpirationPolicy.class);
-        this.kryo.register(TicketGrantingTicketExpirationPolicy.class);
-        this.kryo.register(TicketGrantingTicketImpl.class);
-        this.kryo.register(TimeoutExpirationPolicy.class);
-        this.kryo.register(UsernamePasswordCredential.class);
-        this.kryo.register(SimplePrincipal.class);
-        this.kryo.register(URL.class, new URLSerializer());
-        this.kryo.register(URI.class, new URISerializer());
-        this.kryo.register(Pattern.class, new RegexSerializer());
-        this.kryo.register(UUID.class, new UUIDSerializer());
-        this.kryo.register(EnumMap.class, new EnumMapSerializer());
-        this.kryo.register(EnumSet.class, new EnumSetSerializer());
+        kryo.register(EncodedTicket.class);
+        kryo.register(ArrayList.class);
+        kryo.register(BasicCredentialMetaData.class);
+        kryo.register(Class.class, new DefaultSerializers.ClassSerializer());
+        kryo.register(ZonedDateTime.class, new ZonedDateTimeTranscoder());
+        kryo.register(HardTimeoutExpirationPolicy.class);
+        kryo.register(HashMap.class);
+        kryo.register(LinkedHashMap.class);
+        kryo.register(HashSet.class);
+        kryo.register(DefaultHandlerResult.class);
+        kryo.register(DefaultAuthentication.class);
+        kryo.register(MultiTimeUseOrTimeoutExpirationPolicy.class);
+        kryo.register(NeverExpiresExpirationPolicy.class);
+        kryo.register(RememberMeDelegatingExpirationPolicy.class);
+        kryo.register(ServiceTicketImpl.class);
+        kryo.register(SimpleWebApplicationServiceImpl.class, new SimpleWebApplicationServiceSerializer());
+        kryo.register(ThrottledUseAndTimeoutExpirationPolicy.class);
+        kryo.register(TicketGrantingTicketExpirationPolicy.class);
+        kryo.register(TicketGrantingTicketImpl.class);
+        kryo.register(TimeoutExpirationPolicy.class);
+        kryo.register(UsernamePasswordCredential.class);
+        kryo.register(SimplePrincipal.class);
+        kryo.register(URL.class, new URLSerializer());
+        kryo.register(URI.class, new URISerializer());
+        kryo.register(Pattern.class, new RegexSerializer());
+        kryo.register(UUID.class, new UUIDSerializer());
+        kryo.register(EnumMap.class, new EnumMapSerializer());
+        kryo.register(EnumSet.class, new EnumSetSerializer());
 
         // we add these ones for tests only
-        this.kryo.register(RegexRegisteredService.class, new RegisteredServiceSerializer());
+        kryo.register(RegexRegisteredService.class, new RegisteredServiceSerializer());
 
 
         // from the kryo-serializers library (https://github.com/magro/kryo-serializers)
-        UnmodifiableCollectionsSerializer.registerSerializers(this.kryo);
-        ImmutableListSerializer.registerSerializers(this.kryo);
-        ImmutableSetSerializer.registerSerializers(this.kryo);
-        ImmutableMapSerializer.registerSerializers(this.kryo);
-        ImmutableMultimapSerializer.registerSerializers(this.kryo);
+        UnmodifiableCollectionsSerializer.registerSerializers(kryo);
+        ImmutableListSerializer.registerSerializers(kryo);
+        ImmutableSetSerializer.registerSerializers(kryo);
+        ImmutableMapSerializer.registerSerializers(kryo);
+        ImmutableMultimapSerializer.registerSerializers(kryo);
+
+        kryo.register(Collections.EMPTY_LIST.getClass(), new CollectionsEmptyListSerializer());
+        kryo.register(Collections.EMPTY_MAP.getClass(), new CollectionsEmptyMapSerializer());
+        kryo.register(Collections.EMPTY_SET.getClass(), new CollectionsEmptySetSerializer());
 
-        this.kryo.register(Collections.EMPTY_LIST.getClass(), new CollectionsEmptyListSerializer());
-        this.kryo.register(Collections.EMPTY_MAP.getClass(), new CollectionsEmptyMapSerializer());
-        this.kryo.register(Collections.EMPTY_SET.getClass(), new CollectionsEmptySetSerializer());
+        kryo.register(ProxyGrantingTicketImpl.class);
+        kryo.register(ProxyTicketImpl.class);
+        kryo.register(AlwaysExpiresExpirationPolicy.class);
+        kryo.register(MultiTimeUseOrTimeoutExpirationPolicy.ServiceTicketExpirationPolicy.class);
+        kryo.register(MultiTimeUseOrTimeoutExpirationPolicy.ProxyTicketExpirationPolicy.class);
+        kryo.register(NullPrincipal.class);
+        kryo.register(BasicIdentifiableCredential.class);
+        kryo.register(RememberMeUsernamePasswordCredential.class);
+        kryo.register(HttpBasedServiceCredential.class);
+        kryo.register(LinkedHashSet.class);
+        kryo.register(LinkedList.class);
+        kryo.register(TreeMap.class);
+        kryo.register(TicketGrantingTicketReference.class);
 
         // Register other types
         if (this.serializerMap != null) {
-            this.serializerMap.forEach(this.kryo::register);
+            this.serializerMap.forEach(kryo::register);
         }
 
-        // don't reinit the registered classes after every write or read
-        this.kryo.setAutoReset(false);
-        // don't replace objects by references
-        this.kryo.setReferences(false);
+        // state is reset explicitly when the instance is returned to the pool
+        kryo.setAutoReset(false);
+        // replace objects seen before by references, so that cycles between tickets are preserved
+        kryo.setReferences(true);
         // Catchall for any classes not explicitly registered
-        this.kryo.setRegistrationRequired(false);
+        kryo.setRegistrationRequired(false);
+        return kryo;
     }
 
+
     /**
      * Asynchronous decoding is not supported.
      *
@@ -172,21 +259,43 @@ public class KryoTranscoder implements Transcoder<Object> {
 
     @Override
     public CachedData encode(final Object obj) {
-        final ByteArrayOutputStream byteStream = new ByteArrayOutputStream();
-        try (Output output = new Output(byteStream)) {
-            this.kryo.writeClassAndObject(output, obj);
-            output.flush();
-            final byte[] bytes = byteStream.toByteArray();
-            return new CachedData(0, bytes, bytes.length);
+        final Output output = this.outputs.get();
+        final Kryo kryo = this.kryoPool.borrow();
+        try {
+            kryo.writeClassAndObject(output, obj);
+            if (this.compressionThreshold > 0 && output.position() > this.compressionThreshold) {
+                final byte[] bytes = compress(output.getBuffer(), output.position());
+                if (bytes.length < output.position()) {
+                    return new CachedData(COMPRESSED, bytes, getMaxSize());
+                }
+            }
+            return new CachedData(0, output.toBytes(), getMaxSize());
+        } finally {
+            release(kryo);
+            resetOutput(output);
         }
     }
 
     @Override
     public Object decode(final CachedData d) {
-        final byte[] bytes = d.getData();
-        try (Input input = new Input(new ByteArrayInputStream(bytes))) {
-            final Object obj = this.kryo.readClassAndObject(input);
-            return obj;
+        final Input input = this.inputs.get();
+        final Kryo kryo = this.kryoPool.borrow();
+        Inflater inflater = null;
+        try {
+            final InputStream bytes = new ByteArrayInputStream(d.getData());
+            if ((d.getFlags() & COMPRESSED) != 0) {
+                inflater = new Inflater();
+                input.setInputStream(new InflaterInputStream(bytes, inflater));
+            } else {
+                input.setInputStream(bytes);
+            }
+            return kryo.readClassAndObject(input);
+        } finally {
+            release(kryo);
+            input.setInputStream(null);
+            if (inflater != null) {
+                inflater.end();
+            }
         }
     }
 
@@ -201,11 +310,56 @@ public class KryoTranscoder implements Transcoder<Object> {
     }
 
     /**
-     * Gets the kryo object that provides encoding and decoding services for this instance.
+     * Gets the kryo object that is configured first by this instance, which may be used to build serializers
+     * that are passed to {@link #setSerializerMap(Map)}. Encoding and decoding borrow instances from a pool,
+     * which are configured in the same way.
      *
      * @return Underlying Kryo instance.
      */
     public Kryo getKryo() {
         return this.kryo;
     }
+
+    /**
+     * Reset the state Kryo collects while reading or writing, i.e. the objects it has seen and the names
+     * of unregistered classes, since the next payload may be handled by another instance or node,
+     * and return the instance to the pool.
+     *
+     * @param kryo the kryo instance
+     */
+    private void release(final Kryo kryo) {
+        kryo.reset();
+        this.kryoPool.release(kryo);
+    }
+
+    /**
+     * Rewind the output buffer of the current thread, or replace it if it has grown beyond
+     * the size that is worth retaining, so that threads do not hold on to the buffers of large payloads.
+     *
+     * @param output the output
+     */
+    private void resetOutput(final Output output) {
+        if (output.getBuffer().length > MAX_RETAINED_BUFFER_SIZE) {
+            output.setBuffer(new byte[INITIAL_BUFFER_SIZE], CachedData.MAX_SIZE);
+        } else {
+            output.clear();
+        }
+    }
+
+    private static Output newOutput() {
+        return new Output(INITIAL_BUFFER_SIZE, CachedData.MAX_SIZE);
+    }
+
+    private static byte[] compress(final byte[] data, final int length) {
+        final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream(length / 2);
+        try (DeflaterOutputStream out = new DeflaterOutputStream(bytes, deflater)) {
+            out.write(data, 0, length);
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            deflater.end();
+        }
+        return bytes.toByteArray();
+    }
 }
@@ -23,7 +23,7 @@ public class ZonedDateTimeTranscoder extends Serializer<ZonedDateTime> {
     @Override
     public ZonedDateTime read(final Kryo kryo, final Input input, final Class<ZonedDateTime> type) {
         final long time = kryo.readObject(input, Long.class);
-        final ZoneId zone = ZoneId.of(input.readString());
+        final ZoneId zone = ZoneId.of(kryo.readObject(input, String.class));
         return DateTimeUtils.zonedDateTimeOf(time, zone);
     }
 }
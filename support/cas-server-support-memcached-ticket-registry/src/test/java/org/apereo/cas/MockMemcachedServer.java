@@ -0,0 +1,267 @@
+package org.apereo.cas;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * This is {@link MockMemcachedServer}, an in-process stand-in for memcached that speaks enough of the text protocol
+ * for the memcached client to store, append to, compare-and-set, fetch and delete items, so that the
+ * ticket registry can be tested without a memcached server. Expiration times are honored.
+ *
+ * @author Misagh Moayyed
+ * @since 5.1.0
+ */
+public class MockMemcachedServer implements Closeable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(MockMemcachedServer.class);
+
+    private static final long RELATIVE_EXPIRATION_LIMIT = 60 * 60 * 24 * 30;
+
+    private static final int KEY = 1;
+    private static final int FLAGS = 2;
+    private static final int EXPIRATION = 3;
+    private static final int LENGTH = 4;
+    private static final int CAS_UNIQUE = 5;
+
+    private final Map<String, Item> items = new HashMap<>();
+
+    private final ServerSocket serverSocket;
+
+    private final ExecutorService executor = Executors.newCachedThreadPool(r -> {
+        final Thread thread = new Thread(r, "mock-memcached");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private long casCounter;
+
+    public MockMemcachedServer() throws IOException {
+        this.serverSocket = new ServerSocket();
+        this.serverSocket.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        this.executor.execute(this::accept);
+    }
+
+    public InetSocketAddress getAddress() {
+        return (InetSocketAddress) this.serverSocket.getLocalSocketAddress();
+    }
+
+    /**
+     * Gets the number of items that have not expired.
+     *
+     * @return the size
+     */
+    public synchronized int size() {
+        this.items.values().removeIf(Item::isExpired);
+        return this.items.size();
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.serverSocket.close();
+        this.executor.shutdownNow();
+    }
+
+    private void accept() {
+        while (!this.serverSocket.isClosed()) {
+            try {
+                final Socket socket = this.serverSocket.accept();
+                this.executor.execute(() -> serve(socket));
+            } catch (final IOException e) {
+                LOGGER.debug("Mock memcached server stopped accepting connections: [{}]", e.getMessage());
+            }
+        }
+    }
+
+    private void serve(final Socket socket) {
+        try (Socket s = socket;
+             InputStream in = new BufferedInputStream(s.getInputStream());
+             OutputStream out = s.getOutputStream()) {
+            String line;
+            while ((line = readLine(in)) != null) {
+                final String[] command = line.split(" ");
+                final ByteArrayOutputStream response = new ByteArrayOutputStream();
+                switch (command[0]) {
+                    case "get":
+                    case "gets":
+                        get(command, response);
+                        break;
+                    case "set":
+                    case "add":
+                    case "replace":
+                    case "append":
+                    case "prepend":
+                    case "cas":
+                        final byte[] data = readData(in, Integer.parseInt(command[LENGTH]));
+                        write(response, store(command, data));
+                        break;
+                    case "delete":
+                        write(response, delete(command[KEY]));
+                        break;
+                    case "version":
+                        write(response, "VERSION 1.4.22");
+                        break;
+                    case "flush_all":
+                        flush();
+                        write(response, "OK");
+                        break;
+                    default:
+                        write(response, "ERROR");
+                }
+                if (!line.endsWith(" noreply")) {
+                    out.write(response.toByteArray());
+                    out.flush();
+                }
+            }
+        } catch (final IOException e) {
+            LOGGER.debug("Mock memcached connection closed: [{}]", e.getMessage());
+        }
+    }
+
+    private synchronized void get(final String[] command, final ByteArrayOutputStream response) throws IOException {
+        for (int i = 1; i < command.length; i++) {
+            final Item item = getItem(command[i]);
+            if (item != null) {
+                write(response, "VALUE " + command[i] + ' ' + item.flags + ' ' + item.data.length
+                        + ("gets".equals(command[0]) ? " " + item.cas : ""));
+                response.write(item.data);
+                write(response, "");
+            }
+        }
+        write(response, "END");
+    }
+
+    private synchronized String store(final String[] command, final byte[] data) {
+        final String key = command[KEY];
+        final Item existing = getItem(key);
+        final Item item = new Item(Integer.parseInt(command[FLAGS]), expiresAt(Long.parseLong(command[EXPIRATION])), data, ++this.casCounter);
+        switch (command[0]) {
+            case "add":
+                if (existing != null) {
+                    return "NOT_STORED";
+                }
+                break;
+            case "replace":
+                if (existing == null) {
+                    return "NOT_STORED";
+                }
+                break;
+            case "append":
+            case "prepend":
+                if (existing == null) {
+                    return "NOT_STORED";
+                }
+                final byte[] first = "append".equals(command[0]) ? existing.data : data;
+                final byte[] second = "append".equals(command[0]) ? data : existing.data;
+                final byte[] joined = Arrays.copyOf(first, first.length + second.length);
+                System.arraycopy(second, 0, joined, first.length, second.length);
+                this.items.put(key, new Item(existing.flags, existing.expiresAt, joined, item.cas));
+                return "STORED";
+            case "cas":
+                if (existing == null) {
+                    return "NOT_FOUND";
+                }
+                if (existing.cas != Long.parseLong(command[CAS_UNIQUE])) {
+                    return "EXISTS";
+                }
+                break;
+            default:
+                break;
+        }
+        this.items.put(key, item);
+        return "STORED";
+    }
+
+    private synchronized String delete(final String key) {
+        return getItem(key) != null && this.items.remove(key) != null ? "DELETED" : "NOT_FOUND";
+    }
+
+    private synchronized void flush() {
+        this.items.clear();
+    }
+
+    private Item getItem(final String key) {
+        final Item item = this.items.get(key);
+        if (item != null && item.isExpired()) {
+            this.items.remove(key);
+            return null;
+        }
+        return item;
+    }
+
+    private static long expiresAt(final long expiration) {
+        if (expiration == 0) {
+            return Long.MAX_VALUE;
+        }
+        if (expiration <= RELATIVE_EXPIRATION_LIMIT) {
+            return System.currentTimeMillis() + expiration * 1000;
+        }
+        return expiration * 1000;
+    }
+
+    private static String readLine(final InputStream in) throws IOException {
+        final ByteArrayOutputStream line = new ByteArrayOutputStream();
+        int b;
+        while ((b = in.read()) != -1) {
+            if (b == '\n') {
+                final byte[] bytes = line.toByteArray();
+                final int length = bytes.length > 0 && bytes[bytes.length - 1] == '\r' ? bytes.length - 1 : bytes.length;
+                return new String(bytes, 0, length, StandardCharsets.US_ASCII);
+            }
+            line.write(b);
+        }
+        return null;
+    }
+
+    private static byte[] readData(final InputStream in, final int length) throws IOException {
+        final byte[] data = new byte[length];
+        int read = 0;
+        while (read < length) {
+            final int count = in.read(data, read, length - read);
+            if (count < 0) {
+                throw new IOException("Connection closed while reading data");
+            }
+            read += count;
+        }
+        readLine(in);
+        return data;
+    }
+
+    private static void write(final ByteArrayOutputStream response, final String line) {
+        final byte[] bytes = (line + "\r\n").getBytes(StandardCharsets.US_ASCII);
+        response.write(bytes, 0, bytes.length);
+    }
+
+    private static class Item {
+        private final int flags;
+        private final long expiresAt;
+        private final byte[] data;
+        private final long cas;
+
+        Item(final int flags, final long expiresAt, final byte[] data, final long cas) {
+            this.flags = flags;
+            this.expiresAt = expiresAt;
+            this.data = data;
+            this.cas = cas;
+        }
+
+        boolean isExpired() {
+            return System.currentTimeMillis() >= this.expiresAt;
+        }
+    }
+}
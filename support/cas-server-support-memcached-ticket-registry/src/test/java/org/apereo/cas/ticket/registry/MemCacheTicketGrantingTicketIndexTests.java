@@ -0,0 +1,126 @@
+package org.apereo.cas.ticket.registry;
+
+import net.spy.memcached.AddrUtil;
+import net.spy.memcached.ConnectionFactoryBuilder;
+import net.spy.memcached.MemcachedClient;
+import org.apereo.cas.MockMemcachedServer;
+import org.apereo.cas.authentication.CoreAuthenticationTestUtils;
+import org.apereo.cas.services.RegisteredServiceTestUtils;
+import org.apereo.cas.ticket.ServiceTicket;
+import org.apereo.cas.ticket.Ticket;
+import org.apereo.cas.ticket.TicketGrantingTicket;
+import org.apereo.cas.ticket.TicketGrantingTicketImpl;
+import org.apereo.cas.ticket.proxy.ProxyGrantingTicket;
+import org.apereo.cas.ticket.registry.support.kryo.KryoTranscoder;
+import org.apereo.cas.ticket.support.NeverExpiresExpirationPolicy;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collection;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.*;
+
+/**
+ * This is {@link MemCacheTicketGrantingTicketIndexTests}.
+ *
+ * @author Misagh Moayyed
+ * @since 5.1.0
+ */
+public class MemCacheTicketGrantingTicketIndexTests {
+
+    private MockMemcachedServer server;
+
+    private MemcachedClient client;
+
+    private MemCacheTicketRegistry registry;
+
+    @Before
+    public void setUp() throws Exception {
+        this.server = new MockMemcachedServer();
+        final KryoTranscoder transcoder = new KryoTranscoder();
+        transcoder.initialize();
+        this.client = new MemcachedClient(new ConnectionFactoryBuilder().setTranscoder(transcoder).build(),
+                AddrUtil.getAddresses("127.0.0.1:" + this.server.getAddress().getPort()));
+        this.registry = new MemCacheTicketRegistry(this.client, 2, 4);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        this.client.shutdown(1, TimeUnit.SECONDS);
+        this.server.close();
+    }
+
+    @Test
+    public void verifyTicketGrantingTicketsAreListedAndCounted() {
+        final TicketGrantingTicket tgt = newTicketGrantingTicket("TGT-1");
+        this.registry.addTicket(tgt);
+        final ServiceTicket st = tgt.grantServiceTicket("ST-1", RegisteredServiceTestUtils.getService(),
+                new NeverExpiresExpirationPolicy(), false, true);
+        this.registry.addTicketAndUpdateParent(st, tgt);
+        final ProxyGrantingTicket pgt = st.grantProxyGrantingTicket("PGT-1",
+                CoreAuthenticationTestUtils.getAuthentication(), new NeverExpiresExpirationPolicy());
+        this.registry.addTicket(pgt);
+
+        assertEquals(st, this.registry.getTicket("ST-1"));
+        assertEquals(1, this.registry.getTicket("TGT-1", TicketGrantingTicket.class).getServices().size());
+        assertEquals(2, this.registry.sessionCount());
+        assertEquals(Long.MIN_VALUE, this.registry.serviceTicketCount());
+        final Collection<Ticket> tickets = this.registry.getTickets();
+        assertEquals(2, tickets.size());
+        assertTrue(tickets.contains(tgt));
+        assertTrue(tickets.contains(pgt));
+        assertEquals(0, this.registry.stream(ServiceTicket.class, false).count());
+    }
+
+    @Test
+    public void verifyKeysOfDeletedTicketsAreRemoved() {
+        IntStream.range(0, 10).forEach(i -> this.registry.addTicket(newTicketGrantingTicket("TGT-" + i)));
+        final MemCacheTicketGrantingTicketIndex index = new MemCacheTicketGrantingTicketIndex(this.client, 4);
+        assertEquals(10, index.getKeys().size());
+
+        this.registry.deleteTicket("TGT-3");
+        this.registry.deleteTicket("TGT-7");
+        assertEquals(8, index.getKeys().size());
+        assertFalse(index.getKeys().contains("TGT-3"));
+        assertEquals(8, this.registry.sessionCount());
+        assertEquals(8, this.registry.getTickets().size());
+
+        IntStream.range(0, 10).forEach(i -> this.registry.deleteTicket("TGT-" + i));
+        assertTrue(index.getKeys().isEmpty());
+    }
+
+    @Test
+    public void verifyIndexIsCompacted() {
+        IntStream.range(0, 10).forEach(i -> this.registry.addTicket(newTicketGrantingTicket("TGT-" + i)));
+        final MemCacheTicketGrantingTicketIndex index = new MemCacheTicketGrantingTicketIndex(this.client, 4);
+        IntStream.range(0, 5).forEach(i -> this.client.delete("TGT-" + i));
+        assertEquals(10, index.getKeys().size());
+
+        this.registry.compactIndex();
+        assertEquals(IntStream.range(5, 10).mapToObj(i -> "TGT-" + i).collect(Collectors.toSet()), index.getKeys());
+    }
+
+    @Test
+    public void verifyConcurrentAdds() throws Exception {
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            IntStream.range(0, 200).forEach(i -> executor.execute(() -> this.registry.addTicket(newTicketGrantingTicket("TGT-" + i))));
+        } finally {
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+        }
+        assertEquals(200, this.registry.sessionCount());
+        assertEquals(IntStream.range(0, 200).mapToObj(i -> "TGT-" + i).collect(Collectors.toSet()),
+                this.registry.getTickets().stream().map(Ticket::getId).collect(Collectors.toSet()));
+    }
+
+    private static TicketGrantingTicket newTicketGrantingTicket(final String id) {
+        return new TicketGrantingTicketImpl(id, CoreAuthenticationTestUtils.getAuthentication(), new NeverExpiresExpirationPolicy());
+    }
+}
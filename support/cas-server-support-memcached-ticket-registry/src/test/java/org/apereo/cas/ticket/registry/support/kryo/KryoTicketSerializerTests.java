@@ -0,0 +1,67 @@
+package org.apereo.cas.ticket.registry.support.kryo;
+
+import org.apereo.cas.authentication.CoreAuthenticationTestUtils;
+import org.apereo.cas.services.RegisteredServiceTestUtils;
+import org.apereo.cas.ticket.ServiceTicket;
+import org.apereo.cas.ticket.Ticket;
+import org.apereo.cas.ticket.TicketGrantingTicket;
+import org.apereo.cas.ticket.TicketGrantingTicketImpl;
+import org.apereo.cas.ticket.proxy.ProxyGrantingTicket;
+import org.apereo.cas.ticket.registry.JavaTicketSerializer;
+import org.apereo.cas.ticket.support.NeverExpiresExpirationPolicy;
+import org.junit.Test;
+
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+/**
+ * This is {@link KryoTicketSerializerTests}.
+ *
+ * @author Misagh Moayyed
+ * @since 5.1.0
+ */
+public class KryoTicketSerializerTests {
+
+    private final KryoTicketSerializer serializer = new KryoTicketSerializer();
+
+    @Test
+    public void verifyTicketsAreSerializedWithVersion() {
+        final TicketGrantingTicket tgt = new TicketGrantingTicketImpl("TGT-1",
+                CoreAuthenticationTestUtils.getAuthentication(CoreAuthenticationTestUtils.getPrincipal("casuser",
+                        Collections.singletonMap("mail", "casuser@example.org"))),
+                new NeverExpiresExpirationPolicy());
+        final ServiceTicket st = tgt.grantServiceTicket("ST-1", RegisteredServiceTestUtils.getService(),
+                new NeverExpiresExpirationPolicy(), false, true);
+        final ProxyGrantingTicket pgt = st.grantProxyGrantingTicket("PGT-1",
+                CoreAuthenticationTestUtils.getAuthentication(), new NeverExpiresExpirationPolicy());
+
+        for (final Ticket ticket : new Ticket[]{tgt, st, pgt}) {
+            final byte[] data = this.serializer.serialize(ticket);
+            assertEquals(KryoTicketSerializer.FORMAT_MARKER, data[0]);
+            assertEquals(KryoTicketSerializer.VERSION, data[1]);
+            assertTrue(data.length < new JavaTicketSerializer().serialize(ticket).length);
+
+            final Ticket result = this.serializer.deserialize(data);
+            assertEquals(ticket, result);
+            assertEquals(ticket.getExpirationPolicy().getClass(), result.getExpirationPolicy().getClass());
+        }
+        assertEquals("casuser@example.org", ((TicketGrantingTicket) this.serializer.deserialize(this.serializer.serialize(tgt)))
+                .getAuthentication().getPrincipal().getAttributes().get("mail"));
+    }
+
+    @Test
+    public void verifyJavaSerializedTicketsAreRead() {
+        final TicketGrantingTicket tgt = new TicketGrantingTicketImpl("TGT-1",
+                CoreAuthenticationTestUtils.getAuthentication(), new NeverExpiresExpirationPolicy());
+        assertEquals(tgt, this.serializer.deserialize(new JavaTicketSerializer().serialize(tgt)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void verifyUnknownVersionIsRejected() {
+        final byte[] data = this.serializer.serialize(new TicketGrantingTicketImpl("TGT-1",
+                CoreAuthenticationTestUtils.getAuthentication(), new NeverExpiresExpirationPolicy()));
+        data[1] = KryoTicketSerializer.VERSION + 1;
+        this.serializer.deserialize(data);
+    }
+}
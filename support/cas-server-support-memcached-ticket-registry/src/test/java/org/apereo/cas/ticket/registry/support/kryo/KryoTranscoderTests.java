@@ -5,6 +5,7 @@ import com.esotericsoftware.kryo.serializers.FieldSerializer;
 import net.spy.memcached.CachedData;
 import org.apereo.cas.authentication.AcceptUsersAuthenticationHandler;
 import org.apereo.cas.authentication.BasicCredentialMetaData;
+import org.apereo.cas.authentication.CoreAuthenticationTestUtils;
 import org.apereo.cas.authentication.DefaultAuthenticationBuilder;
 import org.apereo.cas.mock.MockTicketGrantingTicket;
 import org.apereo.cas.services.RegisteredService;
@@ -19,6 +20,8 @@ import org.apereo.cas.authentication.UsernamePasswordCredential;
 import org.apereo.cas.authentication.principal.DefaultPrincipalFactory;
 import org.apereo.cas.mock.MockServiceTicket;
 import org.apereo.cas.ticket.TicketGrantingTicketImpl;
+import org.apereo.cas.ticket.proxy.ProxyGrantingTicket;
+import org.apereo.cas.ticket.proxy.ProxyTicket;
 import org.apereo.cas.ticket.support.NeverExpiresExpirationPolicy;
 import org.junit.Test;
 
@@ -34,6 +37,10 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static org.junit.Assert.*;
 
@@ -205,4 +212,75 @@ public class KryoTranscoderTests {
         final RegisteredService service = RegisteredServiceTestUtils.getRegisteredService("helloworld");
         assertEquals(service, transcoder.decode(transcoder.encode(service)));
     }
+
+    @Test
+    public void verifyEncodeDecodeProxyGrantingTicket() throws Exception {
+        final TicketGrantingTicket tgt = new TicketGrantingTicketImpl(TGT_ID,
+                CoreAuthenticationTestUtils.getAuthentication(), new NeverExpiresExpirationPolicy());
+        final ServiceTicket st = tgt.grantServiceTicket(ST_ID, RegisteredServiceTestUtils.getService(),
+                new NeverExpiresExpirationPolicy(), false, true);
+        final ProxyGrantingTicket pgt = st.grantProxyGrantingTicket("PGT-1",
+                CoreAuthenticationTestUtils.getAuthentication(), new NeverExpiresExpirationPolicy());
+        final ProxyTicket pt = pgt.grantProxyTicket("PT-1", RegisteredServiceTestUtils.getService(),
+                new NeverExpiresExpirationPolicy(), true);
+
+        final TicketGrantingTicket resultTGT = (TicketGrantingTicket) transcoder.decode(transcoder.encode(tgt));
+        assertEquals(tgt, resultTGT);
+        final ProxyGrantingTicket resultPGT = resultTGT.getProxyGrantingTickets().iterator().next();
+        assertEquals(pgt, resultPGT);
+        assertSame(resultTGT, resultPGT.getGrantingTicket());
+        assertEquals(pgt, transcoder.decode(transcoder.encode(pgt)));
+        assertEquals(pt, transcoder.decode(transcoder.encode(pt)));
+    }
+
+    @Test
+    public void verifyLargePayloadIsCompressed() throws Exception {
+        final Map<String, Object> attributes = new HashMap<>();
+        for (int i = 0; i < 100; i++) {
+            attributes.put(NICKNAME_KEY + i, NICKNAME_VALUE + "-value-of-a-rather-long-attribute-" + i);
+        }
+        final TicketGrantingTicket tgt = new TicketGrantingTicketImpl(TGT_ID,
+                CoreAuthenticationTestUtils.getAuthentication(CoreAuthenticationTestUtils.getPrincipal(USERNAME, attributes)),
+                new NeverExpiresExpirationPolicy());
+        final CachedData uncompressed = transcoder.encode(tgt);
+        assertEquals(0, uncompressed.getFlags());
+
+        transcoder.setCompressionThreshold(uncompressed.getData().length / 2);
+        final CachedData compressed = transcoder.encode(tgt);
+        assertEquals(KryoTranscoder.COMPRESSED, compressed.getFlags());
+        assertTrue(compressed.getData().length < uncompressed.getData().length);
+        final TicketGrantingTicket result = (TicketGrantingTicket) transcoder.decode(compressed);
+        assertEquals(tgt, result);
+        assertEquals(attributes, result.getAuthentication().getPrincipal().getAttributes());
+        assertEquals(tgt, transcoder.decode(uncompressed));
+    }
+
+    @Test
+    public void verifyConcurrentEncodeDecode() throws Exception {
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            final List<Future<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                final int thread = i;
+                results.add(executor.submit((Callable<Boolean>) () -> {
+                    for (int j = 0; j < 200; j++) {
+                        final Map<String, Object> attributes = Collections.singletonMap(NICKNAME_KEY, NICKNAME_VALUE + thread + j);
+                        final TicketGrantingTicket tgt = new TicketGrantingTicketImpl(TGT_ID + thread + j,
+                                CoreAuthenticationTestUtils.getAuthentication(CoreAuthenticationTestUtils.getPrincipal(USERNAME, attributes)),
+                                new NeverExpiresExpirationPolicy());
+                        final TicketGrantingTicket result = (TicketGrantingTicket) transcoder.decode(transcoder.encode(tgt));
+                        if (!tgt.equals(result) || !attributes.equals(result.getAuthentication().getPrincipal().getAttributes())) {
+                            return false;
+                        }
+                    }
+                    return true;
+                }));
+            }
+            for (final Future<Boolean> result : results) {
+                assertTrue(result.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
 }
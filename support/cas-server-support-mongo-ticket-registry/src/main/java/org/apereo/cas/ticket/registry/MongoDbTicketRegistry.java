@@ -6,15 +6,25 @@ import org.apereo.cas.ticket.BaseTicketSerializers;
 import org.apereo.cas.ticket.Ticket;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.mongodb.core.MongoOperations;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.util.CloseableIterator;
 import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
 
 import javax.annotation.PostConstruct;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * A Ticket Registry storage backend based on MongoDB.
@@ -72,7 +82,8 @@ public class MongoDbTicketRegistry extends AbstractTicketRegistry {
         try {
             final TicketHolder holder = buildTicketAsDocument(ticket);
             this.mongoTemplate.updateFirst(new Query(Criteria.where(TicketHolder.FIELD_NAME_ID).is(holder.getTicketId())),
-                    Update.update(TicketHolder.FIELD_NAME_JSON, holder.getJson()), this.collectionName);
+                    Update.update(TicketHolder.FIELD_NAME_JSON, holder.getJson())
+                            .set(TicketHolder.FIELD_NAME_EXPIRE_AT, holder.getExpireAt()), this.collectionName);
         } catch (final Exception e) {
             LOGGER.error("Failed updating [{}]: [{}]", ticket, e);
         }
@@ -115,6 +126,59 @@ public class MongoDbTicketRegistry extends AbstractTicketRegistry {
         return c.stream().map(this::deserializeTicketFromMongoDocument).collect(Collectors.toSet());
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Documents are read through a database cursor as the stream is consumed. The type filter is pushed
+     * down to the query as the set of stored ticket classes that match the type, and when only expired
+     * tickets are requested, only documents whose expiration check is due are examined.
+     * The cursor is held on to until the stream is closed.
+     */
+    @Override
+    public <T extends Ticket> Stream<T> stream(final Class<T> type, final boolean expiredOnly) {
+        final Query query = new Query();
+        if (!type.isAssignableFrom(Ticket.class)) {
+            query.addCriteria(Criteria.where(TicketHolder.FIELD_NAME_TYPE).in(getTicketTypeNames(type)));
+        }
+        if (expiredOnly) {
+            query.addCriteria(Criteria.where(TicketHolder.FIELD_NAME_EXPIRE_AT).lte(System.currentTimeMillis()));
+        }
+        final CloseableIterator<TicketHolder> holders = this.mongoTemplate.stream(query, TicketHolder.class, this.collectionName);
+        final Stream<Ticket> tickets = StreamSupport.stream(Spliterators.spliteratorUnknownSize(holders,
+                Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .map(this::deserializeTicketFromMongoDocument);
+        return decodeTickets(tickets, type, expiredOnly).onClose(holders::close);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Only documents whose expiration check is due are examined. Documents that are due
+     * but whose ticket is not expired yet are rescheduled, so the next page always
+     * starts with the earliest check time and carries no cursor.
+     */
+    @Override
+    public ExpiredTicketPage getExpiredTickets(final String cursor, final int limit) {
+        final Instant now = Instant.now();
+        final Query query = new Query(Criteria.where(TicketHolder.FIELD_NAME_EXPIRE_AT).lte(now.toEpochMilli()))
+                .with(new Sort(Sort.Direction.ASC, TicketHolder.FIELD_NAME_EXPIRE_AT))
+                .limit(limit);
+        final List<TicketHolder> holders = this.mongoTemplate.find(query, TicketHolder.class, this.collectionName);
+        final List<Ticket> expired = new ArrayList<>(holders.size());
+        holders.forEach(holder -> {
+            final Ticket ticket = deserializeTicketFromMongoDocument(holder);
+            if (ticket.isExpired()) {
+                expired.add(ticket);
+            } else {
+                final long checkTime = Math.max(TicketExpirationIndex.getCheckTime(ticket, now), now.toEpochMilli() + 1);
+                this.mongoTemplate.updateFirst(new Query(Criteria.where(TicketHolder.FIELD_NAME_ID).is(holder.getTicketId())),
+                        Update.update(TicketHolder.FIELD_NAME_EXPIRE_AT, checkTime), this.collectionName);
+            }
+        });
+        LOGGER.debug("Examined [{}] tickets due for an expiration check and found [{}] expired", holders.size(), expired.size());
+        return new ExpiredTicketPage(expired, holders.size(), null);
+    }
+
     @Override
     public long sessionCount() {
         return 0;
@@ -145,8 +209,19 @@ public class MongoDbTicketRegistry extends AbstractTicketRegistry {
         return count;
     }
 
-    private int getTimeToLive(final Ticket ticket) {
-        return ticket.getExpirationPolicy().getTimeToLive().intValue();
+    /**
+     * Gets the names of the ticket classes stored in the collection that are of the given type.
+     *
+     * @param type the ticket type
+     * @return the class names
+     */
+    private List<String> getTicketTypeNames(final Class<? extends Ticket> type) {
+        final List<?> names = this.mongoTemplate.getCollection(this.collectionName).distinct(TicketHolder.FIELD_NAME_TYPE);
+        return names.stream()
+                .map(String.class::cast)
+                .filter(name -> ClassUtils.isPresent(name, getClass().getClassLoader())
+                        && type.isAssignableFrom(ClassUtils.resolveClassName(name, getClass().getClassLoader())))
+                .collect(Collectors.toList());
     }
 
     private String serializeTicketForMongoDocument(final Ticket ticket) {
@@ -159,7 +234,8 @@ public class MongoDbTicketRegistry extends AbstractTicketRegistry {
 
     private TicketHolder buildTicketAsDocument(final Ticket ticket) {
         final String json = serializeTicketForMongoDocument(ticket);
-        return new TicketHolder(json, ticket.getId(), ticket.getClass().getName(), getTimeToLive(ticket));
+        return new TicketHolder(json, ticket.getId(), ticket.getClass().getName(),
+                TicketExpirationIndex.getCheckTime(ticket, Instant.now()));
     }
 }
 
@@ -14,11 +14,14 @@ public class TicketHolder implements Serializable {
     /** Field name to hold ticket json data. */
     public static final String FIELD_NAME_JSON = "json";
 
-    /** Field name to hold ticket expiration time. */
+    /** Field name to hold the time, in epoch milliseconds, at which the ticket is next checked for expiration. */
     public static final String FIELD_NAME_EXPIRE_AT = "expireAt";
 
     /** Field name to hold ticket id. */
     public static final String FIELD_NAME_ID= "ticketId";
+
+    /** Field name to hold the ticket implementation class name. */
+    public static final String FIELD_NAME_TYPE = "type";
     
     private static final long serialVersionUID = -4843440028617071224L;
     
@@ -3,10 +3,12 @@ package org.apereo.cas.config;
 import org.apereo.cas.configuration.CasConfigurationProperties;
 import org.apereo.cas.configuration.model.support.redis.RedisTicketRegistryProperties;
 import org.apereo.cas.configuration.support.Beans;
+import org.apereo.cas.ticket.TicketCatalog;
 import org.apereo.cas.ticket.registry.RedisTicketRegistry;
 import org.apereo.cas.ticket.registry.TicketRedisTemplate;
 import org.apereo.cas.ticket.registry.TicketRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.cloud.context.config.annotation.RefreshScope;
 import org.springframework.context.annotation.Bean;
@@ -27,6 +29,10 @@ public class RedisTicketRegistryConfiguration {
 
     @Autowired
     private CasConfigurationProperties casProperties;
+
+    @Autowired(required = false)
+    @Qualifier("ticketCatalog")
+    private TicketCatalog ticketCatalog;
     
     @Bean
     @RefreshScope
@@ -70,8 +76,9 @@ public class RedisTicketRegistryConfiguration {
     @RefreshScope
     public TicketRegistry ticketRegistry() {
         final RedisTicketRegistryProperties redis = casProperties.getTicket().getRegistry().getRedis();
-        final RedisTicketRegistry r = new RedisTicketRegistry(ticketRedisTemplate());
+        final RedisTicketRegistry r = new RedisTicketRegistry(ticketRedisTemplate(), redis.getScanCount(), this.ticketCatalog);
         r.setCipherExecutor(Beans.newTicketRegistryCipherExecutor(redis.getCrypto()));
+        r.setStoreGrantingTicketById(casProperties.getTicket().getRegistry().isStoreGrantingTicketById());
         return r;
     }
 }
@@ -1,48 +1,105 @@
 package org.apereo.cas.ticket.registry;
 
+import com.google.common.collect.Iterators;
+import org.apereo.cas.ticket.ServiceTicket;
 import org.apereo.cas.ticket.Ticket;
+import org.apereo.cas.ticket.TicketCatalog;
+import org.apereo.cas.ticket.TicketGrantingTicket;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisConnectionUtils;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.util.Assert;
 
 import javax.validation.constraints.NotNull;
 import java.util.Collection;
-import java.util.HashSet;
-import java.util.Set;
-import java.util.concurrent.TimeUnit;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Key-value ticket registry implementation that stores tickets in redis keyed on the ticket ID.
+ * <p>
+ * The keyspace is iterated with {@code SCAN} rather than {@code KEYS}, and tickets are fetched and removed
+ * in batches. The registry also keeps a sorted set of ticket keys per ticket type, scored by the time at
+ * which each key expires, from which the number of sessions and service tickets is counted.
  *
  * @author serv
  * @since 5.1.0
  */
 public class RedisTicketRegistry extends AbstractTicketRegistry {
+    /**
+     * Default number of keys fetched per {@code SCAN} iteration.
+     */
+    public static final int DEFAULT_SCAN_COUNT = 1000;
+
     private static final Logger LOGGER = LoggerFactory.getLogger(RedisTicketRegistry.class);
-    
+
     private static final String CAS_TICKET_PREFIX = "CAS_TICKET:";
 
+    private static final String CAS_TICKET_COUNT_PREFIX = "CAS_TICKET_COUNT:";
+
+    private static final String TICKET_GRANTING_TICKETS_KEY = CAS_TICKET_COUNT_PREFIX + TicketGrantingTicket.PREFIX;
+
+    private static final String SERVICE_TICKETS_KEY = CAS_TICKET_COUNT_PREFIX + ServiceTicket.PREFIX;
+
     @NotNull
     private final TicketRedisTemplate client;
 
+    private final int scanCount;
+
+    private final TicketCatalog ticketCatalog;
+
     public RedisTicketRegistry(final TicketRedisTemplate client) {
+        this(client, DEFAULT_SCAN_COUNT);
+    }
+
+    public RedisTicketRegistry(final TicketRedisTemplate client, final int scanCount) {
+        this(client, scanCount, null);
+    }
+
+    public RedisTicketRegistry(final TicketRedisTemplate client, final int scanCount, final TicketCatalog ticketCatalog) {
         this.client = client;
+        this.scanCount = scanCount;
+        this.ticketCatalog = ticketCatalog;
     }
 
     @Override
     public long deleteAll() {
-        final Set<String> redisKeys = this.client.keys(getPatternTicketRedisKey());
-        final int size = redisKeys.size();
-        this.client.delete(redisKeys);
-        return size;
+        Assert.notNull(this.client, "No redis client is defined.");
+        return this.client.execute((RedisCallback<Long>) connection -> {
+            long count = 0;
+            final Iterator<List<byte[]>> batches = Iterators.partition(connection.scan(getScanOptions()), this.scanCount);
+            while (batches.hasNext()) {
+                final List<byte[]> keys = batches.next();
+                count += connection.del(keys.toArray(new byte[keys.size()][]));
+            }
+            connection.del(serializeKey(TICKET_GRANTING_TICKETS_KEY), serializeKey(SERVICE_TICKETS_KEY));
+            return count;
+        });
     }
-    
+
     @Override
     public boolean deleteSingleTicket(final String ticketId) {
         Assert.notNull(this.client, "No redis client is defined.");
         try {
-            final String redisKey = getTicketRedisKey(ticketId);
-            this.client.delete(redisKey);
+            final byte[] redisKey = serializeKey(getTicketRedisKey(ticketId));
+            this.client.executePipelined((RedisCallback<Object>) connection -> {
+                connection.del(redisKey);
+                connection.zRem(serializeKey(TICKET_GRANTING_TICKETS_KEY), redisKey);
+                connection.zRem(serializeKey(SERVICE_TICKETS_KEY), redisKey);
+                return null;
+            });
             return true;
         } catch (final Exception e) {
             LOGGER.error("Ticket not found or is already removed. Failed deleting [{}]", ticketId, e);
@@ -50,22 +107,28 @@ public class RedisTicketRegistry extends AbstractTicketRegistry {
         return false;
     }
 
-
     @Override
     public void addTicket(final Ticket ticket) {
         Assert.notNull(this.client, "No redis client is defined.");
         try {
             LOGGER.debug("Adding ticket [{}]", ticket);
-            final String redisKey = this.getTicketRedisKey(ticket.getId());
-            // Encode first, then add
-            final Ticket encodeTicket = this.encodeTicket(ticket);
-            this.client.boundValueOps(redisKey)
-                    .set(encodeTicket, getTimeout(ticket), TimeUnit.SECONDS);
+            writeTickets(ticket);
         } catch (final Exception e) {
             LOGGER.error("Failed to add [{}]", ticket);
         }
     }
 
+    @Override
+    public void addTicketAndUpdateParent(final Ticket ticket, final Ticket parent) {
+        Assert.notNull(this.client, "No redis client is defined.");
+        try {
+            LOGGER.debug("Updating ticket [{}] and adding ticket [{}]", parent, ticket);
+            writeTickets(parent, ticket);
+        } catch (final Exception e) {
+            LOGGER.error("Failed to update [{}] and add [{}]", parent, ticket);
+        }
+    }
+
     @Override
     public Ticket getTicket(final String ticketId) {
         Assert.notNull(this.client, "No redis client is defined.");
@@ -84,20 +147,45 @@ public class RedisTicketRegistry extends AbstractTicketRegistry {
 
     @Override
     public Collection<Ticket> getTickets() {
-        Assert.notNull(this.client, "No redis client is defined.");
+        try (Stream<Ticket> tickets = stream()) {
+            return tickets.collect(Collectors.toSet());
+        }
+    }
 
-        final Set<Ticket> tickets = new HashSet<>();
-        final Set<String> redisKeys = this.client.keys(this.getPatternTicketRedisKey());
-        redisKeys.forEach(redisKey -> {
-            final Ticket ticket = this.client.boundValueOps(redisKey).get();
-            if (ticket == null) {
-                this.client.delete(redisKey);
-            } else {
-                // Decoding add first
-                tickets.add(this.decodeTicket(ticket));
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The keyspace is iterated with {@code SCAN}, and tickets are fetched with {@code MGET} for each batch
+     * of keys as the stream is consumed. When the ticket catalog is known and ticket ids are not encoded,
+     * the type filter is pushed down to the key pattern, so that tickets of other types are never fetched.
+     * Expired tickets are evicted by redis itself, so the expiration filter is applied as tickets are decoded.
+     * The stream holds on to a redis connection until it is closed. Since {@code SCAN} keeps no state on the server,
+     * the cursor itself needs no cleanup; closing it would close the underlying connection as well.
+     */
+    @Override
+    public <T extends Ticket> Stream<T> stream(final Class<T> type, final boolean expiredOnly) {
+        Assert.notNull(this.client, "No redis client is defined.");
+        final List<String> keyPrefixes = getTicketRedisKeyPrefixes(type);
+        final String pattern = keyPrefixes.size() == 1 ? keyPrefixes.get(0) + '*' : getPatternTicketRedisKey();
+        final RedisConnectionFactory factory = this.client.getConnectionFactory();
+        final RedisConnection connection = RedisConnectionUtils.getConnection(factory);
+        try {
+            Iterator<byte[]> keys = connection.scan(getScanOptions(pattern));
+            if (keyPrefixes.size() > 1) {
+                keys = Iterators.filter(keys, key -> keyPrefixes.stream().anyMatch(deserializeKey(key)::startsWith));
             }
-        });
-        return tickets;
+            final Iterator<List<byte[]>> batches = Iterators.partition(keys, this.scanCount);
+            final Stream<Ticket> tickets = StreamSupport.stream(Spliterators.spliteratorUnknownSize(batches,
+                    Spliterator.ORDERED | Spliterator.NONNULL), false)
+                    .flatMap(batch -> connection.mGet(batch.toArray(new byte[batch.size()][])).stream())
+                    .filter(Objects::nonNull)
+                    .map(value -> getValueSerializer().deserialize(value));
+            return decodeTickets(tickets, type, expiredOnly)
+                    .onClose(() -> RedisConnectionUtils.releaseConnection(connection, factory));
+        } catch (final RuntimeException e) {
+            RedisConnectionUtils.releaseConnection(connection, factory);
+            throw e;
+        }
     }
 
     @Override
@@ -105,16 +193,107 @@ public class RedisTicketRegistry extends AbstractTicketRegistry {
         Assert.notNull(this.client, "No redis client is defined.");
         try {
             LOGGER.debug("Updating ticket [{}]", ticket);
-            final Ticket encodeTicket = this.encodeTicket(ticket);
-            final String redisKey = this.getTicketRedisKey(ticket.getId());
-            this.client.boundValueOps(redisKey).set(encodeTicket, getTimeout(ticket), TimeUnit.SECONDS);
-            return encodeTicket;
+            return writeTickets(ticket)[0];
         } catch (final Exception e) {
             LOGGER.error("Failed to update [{}]", ticket);
         }
         return null;
     }
 
+    @Override
+    public long sessionCount() {
+        return countTickets(TICKET_GRANTING_TICKETS_KEY);
+    }
+
+    @Override
+    public long serviceTicketCount() {
+        return countTickets(SERVICE_TICKETS_KEY);
+    }
+
+    /**
+     * Write the tickets in a single pipeline, along with their entries in the ticket counts.
+     *
+     * @param tickets the tickets
+     * @return the encoded tickets, as stored
+     */
+    private Ticket[] writeTickets(final Ticket... tickets) {
+        final Ticket[] encodedTickets = new Ticket[tickets.length];
+        final byte[][] keys = new byte[tickets.length][];
+        final byte[][] values = new byte[tickets.length][];
+        for (int i = 0; i < tickets.length; i++) {
+            encodedTickets[i] = this.encodeTicket(tickets[i]);
+            keys[i] = serializeKey(getTicketRedisKey(tickets[i].getId()));
+            values[i] = getValueSerializer().serialize(encodedTickets[i]);
+        }
+        final long now = System.currentTimeMillis();
+        this.client.executePipelined((RedisCallback<Object>) connection -> {
+            for (int i = 0; i < tickets.length; i++) {
+                final int timeout = getTimeout(tickets[i]);
+                connection.setEx(keys[i], timeout, values[i]);
+                final String countKey = getCountRedisKey(tickets[i]);
+                if (countKey != null) {
+                    final byte[] rawCountKey = serializeKey(countKey);
+                    connection.zAdd(rawCountKey, now + timeout * 1000D, keys[i]);
+                    connection.zRemRangeByScore(rawCountKey, 0, now);
+                }
+            }
+            return null;
+        });
+        return encodedTickets;
+    }
+
+    private long countTickets(final String countKey) {
+        Assert.notNull(this.client, "No redis client is defined.");
+        final byte[] rawCountKey = serializeKey(countKey);
+        return this.client.execute((RedisCallback<Long>) connection -> {
+            connection.zRemRangeByScore(rawCountKey, 0, System.currentTimeMillis());
+            return connection.zCard(rawCountKey);
+        });
+    }
+
+    private ScanOptions getScanOptions() {
+        return getScanOptions(getPatternTicketRedisKey());
+    }
+
+    private ScanOptions getScanOptions(final String pattern) {
+        return ScanOptions.scanOptions().match(pattern).count(this.scanCount).build();
+    }
+
+    /**
+     * Gets the key prefixes under which tickets of the given type are stored, based on the prefixes of the
+     * ticket definitions in the catalog whose implementation is compatible with the type.
+     *
+     * @param type the ticket type
+     * @return the key prefixes, or an empty list if all keys are to be examined
+     */
+    private List<String> getTicketRedisKeyPrefixes(final Class<? extends Ticket> type) {
+        if (this.ticketCatalog == null || isCipherExecutorEnabled() || type.isAssignableFrom(Ticket.class)) {
+            return Collections.emptyList();
+        }
+        final List<String> prefixes = this.ticketCatalog.findAll().stream()
+                .filter(definition -> type.isAssignableFrom(definition.getImplementationClass())
+                        || definition.getImplementationClass().isAssignableFrom(type))
+                .map(definition -> getTicketRedisKey(definition.getPrefix()))
+                .distinct()
+                .collect(Collectors.toList());
+        return prefixes;
+    }
+
+    @SuppressWarnings("unchecked")
+    private String deserializeKey(final byte[] key) {
+        return ((RedisSerializer<String>) this.client.getKeySerializer()).deserialize(key);
+    }
+
+    @SuppressWarnings("unchecked")
+    private byte[] serializeKey(final String key) {
+        return ((RedisSerializer<String>) this.client.getKeySerializer()).serialize(key);
+    }
+
+    @SuppressWarnings("unchecked")
+    private RedisSerializer<Ticket> getValueSerializer() {
+        return (RedisSerializer<Ticket>) this.client.getValueSerializer();
+    }
+
     /**
      * If not time out value is specified, expire the ticket immediately.
      *
@@ -129,6 +308,16 @@ public class RedisTicketRegistry extends AbstractTicketRegistry {
         return ttl;
     }
 
+    private static String getCountRedisKey(final Ticket ticket) {
+        if (ticket instanceof TicketGrantingTicket) {
+            return TICKET_GRANTING_TICKETS_KEY;
+        }
+        if (ticket instanceof ServiceTicket) {
+            return SERVICE_TICKETS_KEY;
+        }
+        return null;
+    }
+
     // Add a prefix as the key of redis
     private String getTicketRedisKey(final String ticketId) {
         return CAS_TICKET_PREFIX + ticketId;
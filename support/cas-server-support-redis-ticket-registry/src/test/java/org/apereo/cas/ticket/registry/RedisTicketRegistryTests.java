@@ -1,8 +1,21 @@
 package org.apereo.cas.ticket.registry;
 
+import org.apereo.cas.authentication.CoreAuthenticationTestUtils;
 import org.apereo.cas.config.RedisTicketRegistryConfiguration;
+import org.apereo.cas.services.RegisteredServiceTestUtils;
+import org.apereo.cas.ticket.DefaultTicketCatalog;
+import org.apereo.cas.ticket.DefaultTicketDefinition;
+import org.apereo.cas.ticket.ProxyTicketImpl;
+import org.apereo.cas.ticket.ServiceTicket;
+import org.apereo.cas.ticket.ServiceTicketImpl;
+import org.apereo.cas.ticket.TicketCatalog;
+import org.apereo.cas.ticket.TicketGrantingTicket;
+import org.apereo.cas.ticket.TicketGrantingTicketImpl;
+import org.apereo.cas.ticket.proxy.ProxyTicket;
+import org.apereo.cas.ticket.support.HardTimeoutExpirationPolicy;
 import org.junit.AfterClass;
 import org.junit.BeforeClass;
+import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
@@ -12,6 +25,10 @@ import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.context.junit4.SpringRunner;
 import redis.embedded.RedisServer;
 
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
 /**
  * Unit test for {@link RedisTicketRegistry}.
  *
@@ -29,6 +46,10 @@ public class RedisTicketRegistryTests extends AbstractTicketRegistryTests {
     @Qualifier("ticketRegistry")
     private TicketRegistry ticketRegistry;
 
+    @Autowired
+    @Qualifier("ticketRedisTemplate")
+    private TicketRedisTemplate ticketRedisTemplate;
+
     @BeforeClass
     public static void startRedis() throws Exception {
         REDIS_SERVER = new RedisServer(6379);
@@ -44,4 +65,57 @@ public class RedisTicketRegistryTests extends AbstractTicketRegistryTests {
     public TicketRegistry getNewTicketRegistry() throws Exception {
         return this.ticketRegistry;
     }
+
+    @Test
+    public void verifyTicketsAreCountedAndScanned() {
+        final TicketRegistry registry = new RedisTicketRegistry(this.ticketRedisTemplate, 3);
+        registry.deleteAll();
+        for (int i = 0; i < 10; i++) {
+            final TicketGrantingTicket tgt = new TicketGrantingTicketImpl("TGT-" + i,
+                    CoreAuthenticationTestUtils.getAuthentication(), new HardTimeoutExpirationPolicy(60));
+            final ServiceTicket st = tgt.grantServiceTicket("ST-" + i, RegisteredServiceTestUtils.getService(),
+                    new HardTimeoutExpirationPolicy(60), false, true);
+            registry.addTicket(tgt);
+            registry.addTicketAndUpdateParent(st, tgt);
+        }
+        assertEquals(10, registry.sessionCount());
+        assertEquals(10, registry.serviceTicketCount());
+        assertEquals(20, registry.getTickets().size());
+        assertEquals(1, registry.getTicket("TGT-0", TicketGrantingTicket.class).getServices().size());
+
+        assertEquals(2, registry.deleteTicket("TGT-0"));
+        assertEquals(9, registry.sessionCount());
+        assertEquals(9, registry.serviceTicketCount());
+
+        assertEquals(18, registry.deleteAll());
+        assertEquals(0, registry.sessionCount());
+        assertTrue(registry.getTickets().isEmpty());
+    }
+
+    @Test
+    public void verifyStreamedTicketsAreFilteredByKeyPrefix() {
+        final TicketCatalog catalog = new DefaultTicketCatalog();
+        catalog.register(new DefaultTicketDefinition(TicketGrantingTicketImpl.class, TicketGrantingTicket.PREFIX));
+        catalog.register(new DefaultTicketDefinition(ServiceTicketImpl.class, ServiceTicket.PREFIX));
+        catalog.register(new DefaultTicketDefinition(ProxyTicketImpl.class, ProxyTicket.PROXY_TICKET_PREFIX));
+        final TicketRegistry registry = new RedisTicketRegistry(this.ticketRedisTemplate, 3, catalog);
+        registry.deleteAll();
+        for (int i = 0; i < 10; i++) {
+            final TicketGrantingTicket tgt = new TicketGrantingTicketImpl("TGT-" + i,
+                    CoreAuthenticationTestUtils.getAuthentication(), new HardTimeoutExpirationPolicy(60));
+            final ServiceTicket st = tgt.grantServiceTicket("ST-" + i, RegisteredServiceTestUtils.getService(),
+                    new HardTimeoutExpirationPolicy(60), false, true);
+            registry.addTicketAndUpdateParent(st, tgt);
+        }
+        try (Stream<TicketGrantingTicket> tickets = registry.stream(TicketGrantingTicket.class, false)) {
+            assertEquals(10, tickets.count());
+        }
+        try (Stream<ServiceTicket> tickets = registry.stream(ServiceTicket.class, false)) {
+            assertEquals(10, tickets.count());
+        }
+        try (Stream<ProxyTicket> tickets = registry.stream(ProxyTicket.class, false)) {
+            assertEquals(0, tickets.count());
+        }
+        assertEquals(20, registry.deleteAll());
+    }
 }
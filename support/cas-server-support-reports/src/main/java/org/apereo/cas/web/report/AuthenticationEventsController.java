@@ -1,8 +1,12 @@
 package org.apereo.cas.web.report;
 
 import org.apereo.cas.configuration.CasConfigurationProperties;
+import org.apereo.cas.support.events.authentication.CasAuthenticationPolicyFailureEvent;
+import org.apereo.cas.support.events.authentication.CasAuthenticationTransactionFailureEvent;
+import org.apereo.cas.support.events.authentication.adaptive.CasRiskyAuthenticationDetectedEvent;
 import org.apereo.cas.support.events.dao.CasEvent;
 import org.apereo.cas.support.events.CasEventRepository;
+import org.apereo.cas.support.events.ticket.CasTicketGrantingTicketCreatedEvent;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.ResponseBody;
@@ -10,7 +14,15 @@ import org.springframework.web.servlet.ModelAndView;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
 import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * This is {@link AuthenticationEventsController}.
@@ -21,6 +33,10 @@ import java.util.Collection;
 @ConditionalOnClass(value = CasEventRepository.class)
 public class AuthenticationEventsController extends BaseCasMvcEndpoint {
 
+    private static final List<Class<?>> EVENT_TYPES = Stream.of(CasTicketGrantingTicketCreatedEvent.class,
+            CasAuthenticationTransactionFailureEvent.class, CasAuthenticationPolicyFailureEvent.class,
+            CasRiskyAuthenticationDetectedEvent.class).collect(Collectors.toList());
+
     private CasEventRepository eventRepository;
 
     public AuthenticationEventsController(final CasEventRepository eventRepository, final CasConfigurationProperties casProperties) {
@@ -57,4 +73,27 @@ public class AuthenticationEventsController extends BaseCasMvcEndpoint {
         ensureEndpointAccessIsAuthorized(request, response);
         return this.eventRepository.load();
     }
+
+    /**
+     * Gets the number of events of each type created by the hour, over the last day.
+     * Events are counted by the repository, and not loaded.
+     *
+     * @param request  the request
+     * @param response the response
+     * @return the count of events by hour, keyed by the simple name of the event type
+     * @throws Exception the exception
+     */
+    @GetMapping(value = "/getEventCounts")
+    @ResponseBody
+    public Map<String, Map<String, Long>> getEventCounts(final HttpServletRequest request, final HttpServletResponse response) throws Exception {
+        ensureEndpointAccessIsAuthorized(request, response);
+        final ZonedDateTime since = ZonedDateTime.now(ZoneOffset.UTC).minusDays(1);
+        final Map<String, Map<String, Long>> counts = new LinkedHashMap<>();
+        EVENT_TYPES.forEach(type -> {
+            final Map<String, Long> hours = new TreeMap<>();
+            this.eventRepository.countEventsOfType(type.getName(), since).forEach((hour, count) -> hours.put(hour.toString(), count));
+            counts.put(type.getSimpleName(), hours);
+        });
+        return counts;
+    }
 }
@@ -0,0 +1,178 @@
+package org.apereo.cas.support.saml.web.idp.profile.builders.enc;
+
+import net.shibboleth.utilities.java.support.security.SelfSignedCertificateGenerator;
+import net.shibboleth.utilities.java.support.xml.BasicParserPool;
+import org.apereo.cas.configuration.CasConfigurationProperties;
+import org.apereo.cas.configuration.model.support.saml.idp.SamlIdPProperties;
+import org.apereo.cas.support.saml.services.SamlRegisteredService;
+import org.apereo.cas.support.saml.services.idp.metadata.SamlMetadataEntityIndex;
+import org.apereo.cas.support.saml.services.idp.metadata.SamlRegisteredServiceServiceProviderMetadataFacade;
+import org.apereo.cas.support.saml.services.idp.metadata.cache.SamlRegisteredServiceCachingMetadataResolver;
+import org.joda.time.DateTime;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.opensaml.core.config.InitializationService;
+import org.opensaml.core.xml.config.XMLObjectProviderRegistrySupport;
+import org.opensaml.saml.common.SAMLVersion;
+import org.opensaml.saml.metadata.resolver.ChainingMetadataResolver;
+import org.opensaml.saml.metadata.resolver.impl.DOMMetadataResolver;
+import org.opensaml.saml.saml2.core.Issuer;
+import org.opensaml.saml.saml2.core.Response;
+import org.opensaml.saml.saml2.core.Status;
+import org.opensaml.saml.saml2.core.StatusCode;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.util.FileSystemUtils;
+import org.springframework.util.ReflectionUtils;
+
+import javax.xml.namespace.QName;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of signing a SAML2 response with the {@link BaseSamlObjectSigner}, end to end from
+ * preparing the outbound context to the signed response. The {@code reused} benchmark signs with a single signer
+ * as the IdP does, which reuses its handlers, signing configuration and signing parameters across responses.
+ * The {@code fresh} benchmark creates a new signer for every response, which resolves all of them again as was
+ * the case before they were cached.
+ *
+ * @author Misagh Moayyed
+ * @since 5.1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BaseSamlObjectSignerBenchmark {
+
+    private static final String ENTITY_ID = "https://sp.example.org/shibboleth";
+
+    private static final String SP_METADATA = "<EntityDescriptor xmlns=\"urn:oasis:names:tc:SAML:2.0:metadata\" entityID=\""
+            + ENTITY_ID + "\"><SPSSODescriptor protocolSupportEnumeration=\"urn:oasis:names:tc:SAML:2.0:protocol\">"
+            + "<AssertionConsumerService Binding=\"urn:oasis:names:tc:SAML:2.0:bindings:HTTP-POST\" "
+            + "Location=\"https://sp.example.org/Shibboleth.sso/SAML2/POST\" index=\"1\"/>"
+            + "</SPSSODescriptor></EntityDescriptor>";
+
+    private File metadataLocation;
+
+    private CasConfigurationProperties casProperties;
+
+    private BaseSamlObjectSigner signer;
+
+    private SamlRegisteredServiceServiceProviderMetadataFacade adaptor;
+
+    private SamlRegisteredService service;
+
+    @Setup
+    public void setup() throws Exception {
+        InitializationService.initialize();
+
+        this.metadataLocation = Files.createTempDirectory("saml-idp").toFile();
+        this.casProperties = new CasConfigurationProperties();
+        this.casProperties.getAuthn().getSamlIdp().getMetadata().setLocation(new FileSystemResource(this.metadataLocation));
+
+        final SelfSignedCertificateGenerator generator = new SelfSignedCertificateGenerator();
+        generator.setHostName("cas.example.org");
+        generator.setCertificateFile(this.casProperties.getAuthn().getSamlIdp().getMetadata().getSigningCertFile().getFile());
+        generator.setPrivateKeyFile(this.casProperties.getAuthn().getSamlIdp().getMetadata().getSigningKeyFile().getFile());
+        generator.generate();
+
+        final BasicParserPool parserPool = new BasicParserPool();
+        parserPool.initialize();
+        final DOMMetadataResolver metadataResolver = new DOMMetadataResolver(parserPool.parse(
+                new ByteArrayInputStream(SP_METADATA.getBytes(StandardCharsets.UTF_8))).getDocumentElement());
+        metadataResolver.setId(DOMMetadataResolver.class.getName());
+        metadataResolver.setParserPool(parserPool);
+        metadataResolver.initialize();
+        final ChainingMetadataResolver chainingMetadataResolver = new ChainingMetadataResolver();
+        chainingMetadataResolver.setId(ChainingMetadataResolver.class.getName());
+        chainingMetadataResolver.setResolvers(Collections.singletonList(metadataResolver));
+        chainingMetadataResolver.initialize();
+        final SamlMetadataEntityIndex index = new SamlMetadataEntityIndex(chainingMetadataResolver);
+
+        this.service = new SamlRegisteredService();
+        this.service.setName("SAML");
+        this.service.setServiceId(ENTITY_ID);
+        this.service.setMetadataLocation("classpath:sp-metadata.xml");
+        this.adaptor = SamlRegisteredServiceServiceProviderMetadataFacade.get(new SamlRegisteredServiceCachingMetadataResolver() {
+            @Override
+            public ChainingMetadataResolver resolve(final SamlRegisteredService service) {
+                return chainingMetadataResolver;
+            }
+
+            @Override
+            public SamlMetadataEntityIndex resolveEntityIndex(final SamlRegisteredService service) {
+                return index;
+            }
+        }, this.service, ENTITY_ID);
+
+        this.signer = newSigner();
+    }
+
+    @TearDown
+    public void tearDown() {
+        FileSystemUtils.deleteRecursively(this.metadataLocation);
+    }
+
+    @Benchmark
+    public Response reused() {
+        return this.signer.encode(newResponse(), this.service, this.adaptor, null, null);
+    }
+
+    @Benchmark
+    public Response fresh() {
+        return newSigner().encode(newResponse(), this.service, this.adaptor, null, null);
+    }
+
+    private BaseSamlObjectSigner newSigner() {
+        final SamlIdPProperties.Algorithms algs = this.casProperties.getAuthn().getSamlIdp().getAlgs();
+        final BaseSamlObjectSigner samlObjectSigner = new BaseSamlObjectSigner(
+                algs.getOverrideSignatureReferenceDigestMethods(),
+                algs.getOverrideSignatureAlgorithms(),
+                algs.getOverrideBlackListedSignatureSigningAlgorithms(),
+                algs.getOverrideWhiteListedSignatureSigningAlgorithms());
+        final Field field = ReflectionUtils.findField(BaseSamlObjectSigner.class, "casProperties");
+        ReflectionUtils.makeAccessible(field);
+        ReflectionUtils.setField(field, samlObjectSigner, this.casProperties);
+        return samlObjectSigner;
+    }
+
+    private static Response newResponse() {
+        final Response response = build(Response.DEFAULT_ELEMENT_NAME);
+        response.setID('_' + UUID.randomUUID().toString());
+        response.setVersion(SAMLVersion.VERSION_20);
+        response.setIssueInstant(DateTime.now());
+        response.setDestination("https://sp.example.org/Shibboleth.sso/SAML2/POST");
+
+        final Issuer issuer = build(Issuer.DEFAULT_ELEMENT_NAME);
+        issuer.setValue("https://cas.example.org/idp");
+        response.setIssuer(issuer);
+
+        final StatusCode statusCode = build(StatusCode.DEFAULT_ELEMENT_NAME);
+        statusCode.setValue(StatusCode.SUCCESS);
+        final Status status = build(Status.DEFAULT_ELEMENT_NAME);
+        status.setStatusCode(statusCode);
+        response.setStatus(status);
+        return response;
+    }
+
+    private static <T> T build(final QName name) {
+        return (T) XMLObjectProviderRegistrySupport.getBuilderFactory().getBuilder(name).buildObject(name);
+    }
+}
@@ -0,0 +1,179 @@
+package org.apereo.cas.support.saml.services.idp.metadata;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import net.shibboleth.utilities.java.support.resolver.CriteriaSet;
+import org.joda.time.DateTime;
+import org.opensaml.saml.metadata.IterableMetadataSource;
+import org.opensaml.saml.metadata.resolver.ChainingMetadataResolver;
+import org.opensaml.saml.metadata.resolver.MetadataResolver;
+import org.opensaml.saml.saml2.common.SAML2Support;
+import org.opensaml.saml.saml2.metadata.EntityDescriptor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * This is {@link SamlMetadataEntityIndex} that indexes the entity descriptors found in a metadata resolver chain
+ * by their entity id, and caches the {@link SamlRegisteredServiceServiceProviderMetadataFacade} built for each entity.
+ * <p>
+ * Entities are indexed from every resolver in the chain whose entities can be enumerated, such as resolvers
+ * backed by files or downloaded aggregates; the first resolver in the chain that defines an entity wins,
+ * as is the case when the chain is queried. Entities that are only known to dynamic resolvers are looked up
+ * through the chain. The index is rebuilt when a resolver in the chain reports that it has loaded new metadata.
+ * Each rebuild starts a new generation of the index, and facades are only cached for the generation
+ * of the metadata they were built from.
+ *
+ * @author Misagh Moayyed
+ * @since 5.1.0
+ */
+public class SamlMetadataEntityIndex {
+    private static final Logger LOGGER = LoggerFactory.getLogger(SamlMetadataEntityIndex.class);
+
+    private static final long MAXIMUM_CACHED_FACADES = 10_000;
+
+    private final ChainingMetadataResolver metadataResolver;
+
+    private final Cache<String, SamlRegisteredServiceServiceProviderMetadataFacade> facades =
+            CacheBuilder.newBuilder().maximumSize(MAXIMUM_CACHED_FACADES).build();
+
+    private volatile Map<String, EntityDescriptor> entities = Collections.emptyMap();
+
+    private volatile boolean complete;
+
+    private volatile boolean requireValidMetadata;
+
+    private volatile DateTime indexedUpdate;
+
+    private volatile long generation;
+
+    public SamlMetadataEntityIndex(final ChainingMetadataResolver metadataResolver) {
+        this.metadataResolver = metadataResolver;
+        index();
+    }
+
+    public ChainingMetadataResolver getMetadataResolver() {
+        return this.metadataResolver;
+    }
+
+    /**
+     * Gets the number of indexed entities.
+     *
+     * @return the size
+     */
+    public int size() {
+        return this.entities.size();
+    }
+
+    /**
+     * Gets the generation of the index, which changes every time the index is rebuilt.
+     *
+     * @return the generation
+     */
+    public long getGeneration() {
+        return this.generation;
+    }
+
+    /**
+     * Gets the entity descriptor for the given entity id, from the index if possible, or else from the resolver chain.
+     *
+     * @param entityID   the entity id
+     * @param criterions the criteria used to query the resolver chain for entities that are not indexed
+     * @return the entity descriptor, or null if none can be found
+     * @throws Exception the exception
+     */
+    public EntityDescriptor getEntityDescriptor(final String entityID, final CriteriaSet criterions) throws Exception {
+        refreshIfNeeded();
+        final EntityDescriptor entityDescriptor = this.entities.get(entityID);
+        if (entityDescriptor != null) {
+            return isValid(entityDescriptor) ? entityDescriptor : null;
+        }
+        if (this.complete) {
+            return null;
+        }
+        LOGGER.debug("Entity [{}] is not indexed; querying the metadata resolver chain", entityID);
+        return this.metadataResolver.resolveSingle(criterions);
+    }
+
+    /**
+     * Gets the cached service provider metadata facade for the given entity id.
+     *
+     * @param entityID the entity id
+     * @return the facade, or null if none is cached or the metadata of the entity is no longer valid
+     */
+    public SamlRegisteredServiceServiceProviderMetadataFacade getServiceProviderMetadata(final String entityID) {
+        refreshIfNeeded();
+        final SamlRegisteredServiceServiceProviderMetadataFacade facade = this.facades.getIfPresent(entityID);
+        if (facade != null && !isValid(facade.getEntityDescriptor())) {
+            this.facades.invalidate(entityID);
+            return null;
+        }
+        return facade;
+    }
+
+    /**
+     * Cache the service provider metadata facade built for the given entity id, unless the index
+     * has been rebuilt since the given generation, in which case the facade may have been built
+     * from metadata that is no longer current.
+     *
+     * @param entityID   the entity id
+     * @param facade     the facade
+     * @param generation the generation of the index, read before the entity descriptor of the facade was looked up
+     * @return true if the facade is cached
+     */
+    public synchronized boolean putServiceProviderMetadata(final String entityID,
+                                                           final SamlRegisteredServiceServiceProviderMetadataFacade facade,
+                                                           final long generation) {
+        if (generation != this.generation) {
+            LOGGER.debug("Metadata for [{}] was reindexed while its facade was built; the facade is not cached", entityID);
+            return false;
+        }
+        this.facades.put(entityID, facade);
+        return true;
+    }
+
+    private boolean isValid(final EntityDescriptor entityDescriptor) {
+        return !this.requireValidMetadata || SAML2Support.isValid(entityDescriptor);
+    }
+
+    private void refreshIfNeeded() {
+        if (!Objects.equals(this.indexedUpdate, this.metadataResolver.getLastUpdate())) {
+            synchronized (this) {
+                if (!Objects.equals(this.indexedUpdate, this.metadataResolver.getLastUpdate())) {
+                    LOGGER.debug("Metadata resolver [{}] has loaded new metadata; rebuilding the entity index", this.metadataResolver.getId());
+                    index();
+                }
+            }
+        }
+    }
+
+    private synchronized void index() {
+        final DateTime lastUpdate = this.metadataResolver.getLastUpdate();
+        final Map<String, EntityDescriptor> index = new HashMap<>();
+        boolean indexedAll = true;
+        boolean requireValid = false;
+        for (final MetadataResolver resolver : this.metadataResolver.getResolvers()) {
+            requireValid |= resolver.isRequireValidMetadata();
+            if (resolver instanceof IterableMetadataSource) {
+                for (final EntityDescriptor entityDescriptor : (IterableMetadataSource) resolver) {
+                    if (entityDescriptor.getEntityID() != null) {
+                        index.putIfAbsent(entityDescriptor.getEntityID(), entityDescriptor);
+                    }
+                }
+            } else {
+                indexedAll = false;
+            }
+        }
+        this.entities = index;
+        this.complete = indexedAll;
+        this.requireValidMetadata = requireValid;
+        this.facades.invalidateAll();
+        this.indexedUpdate = lastUpdate;
+        this.generation++;
+        LOGGER.debug("Indexed [{}] entities from metadata resolver [{}]", index.size(), this.metadataResolver.getId());
+    }
+}
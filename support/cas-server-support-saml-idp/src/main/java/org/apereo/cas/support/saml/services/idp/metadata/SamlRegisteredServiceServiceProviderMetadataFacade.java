@@ -23,6 +23,8 @@ import org.opensaml.saml.saml2.metadata.NameIDFormat;
 import org.opensaml.saml.saml2.metadata.Organization;
 import org.opensaml.saml.saml2.metadata.SPSSODescriptor;
 import org.opensaml.saml.saml2.metadata.SingleLogoutService;
+import org.opensaml.security.credential.Credential;
+import org.opensaml.security.credential.UsageType;
 import org.opensaml.xmlsec.signature.Signature;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -31,6 +33,9 @@ import java.time.ZonedDateTime;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 /**
@@ -49,6 +54,7 @@ public final class SamlRegisteredServiceServiceProviderMetadataFacade {
     private final SPSSODescriptor ssoDescriptor;
     private final EntityDescriptor entityDescriptor;
     private final MetadataResolver metadataResolver;
+    private final Map<UsageType, Credential> credentials = new ConcurrentHashMap<>();
 
     private SamlRegisteredServiceServiceProviderMetadataFacade(final SPSSODescriptor ssoDescriptor,
                                                                final EntityDescriptor entityDescriptor,
@@ -99,11 +105,18 @@ public final class SamlRegisteredServiceServiceProviderMetadataFacade {
 
             LOGGER.info("Locating metadata for entityID [{}] with binding [{}] by attempting to run through the metadata chain...",
                     entityID, SAMLConstants.SAML2_POST_BINDING_URI);
-            final ChainingMetadataResolver chainingMetadataResolver = resolver.resolve(registeredService);
+            final SamlMetadataEntityIndex index = resolver.resolveEntityIndex(registeredService);
+            final SamlRegisteredServiceServiceProviderMetadataFacade cached = index.getServiceProviderMetadata(entityID);
+            if (cached != null) {
+                LOGGER.debug("Located cached metadata for [{}]", entityID);
+                return cached;
+            }
+            final ChainingMetadataResolver chainingMetadataResolver = index.getMetadataResolver();
             LOGGER.info("Resolved metadata chain for service [{}]. Filtering the chain by entity ID [{}] and binding [{}]",
                     registeredService, entityID, SAMLConstants.SAML2_POST_BINDING_URI);
 
-            final EntityDescriptor entityDescriptor = chainingMetadataResolver.resolveSingle(criterions);
+            final long generation = index.getGeneration();
+            final EntityDescriptor entityDescriptor = index.getEntityDescriptor(entityID, criterions);
             if (entityDescriptor == null) {
                 throw new UnauthorizedServiceException(UnauthorizedServiceException.CODE_UNAUTHZ_SERVICE,
                         "Cannot find entity " + entityID + " in metadata provider.");
@@ -113,8 +126,10 @@ public final class SamlRegisteredServiceServiceProviderMetadataFacade {
             if (ssoDescriptor != null) {
                 LOGGER.debug("Located SPSSODescriptor in metadata for [{}]. Metadata is valid until [{}]",
                         entityID, ssoDescriptor.getValidUntil());
-                return new SamlRegisteredServiceServiceProviderMetadataFacade(ssoDescriptor,
-                        entityDescriptor, chainingMetadataResolver);
+                final SamlRegisteredServiceServiceProviderMetadataFacade facade =
+                        new SamlRegisteredServiceServiceProviderMetadataFacade(ssoDescriptor, entityDescriptor, chainingMetadataResolver);
+                index.putServiceProviderMetadata(entityID, facade, generation);
+                return facade;
             }
             throw new UnauthorizedServiceException(UnauthorizedServiceException.CODE_UNAUTHZ_SERVICE,
                     "Could not locate SPSSODescriptor in the metadata for " + entityID);
@@ -225,5 +240,27 @@ public final class SamlRegisteredServiceServiceProviderMetadataFacade {
         return this.metadataResolver;
     }
 
+    /**
+     * Gets the credential of the entity for the given usage, resolving it from the metadata
+     * on first use. Resolved credentials are kept with this facade, which is cached for as long
+     * as the metadata of the entity remains unchanged.
+     *
+     * @param usage    the usage
+     * @param resolver the resolver of the credential from the metadata
+     * @return the credential, or null if none can be resolved
+     * @throws Exception the exception
+     */
+    public Credential getCredential(final UsageType usage, final Callable<Credential> resolver) throws Exception {
+        final Credential cached = this.credentials.get(usage);
+        if (cached != null) {
+            return cached;
+        }
+        final Credential credential = resolver.call();
+        if (credential != null) {
+            this.credentials.putIfAbsent(usage, credential);
+        }
+        return credential;
+    }
+
 
 }
@@ -207,9 +207,8 @@ public class ChainingMetadataResolverCacheLoader extends CacheLoader<SamlRegiste
                                                  final List<MetadataResolver> metadataResolvers,
                                                  final AbstractResource metadataResource) throws Exception {
 
-        final SamlIdPProperties.Metadata md = casProperties.getAuthn().getSamlIdp().getMetadata();
-        final File backupDirectory = new File(md.getLocation().getFile(), "metadata-backups");
-        final File backupFile = new File(backupDirectory, metadataResource.getFilename());
+        final File backupFile = getMetadataBackupFile(metadataResource);
+        final File backupDirectory = backupFile.getParentFile();
 
         LOGGER.debug("Metadata backup directory is designated to be [{}]", backupDirectory.getCanonicalPath());
         FileUtils.forceMkdir(backupDirectory);
@@ -227,6 +226,12 @@ public class ChainingMetadataResolverCacheLoader extends CacheLoader<SamlRegiste
         metadataResolvers.add(metadataProvider);
     }
 
+    private File getMetadataBackupFile(final AbstractResource metadataResource) throws Exception {
+        final SamlIdPProperties.Metadata md = casProperties.getAuthn().getSamlIdp().getMetadata();
+        final File backupDirectory = new File(md.getLocation().getFile(), "metadata-backups");
+        return new File(backupDirectory, metadataResource.getFilename());
+    }
+
     private void resolveFileSystemBasedMetadataResource(final SamlRegisteredService service,
                                                         final List<MetadataResolver> metadataResolvers,
                                                         final AbstractResource metadataResource) throws Exception {
@@ -241,6 +246,33 @@ public class ChainingMetadataResolverCacheLoader extends CacheLoader<SamlRegiste
         metadataResolvers.add(metadataResolver);
     }
 
+    /**
+     * Gets the size of the metadata the service points at, as last loaded.
+     * Metadata downloaded from a URL is measured by its backup file.
+     *
+     * @param service the service
+     * @return the size in bytes, or -1 if the metadata is queried dynamically, or its size cannot be determined
+     */
+    public long getMetadataSize(final SamlRegisteredService service) {
+        if (isDynamicMetadataQueryConfigured(service)) {
+            return -1;
+        }
+        try {
+            final AbstractResource metadataResource = ResourceUtils.getResourceFrom(service.getMetadataLocation());
+            if (metadataResource instanceof UrlResource) {
+                final File backupFile = getMetadataBackupFile(metadataResource);
+                return backupFile.isFile() ? backupFile.length() : -1;
+            }
+            if (metadataResource instanceof FileSystemResource && metadataResource.getFile().isDirectory()) {
+                return -1;
+            }
+            return metadataResource.contentLength();
+        } catch (final Exception e) {
+            LOGGER.debug("Unable to determine the size of metadata at [{}]: [{}]", service.getMetadataLocation(), e.getMessage());
+            return -1;
+        }
+    }
+
     /**
      * Is dynamic metadata query configured ?
      *
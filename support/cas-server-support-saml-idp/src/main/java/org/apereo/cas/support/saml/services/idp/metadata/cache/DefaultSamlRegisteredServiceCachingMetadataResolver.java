@@ -1,18 +1,44 @@
 package org.apereo.cas.support.saml.services.idp.metadata.cache;
 
+import com.google.common.base.Ticker;
 import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.CacheStats;
 import com.google.common.cache.LoadingCache;
+import com.google.common.cache.RemovalCause;
+import com.google.common.cache.RemovalNotification;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import net.shibboleth.utilities.java.support.component.DestructableComponent;
 import org.apereo.cas.support.saml.services.SamlRegisteredService;
+import org.apereo.cas.support.saml.services.idp.metadata.SamlMetadataEntityIndex;
 import org.opensaml.saml.metadata.resolver.ChainingMetadataResolver;
+import org.opensaml.saml.metadata.resolver.MetadataResolver;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.annotation.PreDestroy;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
 /**
  * An adaptation of metadata resolver which handles the resolution of metadata resources
  * inside a Guava cache. It basically is a fancy wrapper around Guava, and constructs the cache
  * semantics before processing the resolution of metadata for a SAML service.
+ * <p>
+ * Resolvers are cached by {@link SamlRegisteredServiceCacheKey}, so that services which point at the same
+ * metadata source, such as a federation aggregate, with the same metadata settings share one resolver.
+ * Once the expiration period has passed, resolvers are rebuilt in the background while the previous resolver
+ * keeps serving requests; resolvers that could not be refreshed expire after twice the expiration period.
+ * Resolvers that are replaced or evicted are destroyed after a grace period, so that requests
+ * that still hold them may complete. Resolvers are built from the service that requested them, and rebuilt
+ * from the service that most recently requested them, so that refreshes pick up changes to service definitions.
+ * Usage statistics are kept for each metadata location, and are reported by
+ * {@link SamlRegisteredServiceMetadataCacheMonitor}.
  *
  * @author Misagh Moayyed
  * @since 5.0.0
@@ -20,40 +46,141 @@ import java.util.concurrent.TimeUnit;
 public class DefaultSamlRegisteredServiceCachingMetadataResolver implements SamlRegisteredServiceCachingMetadataResolver {
     private static final Logger LOGGER = LoggerFactory.getLogger(DefaultSamlRegisteredServiceCachingMetadataResolver.class);
 
+    private static final long DEFAULT_CACHE_MAXIMUM_SIZE = 100;
+
+    private static final int REFRESH_THREADS = 2;
+
+    private static final long DESTROY_DELAY_SECONDS = 60;
+
     private long metadataCacheExpirationMinutes;
 
     private ChainingMetadataResolverCacheLoader chainingMetadataResolverCacheLoader;
 
-    private LoadingCache<SamlRegisteredService, ChainingMetadataResolver> cache;
+    private final long metadataCacheMaximumSize;
+
+    private final LoadingCache<SamlRegisteredServiceCacheKey, SamlMetadataEntityIndex> cache;
+
+    private final ConcurrentMap<SamlRegisteredServiceCacheKey, SamlRegisteredService> services = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<String, SamlMetadataSourceStatistics> statistics = new ConcurrentHashMap<>();
+
+    private final ScheduledExecutorService executor = Executors.newScheduledThreadPool(REFRESH_THREADS,
+            new ThreadFactoryBuilder().setDaemon(true).setNameFormat("saml-metadata-cache-%d").build());
 
     public DefaultSamlRegisteredServiceCachingMetadataResolver(final long metadataCacheExpirationMinutes,
                                                                final ChainingMetadataResolverCacheLoader chainingMetadataResolverCacheLoader) {
+        this(metadataCacheExpirationMinutes, DEFAULT_CACHE_MAXIMUM_SIZE, chainingMetadataResolverCacheLoader);
+    }
+
+    public DefaultSamlRegisteredServiceCachingMetadataResolver(final long metadataCacheExpirationMinutes,
+                                                               final long metadataCacheMaximumSize,
+                                                               final ChainingMetadataResolverCacheLoader chainingMetadataResolverCacheLoader) {
+        this(metadataCacheExpirationMinutes, metadataCacheMaximumSize, chainingMetadataResolverCacheLoader, Ticker.systemTicker());
+    }
+
+    /**
+     * Instantiates a new resolver whose cache entries expire as measured by the given ticker.
+     *
+     * @param metadataCacheExpirationMinutes      the metadata cache expiration minutes
+     * @param metadataCacheMaximumSize            the maximum number of cached metadata resolvers
+     * @param chainingMetadataResolverCacheLoader the chaining metadata resolver cache loader
+     * @param ticker                              the ticker
+     */
+    DefaultSamlRegisteredServiceCachingMetadataResolver(final long metadataCacheExpirationMinutes,
+                                                        final long metadataCacheMaximumSize,
+                                                        final ChainingMetadataResolverCacheLoader chainingMetadataResolverCacheLoader,
+                                                        final Ticker ticker) {
         this.metadataCacheExpirationMinutes = metadataCacheExpirationMinutes;
+        this.metadataCacheMaximumSize = metadataCacheMaximumSize;
         this.chainingMetadataResolverCacheLoader = chainingMetadataResolverCacheLoader;
-        this.cache = CacheBuilder.newBuilder().maximumSize(1)
-                .expireAfterWrite(this.metadataCacheExpirationMinutes, TimeUnit.MINUTES).build(this.chainingMetadataResolverCacheLoader);
+
+        final CacheLoader<SamlRegisteredServiceCacheKey, SamlMetadataEntityIndex> loader =
+                new CacheLoader<SamlRegisteredServiceCacheKey, SamlMetadataEntityIndex>() {
+                    @Override
+                    public SamlMetadataEntityIndex load(final SamlRegisteredServiceCacheKey key) throws Exception {
+                        final SamlRegisteredService service = services.get(key);
+                        if (service == null) {
+                            throw new IllegalStateException("No registered service has requested metadata for " + key);
+                        }
+                        return loadMetadataResolver(key, service);
+                    }
+                };
+        this.cache = CacheBuilder.newBuilder()
+                .maximumSize(metadataCacheMaximumSize)
+                .refreshAfterWrite(this.metadataCacheExpirationMinutes, TimeUnit.MINUTES)
+                .expireAfterWrite(this.metadataCacheExpirationMinutes * 2, TimeUnit.MINUTES)
+                .removalListener(this::onMetadataResolverRemoval)
+                .ticker(ticker)
+                .recordStats()
+                .build(CacheLoader.asyncReloading(loader, this.executor));
     }
 
     @Override
     public ChainingMetadataResolver resolve(final SamlRegisteredService service) {
-        ChainingMetadataResolver resolver = null;
+        return resolveEntityIndex(service).getMetadataResolver();
+    }
+
+    @Override
+    public SamlMetadataEntityIndex resolveEntityIndex(final SamlRegisteredService service) {
+        final SamlRegisteredServiceCacheKey key = new SamlRegisteredServiceCacheKey(service);
         try {
             LOGGER.debug("Resolving metadata for [{}] at [{}].", service.getName(), service.getMetadataLocation());
-            resolver = this.cache.get(service);
-            return resolver;
+            trackService(key, service);
+            SamlMetadataEntityIndex index = this.cache.getIfPresent(key);
+            getStatistics(key.getMetadataLocation()).recordRequest(index != null);
+            if (index == null) {
+                index = this.cache.get(key, () -> loadMetadataResolver(key, service));
+            }
+            // the service is tracked again, in case the removal of an expired resolver has just dropped it
+            trackService(key, service);
+            return index;
         } catch (final Exception e) {
             throw new IllegalArgumentException("Metadata resolver could not be located from metadata "
                     + service.getMetadataLocation(), e);
-        } finally {
-            if (resolver != null) {
-                LOGGER.debug("Loaded and cached SAML metadata [{}] from [{}] for [{}] minute(s)",
-                        resolver.getId(),
-                        service.getMetadataLocation(),
-                        this.metadataCacheExpirationMinutes);
-            }
         }
     }
 
+    /**
+     * Gets the usage statistics of each metadata location, keyed by location.
+     *
+     * @return the statistics
+     */
+    public Map<String, SamlMetadataSourceStatistics> getStatistics() {
+        return Collections.unmodifiableMap(this.statistics);
+    }
+
+    /**
+     * Gets the statistics of the underlying cache across all metadata locations.
+     *
+     * @return the cache stats
+     */
+    public CacheStats getCacheStatistics() {
+        return this.cache.stats();
+    }
+
+    /**
+     * Gets the number of cached metadata resolvers.
+     *
+     * @return the size
+     */
+    public long getCacheSize() {
+        return this.cache.size();
+    }
+
+    public long getCacheMaximumSize() {
+        return this.metadataCacheMaximumSize;
+    }
+
+    /**
+     * Shut down the background refresh of metadata resolvers, and destroy the cached resolvers.
+     */
+    @PreDestroy
+    public void destroy() {
+        this.executor.shutdownNow();
+        this.cache.asMap().values().forEach(index -> destroyMetadataResolver(index.getMetadataResolver()));
+        this.cache.invalidateAll();
+    }
+
     public void setChainingMetadataResolverCacheLoader(final ChainingMetadataResolverCacheLoader chainingMetadataResolverCacheLoader) {
         this.chainingMetadataResolverCacheLoader = chainingMetadataResolverCacheLoader;
     }
@@ -61,4 +188,62 @@ public class DefaultSamlRegisteredServiceCachingMetadataResolver implements Saml
     public void setMetadataCacheExpirationMinutes(final long metadataCacheExpirationMinutes) {
         this.metadataCacheExpirationMinutes = metadataCacheExpirationMinutes;
     }
+
+    private SamlMetadataEntityIndex loadMetadataResolver(final SamlRegisteredServiceCacheKey key,
+                                                         final SamlRegisteredService service) throws Exception {
+        final SamlMetadataSourceStatistics stats = getStatistics(key.getMetadataLocation());
+        final long start = System.currentTimeMillis();
+        try {
+            final ChainingMetadataResolver resolver = this.chainingMetadataResolverCacheLoader.load(service);
+            final SamlMetadataEntityIndex index = new SamlMetadataEntityIndex(resolver);
+            stats.recordLoad(System.currentTimeMillis() - start, this.chainingMetadataResolverCacheLoader.getMetadataSize(service));
+            LOGGER.debug("Loaded, indexed [{}] entities and cached SAML metadata [{}] from [{}] for [{}] minute(s): [{}]",
+                    index.size(), resolver.getId(), key.getMetadataLocation(), this.metadataCacheExpirationMinutes, stats);
+            return index;
+        } catch (final Exception e) {
+            stats.recordLoadFailure();
+            LOGGER.warn("Unable to load SAML metadata from [{}]: [{}]", key.getMetadataLocation(), e.getMessage());
+            throw e;
+        }
+    }
+
+    private void onMetadataResolverRemoval(final RemovalNotification<SamlRegisteredServiceCacheKey, SamlMetadataEntityIndex> notification) {
+        if (notification.getCause() != RemovalCause.REPLACED) {
+            this.services.remove(notification.getKey());
+        }
+        if (notification.getValue() == null || this.executor.isShutdown()) {
+            return;
+        }
+        final ChainingMetadataResolver resolver = notification.getValue().getMetadataResolver();
+        LOGGER.debug("Metadata resolver for [{}] is removed from the cache ([{}]) and will be destroyed in [{}] second(s)",
+                notification.getKey(), notification.getCause(), DESTROY_DELAY_SECONDS);
+        this.executor.schedule(() -> destroyMetadataResolver(resolver), DESTROY_DELAY_SECONDS, TimeUnit.SECONDS);
+    }
+
+    private static void destroyMetadataResolver(final ChainingMetadataResolver resolver) {
+        try {
+            for (final MetadataResolver child : resolver.getResolvers()) {
+                if (child instanceof DestructableComponent) {
+                    ((DestructableComponent) child).destroy();
+                }
+            }
+            resolver.destroy();
+        } catch (final Exception e) {
+            LOGGER.warn("Unable to destroy metadata resolver [{}]: [{}]", resolver.getId(), e.getMessage());
+        }
+    }
+
+    /**
+     * Track the service that most recently requested the metadata resolver for the key,
+     * from which the resolver is rebuilt when it is refreshed.
+     */
+    private void trackService(final SamlRegisteredServiceCacheKey key, final SamlRegisteredService service) {
+        if (this.services.get(key) != service) {
+            this.services.put(key, service);
+        }
+    }
+
+    private SamlMetadataSourceStatistics getStatistics(final String metadataLocation) {
+        return this.statistics.computeIfAbsent(metadataLocation, SamlMetadataSourceStatistics::new);
+    }
 }
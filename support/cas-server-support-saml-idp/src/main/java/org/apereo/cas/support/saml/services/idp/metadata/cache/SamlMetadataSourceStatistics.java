@@ -0,0 +1,137 @@
+package org.apereo.cas.support.saml.services.idp.metadata.cache;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This is {@link SamlMetadataSourceStatistics} that keeps track of how the metadata
+ * loaded from a single metadata location is used by the metadata cache.
+ *
+ * @author Misagh Moayyed
+ * @since 5.1.0
+ */
+public class SamlMetadataSourceStatistics {
+
+    private final String metadataLocation;
+
+    private final LongAdder requestCount = new LongAdder();
+
+    private final LongAdder hitCount = new LongAdder();
+
+    private final LongAdder loadCount = new LongAdder();
+
+    private final LongAdder loadFailureCount = new LongAdder();
+
+    private final AtomicLong lastLoadDuration = new AtomicLong();
+
+    private final AtomicLong lastLoadTime = new AtomicLong();
+
+    private final AtomicLong metadataSize = new AtomicLong(-1);
+
+    private volatile boolean lastLoadFailed;
+
+    public SamlMetadataSourceStatistics(final String metadataLocation) {
+        this.metadataLocation = metadataLocation;
+    }
+
+    /**
+     * Record a request for the metadata.
+     *
+     * @param hit whether the metadata resolver was found in the cache
+     */
+    public void recordRequest(final boolean hit) {
+        this.requestCount.increment();
+        if (hit) {
+            this.hitCount.increment();
+        }
+    }
+
+    /**
+     * Record a successful load of the metadata.
+     *
+     * @param durationMillis the time it took to load the metadata
+     * @param size           the size of the metadata in bytes, or -1 if unknown
+     */
+    public void recordLoad(final long durationMillis, final long size) {
+        this.loadCount.increment();
+        this.lastLoadDuration.set(durationMillis);
+        this.lastLoadTime.set(System.currentTimeMillis());
+        this.metadataSize.set(size);
+        this.lastLoadFailed = false;
+    }
+
+    /**
+     * Record a failed load of the metadata.
+     */
+    public void recordLoadFailure() {
+        this.loadFailureCount.increment();
+        this.lastLoadFailed = true;
+    }
+
+    public String getMetadataLocation() {
+        return this.metadataLocation;
+    }
+
+    public long getRequestCount() {
+        return this.requestCount.sum();
+    }
+
+    public long getHitCount() {
+        return this.hitCount.sum();
+    }
+
+    /**
+     * Gets the ratio of requests that were served by a cached metadata resolver.
+     *
+     * @return the hit rate, or 1 if there were no requests
+     */
+    public double getHitRate() {
+        final long requests = getRequestCount();
+        return requests == 0 ? 1.0 : (double) getHitCount() / requests;
+    }
+
+    public long getLoadCount() {
+        return this.loadCount.sum();
+    }
+
+    public long getLoadFailureCount() {
+        return this.loadFailureCount.sum();
+    }
+
+    public long getLastLoadDuration() {
+        return this.lastLoadDuration.get();
+    }
+
+    public long getLastLoadTime() {
+        return this.lastLoadTime.get();
+    }
+
+    public long getMetadataSize() {
+        return this.metadataSize.get();
+    }
+
+    /**
+     * Whether the most recent attempt to load the metadata failed.
+     *
+     * @return true if the last load failed
+     */
+    public boolean isLastLoadFailed() {
+        return this.lastLoadFailed;
+    }
+
+    @Override
+    public String toString() {
+        return new ToStringBuilder(this)
+                .append("metadataLocation", this.metadataLocation)
+                .append("requestCount", getRequestCount())
+                .append("hitRate", getHitRate())
+                .append("loadCount", getLoadCount())
+                .append("loadFailureCount", getLoadFailureCount())
+                .append("lastLoadFailed", isLastLoadFailed())
+                .append("lastLoadDuration", getLastLoadDuration())
+                .append("metadataSize", getMetadataSize())
+                .toString();
+    }
+}
@@ -0,0 +1,95 @@
+package org.apereo.cas.support.saml.services.idp.metadata.cache;
+
+import org.apache.commons.lang3.builder.EqualsBuilder;
+import org.apache.commons.lang3.builder.HashCodeBuilder;
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.apereo.cas.support.saml.services.SamlRegisteredService;
+
+/**
+ * This is {@link SamlRegisteredServiceCacheKey} that identifies a metadata resolver by the metadata location
+ * and the metadata settings of a service that shape the resolver, such as the filters applied to the metadata.
+ * Services that point at the same metadata with the same settings share one resolver. The key holds
+ * the settings alone, and not the service they were taken from.
+ *
+ * @author Misagh Moayyed
+ * @since 5.1.0
+ */
+public class SamlRegisteredServiceCacheKey {
+
+    private final String metadataLocation;
+
+    private final String metadataSignatureLocation;
+
+    private final long metadataMaxValidity;
+
+    private final String metadataCriteriaDirection;
+
+    private final String metadataCriteriaPattern;
+
+    private final String metadataCriteriaRoles;
+
+    private final boolean metadataCriteriaRemoveEmptyEntitiesDescriptors;
+
+    private final boolean metadataCriteriaRemoveRolelessEntityDescriptors;
+
+    public SamlRegisteredServiceCacheKey(final SamlRegisteredService registeredService) {
+        this.metadataLocation = registeredService.getMetadataLocation();
+        this.metadataSignatureLocation = registeredService.getMetadataSignatureLocation();
+        this.metadataMaxValidity = registeredService.getMetadataMaxValidity();
+        this.metadataCriteriaDirection = registeredService.getMetadataCriteriaDirection();
+        this.metadataCriteriaPattern = registeredService.getMetadataCriteriaPattern();
+        this.metadataCriteriaRoles = registeredService.getMetadataCriteriaRoles();
+        this.metadataCriteriaRemoveEmptyEntitiesDescriptors = registeredService.isMetadataCriteriaRemoveEmptyEntitiesDescriptors();
+        this.metadataCriteriaRemoveRolelessEntityDescriptors = registeredService.isMetadataCriteriaRemoveRolelessEntityDescriptors();
+    }
+
+    public String getMetadataLocation() {
+        return this.metadataLocation;
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        if (obj == null) {
+            return false;
+        }
+        if (obj == this) {
+            return true;
+        }
+        if (obj.getClass() != getClass()) {
+            return false;
+        }
+        final SamlRegisteredServiceCacheKey rhs = (SamlRegisteredServiceCacheKey) obj;
+        return new EqualsBuilder()
+                .append(this.metadataLocation, rhs.metadataLocation)
+                .append(this.metadataSignatureLocation, rhs.metadataSignatureLocation)
+                .append(this.metadataMaxValidity, rhs.metadataMaxValidity)
+                .append(this.metadataCriteriaDirection, rhs.metadataCriteriaDirection)
+                .append(this.metadataCriteriaPattern, rhs.metadataCriteriaPattern)
+                .append(this.metadataCriteriaRoles, rhs.metadataCriteriaRoles)
+                .append(this.metadataCriteriaRemoveEmptyEntitiesDescriptors, rhs.metadataCriteriaRemoveEmptyEntitiesDescriptors)
+                .append(this.metadataCriteriaRemoveRolelessEntityDescriptors, rhs.metadataCriteriaRemoveRolelessEntityDescriptors)
+                .isEquals();
+    }
+
+    @Override
+    public int hashCode() {
+        return new HashCodeBuilder()
+                .append(this.metadataLocation)
+                .append(this.metadataSignatureLocation)
+                .append(this.metadataMaxValidity)
+                .append(this.metadataCriteriaDirection)
+                .append(this.metadataCriteriaPattern)
+                .append(this.metadataCriteriaRoles)
+                .append(this.metadataCriteriaRemoveEmptyEntitiesDescriptors)
+                .append(this.metadataCriteriaRemoveRolelessEntityDescriptors)
+                .toHashCode();
+    }
+
+    @Override
+    public String toString() {
+        return new ToStringBuilder(this)
+                .append("metadataLocation", this.metadataLocation)
+                .append("metadataSignatureLocation", this.metadataSignatureLocation)
+                .toString();
+    }
+}
@@ -1,6 +1,7 @@
 package org.apereo.cas.support.saml.services.idp.metadata.cache;
 
 import org.apereo.cas.support.saml.services.SamlRegisteredService;
+import org.apereo.cas.support.saml.services.idp.metadata.SamlMetadataEntityIndex;
 import org.opensaml.saml.metadata.resolver.ChainingMetadataResolver;
 
 /**
@@ -20,4 +21,16 @@ public interface SamlRegisteredServiceCachingMetadataResolver {
      * @return the chaining metadata resolver
      */
     ChainingMetadataResolver resolve(SamlRegisteredService service);
+
+    /**
+     * Resolve the index of the entities found in the metadata of the service.
+     * By default, a new index is built over the resolved metadata on every call;
+     * implementations that cache metadata resolvers should cache their indexes as well.
+     *
+     * @param service the service
+     * @return the entity index over the chaining metadata resolver
+     */
+    default SamlMetadataEntityIndex resolveEntityIndex(final SamlRegisteredService service) {
+        return new SamlMetadataEntityIndex(resolve(service));
+    }
 }
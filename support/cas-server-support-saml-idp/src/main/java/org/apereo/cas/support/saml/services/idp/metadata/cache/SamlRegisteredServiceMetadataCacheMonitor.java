@@ -0,0 +1,94 @@
+package org.apereo.cas.support.saml.services.idp.metadata.cache;
+
+import org.apereo.cas.monitor.AbstractCacheMonitor;
+import org.apereo.cas.monitor.CacheStatistics;
+import org.apereo.cas.monitor.GuavaCacheStatistics;
+import org.apereo.cas.monitor.StatusCode;
+
+import java.util.stream.Stream;
+
+/**
+ * Monitors the cache of SAML metadata resolvers, reporting the hits, misses and evictions of the cache
+ * along with the usage statistics of each metadata location. Metadata locations whose most recent
+ * load failed are reported with a warning. Resolvers of idle services expire as a matter of course,
+ * so evictions and the size of the cache are informational only.
+ *
+ * @author Misagh Moayyed
+ * @since 5.1.0
+ */
+public class SamlRegisteredServiceMetadataCacheMonitor extends AbstractCacheMonitor {
+
+    private final DefaultSamlRegisteredServiceCachingMetadataResolver metadataResolver;
+
+    public SamlRegisteredServiceMetadataCacheMonitor(final DefaultSamlRegisteredServiceCachingMetadataResolver metadataResolver) {
+        super(SamlRegisteredServiceMetadataCacheMonitor.class.getSimpleName());
+        this.metadataResolver = metadataResolver;
+    }
+
+    @Override
+    protected CacheStatistics[] getStatistics() {
+        final CacheStatistics cache = new GuavaCacheStatistics(this.metadataResolver.getCacheStatistics(),
+                this.metadataResolver.getCacheSize(), this.metadataResolver.getCacheMaximumSize(), "samlMetadataResolvers");
+        return Stream.concat(Stream.of(cache),
+                this.metadataResolver.getStatistics().values().stream().map(MetadataSourceCacheStatistics::new))
+                .toArray(CacheStatistics[]::new);
+    }
+
+    @Override
+    protected StatusCode status(final CacheStatistics statistics) {
+        if (statistics instanceof MetadataSourceCacheStatistics) {
+            return ((MetadataSourceCacheStatistics) statistics).statistics.isLastLoadFailed() ? StatusCode.WARN : StatusCode.OK;
+        }
+        return StatusCode.OK;
+    }
+
+    /**
+     * Reports the statistics of a metadata location, whose size is that of the metadata in bytes.
+     * Metadata locations have no capacity of their own, and nothing is evicted from them.
+     */
+    private static class MetadataSourceCacheStatistics implements CacheStatistics {
+        private static final int PERCENT_FREE = 100;
+
+        private final SamlMetadataSourceStatistics statistics;
+
+        MetadataSourceCacheStatistics(final SamlMetadataSourceStatistics statistics) {
+            this.statistics = statistics;
+        }
+
+        @Override
+        public long getSize() {
+            return this.statistics.getMetadataSize();
+        }
+
+        @Override
+        public long getCapacity() {
+            return 0;
+        }
+
+        @Override
+        public long getEvictions() {
+            return 0;
+        }
+
+        @Override
+        public int getPercentFree() {
+            return PERCENT_FREE;
+        }
+
+        @Override
+        public String getName() {
+            return this.statistics.getMetadataLocation();
+        }
+
+        @Override
+        public void toString(final StringBuilder builder) {
+            builder.append(getName()).append(':');
+            builder.append(this.statistics.getRequestCount()).append(" requests, ");
+            builder.append(this.statistics.getHitCount()).append(" hits, ");
+            builder.append(this.statistics.getLoadCount()).append(" loads, ");
+            builder.append(this.statistics.getLoadFailureCount()).append(" failed loads, ");
+            builder.append(this.statistics.getLastLoadDuration()).append(" ms last load, ");
+            builder.append(this.statistics.getMetadataSize()).append(" bytes");
+        }
+    }
+}
@@ -1,5 +1,8 @@
 package org.apereo.cas.support.saml.web.idp.profile.builders.enc;
 
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import net.shibboleth.utilities.java.support.resolver.CriteriaSet;
 import org.apache.commons.lang3.StringUtils;
 import org.apereo.cas.configuration.CasConfigurationProperties;
@@ -31,6 +34,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
@@ -41,6 +45,12 @@ import java.util.List;
 
 /**
  * This is {@link BaseSamlObjectSigner}.
+ * <p>
+ * The outbound security handlers are stateless once initialized, and are shared across responses.
+ * The signature signing configuration, which carries the signing credential, is built once and rebuilt
+ * only when the signing key or certificate files change. Signature signing parameters are resolved once per
+ * role descriptor of the service provider; descriptors are replaced when metadata is reloaded, so the
+ * parameters are resolved again for the new metadata while those cached for the old descriptors are discarded.
  *
  * @author Misagh Moayyed
  * @since 5.0.0
@@ -72,12 +82,33 @@ public class BaseSamlObjectSigner {
     @Autowired
     private CasConfigurationProperties casProperties;
 
+    private final SAMLOutboundDestinationHandler destinationHandler = new SAMLOutboundDestinationHandler();
+
+    private final EndpointURLSchemeSecurityHandler endpointURLSchemeSecurityHandler = new EndpointURLSchemeSecurityHandler();
+
+    private volatile SAMLOutboundProtocolMessageSigningHandler signingHandler;
+
+    private volatile SignatureSigningConfiguration signatureSigningConfiguration;
+
+    private volatile long signingCertificateLastModified;
+
+    private volatile long signingKeyLastModified;
+
+    private final Cache<RoleDescriptor, SignatureSigningParameters> signatureSigningParameters =
+            CacheBuilder.newBuilder().weakKeys().build();
+
     public BaseSamlObjectSigner(final List overrideSignatureReferenceDigestMethods, final List overrideSignatureAlgorithms,
                                 final List overrideBlackListedSignatureAlgorithms, final List overrideWhiteListedAlgorithms) {
         this.overrideSignatureReferenceDigestMethods = overrideSignatureReferenceDigestMethods;
         this.overrideSignatureAlgorithms = overrideSignatureAlgorithms;
         this.overrideBlackListedSignatureAlgorithms = overrideBlackListedSignatureAlgorithms;
         this.overrideWhiteListedAlgorithms = overrideWhiteListedAlgorithms;
+        try {
+            this.destinationHandler.initialize();
+            this.endpointURLSchemeSecurityHandler.initialize();
+        } catch (final Exception e) {
+            throw Throwables.propagate(e);
+        }
     }
 
     /**
@@ -121,9 +152,7 @@ public class BaseSamlObjectSigner {
     protected <T extends SAMLObject> void prepareSamlOutboundProtocolMessageSigningHandler(final MessageContext<T> outboundContext)
             throws Exception {
         LOGGER.debug("Attempting to sign the outbound SAML message...");
-        final SAMLOutboundProtocolMessageSigningHandler handler = new SAMLOutboundProtocolMessageSigningHandler();
-        handler.setSignErrorResponses(casProperties.getAuthn().getSamlIdp().getResponse().isSignError());
-        handler.invoke(outboundContext);
+        getSigningHandler().invoke(outboundContext);
         LOGGER.debug("Signed SAML message successfully");
     }
 
@@ -136,9 +165,7 @@ public class BaseSamlObjectSigner {
      */
     protected <T extends SAMLObject> void prepareSamlOutboundDestinationHandler(final MessageContext<T> outboundContext)
             throws Exception {
-        final SAMLOutboundDestinationHandler handlerDest = new SAMLOutboundDestinationHandler();
-        handlerDest.initialize();
-        handlerDest.invoke(outboundContext);
+        this.destinationHandler.invoke(outboundContext);
     }
 
     /**
@@ -150,9 +177,7 @@ public class BaseSamlObjectSigner {
      */
     protected <T extends SAMLObject> void prepareEndpointURLSchemeSecurityHandler(final MessageContext<T> outboundContext)
             throws Exception {
-        final EndpointURLSchemeSecurityHandler handlerEnd = new EndpointURLSchemeSecurityHandler();
-        handlerEnd.initialize();
-        handlerEnd.invoke(outboundContext);
+        this.endpointURLSchemeSecurityHandler.invoke(outboundContext);
     }
 
     /**
@@ -200,8 +225,14 @@ public class BaseSamlObjectSigner {
      */
     protected SignatureSigningParameters buildSignatureSigningParameters(final RoleDescriptor descriptor) throws SAMLException {
         try {
+            final SignatureSigningConfiguration config = getCachedSignatureSigningConfiguration();
+            final SignatureSigningParameters cached = this.signatureSigningParameters.getIfPresent(descriptor);
+            if (cached != null) {
+                return cached;
+            }
+
             final CriteriaSet criteria = new CriteriaSet();
-            criteria.add(new SignatureSigningConfigurationCriterion(getSignatureSigningConfiguration()));
+            criteria.add(new SignatureSigningConfigurationCriterion(config));
             criteria.add(new RoleDescriptorCriterion(descriptor));
             final SAMLMetadataSignatureSigningParametersResolver resolver = new SAMLMetadataSignatureSigningParametersResolver();
             LOGGER.debug("Resolving signature signing parameters for [{}]", descriptor.getElementQName().getLocalPart());
@@ -218,12 +249,53 @@ public class BaseSamlObjectSigner {
                     params.getSignatureAlgorithm(), params.getSignatureCanonicalizationAlgorithm(),
                     params.getSignatureReferenceDigestMethod());
 
+            this.signatureSigningParameters.put(descriptor, params);
             return params;
         } catch (final Exception e) {
             throw new SAMLException(e.getMessage(), e);
         }
     }
 
+    private SAMLOutboundProtocolMessageSigningHandler getSigningHandler() {
+        if (this.signingHandler == null) {
+            final SAMLOutboundProtocolMessageSigningHandler handler = new SAMLOutboundProtocolMessageSigningHandler();
+            handler.setSignErrorResponses(casProperties.getAuthn().getSamlIdp().getResponse().isSignError());
+            this.signingHandler = handler;
+        }
+        return this.signingHandler;
+    }
+
+    private SignatureSigningConfiguration getCachedSignatureSigningConfiguration() throws Exception {
+        final SamlIdPProperties.Metadata md = casProperties.getAuthn().getSamlIdp().getMetadata();
+        final long certificateLastModified = lastModified(md.getSigningCertFile());
+        final long keyLastModified = lastModified(md.getSigningKeyFile());
+        if (this.signatureSigningConfiguration == null
+                || certificateLastModified != this.signingCertificateLastModified
+                || keyLastModified != this.signingKeyLastModified) {
+            synchronized (this) {
+                if (this.signatureSigningConfiguration == null
+                        || certificateLastModified != this.signingCertificateLastModified
+                        || keyLastModified != this.signingKeyLastModified) {
+                    LOGGER.debug("Building signature signing configuration with signing key [{}]", md.getSigningKeyFile());
+                    this.signatureSigningConfiguration = getSignatureSigningConfiguration();
+                    this.signatureSigningParameters.invalidateAll();
+                    this.signingCertificateLastModified = certificateLastModified;
+                    this.signingKeyLastModified = keyLastModified;
+                }
+            }
+        }
+        return this.signatureSigningConfiguration;
+    }
+
+    private static long lastModified(final Resource resource) {
+        try {
+            return resource.lastModified();
+        } catch (final Exception e) {
+            LOGGER.trace("Unable to determine when [{}] was last modified: [{}]", resource, e.getMessage());
+            return 0;
+        }
+    }
+
     /**
      * Gets signature signing configuration.
      *
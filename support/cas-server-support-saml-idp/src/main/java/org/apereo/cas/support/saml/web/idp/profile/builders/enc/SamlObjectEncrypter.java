@@ -97,7 +97,8 @@ public class SamlObjectEncrypter {
                                      final HttpServletRequest request) throws SamlException {
         try {
             LOGGER.debug("Attempting to encrypt [{}] for [{}]", samlObject.getClass().getName(), adaptor.getEntityId());
-            final Credential credential = getKeyEncryptionCredential(adaptor.getEntityId(), adaptor, service);
+            final Credential credential = adaptor.getCredential(UsageType.ENCRYPTION,
+                    () -> getKeyEncryptionCredential(adaptor.getEntityId(), adaptor, service));
             LOGGER.info("Found encryption public key: [{}]", EncodingUtils.encodeBase64(credential.getPublicKey().getEncoded()));
 
             final KeyEncryptionParameters keyEncParams = getKeyEncryptionParameters(samlObject, service, adaptor, credential);
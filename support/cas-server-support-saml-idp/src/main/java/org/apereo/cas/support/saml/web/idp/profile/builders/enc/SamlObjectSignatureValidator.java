@@ -100,17 +100,7 @@ public class SamlObjectSignatureValidator {
                                                  final MetadataResolver resolver,
                                                  final HttpServletRequest request,
                                                  final MessageContext context) throws Exception {
-
-        final RoleDescriptorResolver roleDescriptorResolver = getRoleDescriptorResolver(resolver, context, profileRequest);
-
-        LOGGER.debug("Validating signature for [{}]", profileRequest.getClass().getName());
-
-        final Signature signature = profileRequest.getSignature();
-        if (signature != null) {
-            validateSignatureOnProfileRequest(profileRequest, signature, roleDescriptorResolver);
-        } else {
-            validateSignatureOnAuthenticationRequest(profileRequest, request, context, roleDescriptorResolver);
-        }
+        verifySamlProfileRequest(profileRequest, resolver, null, request, context);
     }
 
     /**
@@ -127,7 +117,25 @@ public class SamlObjectSignatureValidator {
                                                  final HttpServletRequest request,
                                                  final MessageContext context) throws Exception {
 
-        verifySamlProfileRequestIfNeeded(profileRequest, adaptor.getMetadataResolver(), request, context);
+        verifySamlProfileRequest(profileRequest, adaptor.getMetadataResolver(), adaptor, request, context);
+    }
+
+    private void verifySamlProfileRequest(final RequestAbstractType profileRequest,
+                                          final MetadataResolver resolver,
+                                          final SamlRegisteredServiceServiceProviderMetadataFacade adaptor,
+                                          final HttpServletRequest request,
+                                          final MessageContext context) throws Exception {
+
+        final RoleDescriptorResolver roleDescriptorResolver = getRoleDescriptorResolver(resolver, context, profileRequest);
+
+        LOGGER.debug("Validating signature for [{}]", profileRequest.getClass().getName());
+
+        final Signature signature = profileRequest.getSignature();
+        if (signature != null) {
+            validateSignatureOnProfileRequest(profileRequest, signature, roleDescriptorResolver, adaptor);
+        } else {
+            validateSignatureOnAuthenticationRequest(profileRequest, request, context, roleDescriptorResolver, adaptor);
+        }
     }
 
     /**
@@ -149,7 +157,8 @@ public class SamlObjectSignatureValidator {
 
     private void validateSignatureOnAuthenticationRequest(final RequestAbstractType profileRequest, final HttpServletRequest request,
                                                           final MessageContext context,
-                                                          final RoleDescriptorResolver roleDescriptorResolver) throws Exception {
+                                                          final RoleDescriptorResolver roleDescriptorResolver,
+                                                          final SamlRegisteredServiceServiceProviderMetadataFacade adaptor) throws Exception {
         final SAML2HTTPRedirectDeflateSignatureSecurityHandler handler = new SAML2HTTPRedirectDeflateSignatureSecurityHandler();
         final SAMLPeerEntityContext peer = context.getSubcontext(SAMLPeerEntityContext.class, true);
         peer.setEntityId(SamlIdPUtils.getIssuerFromSamlRequest(profileRequest));
@@ -179,7 +188,7 @@ public class SamlObjectSignatureValidator {
         }
 
         LOGGER.debug("Resolving signing credentials for [{}]", peer.getEntityId());
-        final Credential credential = getSigningCredential(roleDescriptorResolver, profileRequest);
+        final Credential credential = getSigningCredential(roleDescriptorResolver, profileRequest, adaptor);
         if (credential == null) {
             throw new SamlException("Signing credential for validation could not be resolved");
         }
@@ -201,14 +210,15 @@ public class SamlObjectSignatureValidator {
 
     private void validateSignatureOnProfileRequest(final RequestAbstractType profileRequest,
                                                    final Signature signature,
-                                                   final RoleDescriptorResolver roleDescriptorResolver) throws Exception {
+                                                   final RoleDescriptorResolver roleDescriptorResolver,
+                                                   final SamlRegisteredServiceServiceProviderMetadataFacade adaptor) throws Exception {
         final SAMLSignatureProfileValidator validator = new SAMLSignatureProfileValidator();
         LOGGER.debug("Validating profile signature for [{}] via [{}]...", profileRequest.getIssuer(),
                 validator.getClass().getSimpleName());
         validator.validate(signature);
         LOGGER.debug("Successfully validated profile signature for [{}].", profileRequest.getIssuer());
 
-        final Credential credential = getSigningCredential(roleDescriptorResolver, profileRequest);
+        final Credential credential = getSigningCredential(roleDescriptorResolver, profileRequest, adaptor);
         if (credential == null) {
             throw new SamlException("Signing credential for validation could not be resolved");
         }
@@ -218,6 +228,18 @@ public class SamlObjectSignatureValidator {
         LOGGER.info("Successfully validated the request signature.");
     }
 
+    /**
+     * The signing credential of the issuer is kept with the metadata facade of the entity, when available,
+     * so that it is not resolved from the metadata of the entity again for every request.
+     */
+    private Credential getSigningCredential(final RoleDescriptorResolver resolver, final RequestAbstractType profileRequest,
+                                            final SamlRegisteredServiceServiceProviderMetadataFacade adaptor) throws Exception {
+        if (adaptor != null && adaptor.getEntityId().equals(SamlIdPUtils.getIssuerFromSamlRequest(profileRequest))) {
+            return adaptor.getCredential(UsageType.SIGNING, () -> getSigningCredential(resolver, profileRequest));
+        }
+        return getSigningCredential(resolver, profileRequest);
+    }
+
     private Credential getSigningCredential(final RoleDescriptorResolver resolver, final RequestAbstractType profileRequest) {
         try {
             final MetadataCredentialResolver kekCredentialResolver = new MetadataCredentialResolver();
@@ -0,0 +1,157 @@
+package org.apereo.cas.support.saml;
+
+import net.shibboleth.utilities.java.support.resolver.CriteriaSet;
+import net.shibboleth.utilities.java.support.xml.BasicParserPool;
+import org.apereo.cas.support.saml.services.SamlRegisteredService;
+import org.apereo.cas.support.saml.services.idp.metadata.SamlMetadataEntityIndex;
+import org.apereo.cas.support.saml.services.idp.metadata.SamlRegisteredServiceServiceProviderMetadataFacade;
+import org.apereo.cas.support.saml.services.idp.metadata.cache.SamlRegisteredServiceCachingMetadataResolver;
+import org.joda.time.DateTime;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.opensaml.core.config.InitializationService;
+import org.opensaml.saml.metadata.resolver.ChainingMetadataResolver;
+import org.opensaml.saml.metadata.resolver.MetadataResolver;
+import org.opensaml.saml.metadata.resolver.impl.DOMMetadataResolver;
+import org.opensaml.security.credential.Credential;
+import org.opensaml.security.credential.UsageType;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * This is {@link SamlMetadataEntityIndexTests}.
+ *
+ * @author Misagh Moayyed
+ * @since 5.1.0
+ */
+public class SamlMetadataEntityIndexTests {
+
+    private static final String FIRST_ENTITY_ID = "https://sp1.example.org/shibboleth";
+
+    private static final String SECOND_ENTITY_ID = "https://sp2.example.org/shibboleth";
+
+    private ChainingMetadataResolver chainingMetadataResolver;
+
+    private SamlMetadataEntityIndex index;
+
+    private SamlRegisteredService service;
+
+    @BeforeClass
+    public static void initialize() throws Exception {
+        InitializationService.initialize();
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        final BasicParserPool parserPool = new BasicParserPool();
+        parserPool.initialize();
+        final String metadata = "<EntitiesDescriptor xmlns=\"urn:oasis:names:tc:SAML:2.0:metadata\">"
+                + newEntityDescriptor(FIRST_ENTITY_ID) + newEntityDescriptor(SECOND_ENTITY_ID) + "</EntitiesDescriptor>";
+        final DOMMetadataResolver metadataResolver = new DOMMetadataResolver(parserPool.parse(
+                new ByteArrayInputStream(metadata.getBytes(StandardCharsets.UTF_8))).getDocumentElement());
+        metadataResolver.setId(DOMMetadataResolver.class.getName());
+        metadataResolver.setParserPool(parserPool);
+        metadataResolver.initialize();
+
+        this.chainingMetadataResolver = new ChainingMetadataResolver();
+        this.chainingMetadataResolver.setId(ChainingMetadataResolver.class.getName());
+        this.chainingMetadataResolver.setResolvers(Collections.singletonList(metadataResolver));
+        this.chainingMetadataResolver.initialize();
+        this.index = new SamlMetadataEntityIndex(this.chainingMetadataResolver);
+
+        this.service = new SamlRegisteredService();
+        this.service.setName("SAML");
+        this.service.setServiceId("https://.+\\.example\\.org/shibboleth");
+        this.service.setMetadataLocation("classpath:/metadata/sp-metadata.xml");
+    }
+
+    @Test
+    public void verifyEntitiesAreIndexed() throws Exception {
+        assertEquals(2, this.index.size());
+        assertEquals(FIRST_ENTITY_ID, this.index.getEntityDescriptor(FIRST_ENTITY_ID, new CriteriaSet()).getEntityID());
+        assertEquals(SECOND_ENTITY_ID, this.index.getEntityDescriptor(SECOND_ENTITY_ID, new CriteriaSet()).getEntityID());
+        assertNull(this.index.getEntityDescriptor("https://unknown.example.org/shibboleth", new CriteriaSet()));
+    }
+
+    @Test
+    public void verifyDefaultEntityIndexIsBuiltFromResolvedMetadata() {
+        final SamlRegisteredServiceCachingMetadataResolver resolver = registeredService -> this.chainingMetadataResolver;
+        final SamlMetadataEntityIndex resolved = resolver.resolveEntityIndex(this.service);
+        assertSame(this.chainingMetadataResolver, resolved.getMetadataResolver());
+        assertEquals(2, resolved.size());
+    }
+
+    @Test
+    public void verifyFacadeAndCredentialsAreCached() throws Exception {
+        final SamlRegisteredServiceCachingMetadataResolver resolver = newCachingResolver(this.index);
+        final SamlRegisteredServiceServiceProviderMetadataFacade facade =
+                SamlRegisteredServiceServiceProviderMetadataFacade.get(resolver, this.service, FIRST_ENTITY_ID);
+        assertEquals(FIRST_ENTITY_ID, facade.getEntityId());
+        assertSame(facade, SamlRegisteredServiceServiceProviderMetadataFacade.get(resolver, this.service, FIRST_ENTITY_ID));
+        assertNotSame(facade, SamlRegisteredServiceServiceProviderMetadataFacade.get(resolver, this.service, SECOND_ENTITY_ID));
+
+        final Credential credential = mock(Credential.class);
+        final AtomicInteger resolutions = new AtomicInteger();
+        assertSame(credential, facade.getCredential(UsageType.SIGNING, () -> {
+            resolutions.incrementAndGet();
+            return credential;
+        }));
+        assertSame(credential, facade.getCredential(UsageType.SIGNING, () -> {
+            resolutions.incrementAndGet();
+            return mock(Credential.class);
+        }));
+        assertEquals(1, resolutions.get());
+        assertNull(facade.getCredential(UsageType.ENCRYPTION, () -> null));
+    }
+
+    @Test
+    public void verifyFacadeOfPreviousGenerationIsNotCached() throws Exception {
+        final SamlRegisteredServiceServiceProviderMetadataFacade facade =
+                SamlRegisteredServiceServiceProviderMetadataFacade.get(newCachingResolver(this.index), this.service, FIRST_ENTITY_ID);
+
+        final ChainingMetadataResolver reloading = mock(ChainingMetadataResolver.class);
+        when(reloading.getId()).thenReturn("reloading");
+        when(reloading.getResolvers()).thenReturn(Collections.<MetadataResolver>unmodifiableList(
+                this.chainingMetadataResolver.getResolvers()));
+        final SamlMetadataEntityIndex reindexed = new SamlMetadataEntityIndex(reloading);
+        final long generation = reindexed.getGeneration();
+
+        when(reloading.getLastUpdate()).thenReturn(new DateTime());
+        assertNull(reindexed.getServiceProviderMetadata(FIRST_ENTITY_ID));
+        assertNotEquals(generation, reindexed.getGeneration());
+        assertFalse(reindexed.putServiceProviderMetadata(FIRST_ENTITY_ID, facade, generation));
+        assertNull(reindexed.getServiceProviderMetadata(FIRST_ENTITY_ID));
+
+        assertTrue(reindexed.putServiceProviderMetadata(FIRST_ENTITY_ID, facade, reindexed.getGeneration()));
+        assertSame(facade, reindexed.getServiceProviderMetadata(FIRST_ENTITY_ID));
+    }
+
+    private static SamlRegisteredServiceCachingMetadataResolver newCachingResolver(final SamlMetadataEntityIndex index) {
+        return new SamlRegisteredServiceCachingMetadataResolver() {
+            @Override
+            public ChainingMetadataResolver resolve(final SamlRegisteredService service) {
+                return index.getMetadataResolver();
+            }
+
+            @Override
+            public SamlMetadataEntityIndex resolveEntityIndex(final SamlRegisteredService service) {
+                return index;
+            }
+        };
+    }
+
+    private static String newEntityDescriptor(final String entityID) {
+        return "<EntityDescriptor entityID=\"" + entityID + "\">"
+                + "<SPSSODescriptor protocolSupportEnumeration=\"urn:oasis:names:tc:SAML:2.0:protocol\">"
+                + "<AssertionConsumerService Binding=\"urn:oasis:names:tc:SAML:2.0:bindings:HTTP-POST\" "
+                + "Location=\"" + entityID.replace("/shibboleth", "/Shibboleth.sso/SAML2/POST") + "\" index=\"1\"/>"
+                + "</SPSSODescriptor></EntityDescriptor>";
+    }
+}
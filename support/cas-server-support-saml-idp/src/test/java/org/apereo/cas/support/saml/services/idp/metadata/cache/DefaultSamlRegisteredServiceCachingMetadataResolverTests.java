@@ -0,0 +1,153 @@
+package org.apereo.cas.support.saml.services.idp.metadata.cache;
+
+import com.google.common.base.Ticker;
+import org.apereo.cas.configuration.CasConfigurationProperties;
+import org.apereo.cas.monitor.CacheStatus;
+import org.apereo.cas.monitor.StatusCode;
+import org.apereo.cas.support.saml.services.SamlRegisteredService;
+import org.apereo.cas.support.saml.services.idp.metadata.SamlMetadataEntityIndex;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.opensaml.saml.metadata.resolver.ChainingMetadataResolver;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * This is {@link DefaultSamlRegisteredServiceCachingMetadataResolverTests}.
+ *
+ * @author Misagh Moayyed
+ * @since 5.1.0
+ */
+public class DefaultSamlRegisteredServiceCachingMetadataResolverTests {
+
+    private static final String METADATA_LOCATION = "classpath:/metadata/idp-metadata.xml";
+
+    private static final long EXPIRATION_MINUTES = 30;
+
+    private static final long METADATA_SIZE = 1024;
+
+    private final AtomicLong nanos = new AtomicLong();
+
+    private ChainingMetadataResolverCacheLoader loader;
+
+    private DefaultSamlRegisteredServiceCachingMetadataResolver resolver;
+
+    @Before
+    public void setUp() throws Exception {
+        this.loader = mock(ChainingMetadataResolverCacheLoader.class);
+        when(this.loader.load(any(SamlRegisteredService.class))).thenAnswer(invocation -> newMetadataResolver());
+        when(this.loader.getMetadataSize(any(SamlRegisteredService.class))).thenReturn(METADATA_SIZE);
+        this.resolver = new DefaultSamlRegisteredServiceCachingMetadataResolver(EXPIRATION_MINUTES, 10, this.loader, new Ticker() {
+            @Override
+            public long read() {
+                return nanos.get();
+            }
+        });
+    }
+
+    @After
+    public void tearDown() {
+        this.resolver.destroy();
+    }
+
+    @Test
+    public void verifyResolverIsSharedByServicesWithTheSameMetadata() throws Exception {
+        final SamlMetadataEntityIndex index = this.resolver.resolveEntityIndex(newService("first"));
+        assertSame(index, this.resolver.resolveEntityIndex(newService("second")));
+        assertSame(index.getMetadataResolver(), this.resolver.resolve(newService("third")));
+        verify(this.loader, times(1)).load(any(SamlRegisteredService.class));
+
+        final SamlMetadataSourceStatistics stats = this.resolver.getStatistics().get(METADATA_LOCATION);
+        assertEquals(3, stats.getRequestCount());
+        assertEquals(2, stats.getHitCount());
+        assertEquals(1, stats.getLoadCount());
+        assertEquals(METADATA_SIZE, stats.getMetadataSize());
+
+        final SamlRegisteredService filtered = newService("filtered");
+        filtered.setMetadataCriteriaRoles("IDPSSODescriptor");
+        assertNotSame(index, this.resolver.resolveEntityIndex(filtered));
+        assertEquals(2, this.resolver.getCacheSize());
+
+        final CacheStatus status = observe();
+        assertEquals(StatusCode.OK, status.getCode());
+        assertEquals(2, status.getStatistics().length);
+    }
+
+    @Test
+    public void verifyResolverIsReloadedFromCurrentService() throws Exception {
+        final SamlMetadataEntityIndex index = this.resolver.resolveEntityIndex(newService("original"));
+
+        this.nanos.addAndGet(TimeUnit.MINUTES.toNanos(EXPIRATION_MINUTES + 1));
+        final SamlRegisteredService updated = newService("updated");
+        this.resolver.resolveEntityIndex(updated);
+
+        final SamlMetadataSourceStatistics stats = this.resolver.getStatistics().get(METADATA_LOCATION);
+        final long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+        while (stats.getLoadCount() < 2 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(2, stats.getLoadCount());
+        final ArgumentCaptor<SamlRegisteredService> loaded = ArgumentCaptor.forClass(SamlRegisteredService.class);
+        verify(this.loader, times(2)).load(loaded.capture());
+        assertSame(updated, loaded.getAllValues().get(1));
+        assertNotSame(index, this.resolver.resolveEntityIndex(updated));
+    }
+
+    @Test
+    public void verifyExpiredResolversAreReportedAsHealthy() throws Exception {
+        this.resolver.resolveEntityIndex(newService("expiring"));
+        this.nanos.addAndGet(TimeUnit.MINUTES.toNanos(EXPIRATION_MINUTES * 3));
+        this.resolver.resolveEntityIndex(newService("expiring"));
+
+        final CacheStatus status = observe();
+        assertTrue(status.getStatistics()[0].getEvictions() > 0);
+        assertEquals(StatusCode.OK, status.getCode());
+    }
+
+    @Test
+    public void verifyFailedLoadIsRecorded() throws Exception {
+        doThrow(new IllegalStateException("Metadata is not available")).when(this.loader).load(any(SamlRegisteredService.class));
+        try {
+            this.resolver.resolveEntityIndex(newService("failing"));
+            fail("Metadata should not have been resolved");
+        } catch (final IllegalArgumentException e) {
+            assertTrue(e.getMessage().contains(METADATA_LOCATION));
+        }
+        final SamlMetadataSourceStatistics stats = this.resolver.getStatistics().get(METADATA_LOCATION);
+        assertEquals(1, stats.getRequestCount());
+        assertEquals(0, stats.getLoadCount());
+        assertEquals(1, stats.getLoadFailureCount());
+        assertTrue(stats.isLastLoadFailed());
+        assertEquals(0, this.resolver.getCacheSize());
+        assertEquals(StatusCode.WARN, observe().getCode());
+    }
+
+    private CacheStatus observe() {
+        final SamlRegisteredServiceMetadataCacheMonitor monitor = new SamlRegisteredServiceMetadataCacheMonitor(this.resolver);
+        ReflectionTestUtils.setField(monitor, "casProperties", new CasConfigurationProperties());
+        return monitor.observe();
+    }
+
+    private static SamlRegisteredService newService(final String name) {
+        final SamlRegisteredService service = new SamlRegisteredService();
+        service.setName(name);
+        service.setServiceId("https://" + name + ".example.org");
+        service.setMetadataLocation(METADATA_LOCATION);
+        return service;
+    }
+
+    private static ChainingMetadataResolver newMetadataResolver() {
+        final ChainingMetadataResolver metadataResolver = mock(ChainingMetadataResolver.class);
+        when(metadataResolver.getResolvers()).thenReturn(Collections.emptyList());
+        when(metadataResolver.getId()).thenReturn("metadataResolver");
+        return metadataResolver;
+    }
+}
@@ -0,0 +1,207 @@
+package org.apereo.cas.support.saml.web.idp.profile.builders.enc;
+
+import net.shibboleth.utilities.java.support.resolver.CriteriaSet;
+import net.shibboleth.utilities.java.support.security.SelfSignedCertificateGenerator;
+import net.shibboleth.utilities.java.support.xml.BasicParserPool;
+import org.apereo.cas.configuration.CasConfigurationProperties;
+import org.apereo.cas.configuration.model.support.saml.idp.SamlIdPProperties;
+import org.apereo.cas.support.saml.services.SamlRegisteredService;
+import org.apereo.cas.support.saml.services.idp.metadata.SamlMetadataEntityIndex;
+import org.apereo.cas.support.saml.services.idp.metadata.SamlRegisteredServiceServiceProviderMetadataFacade;
+import org.apereo.cas.support.saml.services.idp.metadata.cache.SamlRegisteredServiceCachingMetadataResolver;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.opensaml.core.config.InitializationService;
+import org.opensaml.core.criterion.EntityIdCriterion;
+import org.opensaml.core.xml.config.XMLObjectProviderRegistrySupport;
+import org.opensaml.saml.common.SAMLVersion;
+import org.opensaml.saml.common.xml.SAMLConstants;
+import org.opensaml.saml.metadata.resolver.ChainingMetadataResolver;
+import org.opensaml.saml.metadata.resolver.impl.DOMMetadataResolver;
+import org.opensaml.saml.saml2.core.Issuer;
+import org.opensaml.saml.saml2.core.Response;
+import org.opensaml.saml.saml2.metadata.SPSSODescriptor;
+import org.opensaml.xmlsec.SignatureSigningConfiguration;
+import org.opensaml.xmlsec.SignatureSigningParameters;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.FileSystemUtils;
+
+import javax.xml.namespace.QName;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * This is {@link BaseSamlObjectSignerTests}.
+ *
+ * @author Misagh Moayyed
+ * @since 5.1.0
+ */
+public class BaseSamlObjectSignerTests {
+
+    private static final String ENTITY_ID = "https://sp.example.org/shibboleth";
+
+    private static final String SP_METADATA = "<EntityDescriptor xmlns=\"urn:oasis:names:tc:SAML:2.0:metadata\" entityID=\""
+            + ENTITY_ID + "\"><SPSSODescriptor protocolSupportEnumeration=\"urn:oasis:names:tc:SAML:2.0:protocol\">"
+            + "<AssertionConsumerService Binding=\"urn:oasis:names:tc:SAML:2.0:bindings:HTTP-POST\" "
+            + "Location=\"https://sp.example.org/Shibboleth.sso/SAML2/POST\" index=\"1\"/>"
+            + "</SPSSODescriptor></EntityDescriptor>";
+
+    private final AtomicInteger signingConfigurations = new AtomicInteger();
+
+    private File metadataLocation;
+
+    private CasConfigurationProperties casProperties;
+
+    private BaseSamlObjectSigner signer;
+
+    private SamlRegisteredService service;
+
+    private SamlRegisteredServiceServiceProviderMetadataFacade adaptor;
+
+    @BeforeClass
+    public static void initialize() throws Exception {
+        InitializationService.initialize();
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        this.metadataLocation = Files.createTempDirectory("saml-idp").toFile();
+        this.casProperties = new CasConfigurationProperties();
+        this.casProperties.getAuthn().getSamlIdp().getMetadata().setLocation(new FileSystemResource(this.metadataLocation));
+        generateSigningCredential();
+
+        final SamlIdPProperties.Algorithms algs = this.casProperties.getAuthn().getSamlIdp().getAlgs();
+        this.signer = new BaseSamlObjectSigner(algs.getOverrideSignatureReferenceDigestMethods(), algs.getOverrideSignatureAlgorithms(),
+                algs.getOverrideBlackListedSignatureSigningAlgorithms(), algs.getOverrideWhiteListedSignatureSigningAlgorithms()) {
+            @Override
+            protected SignatureSigningConfiguration getSignatureSigningConfiguration() throws Exception {
+                signingConfigurations.incrementAndGet();
+                return super.getSignatureSigningConfiguration();
+            }
+        };
+        ReflectionTestUtils.setField(this.signer, "casProperties", this.casProperties);
+
+        this.service = new SamlRegisteredService();
+        this.service.setName("SAML");
+        this.service.setServiceId(ENTITY_ID);
+        this.service.setMetadataLocation("classpath:/metadata/sp-metadata.xml");
+        this.adaptor = SamlRegisteredServiceServiceProviderMetadataFacade.get(newCachingResolver(newMetadataResolver()),
+                this.service, ENTITY_ID);
+    }
+
+    @After
+    public void tearDown() {
+        FileSystemUtils.deleteRecursively(this.metadataLocation);
+    }
+
+    @Test
+    public void verifySigningParametersAreReusedForTheSameService() throws Exception {
+        final Response first = this.signer.encode(newResponse(), this.service, this.adaptor, null, null);
+        final Response second = this.signer.encode(newResponse(), this.service, this.adaptor, null, null);
+        assertTrue(first.isSigned());
+        assertTrue(second.isSigned());
+        assertEquals(1, this.signingConfigurations.get());
+
+        final SignatureSigningParameters params = this.signer.buildSignatureSigningParameters(this.adaptor.getSsoDescriptor());
+        assertSame(params, this.signer.buildSignatureSigningParameters(this.adaptor.getSsoDescriptor()));
+        assertEquals(1, this.signingConfigurations.get());
+    }
+
+    @Test
+    public void verifySigningParametersAreResolvedForReloadedMetadata() throws Exception {
+        final SignatureSigningParameters params = this.signer.buildSignatureSigningParameters(this.adaptor.getSsoDescriptor());
+
+        final SPSSODescriptor reloaded = newMetadataResolver().resolveSingle(new CriteriaSet(new EntityIdCriterion(ENTITY_ID)))
+                .getSPSSODescriptor(SAMLConstants.SAML20P_NS);
+        assertNotSame(this.adaptor.getSsoDescriptor(), reloaded);
+        final SignatureSigningParameters reloadedParams = this.signer.buildSignatureSigningParameters(reloaded);
+        assertNotSame(params, reloadedParams);
+        assertSame(params.getSigningCredential(), reloadedParams.getSigningCredential());
+        assertEquals(1, this.signingConfigurations.get());
+    }
+
+    @Test
+    public void verifySigningParametersAreResolvedForChangedCredential() throws Exception {
+        final SignatureSigningParameters params = this.signer.buildSignatureSigningParameters(this.adaptor.getSsoDescriptor());
+
+        final SamlIdPProperties.Metadata md = this.casProperties.getAuthn().getSamlIdp().getMetadata();
+        final long lastModified = md.getSigningKeyFile().lastModified();
+        Files.delete(md.getSigningCertFile().getFile().toPath());
+        Files.delete(md.getSigningKeyFile().getFile().toPath());
+        generateSigningCredential();
+        final long modified = lastModified + TimeUnit.SECONDS.toMillis(2);
+        assertTrue(md.getSigningCertFile().getFile().setLastModified(modified));
+        assertTrue(md.getSigningKeyFile().getFile().setLastModified(modified));
+
+        final SignatureSigningParameters changed = this.signer.buildSignatureSigningParameters(this.adaptor.getSsoDescriptor());
+        assertNotSame(params, changed);
+        assertNotEquals(params.getSigningCredential().getPublicKey(), changed.getSigningCredential().getPublicKey());
+        assertSame(changed, this.signer.buildSignatureSigningParameters(this.adaptor.getSsoDescriptor()));
+        assertEquals(2, this.signingConfigurations.get());
+    }
+
+    private void generateSigningCredential() throws Exception {
+        final SamlIdPProperties.Metadata md = this.casProperties.getAuthn().getSamlIdp().getMetadata();
+        final SelfSignedCertificateGenerator generator = new SelfSignedCertificateGenerator();
+        generator.setHostName("cas.example.org");
+        generator.setCertificateFile(md.getSigningCertFile().getFile());
+        generator.setPrivateKeyFile(md.getSigningKeyFile().getFile());
+        generator.generate();
+    }
+
+    private static ChainingMetadataResolver newMetadataResolver() throws Exception {
+        final BasicParserPool parserPool = new BasicParserPool();
+        parserPool.initialize();
+        final DOMMetadataResolver metadataResolver = new DOMMetadataResolver(parserPool.parse(
+                new ByteArrayInputStream(SP_METADATA.getBytes(StandardCharsets.UTF_8))).getDocumentElement());
+        metadataResolver.setId(DOMMetadataResolver.class.getName());
+        metadataResolver.setParserPool(parserPool);
+        metadataResolver.initialize();
+        final ChainingMetadataResolver chainingMetadataResolver = new ChainingMetadataResolver();
+        chainingMetadataResolver.setId(ChainingMetadataResolver.class.getName());
+        chainingMetadataResolver.setResolvers(Collections.singletonList(metadataResolver));
+        chainingMetadataResolver.initialize();
+        return chainingMetadataResolver;
+    }
+
+    private static SamlRegisteredServiceCachingMetadataResolver newCachingResolver(final ChainingMetadataResolver metadataResolver) {
+        final SamlMetadataEntityIndex index = new SamlMetadataEntityIndex(metadataResolver);
+        return new SamlRegisteredServiceCachingMetadataResolver() {
+            @Override
+            public ChainingMetadataResolver resolve(final SamlRegisteredService service) {
+                return metadataResolver;
+            }
+
+            @Override
+            public SamlMetadataEntityIndex resolveEntityIndex(final SamlRegisteredService service) {
+                return index;
+            }
+        };
+    }
+
+    private static Response newResponse() {
+        final Response response = build(Response.DEFAULT_ELEMENT_NAME);
+        response.setID('_' + UUID.randomUUID().toString());
+        response.setVersion(SAMLVersion.VERSION_20);
+        response.setDestination("https://sp.example.org/Shibboleth.sso/SAML2/POST");
+        final Issuer issuer = build(Issuer.DEFAULT_ELEMENT_NAME);
+        issuer.setValue("https://cas.example.org/idp");
+        response.setIssuer(issuer);
+        return response;
+    }
+
+    private static <T> T build(final QName name) {
+        return (T) XMLObjectProviderRegistrySupport.getBuilderFactory().getBuilder(name).buildObject(name);
+    }
+}
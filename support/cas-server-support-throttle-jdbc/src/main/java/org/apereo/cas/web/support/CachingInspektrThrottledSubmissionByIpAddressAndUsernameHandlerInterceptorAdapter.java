@@ -0,0 +1,136 @@
+package org.apereo.cas.web.support;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.apereo.inspektr.audit.AuditTrailManager;
+import org.apereo.inspektr.common.web.ClientInfoHolder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.sql.DataSource;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Throttles failed submissions by IP address and username once as many failures as the failure threshold
+ * are recorded within the failure range, keeping the recent failure counts in a local cache.
+ * <p>
+ * The audit trail is only queried for a key that is not cached, or whose count was last read from
+ * the database longer than the reconciliation interval ago, so that failures recorded by other
+ * nodes are picked up. The query fetches no more rows than the threshold. In between, failures observed by
+ * this node are added to the cached count, while the audit record is written by the audit trail manager,
+ * which for the JDBC audit trail happens asynchronously. Cached counts expire once the failure range has elapsed.
+ *
+ * @author Misagh Moayyed
+ * @since 5.1.0
+ */
+public class CachingInspektrThrottledSubmissionByIpAddressAndUsernameHandlerInterceptorAdapter
+        extends InspektrThrottledSubmissionByIpAddressAndUsernameHandlerInterceptorAdapter {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CachingInspektrThrottledSubmissionByIpAddressAndUsernameHandlerInterceptorAdapter.class);
+
+    private final Cache<String, FailureCount> failures;
+
+    private final long reconcileIntervalMillis;
+
+    /**
+     * Instantiates a new caching inspektr throttled submission handler interceptor adapter.
+     *
+     * @param failureThreshold          the failure threshold
+     * @param failureRangeInSeconds     the failure range in seconds
+     * @param usernameParameter         the username parameter
+     * @param auditTrailManager         the audit trail manager
+     * @param dataSource                the data source
+     * @param appCode                   the app code
+     * @param sqlQueryAudit             the sql query audit
+     * @param authenticationFailureCode the authentication failure code
+     * @param maximumSize               the maximum number of cached keys
+     * @param reconcileIntervalMillis   how long a cached count is trusted before it is read from the database again
+     */
+    public CachingInspektrThrottledSubmissionByIpAddressAndUsernameHandlerInterceptorAdapter(final int failureThreshold,
+                                                                                             final int failureRangeInSeconds,
+                                                                                             final String usernameParameter,
+                                                                                             final AuditTrailManager auditTrailManager,
+                                                                                             final DataSource dataSource, final String appCode,
+                                                                                             final String sqlQueryAudit,
+                                                                                             final String authenticationFailureCode,
+                                                                                             final long maximumSize,
+                                                                                             final long reconcileIntervalMillis) {
+        super(failureThreshold, failureRangeInSeconds, usernameParameter, auditTrailManager, dataSource, appCode, sqlQueryAudit,
+                authenticationFailureCode);
+        this.reconcileIntervalMillis = reconcileIntervalMillis;
+        this.failures = CacheBuilder.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(failureRangeInSeconds, TimeUnit.SECONDS)
+                .build();
+    }
+
+    @Override
+    public boolean exceedsThreshold(final HttpServletRequest request) {
+        if (!isDataSourceAvailable()) {
+            return super.exceedsThreshold(request);
+        }
+        final String username = constructUsername(request, getUsernameParameter());
+        final String remoteAddress = ClientInfoHolder.getClientInfo().getClientIpAddress();
+        final String key = constructKey(remoteAddress, username);
+
+        final long now = System.currentTimeMillis();
+        FailureCount count = this.failures.getIfPresent(key);
+        if (count == null || now - count.getReconciledAt() > this.reconcileIntervalMillis) {
+            count = new FailureCount(getFailuresInRange(remoteAddress, username, getFailureThreshold()).size(), now);
+            LOGGER.debug("Reconciled [{}] failures for [{}] with the audit trail", count.get(), key);
+            this.failures.put(key, count);
+        }
+        return count.get() >= getFailureThreshold();
+    }
+
+    @Override
+    public void recordSubmissionFailure(final HttpServletRequest request) {
+        if (isDataSourceAvailable()) {
+            final String key = constructKey(ClientInfoHolder.getClientInfo().getClientIpAddress(),
+                    constructUsername(request, getUsernameParameter()));
+            final FailureCount count = this.failures.getIfPresent(key);
+            if (count != null) {
+                count.incrementAndGet();
+            }
+        }
+        super.recordSubmissionFailure(request);
+    }
+
+    /**
+     * Release cached counts whose failure range has elapsed.
+     */
+    @Override
+    public void decrement() {
+        this.failures.cleanUp();
+        LOGGER.debug("Tracking failures for [{}] keys", this.failures.size());
+    }
+
+    private static String constructKey(final String remoteAddress, final String username) {
+        return remoteAddress + ';' + username;
+    }
+
+    @Override
+    public String getName() {
+        return "cachingInspektrIpAddressUsernameThrottle";
+    }
+
+    /**
+     * The number of failures of a key, as read from the audit trail and incremented locally since.
+     */
+    private static class FailureCount extends AtomicInteger {
+        private static final long serialVersionUID = -1283713553472813541L;
+
+        private final long reconciledAt;
+
+        FailureCount(final int count, final long reconciledAt) {
+            super(count);
+            this.reconciledAt = reconciledAt;
+        }
+
+        long getReconciledAt() {
+            return this.reconciledAt;
+        }
+    }
+}
@@ -8,6 +8,7 @@ import org.apereo.inspektr.common.web.ClientInfo;
 import org.apereo.inspektr.common.web.ClientInfoHolder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.ArgumentTypePreparedStatementSetter;
 import org.springframework.jdbc.core.JdbcTemplate;
 
 import javax.servlet.http.HttpServletRequest;
@@ -78,19 +79,11 @@ public class InspektrThrottledSubmissionByIpAddressAndUsernameHandlerInterceptor
 
     @Override
     public boolean exceedsThreshold(final HttpServletRequest request) {
-        if (this.dataSource != null && this.jdbcTemplate != null) {
+        if (isDataSourceAvailable()) {
             final String userToUse = constructUsername(request, getUsernameParameter());
-            final ZonedDateTime cutoff = ZonedDateTime.now(ZoneOffset.UTC).minusSeconds(getFailureRangeInSeconds());
+            final String remoteAddress = ClientInfoHolder.getClientInfo().getClientIpAddress();
 
-            final ClientInfo clientInfo = ClientInfoHolder.getClientInfo();
-            final String remoteAddress = clientInfo.getClientIpAddress();
-            
-            final List<Timestamp> failures = this.jdbcTemplate.query(
-                    this.sqlQueryAudit,
-                    new Object[]{remoteAddress, userToUse, this.authenticationFailureCode,
-                    this.applicationCode, DateTimeUtils.timestampOf(cutoff)},
-                    new int[]{Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.TIMESTAMP},
-                    (resultSet, i) -> resultSet.getTimestamp(1));
+            final List<Timestamp> failures = getFailuresInRange(remoteAddress, userToUse, 2);
             if (failures.size() < 2) {
                 return false;
             }
@@ -101,6 +94,36 @@ public class InspektrThrottledSubmissionByIpAddressAndUsernameHandlerInterceptor
         return false;
     }
 
+    /**
+     * Gets the most recent authentication failures recorded in the audit trail
+     * for the given address and user within the failure range.
+     * The number of rows fetched is capped, so the cost of the query does not grow with the number of failures.
+     *
+     * @param remoteAddress the remote address
+     * @param username      the username
+     * @param maxRows       the maximum number of failures to fetch
+     * @return the failure dates, most recent first
+     */
+    protected List<Timestamp> getFailuresInRange(final String remoteAddress, final String username, final int maxRows) {
+        final ZonedDateTime cutoff = ZonedDateTime.now(ZoneOffset.UTC).minusSeconds(getFailureRangeInSeconds());
+        final ArgumentTypePreparedStatementSetter parameters = new ArgumentTypePreparedStatementSetter(
+                new Object[]{remoteAddress, username, this.authenticationFailureCode, this.applicationCode, DateTimeUtils.timestampOf(cutoff)},
+                new int[]{Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.TIMESTAMP});
+        return this.jdbcTemplate.query(this.sqlQueryAudit, ps -> {
+            ps.setMaxRows(maxRows);
+            parameters.setValues(ps);
+        }, (resultSet, i) -> resultSet.getTimestamp(1));
+    }
+
+    /**
+     * Whether a data source is available to track failures.
+     *
+     * @return true, if the audit trail can be queried
+     */
+    protected boolean isDataSourceAvailable() {
+        return this.dataSource != null && this.jdbcTemplate != null;
+    }
+
     @Override
     public void recordSubmissionFailure(final HttpServletRequest request) {
         recordThrottle(request);
@@ -108,7 +131,7 @@ public class InspektrThrottledSubmissionByIpAddressAndUsernameHandlerInterceptor
 
     @Override
     protected void recordThrottle(final HttpServletRequest request) {
-        if (this.dataSource != null && this.jdbcTemplate != null) {
+        if (isDataSourceAvailable()) {
             super.recordThrottle(request);
             final String userToUse = constructUsername(request, getUsernameParameter());
             final ClientInfo clientInfo = ClientInfoHolder.getClientInfo();
@@ -142,7 +165,7 @@ public class InspektrThrottledSubmissionByIpAddressAndUsernameHandlerInterceptor
      * @param usernameParameter the username parameter
      * @return the string
      */
-    private static String constructUsername(final HttpServletRequest request, final String usernameParameter) {
+    protected static String constructUsername(final HttpServletRequest request, final String usernameParameter) {
         return request.getParameter(usernameParameter);
     }
 
@@ -3,6 +3,7 @@ package org.apereo.cas.web.support.config;
 import org.apereo.cas.configuration.CasConfigurationProperties;
 import org.apereo.cas.configuration.model.support.throttle.ThrottleProperties;
 import org.apereo.cas.configuration.support.Beans;
+import org.apereo.cas.web.support.CachingInspektrThrottledSubmissionByIpAddressAndUsernameHandlerInterceptorAdapter;
 import org.apereo.cas.web.support.InspektrThrottledSubmissionByIpAddressAndUsernameHandlerInterceptorAdapter;
 import org.apereo.cas.web.support.ThrottledSubmissionHandlerInterceptor;
 import org.apereo.inspektr.audit.AuditTrailManager;
@@ -41,6 +42,12 @@ public class CasJdbcThrottlingConfiguration {
         final String appcode = throttle.getAppcode();
         final String sqlQueryAudit = throttle.getJdbc().getAuditQuery();
         final ThrottleProperties.Failure failure = throttle.getFailure();
+        final ThrottleProperties.FailureCache cache = throttle.getJdbc().getFailureCache();
+        if (cache.isEnabled()) {
+            return new CachingInspektrThrottledSubmissionByIpAddressAndUsernameHandlerInterceptorAdapter(failure.getThreshold(),
+                    failure.getRangeSeconds(), throttle.getUsernameParameter(), auditTrailManager, inspektrAuditTrailDataSource(),
+                    appcode, sqlQueryAudit, failure.getCode(), cache.getMaximumSize(), cache.getReconcileInterval());
+        }
         return new InspektrThrottledSubmissionByIpAddressAndUsernameHandlerInterceptorAdapter(failure.getThreshold(), failure.getRangeSeconds(),
                 throttle.getUsernameParameter(), auditTrailManager, inspektrAuditTrailDataSource(), appcode, sqlQueryAudit, failure.getCode());
     }
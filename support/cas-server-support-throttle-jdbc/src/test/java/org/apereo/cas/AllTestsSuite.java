@@ -1,5 +1,6 @@
 package org.apereo.cas;
 
+import org.apereo.cas.web.support.CachingInspektrThrottledSubmissionByIpAddressAndUsernameHandlerInterceptorAdapterTests;
 import org.apereo.cas.web.support.InspektrThrottledSubmissionByIpAddressAndUsernameHandlerInterceptorAdapterTests;
 import org.junit.runner.RunWith;
 import org.junit.runners.Suite;
@@ -11,8 +12,9 @@ import org.junit.runners.Suite;
  * @since 4.2.0
  */
 @RunWith(Suite.class)
-@Suite.SuiteClasses(
-        InspektrThrottledSubmissionByIpAddressAndUsernameHandlerInterceptorAdapterTests.class
-)
+@Suite.SuiteClasses({
+        InspektrThrottledSubmissionByIpAddressAndUsernameHandlerInterceptorAdapterTests.class,
+        CachingInspektrThrottledSubmissionByIpAddressAndUsernameHandlerInterceptorAdapterTests.class
+})
 public class AllTestsSuite {
 }
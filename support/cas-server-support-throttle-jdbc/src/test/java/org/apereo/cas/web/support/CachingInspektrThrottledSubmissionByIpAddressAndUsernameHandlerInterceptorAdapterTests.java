@@ -0,0 +1,154 @@
+package org.apereo.cas.web.support;
+
+import org.apereo.cas.audit.config.CasSupportJdbcAuditConfiguration;
+import org.apereo.cas.audit.spi.config.CasCoreAuditConfiguration;
+import org.apereo.cas.authentication.AuthenticationException;
+import org.apereo.cas.authentication.AuthenticationManager;
+import org.apereo.cas.authentication.AuthenticationTransaction;
+import org.apereo.cas.authentication.CoreAuthenticationTestUtils;
+import org.apereo.cas.authentication.UsernamePasswordCredential;
+import org.apereo.cas.config.CasCoreAuthenticationConfiguration;
+import org.apereo.cas.config.CasCoreAuthenticationHandlersConfiguration;
+import org.apereo.cas.config.CasCoreAuthenticationMetadataConfiguration;
+import org.apereo.cas.config.CasCoreAuthenticationPolicyConfiguration;
+import org.apereo.cas.config.CasCoreAuthenticationPrincipalConfiguration;
+import org.apereo.cas.config.CasCoreAuthenticationSupportConfiguration;
+import org.apereo.cas.config.CasCoreConfiguration;
+import org.apereo.cas.config.CasCoreHttpConfiguration;
+import org.apereo.cas.config.CasCoreServicesConfiguration;
+import org.apereo.cas.config.CasCoreTicketCatalogConfiguration;
+import org.apereo.cas.config.CasCoreTicketsConfiguration;
+import org.apereo.cas.config.CasCoreUtilConfiguration;
+import org.apereo.cas.config.CasPersonDirectoryConfiguration;
+import org.apereo.cas.configuration.model.support.throttle.ThrottleProperties;
+import org.apereo.cas.logout.config.CasCoreLogoutConfiguration;
+import org.apereo.cas.web.support.config.CasJdbcThrottlingConfiguration;
+import org.apereo.inspektr.audit.AuditTrailManager;
+import org.apereo.inspektr.common.web.ClientInfo;
+import org.apereo.inspektr.common.web.ClientInfoHolder;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cloud.autoconfigure.RefreshAutoConfiguration;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.util.AopTestUtils;
+
+import javax.servlet.http.HttpServletResponse;
+import javax.sql.DataSource;
+
+import static org.junit.Assert.*;
+
+/**
+ * This is {@link CachingInspektrThrottledSubmissionByIpAddressAndUsernameHandlerInterceptorAdapterTests}.
+ *
+ * @author Misagh Moayyed
+ * @since 5.1.0
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = {CasJdbcThrottlingConfiguration.class,
+        CasCoreAuditConfiguration.class,
+        CasCoreConfiguration.class,
+        CasCoreServicesConfiguration.class,
+        CasCoreUtilConfiguration.class,
+        CasCoreTicketsConfiguration.class,
+        CasCoreTicketCatalogConfiguration.class,
+        CasCoreLogoutConfiguration.class,
+        RefreshAutoConfiguration.class,
+        CasPersonDirectoryConfiguration.class,
+        CasCoreAuthenticationPrincipalConfiguration.class,
+        CasCoreAuthenticationPolicyConfiguration.class,
+        CasCoreAuthenticationMetadataConfiguration.class,
+        CasCoreAuthenticationSupportConfiguration.class,
+        CasCoreAuthenticationHandlersConfiguration.class,
+        CasCoreAuthenticationConfiguration.class,
+        CasCoreHttpConfiguration.class,
+        CasSupportJdbcAuditConfiguration.class})
+@ContextConfiguration(locations = {"classpath:/jdbc-audit-context.xml"})
+@TestPropertySource(locations = {"classpath:/casthrottlecache.properties"})
+public class CachingInspektrThrottledSubmissionByIpAddressAndUsernameHandlerInterceptorAdapterTests {
+
+    private static final String IP_ADDRESS = "1.2.3.4";
+
+    private static final int WAIT_INTERVAL = 100;
+
+    @Autowired
+    @Qualifier("authenticationThrottle")
+    private ThrottledSubmissionHandlerInterceptor throttle;
+
+    @Autowired
+    @Qualifier("casAuthenticationManager")
+    private AuthenticationManager authenticationManager;
+
+    @Autowired
+    @Qualifier("auditTrailManager")
+    private AuditTrailManager auditTrailManager;
+
+    @Autowired
+    @Qualifier("inspektrAuditTrailDataSource")
+    private DataSource dataSource;
+
+    @After
+    public void tearDown() throws Exception {
+        ClientInfoHolder.setClientInfo(null);
+    }
+
+    @Test
+    public void verifyFailuresAreCountedAndReconciledAcrossNodes() throws Exception {
+        assertTrue(AopTestUtils.getUltimateTargetObject(this.throttle)
+                instanceof CachingInspektrThrottledSubmissionByIpAddressAndUsernameHandlerInterceptorAdapter);
+        for (int i = 0; i < 3; i++) {
+            assertEquals(HttpServletResponse.SC_UNAUTHORIZED, loginUnsuccessfully("casuser").getStatus());
+        }
+        assertEquals(HttpServletResponse.SC_FORBIDDEN, loginUnsuccessfully("casuser").getStatus());
+        assertEquals(HttpServletResponse.SC_UNAUTHORIZED, loginUnsuccessfully("otheruser").getStatus());
+
+        final ThrottledSubmissionHandlerInterceptor otherNode =
+                new CachingInspektrThrottledSubmissionByIpAddressAndUsernameHandlerInterceptorAdapter(3, 60, "username",
+                        this.auditTrailManager, this.dataSource, "CAS", new ThrottleProperties.Jdbc().getAuditQuery(),
+                        "AUTHENTICATION_FAILED", 100, 0);
+        final MockHttpServletRequest request = newRequest("casuser");
+        boolean throttled = false;
+        for (int i = 0; i < 50 && !throttled; i++) {
+            throttled = otherNode.exceedsThreshold(request);
+            if (!throttled) {
+                Thread.sleep(WAIT_INTERVAL);
+            }
+        }
+        assertTrue(throttled);
+        assertFalse(otherNode.exceedsThreshold(newRequest("unknown")));
+    }
+
+    private MockHttpServletResponse loginUnsuccessfully(final String username) throws Exception {
+        final MockHttpServletRequest request = newRequest(username);
+        final MockHttpServletResponse response = new MockHttpServletResponse();
+        response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+        if (!this.throttle.preHandle(request, response, null)) {
+            return response;
+        }
+        try {
+            final UsernamePasswordCredential credentials = new UsernamePasswordCredential(username, "badpassword");
+            this.authenticationManager.authenticate(AuthenticationTransaction.wrap(CoreAuthenticationTestUtils.getService(), credentials));
+            fail("Expected AuthenticationException");
+        } catch (final AuthenticationException e) {
+            this.throttle.postHandle(request, response, null, null);
+        }
+        return response;
+    }
+
+    private static MockHttpServletRequest newRequest(final String username) {
+        final MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setMethod("POST");
+        request.setParameter("username", username);
+        request.setRemoteAddr(IP_ADDRESS);
+        request.setLocalAddr(IP_ADDRESS);
+        ClientInfoHolder.setClientInfo(new ClientInfo(request));
+        return request;
+    }
+}
@@ -0,0 +1,79 @@
+package org.apereo.cas.web.support;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.servlet.http.HttpServletRequest;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throttles failed submissions once a key has failed as many times as the failure threshold
+ * within the failure range, counting failures in a {@link SlidingWindowThrottledSubmissionStore}.
+ * Unlike {@link AbstractInMemoryThrottledSubmissionHandlerInterceptorAdapter}, which derives
+ * a rate from the last failure alone, every failure within the window is counted, and the memory used
+ * to track keys is capped regardless of how many distinct keys fail.
+ *
+ * @author Misagh Moayyed
+ * @since 5.1.0
+ */
+public abstract class AbstractSlidingWindowThrottledSubmissionHandlerInterceptorAdapter extends AbstractThrottledSubmissionHandlerInterceptorAdapter
+        implements InMemoryThrottledSubmissionHandlerInterceptor {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AbstractSlidingWindowThrottledSubmissionHandlerInterceptorAdapter.class);
+
+    private final SlidingWindowThrottledSubmissionStore store;
+
+    public AbstractSlidingWindowThrottledSubmissionHandlerInterceptorAdapter(final int failureThreshold, final int failureRangeInSeconds,
+                                                                             final String usernameParameter,
+                                                                             final int capacity, final int buckets) {
+        this(failureThreshold, failureRangeInSeconds, usernameParameter,
+                new SlidingWindowThrottledSubmissionStore(capacity, TimeUnit.SECONDS.toMillis(failureRangeInSeconds), buckets));
+    }
+
+    public AbstractSlidingWindowThrottledSubmissionHandlerInterceptorAdapter(final int failureThreshold, final int failureRangeInSeconds,
+                                                                             final String usernameParameter,
+                                                                             final SlidingWindowThrottledSubmissionStore store) {
+        super(failureThreshold, failureRangeInSeconds, usernameParameter);
+        this.store = store;
+    }
+
+    @Override
+    public boolean exceedsThreshold(final HttpServletRequest request) {
+        return this.store.getFailureCount(constructKey(request), System.currentTimeMillis()) >= getFailureThreshold();
+    }
+
+    @Override
+    public void recordSubmissionFailure(final HttpServletRequest request) {
+        this.store.recordFailure(constructKey(request), System.currentTimeMillis());
+    }
+
+    @Override
+    protected void recordThrottle(final HttpServletRequest request) {
+        this.store.recordThrottle();
+        super.recordThrottle(request);
+    }
+
+    /**
+     * Releases keys whose failures have all left the window.
+     */
+    @Override
+    public void decrement() {
+        final int released = this.store.cleanup(System.currentTimeMillis());
+        LOGGER.debug("Released [{}] idle keys. Tracking [{}] of [{}] keys; [{}] failed and [{}] throttled submissions, "
+                        + "[{}] evicted keys and [{}] untracked failures so far",
+                released, this.store.size(), this.store.getCapacity(), getFailedSubmissionCount(), getThrottledSubmissionCount(),
+                this.store.getEvictionCount(), this.store.getRejectionCount());
+    }
+
+    public long getFailedSubmissionCount() {
+        return this.store.getFailedSubmissionCount();
+    }
+
+    public long getThrottledSubmissionCount() {
+        return this.store.getThrottledSubmissionCount();
+    }
+
+    public SlidingWindowThrottledSubmissionStore getStore() {
+        return this.store;
+    }
+}
@@ -0,0 +1,47 @@
+package org.apereo.cas.web.support;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apereo.inspektr.common.web.ClientInfoHolder;
+
+import javax.servlet.http.HttpServletRequest;
+
+/**
+ * Throttles access attempts for failed logins by IP Address and username,
+ * counting failures within a sliding window in memory.
+ *
+ * @author Misagh Moayyed
+ * @since 5.1.0
+ */
+public class SlidingWindowThrottledSubmissionByIpAddressAndUsernameHandlerInterceptorAdapter
+        extends AbstractSlidingWindowThrottledSubmissionHandlerInterceptorAdapter {
+
+    public SlidingWindowThrottledSubmissionByIpAddressAndUsernameHandlerInterceptorAdapter(final int failureThreshold,
+                                                                                           final int failureRangeInSeconds,
+                                                                                           final String usernameParameter,
+                                                                                           final int capacity, final int buckets) {
+        super(failureThreshold, failureRangeInSeconds, usernameParameter, capacity, buckets);
+    }
+
+    public SlidingWindowThrottledSubmissionByIpAddressAndUsernameHandlerInterceptorAdapter(final int failureThreshold,
+                                                                                           final int failureRangeInSeconds,
+                                                                                           final String usernameParameter,
+                                                                                           final SlidingWindowThrottledSubmissionStore store) {
+        super(failureThreshold, failureRangeInSeconds, usernameParameter, store);
+    }
+
+    @Override
+    public String constructKey(final HttpServletRequest request) {
+        final String username = request.getParameter(getUsernameParameter());
+
+        if (StringUtils.isBlank(username)) {
+            return request.getRemoteAddr();
+        }
+
+        return ClientInfoHolder.getClientInfo().getClientIpAddress() + ';' + username.toLowerCase();
+    }
+
+    @Override
+    public String getName() {
+        return "slidingWindowIpAddressUsernameThrottle";
+    }
+}
@@ -0,0 +1,37 @@
+package org.apereo.cas.web.support;
+
+import org.apereo.inspektr.common.web.ClientInfoHolder;
+
+import javax.servlet.http.HttpServletRequest;
+
+/**
+ * Throttles access attempts for failed logins by IP Address, counting failures within a sliding window in memory.
+ *
+ * @author Misagh Moayyed
+ * @since 5.1.0
+ */
+public class SlidingWindowThrottledSubmissionByIpAddressHandlerInterceptorAdapter
+        extends AbstractSlidingWindowThrottledSubmissionHandlerInterceptorAdapter {
+
+    public SlidingWindowThrottledSubmissionByIpAddressHandlerInterceptorAdapter(final int failureThreshold, final int failureRangeInSeconds,
+                                                                                final String usernameParameter,
+                                                                                final int capacity, final int buckets) {
+        super(failureThreshold, failureRangeInSeconds, usernameParameter, capacity, buckets);
+    }
+
+    public SlidingWindowThrottledSubmissionByIpAddressHandlerInterceptorAdapter(final int failureThreshold, final int failureRangeInSeconds,
+                                                                                final String usernameParameter,
+                                                                                final SlidingWindowThrottledSubmissionStore store) {
+        super(failureThreshold, failureRangeInSeconds, usernameParameter, store);
+    }
+
+    @Override
+    public String constructKey(final HttpServletRequest request) {
+        return ClientInfoHolder.getClientInfo().getClientIpAddress();
+    }
+
+    @Override
+    public String getName() {
+        return "slidingWindowIpAddressThrottle";
+    }
+}
@@ -0,0 +1,355 @@
+package org.apereo.cas.web.support;
+
+import com.codahale.metrics.annotation.Gauge;
+import com.google.common.hash.Hashing;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This is {@link SlidingWindowThrottledSubmissionStore} that counts failed submissions per key
+ * within a sliding window, using a fixed amount of memory that is allocated up front.
+ * <p>
+ * Keys are tracked by their 64-bit hash in an open-addressed table of fixed capacity. Each tracked key owns
+ * a ring of buckets that split the window into equal slices; a bucket packs the slice it belongs to and
+ * the number of failures recorded in it into a single {@code long}, so that updates are lock-free
+ * compare-and-set operations. The window slides by one bucket at a time.
+ * <p>
+ * When all slots a key may occupy are taken, the slot whose window is idle is reused. Otherwise,
+ * the frequencies of the new key and of the least active key in those slots are estimated
+ * with a count-min sketch that sees every failure, and the new key only takes over the slot if it has
+ * failed more often. Keys that keep failing are admitted, while the long tail of keys that fail once or
+ * twice, such as the source addresses of a credential stuffing attack, cannot flush them out.
+ * The sketch is aged by halving its counters once it has seen ten failures per slot, so that it reflects recent activity.
+ * Eviction is approximate: failures recorded concurrently with the eviction of a slot may be
+ * attributed to the key that takes it over.
+ *
+ * @author Misagh Moayyed
+ * @since 5.1.0
+ */
+public class SlidingWindowThrottledSubmissionStore {
+
+    private static final long EMPTY = 0L;
+
+    private static final int MAX_PROBES = 8;
+
+    private static final int COUNT_BITS = 24;
+
+    private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+
+    private static final int SKETCH_DEPTH = 4;
+
+    private static final int SKETCH_SAMPLES_PER_SLOT = 10;
+
+    private final int mask;
+
+    private final int buckets;
+
+    private final long bucketMillis;
+
+    private final long startTime;
+
+    private final AtomicLongArray keys;
+
+    private final AtomicLongArray counters;
+
+    private final AtomicIntegerArray sketch;
+
+    private final int sketchMask;
+
+    private final int sketchSampleLimit;
+
+    private final AtomicInteger sketchSamples = new AtomicInteger();
+
+    private final LongAdder evictions = new LongAdder();
+
+    private final LongAdder rejections = new LongAdder();
+
+    private final LongAdder failures = new LongAdder();
+
+    private final LongAdder throttles = new LongAdder();
+
+    /**
+     * Instantiates a new store.
+     *
+     * @param capacity     the maximum number of keys that are tracked, rounded up to a power of two
+     * @param windowMillis the length of the sliding window
+     * @param buckets      the number of slices the window is split into
+     */
+    public SlidingWindowThrottledSubmissionStore(final int capacity, final long windowMillis, final int buckets) {
+        if (capacity <= 0 || buckets <= 0 || windowMillis < buckets) {
+            throw new IllegalArgumentException("Capacity and buckets must be positive, and the window must be at least one millisecond per bucket");
+        }
+        final int slots = Math.max(MAX_PROBES, Integer.highestOneBit(capacity - 1) << 1);
+        if ((long) slots * buckets > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Capacity " + capacity + " with " + buckets + " buckets per key is too large");
+        }
+        this.mask = slots - 1;
+        this.buckets = buckets;
+        this.bucketMillis = windowMillis / buckets;
+        this.startTime = System.currentTimeMillis();
+        this.keys = new AtomicLongArray(slots);
+        this.counters = new AtomicLongArray(slots * buckets);
+        this.sketch = new AtomicIntegerArray(SKETCH_DEPTH * slots);
+        this.sketchMask = slots - 1;
+        this.sketchSampleLimit = slots * SKETCH_SAMPLES_PER_SLOT;
+    }
+
+    /**
+     * Record a failure for the given key.
+     *
+     * @param key the key
+     * @param now the current time in milliseconds
+     * @return the number of failures of the key within the window, including this one, or 0 if the key could not be tracked
+     */
+    public int recordFailure(final String key, final long now) {
+        final long hash = hash(key);
+        final long epoch = epoch(now);
+        this.failures.increment();
+        incrementSketch(hash);
+
+        int slot = findSlot(hash);
+        if (slot < 0) {
+            slot = claimSlot(hash, epoch);
+            if (slot < 0) {
+                return 0;
+            }
+        }
+        increment(slot, epoch);
+        return count(slot, epoch);
+    }
+
+    /**
+     * Gets the number of failures recorded for the key within the window.
+     *
+     * @param key the key
+     * @param now the current time in milliseconds
+     * @return the failure count
+     */
+    public int getFailureCount(final String key, final long now) {
+        final int slot = findSlot(hash(key));
+        return slot < 0 ? 0 : count(slot, epoch(now));
+    }
+
+    /**
+     * Record that a submission was throttled.
+     */
+    public void recordThrottle() {
+        this.throttles.increment();
+    }
+
+    /**
+     * Release the slots of keys that have no failures left within the window.
+     *
+     * @param now the current time in milliseconds
+     * @return the number of released slots
+     */
+    public int cleanup(final long now) {
+        final long epoch = epoch(now);
+        int released = 0;
+        for (int slot = 0; slot < this.keys.length(); slot++) {
+            final long hash = this.keys.get(slot);
+            if (hash != EMPTY && count(slot, epoch) == 0) {
+                clear(slot);
+                if (this.keys.compareAndSet(slot, hash, EMPTY)) {
+                    released++;
+                }
+            }
+        }
+        return released;
+    }
+
+    /**
+     * Gets the number of tracked keys.
+     *
+     * @return the size
+     */
+    @Gauge(name = "trackedKeys")
+    public int size() {
+        int size = 0;
+        for (int slot = 0; slot < this.keys.length(); slot++) {
+            if (this.keys.get(slot) != EMPTY) {
+                size++;
+            }
+        }
+        return size;
+    }
+
+    @Gauge(name = "capacity")
+    public int getCapacity() {
+        return this.keys.length();
+    }
+
+    /**
+     * Gets the number of tracked keys that were replaced by more frequent keys.
+     *
+     * @return the eviction count
+     */
+    @Gauge(name = "evictions")
+    public long getEvictionCount() {
+        return this.evictions.sum();
+    }
+
+    /**
+     * Gets the number of failures that were not tracked, because the key was less frequent than the keys it competed with.
+     *
+     * @return the rejection count
+     */
+    @Gauge(name = "rejections")
+    public long getRejectionCount() {
+        return this.rejections.sum();
+    }
+
+    /**
+     * Gets the number of failures that were recorded, whether or not their key could be tracked.
+     *
+     * @return the failure count
+     */
+    @Gauge(name = "failedSubmissions")
+    public long getFailedSubmissionCount() {
+        return this.failures.sum();
+    }
+
+    /**
+     * Gets the number of submissions that were throttled.
+     *
+     * @return the throttle count
+     */
+    @Gauge(name = "throttledSubmissions")
+    public long getThrottledSubmissionCount() {
+        return this.throttles.sum();
+    }
+
+    private int findSlot(final long hash) {
+        final int start = index(hash);
+        for (int i = 0; i < MAX_PROBES; i++) {
+            final int slot = (start + i) & this.mask;
+            if (this.keys.get(slot) == hash) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    private int claimSlot(final long hash, final long epoch) {
+        final int start = index(hash);
+        int victim = -1;
+        int victimCount = Integer.MAX_VALUE;
+        for (int i = 0; i < MAX_PROBES; i++) {
+            final int slot = (start + i) & this.mask;
+            final long current = this.keys.get(slot);
+            if (current == EMPTY && this.keys.compareAndSet(slot, EMPTY, hash)) {
+                return slot;
+            }
+            final long owner = this.keys.get(slot);
+            if (owner == hash) {
+                return slot;
+            }
+            final int count = count(slot, epoch);
+            if (count < victimCount) {
+                victim = slot;
+                victimCount = count;
+            }
+        }
+
+        final long victimHash = this.keys.get(victim);
+        if (victimCount > 0 && estimate(hash) <= estimate(victimHash)) {
+            this.rejections.increment();
+            return -1;
+        }
+        if (!this.keys.compareAndSet(victim, victimHash, hash)) {
+            this.rejections.increment();
+            return -1;
+        }
+        clear(victim);
+        if (victimCount > 0) {
+            this.evictions.increment();
+        }
+        return victim;
+    }
+
+    private void increment(final int slot, final long epoch) {
+        final int index = slot * this.buckets + (int) (epoch % this.buckets);
+        long value;
+        long next;
+        do {
+            value = this.counters.get(index);
+            if (value >>> COUNT_BITS == epoch) {
+                next = (value & COUNT_MASK) == COUNT_MASK ? value : value + 1;
+            } else {
+                next = (epoch << COUNT_BITS) | 1;
+            }
+        } while (!this.counters.compareAndSet(index, value, next));
+    }
+
+    private int count(final int slot, final long epoch) {
+        long count = 0;
+        final int offset = slot * this.buckets;
+        for (int i = 0; i < this.buckets; i++) {
+            final long value = this.counters.get(offset + i);
+            if (epoch - (value >>> COUNT_BITS) < this.buckets) {
+                count += value & COUNT_MASK;
+            }
+        }
+        return (int) Math.min(count, Integer.MAX_VALUE);
+    }
+
+    private void clear(final int slot) {
+        final int offset = slot * this.buckets;
+        for (int i = 0; i < this.buckets; i++) {
+            this.counters.set(offset + i, 0);
+        }
+    }
+
+    private void incrementSketch(final long hash) {
+        for (int row = 0; row < SKETCH_DEPTH; row++) {
+            final int index = sketchIndex(hash, row);
+            int value;
+            do {
+                value = this.sketch.get(index);
+            } while (value != Integer.MAX_VALUE && !this.sketch.compareAndSet(index, value, value + 1));
+        }
+        final int samples = this.sketchSamples.incrementAndGet();
+        if (samples >= this.sketchSampleLimit && this.sketchSamples.compareAndSet(samples, 0)) {
+            for (int i = 0; i < this.sketch.length(); i++) {
+                int value;
+                do {
+                    value = this.sketch.get(i);
+                } while (value != 0 && !this.sketch.compareAndSet(i, value, value >>> 1));
+            }
+        }
+    }
+
+    private int estimate(final long hash) {
+        int estimate = Integer.MAX_VALUE;
+        for (int row = 0; row < SKETCH_DEPTH; row++) {
+            estimate = Math.min(estimate, this.sketch.get(sketchIndex(hash, row)));
+        }
+        return estimate;
+    }
+
+    private int sketchIndex(final long hash, final int row) {
+        final int h1 = (int) hash;
+        final int h2 = (int) (hash >>> Integer.SIZE);
+        return row * (this.sketchMask + 1) + ((h1 + row * h2) & this.sketchMask);
+    }
+
+    private int index(final long hash) {
+        return (int) (hash ^ (hash >>> Integer.SIZE)) & this.mask;
+    }
+
+    /**
+     * Epochs start at the number of buckets, so that counters that were never written fall outside the window.
+     */
+    private long epoch(final long now) {
+        return Math.max(0, now - this.startTime) / this.bucketMillis + this.buckets;
+    }
+
+    private static long hash(final String key) {
+        final long hash = Hashing.murmur3_128().hashString(key, StandardCharsets.UTF_8).asLong();
+        return hash == EMPTY ? 1 : hash;
+    }
+}
@@ -7,6 +7,9 @@ import org.apereo.cas.configuration.model.support.throttle.ThrottleProperties;
 import org.apereo.cas.web.support.InMemoryThrottledSubmissionByIpAddressAndUsernameHandlerInterceptorAdapter;
 import org.apereo.cas.web.support.InMemoryThrottledSubmissionByIpAddressHandlerInterceptorAdapter;
 import org.apereo.cas.web.support.InMemoryThrottledSubmissionCleaner;
+import org.apereo.cas.web.support.SlidingWindowThrottledSubmissionByIpAddressAndUsernameHandlerInterceptorAdapter;
+import org.apereo.cas.web.support.SlidingWindowThrottledSubmissionByIpAddressHandlerInterceptorAdapter;
+import org.apereo.cas.web.support.SlidingWindowThrottledSubmissionStore;
 import org.apereo.cas.web.support.ThrottledSubmissionHandlerInterceptor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -20,6 +23,8 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Lazy;
 
+import java.util.concurrent.TimeUnit;
+
 /**
  * This is {@link CasThrottlingConfiguration}.
  *
@@ -43,6 +48,9 @@ public class CasThrottlingConfiguration {
         final ThrottleProperties throttle = casProperties.getAuthn().getThrottle();
         if (throttle.getFailure().getThreshold() > 0
                 && throttle.getFailure().getRangeSeconds() > 0) {
+            if (throttle.getSlidingWindow().isEnabled()) {
+                return slidingWindowThrottle(throttle);
+            }
             if (StringUtils.isNotBlank(throttle.getUsernameParameter())) {
                 return new InMemoryThrottledSubmissionByIpAddressAndUsernameHandlerInterceptorAdapter(throttle.getFailure().getThreshold(),
                         throttle.getFailure().getRangeSeconds(), throttle.getUsernameParameter());
@@ -59,6 +67,24 @@ public class CasThrottlingConfiguration {
         return new InMemoryThrottledSubmissionCleaner(adapter);
     }
 
+    @Lazy
+    @ConditionalOnMissingBean(name = "slidingWindowThrottledSubmissionStore")
+    @Bean
+    public SlidingWindowThrottledSubmissionStore slidingWindowThrottledSubmissionStore() {
+        final ThrottleProperties throttle = casProperties.getAuthn().getThrottle();
+        return new SlidingWindowThrottledSubmissionStore(throttle.getSlidingWindow().getCapacity(),
+                TimeUnit.SECONDS.toMillis(throttle.getFailure().getRangeSeconds()), throttle.getSlidingWindow().getBuckets());
+    }
+
+    private ThrottledSubmissionHandlerInterceptor slidingWindowThrottle(final ThrottleProperties throttle) {
+        if (StringUtils.isNotBlank(throttle.getUsernameParameter())) {
+            return new SlidingWindowThrottledSubmissionByIpAddressAndUsernameHandlerInterceptorAdapter(throttle.getFailure().getThreshold(),
+                    throttle.getFailure().getRangeSeconds(), throttle.getUsernameParameter(), slidingWindowThrottledSubmissionStore());
+        }
+        return new SlidingWindowThrottledSubmissionByIpAddressHandlerInterceptorAdapter(throttle.getFailure().getThreshold(),
+                throttle.getFailure().getRangeSeconds(), throttle.getUsernameParameter(), slidingWindowThrottledSubmissionStore());
+    }
+
     private static ThrottledSubmissionHandlerInterceptor neverThrottle() {
         return () -> LOGGER.debug("Throttling is turned off. No cleanup will take place");
     }
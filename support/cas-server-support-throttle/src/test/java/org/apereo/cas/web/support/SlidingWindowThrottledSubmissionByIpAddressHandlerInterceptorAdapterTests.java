@@ -0,0 +1,88 @@
+package org.apereo.cas.web.support;
+
+import org.apache.http.HttpStatus;
+import org.apereo.cas.config.CasCoreUtilConfiguration;
+import org.apereo.cas.web.support.config.CasThrottlingConfiguration;
+import org.apereo.inspektr.common.web.ClientInfo;
+import org.apereo.inspektr.common.web.ClientInfoHolder;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.aop.AopAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cloud.autoconfigure.RefreshAutoConfiguration;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.util.AopTestUtils;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit test for {@link SlidingWindowThrottledSubmissionByIpAddressHandlerInterceptorAdapter}.
+ *
+ * @author Misagh Moayyed
+ * @since 5.1.0
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = {RefreshAutoConfiguration.class,
+        CasCoreUtilConfiguration.class,
+        AopAutoConfiguration.class,
+        CasThrottlingConfiguration.class})
+@TestPropertySource(locations = {"classpath:/slidingwindow.properties"})
+public class SlidingWindowThrottledSubmissionByIpAddressHandlerInterceptorAdapterTests {
+
+    @Autowired
+    @Qualifier("authenticationThrottle")
+    private ThrottledSubmissionHandlerInterceptor throttle;
+
+    @Autowired
+    @Qualifier("slidingWindowThrottledSubmissionStore")
+    private SlidingWindowThrottledSubmissionStore store;
+
+    @After
+    public void tearDown() throws Exception {
+        ClientInfoHolder.setClientInfo(null);
+    }
+
+    @Test
+    public void verifyFailuresWithinWindowAreThrottled() throws Exception {
+        final Object adapter = AopTestUtils.getUltimateTargetObject(this.throttle);
+        assertTrue(adapter instanceof SlidingWindowThrottledSubmissionByIpAddressHandlerInterceptorAdapter);
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(HttpStatus.SC_UNAUTHORIZED, loginUnsuccessfully("1.2.3.4").getStatus());
+        }
+        assertEquals(HttpStatus.SC_FORBIDDEN, loginUnsuccessfully("1.2.3.4").getStatus());
+        assertEquals(HttpStatus.SC_UNAUTHORIZED, loginUnsuccessfully("5.6.7.8").getStatus());
+
+        this.throttle.decrement();
+        assertEquals(HttpStatus.SC_FORBIDDEN, loginUnsuccessfully("1.2.3.4").getStatus());
+
+        final AbstractSlidingWindowThrottledSubmissionHandlerInterceptorAdapter slidingWindow =
+                (AbstractSlidingWindowThrottledSubmissionHandlerInterceptorAdapter) adapter;
+        assertEquals(6, slidingWindow.getFailedSubmissionCount());
+        assertEquals(2, slidingWindow.getThrottledSubmissionCount());
+        assertSame(this.store, slidingWindow.getStore());
+        assertEquals(6, this.store.getFailedSubmissionCount());
+        assertEquals(2, this.store.getThrottledSubmissionCount());
+        assertEquals(2, this.store.size());
+    }
+
+    private MockHttpServletResponse loginUnsuccessfully(final String fromAddress) throws Exception {
+        final MockHttpServletRequest request = new MockHttpServletRequest();
+        final MockHttpServletResponse response = new MockHttpServletResponse();
+        request.setMethod("POST");
+        request.setParameter("username", "casuser");
+        request.setRemoteAddr(fromAddress);
+        request.setLocalAddr(fromAddress);
+        ClientInfoHolder.setClientInfo(new ClientInfo(request));
+        response.setStatus(HttpStatus.SC_UNAUTHORIZED);
+        this.throttle.preHandle(request, response, null);
+        this.throttle.postHandle(request, response, null, null);
+        return response;
+    }
+}
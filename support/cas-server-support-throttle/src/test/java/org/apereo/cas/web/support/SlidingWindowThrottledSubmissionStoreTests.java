@@ -0,0 +1,63 @@
+package org.apereo.cas.web.support;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * This is {@link SlidingWindowThrottledSubmissionStoreTests}.
+ *
+ * @author Misagh Moayyed
+ * @since 5.1.0
+ */
+public class SlidingWindowThrottledSubmissionStoreTests {
+
+    @Test
+    public void verifyFailuresAreCountedWithinWindow() {
+        final SlidingWindowThrottledSubmissionStore store = new SlidingWindowThrottledSubmissionStore(16, 10_000, 10);
+        final long now = System.currentTimeMillis();
+        assertEquals(1, store.recordFailure("1.2.3.4", now));
+        assertEquals(2, store.recordFailure("1.2.3.4", now + 4_000));
+        assertEquals(3, store.recordFailure("1.2.3.4", now + 8_000));
+        assertEquals(1, store.recordFailure("5.6.7.8", now + 8_000));
+
+        assertEquals(3, store.getFailureCount("1.2.3.4", now + 9_000));
+        assertEquals(2, store.getFailureCount("1.2.3.4", now + 12_500));
+        assertEquals(0, store.getFailureCount("1.2.3.4", now + 20_000));
+        assertEquals(0, store.getFailureCount("unknown", now));
+    }
+
+    @Test
+    public void verifyIdleKeysAreReleased() {
+        final SlidingWindowThrottledSubmissionStore store = new SlidingWindowThrottledSubmissionStore(16, 10_000, 10);
+        final long now = System.currentTimeMillis();
+        store.recordFailure("1.2.3.4", now);
+        store.recordFailure("5.6.7.8", now + 9_000);
+        assertEquals(2, store.size());
+
+        assertEquals(1, store.cleanup(now + 12_000));
+        assertEquals(1, store.size());
+        assertEquals(1, store.getFailureCount("5.6.7.8", now + 12_000));
+    }
+
+    @Test
+    public void verifyMemoryIsBoundedAndFrequentKeysAreRetained() {
+        final SlidingWindowThrottledSubmissionStore store = new SlidingWindowThrottledSubmissionStore(64, 60_000, 10);
+        final long now = System.currentTimeMillis();
+        for (int i = 0; i < 5; i++) {
+            store.recordFailure("attacker", now);
+        }
+        for (int i = 0; i < 10_000; i++) {
+            store.recordFailure("10.0." + (i / 256) + '.' + (i % 256), now);
+        }
+        assertEquals(64, store.getCapacity());
+        assertTrue(store.size() <= store.getCapacity());
+        assertTrue(store.getRejectionCount() > 0);
+        assertEquals(5, store.getFailureCount("attacker", now));
+
+        for (int i = 0; i < 20; i++) {
+            store.recordFailure("burst", now);
+        }
+        assertTrue(store.getFailureCount("burst", now) > 0);
+    }
+}
@@ -0,0 +1,165 @@
+package org.apereo.cas.web.view;
+
+import org.apereo.cas.CasViewConstants;
+import org.apereo.cas.authentication.Authentication;
+import org.apereo.cas.authentication.CoreAuthenticationTestUtils;
+import org.apereo.cas.authentication.principal.Service;
+import org.apereo.cas.authentication.principal.WebApplicationServiceFactory;
+import org.apereo.cas.authentication.support.DefaultCasProtocolAttributeEncoder;
+import org.apereo.cas.services.DefaultServicesManager;
+import org.apereo.cas.services.InMemoryServiceRegistry;
+import org.apereo.cas.services.RegexRegisteredService;
+import org.apereo.cas.services.ServicesManager;
+import org.apereo.cas.util.cipher.NoOpCipherExecutor;
+import org.apereo.cas.validation.ImmutableAssertion;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.autoconfigure.thymeleaf.ThymeleafProperties;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockServletContext;
+import org.springframework.web.context.support.StaticWebApplicationContext;
+import org.springframework.web.servlet.View;
+import org.springframework.web.servlet.support.RequestContext;
+import org.thymeleaf.spring4.SpringTemplateEngine;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of rendering a CAS 3.0 validation response with released attributes,
+ * comparing the {@code protocol/3.0/casServiceValidationSuccess} template with the
+ * {@link CasValidationResponseStreamingView}, and the serialized JSON response with the streamed one.
+ * Both paths of each pair are verified to produce the same output before measurements begin.
+ *
+ * @author Misagh Moayyed
+ * @since 5.1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(1)
+@Fork(1)
+public class CasValidationResponseViewBenchmark {
+
+    private static final String AUTHENTICATION_CONTEXT_ATTRIBUTE = "authnContextClass";
+
+    private StaticWebApplicationContext applicationContext;
+
+    private Map<String, Object> model;
+
+    private View templateView;
+
+    private View streamingView;
+
+    private View serializedJsonView;
+
+    private View streamedJsonView;
+
+    @Setup
+    public void setup() throws Exception {
+        final Service service = new WebApplicationServiceFactory().createService("https://app.example.org/login");
+        final RegexRegisteredService registeredService = new RegexRegisteredService();
+        registeredService.setId(1);
+        registeredService.setServiceId("^https://app.example.org/.*");
+        final ServicesManager servicesManager = new DefaultServicesManager(new InMemoryServiceRegistry(Arrays.asList(registeredService)));
+        servicesManager.load();
+
+        final Map<String, Object> attributes = new HashMap<>();
+        attributes.put("uid", "casuser");
+        attributes.put("cn", "CAS User");
+        attributes.put("givenName", "CAS");
+        attributes.put("sn", "User");
+        attributes.put("mail", "casuser@example.org");
+        attributes.put("eduPersonPrincipalName", "casuser@example.org");
+        attributes.put("eduPersonAffiliation", Arrays.asList("member", "staff", "employee"));
+        attributes.put("memberOf", Arrays.asList("cn=admins,ou=groups,dc=example,dc=org", "cn=staff,ou=groups,dc=example,dc=org"));
+        final Authentication authentication = CoreAuthenticationTestUtils.getAuthentication(
+                CoreAuthenticationTestUtils.getPrincipal("casuser", attributes));
+        final List<Authentication> chained = Arrays.asList(CoreAuthenticationTestUtils.getAuthentication("https://proxy.example.org"),
+                authentication);
+
+        this.model = new HashMap<>();
+        this.model.put(CasViewConstants.MODEL_ATTRIBUTE_NAME_ASSERTION, new ImmutableAssertion(authentication, chained, service, true));
+        this.model.put(CasViewConstants.MODEL_ATTRIBUTE_NAME_SERVICE, service);
+        this.model.put(CasViewConstants.MODEL_ATTRIBUTE_NAME_PROXY_GRANTING_TICKET_IOU, "PGTIOU-1-Kx0mpJ3G5zQvB6ExAMpLe-cas.example.org");
+
+        this.applicationContext = new StaticWebApplicationContext();
+        this.applicationContext.setServletContext(new MockServletContext());
+        this.applicationContext.refresh();
+
+        final ClassLoaderTemplateResolver resolver = new ClassLoaderTemplateResolver();
+        resolver.setPrefix("templates/");
+        resolver.setSuffix(".html");
+        resolver.setTemplateMode(TemplateMode.HTML);
+        resolver.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        final SpringTemplateEngine templateEngine = new SpringTemplateEngine();
+        templateEngine.setTemplateResolver(resolver);
+        final CasProtocolView template = new CasProtocolView("protocol/3.0/casServiceValidationSuccess",
+                this.applicationContext, templateEngine, new ThymeleafProperties());
+
+        final DefaultCasProtocolAttributeEncoder encoder = new DefaultCasProtocolAttributeEncoder(servicesManager,
+                NoOpCipherExecutor.getInstance());
+        this.templateView = new Cas30ResponseView(true, encoder, servicesManager, AUTHENTICATION_CONTEXT_ATTRIBUTE, template, true);
+        this.streamingView = new Cas30ResponseView(true, encoder, servicesManager, AUTHENTICATION_CONTEXT_ATTRIBUTE,
+                new CasValidationResponseStreamingView(true, true), true);
+        this.serializedJsonView = new Cas30JsonResponseView(true, encoder, servicesManager, AUTHENTICATION_CONTEXT_ATTRIBUTE, true);
+        this.streamedJsonView = new Cas30JsonResponseView(true, encoder, servicesManager, AUTHENTICATION_CONTEXT_ATTRIBUTE, true, true);
+
+        verifySameOutput(this.templateView, this.streamingView);
+        verifySameOutput(this.serializedJsonView, this.streamedJsonView);
+    }
+
+    @Benchmark
+    public MockHttpServletResponse template() throws Exception {
+        return render(this.templateView);
+    }
+
+    @Benchmark
+    public MockHttpServletResponse streaming() throws Exception {
+        return render(this.streamingView);
+    }
+
+    @Benchmark
+    public MockHttpServletResponse serializedJson() throws Exception {
+        return render(this.serializedJsonView);
+    }
+
+    @Benchmark
+    public MockHttpServletResponse streamedJson() throws Exception {
+        return render(this.streamedJsonView);
+    }
+
+    private void verifySameOutput(final View expected, final View actual) throws Exception {
+        final String expectedContent = render(expected).getContentAsString();
+        final String actualContent = render(actual).getContentAsString();
+        if (!expectedContent.equals(actualContent)) {
+            throw new IllegalStateException("Rendered responses differ:\n" + expectedContent + "\n" + actualContent);
+        }
+    }
+
+    private MockHttpServletResponse render(final View view) throws Exception {
+        final MockHttpServletRequest request = new MockHttpServletRequest(this.applicationContext.getServletContext());
+        request.setAttribute(RequestContext.WEB_APPLICATION_CONTEXT_ATTRIBUTE, this.applicationContext);
+        final MockHttpServletResponse response = new MockHttpServletResponse();
+        view.render(this.model, request, response);
+        return response;
+    }
+}
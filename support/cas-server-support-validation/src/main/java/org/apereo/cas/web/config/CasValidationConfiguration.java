@@ -22,6 +22,7 @@ import org.apereo.cas.web.view.Cas10ResponseView;
 import org.apereo.cas.web.view.Cas20ResponseView;
 import org.apereo.cas.web.view.Cas30JsonResponseView;
 import org.apereo.cas.web.view.Cas30ResponseView;
+import org.apereo.cas.web.view.CasValidationResponseStreamingView;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
@@ -122,7 +123,7 @@ public class CasValidationConfiguration {
     public View cas2ServiceSuccessView() {
         return new Cas20ResponseView(true, protocolAttributeEncoder,
                 servicesManager, casProperties.getAuthn().getMfa().getAuthenticationContextAttribute(),
-                this.cas2SuccessView);
+                isStreamValidationResponses() ? new CasValidationResponseStreamingView(true, false) : this.cas2SuccessView);
     }
 
     @Bean
@@ -131,15 +132,17 @@ public class CasValidationConfiguration {
                 protocolAttributeEncoder,
                 servicesManager,
                 casProperties.getAuthn().getMfa().getAuthenticationContextAttribute(),
-                casProperties.getAuthn().isReleaseProtocolAttributes());
+                casProperties.getAuthn().isReleaseProtocolAttributes(),
+                isStreamValidationResponses());
     }
 
     @Bean
     public View cas3ServiceSuccessView() {
         final String authenticationContextAttribute = casProperties.getAuthn().getMfa().getAuthenticationContextAttribute();
         final boolean isReleaseProtocolAttributes = casProperties.getAuthn().isReleaseProtocolAttributes();
+        final View view = isStreamValidationResponses() ? new CasValidationResponseStreamingView(true, true) : cas3SuccessView;
         return new Cas30ResponseView(true, protocolAttributeEncoder,
-                servicesManager, authenticationContextAttribute, cas3SuccessView, isReleaseProtocolAttributes);
+                servicesManager, authenticationContextAttribute, view, isReleaseProtocolAttributes);
     }
 
     @Autowired
@@ -148,7 +151,7 @@ public class CasValidationConfiguration {
         final V3ServiceValidateController c = new V3ServiceValidateController();
         c.setValidationSpecification(this.cas20WithoutProxyProtocolValidationSpecification);
         c.setSuccessView(cas3ServiceSuccessView());
-        c.setFailureView(cas3ServiceFailureView);
+        c.setFailureView(serviceValidationFailureView(cas3ServiceFailureView));
         c.setProxyHandler(proxy20Handler);
         c.setAuthenticationSystemSupport(authenticationSystemSupport);
         c.setServicesManager(servicesManager);
@@ -167,7 +170,7 @@ public class CasValidationConfiguration {
         final V3ProxyValidateController c = new V3ProxyValidateController();
         c.setValidationSpecification(cas20ProtocolValidationSpecification);
         c.setSuccessView(cas3ServiceSuccessView());
-        c.setFailureView(cas3ServiceFailureView);
+        c.setFailureView(serviceValidationFailureView(cas3ServiceFailureView));
         c.setProxyHandler(proxy20Handler);
         c.setAuthenticationSystemSupport(authenticationSystemSupport);
         c.setServicesManager(servicesManager);
@@ -186,7 +189,7 @@ public class CasValidationConfiguration {
         final ProxyValidateController c = new ProxyValidateController();
         c.setValidationSpecification(cas20ProtocolValidationSpecification);
         c.setSuccessView(cas3ServiceSuccessView());
-        c.setFailureView(cas3ServiceFailureView);
+        c.setFailureView(serviceValidationFailureView(cas3ServiceFailureView));
         c.setProxyHandler(proxy20Handler);
         c.setAuthenticationSystemSupport(authenticationSystemSupport);
         c.setServicesManager(servicesManager);
@@ -229,7 +232,7 @@ public class CasValidationConfiguration {
         final ServiceValidateController c = new ServiceValidateController();
         c.setValidationSpecification(this.cas20WithoutProxyProtocolValidationSpecification);
         c.setSuccessView(cas2ServiceSuccessView());
-        c.setFailureView(cas2ServiceFailureView);
+        c.setFailureView(serviceValidationFailureView(cas2ServiceFailureView));
         c.setProxyHandler(proxy20Handler);
         c.setAuthenticationSystemSupport(authenticationSystemSupport);
         c.setServicesManager(servicesManager);
@@ -241,4 +244,12 @@ public class CasValidationConfiguration {
         c.setAuthnContextAttribute(casProperties.getAuthn().getMfa().getAuthenticationContextAttribute());
         return c;
     }
+
+    private boolean isStreamValidationResponses() {
+        return casProperties.getView().isStreamValidationResponses();
+    }
+
+    private View serviceValidationFailureView(final View view) {
+        return isStreamValidationResponses() ? new CasValidationResponseStreamingView(false, true) : view;
+    }
 }
@@ -1,6 +1,12 @@
 package org.apereo.cas.web.view;
 
 import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.JsonSerializable;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
 import org.apereo.cas.authentication.Authentication;
 import org.apereo.cas.authentication.ProtocolAttributeEncoder;
 import org.apereo.cas.authentication.principal.Principal;
@@ -9,6 +15,7 @@ import org.springframework.web.servlet.view.json.MappingJackson2JsonView;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
@@ -23,19 +30,44 @@ import java.util.stream.Collectors;
  * model processing and as such, does not do anything special.
  * It is meant and kept to provide a facility for adopters
  * so that the JSON view can be augmented easily in overlays.
+ * <p>
+ * When the response is streamed, the delegated view is created once and reused, and the
+ * service response is written straight to the JSON generator with pre-encoded field names,
+ * producing the same output as the serialized response objects.
  *
  * @author Misagh Moayyed
  * @since 4.2
  */
 public class Cas30JsonResponseView extends Cas30ResponseView {
+    private static final SerializableString AUTHENTICATION_SUCCESS = new SerializedString("authenticationSuccess");
+    private static final SerializableString AUTHENTICATION_FAILURE = new SerializedString("authenticationFailure");
+    private static final SerializableString USER = new SerializedString("user");
+    private static final SerializableString PROXY_GRANTING_TICKET = new SerializedString("proxyGrantingTicket");
+    private static final SerializableString PROXIES = new SerializedString("proxies");
+    private static final SerializableString ATTRIBUTES = new SerializedString("attributes");
+    private static final SerializableString CODE = new SerializedString("code");
+    private static final SerializableString DESCRIPTION = new SerializedString("description");
+
+    private final boolean streamResponse;
 
     public Cas30JsonResponseView(final boolean successResponse,
                                  final ProtocolAttributeEncoder protocolAttributeEncoder,
                                  final ServicesManager servicesManager,
                                  final String authenticationContextAttribute,
                                  final boolean releaseProtocolAttributes) {
+        this(successResponse, protocolAttributeEncoder, servicesManager, authenticationContextAttribute,
+                releaseProtocolAttributes, false);
+    }
+
+    public Cas30JsonResponseView(final boolean successResponse,
+                                 final ProtocolAttributeEncoder protocolAttributeEncoder,
+                                 final ServicesManager servicesManager,
+                                 final String authenticationContextAttribute,
+                                 final boolean releaseProtocolAttributes,
+                                 final boolean streamResponse) {
         super(successResponse, protocolAttributeEncoder, servicesManager, authenticationContextAttribute,
                 createDelegatedView(), releaseProtocolAttributes);
+        this.streamResponse = streamResponse;
     }
 
     private static MappingJackson2JsonView createDelegatedView() {
@@ -69,13 +101,22 @@ public class Cas30JsonResponseView extends Cas30ResponseView {
             casResponse.setAuthenticationFailure(failure);
         } finally {
             final Map<String, Object> casModel = new HashMap<>();
-            casModel.put("serviceResponse", casResponse);
+            if (this.streamResponse) {
+                casModel.put("serviceResponse", new StreamingCasServiceResponse(casResponse));
+            } else {
+                casModel.put("serviceResponse", casResponse);
+                setView(createDelegatedView());
+            }
             model.clear();
             model.putAll(casModel);
-            setView(createDelegatedView());
         }
     }
 
+    @Override
+    protected boolean isFormattedAttributesRequired() {
+        return false;
+    }
+
     private CasServiceResponseAuthenticationFailure createAuthenticationFailure(final Map<String, Object> model) {
         final CasServiceResponseAuthenticationFailure failure = new CasServiceResponseAuthenticationFailure();
         failure.setCode(getErrorCodeFrom(model));
@@ -100,6 +141,56 @@ public class Cas30JsonResponseView extends Cas30ResponseView {
         return success;
     }
 
+    /**
+     * Writes the service response to the generator with pre-encoded field names,
+     * in the order and with the inclusion rules of the serialized {@link CasServiceResponse}.
+     */
+    private static class StreamingCasServiceResponse implements JsonSerializable {
+        private final CasServiceResponse casResponse;
+
+        StreamingCasServiceResponse(final CasServiceResponse casResponse) {
+            this.casResponse = casResponse;
+        }
+
+        @Override
+        public void serialize(final JsonGenerator gen, final SerializerProvider serializers) throws IOException {
+            gen.writeStartObject();
+            final CasServiceResponseAuthenticationFailure failure = this.casResponse.getAuthenticationFailure();
+            if (failure != null) {
+                gen.writeFieldName(AUTHENTICATION_FAILURE);
+                gen.writeStartObject();
+                writeField(gen, serializers, CODE, failure.getCode());
+                writeField(gen, serializers, DESCRIPTION, failure.getDescription());
+                gen.writeEndObject();
+            }
+            final CasServiceResponseAuthenticationSuccess success = this.casResponse.getAuthenticationSuccess();
+            if (success != null) {
+                gen.writeFieldName(AUTHENTICATION_SUCCESS);
+                gen.writeStartObject();
+                writeField(gen, serializers, USER, success.getUser());
+                writeField(gen, serializers, PROXY_GRANTING_TICKET, success.getProxyGrantingTicket());
+                writeField(gen, serializers, PROXIES, success.getProxies());
+                writeField(gen, serializers, ATTRIBUTES, success.getAttributes());
+                gen.writeEndObject();
+            }
+            gen.writeEndObject();
+        }
+
+        @Override
+        public void serializeWithType(final JsonGenerator gen, final SerializerProvider serializers,
+                                      final TypeSerializer typeSer) throws IOException {
+            serialize(gen, serializers);
+        }
+
+        private static void writeField(final JsonGenerator gen, final SerializerProvider serializers,
+                                       final SerializableString name, final Object value) throws IOException {
+            if (value != null) {
+                gen.writeFieldName(name);
+                serializers.defaultSerializeValue(value, gen);
+            }
+        }
+    }
+
     private static class CasServiceResponse {
         private CasServiceResponseAuthenticationFailure authenticationFailure;
         private CasServiceResponseAuthenticationSuccess authenticationSuccess;
@@ -126,6 +126,11 @@ public class Cas30ResponseView extends Cas20ResponseView {
         LOGGER.debug("Encoded attributes for the response are [{}]", encodedAttributes);
         super.putIntoModel(model, CasProtocolConstants.VALIDATION_CAS_MODEL_ATTRIBUTE_NAME_ATTRIBUTES, encodedAttributes);
 
+        if (!isFormattedAttributesRequired()) {
+            LOGGER.debug("Attributes are written by [{}] and need not be formatted for the response", this.view);
+            return;
+        }
+
         final List<String> formattedAttributes = new ArrayList<>(encodedAttributes.size());
 
         LOGGER.debug("Beginning to format/render attributes for the response");
@@ -143,4 +148,14 @@ public class Cas30ResponseView extends Cas20ResponseView {
         });
         super.putIntoModel(model, CasProtocolConstants.VALIDATION_CAS_MODEL_ATTRIBUTE_NAME_FORMATTED_ATTRIBUTES, formattedAttributes);
     }
+
+    /**
+     * Whether the encoded attributes should also be formatted into the model for the template view.
+     * The {@link CasValidationResponseStreamingView} writes the encoded attributes itself.
+     *
+     * @return true if attributes should be formatted
+     */
+    protected boolean isFormattedAttributesRequired() {
+        return !(this.view instanceof CasValidationResponseStreamingView);
+    }
 }
@@ -0,0 +1,269 @@
+package org.apereo.cas.web.view;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import org.apache.commons.lang3.StringEscapeUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.apereo.cas.CasProtocolConstants;
+import org.apereo.cas.CasViewConstants;
+import org.apereo.cas.authentication.Authentication;
+import org.apereo.cas.authentication.principal.Principal;
+import org.apereo.cas.util.CollectionUtils;
+import org.springframework.web.servlet.view.AbstractView;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * This is {@link CasValidationResponseStreamingView} that writes the {@code cas:serviceResponse}
+ * document of CAS 2.0 and 3.0 validation responses straight to the response writer, rather than
+ * handing the model to the protocol templates.
+ * <p>
+ * The output is the same, byte for byte, as that of the default
+ * {@code protocol/2.0} and {@code protocol/3.0} validation templates, whitespace included.
+ * The view renders the model that is prepared by {@link Cas20ResponseView} and {@link Cas30ResponseView}
+ * on success, and the error code and description put into the model by the validation controllers on failure.
+ * Customized templates are not consulted by this view.
+ *
+ * @author Misagh Moayyed
+ * @since 5.1.0
+ */
+public class CasValidationResponseStreamingView extends AbstractView {
+    private static final long MAXIMUM_CACHED_ATTRIBUTE_NAMES = 1_000;
+
+    private static final String SERVICE_RESPONSE_START = "<cas:serviceResponse xmlns:cas='http://www.yale.edu/tp/cas'>\n";
+    private static final String SERVICE_RESPONSE_END = "</cas:serviceResponse>\n";
+    private static final String EMPTY_LINE = "        \n";
+
+    private static final String AUTHENTICATION_SUCCESS_START = "    <cas:authenticationSuccess>\n";
+    private static final String AUTHENTICATION_SUCCESS_END = "    </cas:authenticationSuccess>\n";
+    private static final String USER_START = "        <cas:user>";
+    private static final String USER_END = "</cas:user>\n";
+    private static final String PROXY_GRANTING_TICKET_START = "        <cas:proxyGrantingTicket>";
+    private static final String PROXY_GRANTING_TICKET_END = "</cas:proxyGrantingTicket>\n";
+    private static final String PROXIES_START = "        <cas:proxies>\n            ";
+    private static final String PROXIES_END = "\n        </cas:proxies>\n";
+    private static final String PROXY_START = "<cas:proxy>";
+    private static final String PROXY_END = "</cas:proxy>";
+    private static final String ATTRIBUTES_START = "        <cas:attributes>\n            ";
+    private static final String ATTRIBUTES_END = "\n        </cas:attributes>\n";
+    private static final String ATTRIBUTE_SEPARATOR = "\n            ";
+    private static final String ATTRIBUTE_START = "\n                ";
+    private static final String ATTRIBUTE_END = "\n            ";
+
+    private static final String AUTHENTICATION_FAILURE_START = "    <cas:authenticationFailure";
+    private static final String AUTHENTICATION_FAILURE_CODE_START = " code=\"";
+    private static final String AUTHENTICATION_FAILURE_CODE_END = "\">";
+    private static final String AUTHENTICATION_FAILURE_END = "</cas:authenticationFailure>\n";
+
+    private static final String[] FALSE_VALUES = {"false", "off", "no"};
+
+    /**
+     * Opening and closing tags of released attributes, encoded once per attribute name.
+     */
+    private static final LoadingCache<String, String[]> ATTRIBUTE_TAGS = CacheBuilder.newBuilder()
+            .maximumSize(MAXIMUM_CACHED_ATTRIBUTE_NAMES)
+            .build(CacheLoader.from(name -> new String[]{"<cas:".concat(name).concat(">"), "</cas:".concat(name).concat(">")}));
+
+    private final boolean successResponse;
+
+    private final boolean cas3Response;
+
+    /**
+     * Instantiates a new streaming view.
+     *
+     * @param successResponse whether this view renders successful validation responses
+     * @param cas3Response    whether this view renders CAS 3.0 responses, which release attributes
+     *                        and write the user and proxies without escaping, as the 3.0 template does
+     */
+    public CasValidationResponseStreamingView(final boolean successResponse, final boolean cas3Response) {
+        this.successResponse = successResponse;
+        this.cas3Response = cas3Response;
+    }
+
+    @Override
+    protected void renderMergedOutputModel(final Map<String, Object> model, final HttpServletRequest request,
+                                           final HttpServletResponse response) throws Exception {
+        // set the content type and encoding the same way as the template views
+        response.setContentType(getContentType());
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        final Writer writer = response.getWriter();
+        write(model, writer);
+        writer.flush();
+    }
+
+    /**
+     * Write the validation response for the given model.
+     *
+     * @param model  the model
+     * @param writer the writer
+     * @throws IOException if the response cannot be written
+     */
+    public void write(final Map<String, Object> model, final Writer writer) throws IOException {
+        writer.write(SERVICE_RESPONSE_START);
+        if (this.successResponse) {
+            writeAuthenticationSuccess(model, writer);
+        } else {
+            writeAuthenticationFailure(model, writer);
+        }
+        writer.write(SERVICE_RESPONSE_END);
+    }
+
+    private void writeAuthenticationSuccess(final Map<String, Object> model, final Writer writer) throws IOException {
+        writer.write(AUTHENTICATION_SUCCESS_START);
+
+        final Principal principal = (Principal) model.get(CasViewConstants.MODEL_ATTRIBUTE_NAME_PRINCIPAL);
+        writer.write(USER_START);
+        writeText(principal.getId(), writer);
+        writer.write(USER_END);
+
+        final Object proxyGrantingTicketIou = model.get(CasViewConstants.MODEL_ATTRIBUTE_NAME_PROXY_GRANTING_TICKET_IOU);
+        if (isTrue(proxyGrantingTicketIou)) {
+            writer.write(PROXY_GRANTING_TICKET_START);
+            writeText(proxyGrantingTicketIou, writer);
+            writer.write(PROXY_GRANTING_TICKET_END);
+        } else {
+            writer.write(EMPTY_LINE);
+        }
+
+        final Collection<Authentication> chainedAuthentications =
+                (Collection<Authentication>) model.get(CasViewConstants.MODEL_ATTRIBUTE_NAME_CHAINED_AUTHENTICATIONS);
+        if (chainedAuthentications != null && !chainedAuthentications.isEmpty()) {
+            writer.write(PROXIES_START);
+            for (final Authentication authentication : chainedAuthentications) {
+                writer.write(PROXY_START);
+                writeText(authentication.getPrincipal().getId(), writer);
+                writer.write(PROXY_END);
+            }
+            writer.write(PROXIES_END);
+        } else {
+            writer.write(EMPTY_LINE);
+        }
+
+        if (this.cas3Response) {
+            writeAttributes(model, writer);
+        }
+        writer.write(AUTHENTICATION_SUCCESS_END);
+    }
+
+    /**
+     * Write the encoded attributes, formatted and escaped the same way as the
+     * {@code formattedAttributes} that {@link Cas30ResponseView} prepares for the template.
+     */
+    private static void writeAttributes(final Map<String, Object> model, final Writer writer) throws IOException {
+        final Map<String, Object> attributes =
+                (Map<String, Object>) model.get(CasProtocolConstants.VALIDATION_CAS_MODEL_ATTRIBUTE_NAME_ATTRIBUTES);
+        boolean empty = true;
+        if (attributes != null) {
+            for (final Map.Entry<String, Object> entry : attributes.entrySet()) {
+                final String[] tags = ATTRIBUTE_TAGS.getUnchecked(entry.getKey());
+                for (final Object value : CollectionUtils.toCollection(entry.getValue())) {
+                    writer.write(empty ? ATTRIBUTES_START : ATTRIBUTE_SEPARATOR);
+                    writer.write(ATTRIBUTE_START);
+                    writer.write(tags[0]);
+                    StringEscapeUtils.ESCAPE_XML10.translate(value.toString().trim(), writer);
+                    writer.write(tags[1]);
+                    writer.write(ATTRIBUTE_END);
+                    empty = false;
+                }
+            }
+        }
+        writer.write(empty ? EMPTY_LINE : ATTRIBUTES_END);
+    }
+
+    private static void writeAuthenticationFailure(final Map<String, Object> model, final Writer writer) throws IOException {
+        writer.write(AUTHENTICATION_FAILURE_START);
+        final Object code = model.get(CasViewConstants.MODEL_ATTRIBUTE_NAME_ERROR_CODE);
+        if (code != null && StringUtils.isNotEmpty(code.toString())) {
+            writer.write(AUTHENTICATION_FAILURE_CODE_START);
+            escapeMarkup(code.toString(), writer);
+            writer.write(AUTHENTICATION_FAILURE_CODE_END);
+        } else {
+            writer.write('>');
+        }
+        final Object description = model.get(CasViewConstants.MODEL_ATTRIBUTE_NAME_ERROR_DESCRIPTION);
+        if (description != null) {
+            escapeMarkup(description.toString(), writer);
+        }
+        writer.write(AUTHENTICATION_FAILURE_END);
+    }
+
+    /**
+     * Write a value of the success response. The CAS 3.0 template writes such values unescaped,
+     * while the CAS 2.0 template escapes them.
+     */
+    private void writeText(final Object value, final Writer writer) throws IOException {
+        if (value == null) {
+            return;
+        }
+        if (this.cas3Response) {
+            writer.write(value.toString());
+        } else {
+            escapeMarkup(value.toString(), writer);
+        }
+    }
+
+    /**
+     * Escape the markup-significant characters of the value,
+     * the same way that the templates escape text and attribute values.
+     */
+    private static void escapeMarkup(final String value, final Writer writer) throws IOException {
+        int start = 0;
+        for (int i = 0; i < value.length(); i++) {
+            final String replacement;
+            switch (value.charAt(i)) {
+                case '&':
+                    replacement = "&amp;";
+                    break;
+                case '<':
+                    replacement = "&lt;";
+                    break;
+                case '>':
+                    replacement = "&gt;";
+                    break;
+                case '"':
+                    replacement = "&quot;";
+                    break;
+                case '\'':
+                    replacement = "&#39;";
+                    break;
+                default:
+                    continue;
+            }
+            writer.write(value, start, i - start);
+            writer.write(replacement);
+            start = i + 1;
+        }
+        writer.write(value, start, value.length() - start);
+    }
+
+    /**
+     * Whether the value is considered true by a conditional of the templates.
+     */
+    private static boolean isTrue(final Object value) {
+        if (value == null) {
+            return false;
+        }
+        if (value instanceof Boolean) {
+            return (Boolean) value;
+        }
+        final String text = value.toString();
+        for (final String falseValue : FALSE_VALUES) {
+            if (falseValue.equalsIgnoreCase(text)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName();
+    }
+}
@@ -0,0 +1,168 @@
+package org.apereo.cas.web.view;
+
+import org.apereo.cas.CasProtocolConstants;
+import org.apereo.cas.CasViewConstants;
+import org.apereo.cas.authentication.Authentication;
+import org.apereo.cas.authentication.CoreAuthenticationTestUtils;
+import org.apereo.cas.authentication.support.DefaultCasProtocolAttributeEncoder;
+import org.apereo.cas.authentication.principal.Service;
+import org.apereo.cas.services.RegisteredService;
+import org.apereo.cas.services.ServicesManager;
+import org.apereo.cas.util.cipher.NoOpCipherExecutor;
+import org.apereo.cas.validation.ImmutableAssertion;
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockServletContext;
+
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * This is {@link CasValidationResponseStreamingViewTests}.
+ *
+ * @author Misagh Moayyed
+ * @since 5.1.0
+ */
+public class CasValidationResponseStreamingViewTests {
+
+    @Test
+    public void verifyCas2SuccessResponseIsEscaped() throws Exception {
+        final Map<String, Object> model = new HashMap<>();
+        model.put(CasViewConstants.MODEL_ATTRIBUTE_NAME_PRINCIPAL, CoreAuthenticationTestUtils.getPrincipal("cas<user>&'\""));
+        model.put(CasViewConstants.MODEL_ATTRIBUTE_NAME_PROXY_GRANTING_TICKET_IOU, "PGTIOU-1");
+        model.put(CasViewConstants.MODEL_ATTRIBUTE_NAME_CHAINED_AUTHENTICATIONS,
+                Arrays.asList(CoreAuthenticationTestUtils.getAuthentication("proxy1"), CoreAuthenticationTestUtils.getAuthentication("proxy<2>")));
+
+        assertEquals("<cas:serviceResponse xmlns:cas='http://www.yale.edu/tp/cas'>\n"
+                + "    <cas:authenticationSuccess>\n"
+                + "        <cas:user>cas&lt;user&gt;&amp;&#39;&quot;</cas:user>\n"
+                + "        <cas:proxyGrantingTicket>PGTIOU-1</cas:proxyGrantingTicket>\n"
+                + "        <cas:proxies>\n"
+                + "            <cas:proxy>proxy1</cas:proxy><cas:proxy>proxy&lt;2&gt;</cas:proxy>\n"
+                + "        </cas:proxies>\n"
+                + "    </cas:authenticationSuccess>\n"
+                + "</cas:serviceResponse>\n", write(new CasValidationResponseStreamingView(true, false), model));
+    }
+
+    @Test
+    public void verifyCas3SuccessResponseWritesAttributes() throws Exception {
+        final Map<String, Object> attributes = new LinkedHashMap<>();
+        attributes.put("uid", Collections.singleton(" casuser "));
+        attributes.put("memberOf", Collections.emptyList());
+        attributes.put("cn", "CAS & <User>");
+
+        final Map<String, Object> model = new HashMap<>();
+        model.put(CasViewConstants.MODEL_ATTRIBUTE_NAME_PRINCIPAL, CoreAuthenticationTestUtils.getPrincipal("casuser"));
+        model.put(CasViewConstants.MODEL_ATTRIBUTE_NAME_PROXY_GRANTING_TICKET_IOU, "false");
+        model.put(CasViewConstants.MODEL_ATTRIBUTE_NAME_CHAINED_AUTHENTICATIONS, Collections.emptyList());
+        model.put(CasProtocolConstants.VALIDATION_CAS_MODEL_ATTRIBUTE_NAME_ATTRIBUTES, attributes);
+
+        final CasValidationResponseStreamingView view = new CasValidationResponseStreamingView(true, true);
+        assertEquals("<cas:serviceResponse xmlns:cas='http://www.yale.edu/tp/cas'>\n"
+                + "    <cas:authenticationSuccess>\n"
+                + "        <cas:user>casuser</cas:user>\n"
+                + "        \n"
+                + "        \n"
+                + "        <cas:attributes>\n"
+                + "            \n"
+                + "                <cas:uid>casuser</cas:uid>\n"
+                + "            \n"
+                + "            \n"
+                + "                <cas:cn>CAS &amp; &lt;User&gt;</cas:cn>\n"
+                + "            \n"
+                + "        </cas:attributes>\n"
+                + "    </cas:authenticationSuccess>\n"
+                + "</cas:serviceResponse>\n", write(view, model));
+
+        attributes.clear();
+        assertEquals("<cas:serviceResponse xmlns:cas='http://www.yale.edu/tp/cas'>\n"
+                + "    <cas:authenticationSuccess>\n"
+                + "        <cas:user>casuser</cas:user>\n"
+                + "        \n"
+                + "        \n"
+                + "        \n"
+                + "    </cas:authenticationSuccess>\n"
+                + "</cas:serviceResponse>\n", write(view, model));
+    }
+
+    @Test
+    public void verifyFailureResponse() throws Exception {
+        final Map<String, Object> model = new HashMap<>();
+        model.put(CasViewConstants.MODEL_ATTRIBUTE_NAME_ERROR_CODE, "INVALID_TICKET");
+        model.put(CasViewConstants.MODEL_ATTRIBUTE_NAME_ERROR_DESCRIPTION, "Ticket 'ST-1' not recognized");
+
+        final CasValidationResponseStreamingView view = new CasValidationResponseStreamingView(false, true);
+        assertEquals("<cas:serviceResponse xmlns:cas='http://www.yale.edu/tp/cas'>\n"
+                + "    <cas:authenticationFailure code=\"INVALID_TICKET\">Ticket &#39;ST-1&#39; not recognized</cas:authenticationFailure>\n"
+                + "</cas:serviceResponse>\n", write(view, model));
+
+        model.put(CasViewConstants.MODEL_ATTRIBUTE_NAME_ERROR_CODE, "");
+        final MockHttpServletResponse response = new MockHttpServletResponse();
+        view.render(model, new MockHttpServletRequest(new MockServletContext()), response);
+        assertEquals("UTF-8", response.getCharacterEncoding());
+        assertEquals("<cas:serviceResponse xmlns:cas='http://www.yale.edu/tp/cas'>\n"
+                + "    <cas:authenticationFailure>Ticket &#39;ST-1&#39; not recognized</cas:authenticationFailure>\n"
+                + "</cas:serviceResponse>\n", response.getContentAsString());
+    }
+
+    @Test
+    public void verifyStreamedJsonResponseMatchesSerializedResponse() throws Exception {
+        final Service service = CoreAuthenticationTestUtils.getService();
+        final Map<String, Object> principalAttributes = new HashMap<>();
+        principalAttributes.put("uid", "casuser");
+        principalAttributes.put("memberOf", Arrays.asList("staff", "faculty"));
+        final Authentication authentication = CoreAuthenticationTestUtils.getAuthentication(
+                CoreAuthenticationTestUtils.getPrincipal("casuser", principalAttributes));
+        final List<Authentication> chained = Arrays.asList(CoreAuthenticationTestUtils.getAuthentication("proxy"), authentication);
+
+        final Map<String, Object> model = new HashMap<>();
+        model.put(CasViewConstants.MODEL_ATTRIBUTE_NAME_ASSERTION, new ImmutableAssertion(authentication, chained, service, true));
+        model.put(CasViewConstants.MODEL_ATTRIBUTE_NAME_SERVICE, service);
+        model.put(CasViewConstants.MODEL_ATTRIBUTE_NAME_PROXY_GRANTING_TICKET_IOU, "PGTIOU-1");
+
+        final RegisteredService registeredService = CoreAuthenticationTestUtils.getRegisteredService();
+        final ServicesManager servicesManager = mock(ServicesManager.class);
+        when(servicesManager.findServiceBy(service)).thenReturn(registeredService);
+        final DefaultCasProtocolAttributeEncoder encoder = new DefaultCasProtocolAttributeEncoder(servicesManager,
+                NoOpCipherExecutor.getInstance());
+
+        final MockHttpServletResponse serialized = render(new Cas30JsonResponseView(true, encoder, servicesManager,
+                "authnContextClass", true), model);
+        final MockHttpServletResponse streamed = render(new Cas30JsonResponseView(true, encoder, servicesManager,
+                "authnContextClass", true, true), model);
+
+        assertTrue(serialized.getContentAsString().contains("\"authenticationSuccess\""));
+        assertTrue(serialized.getContentAsString().contains("\"memberOf\""));
+        assertEquals(serialized.getContentAsString(), streamed.getContentAsString());
+        assertEquals(serialized.getContentType(), streamed.getContentType());
+
+        model.remove(CasViewConstants.MODEL_ATTRIBUTE_NAME_ASSERTION);
+        model.put(CasViewConstants.MODEL_ATTRIBUTE_NAME_ERROR_CODE, "INVALID_TICKET");
+        model.put(CasViewConstants.MODEL_ATTRIBUTE_NAME_ERROR_DESCRIPTION, "Ticket not recognized");
+        assertEquals(render(new Cas30JsonResponseView(false, encoder, servicesManager, "authnContextClass", true), model)
+                        .getContentAsString(),
+                render(new Cas30JsonResponseView(false, encoder, servicesManager, "authnContextClass", true, true), model)
+                        .getContentAsString());
+    }
+
+    private static String write(final CasValidationResponseStreamingView view, final Map<String, Object> model) throws Exception {
+        final StringWriter writer = new StringWriter();
+        view.write(model, writer);
+        return writer.toString();
+    }
+
+    private static MockHttpServletResponse render(final Cas30JsonResponseView view, final Map<String, Object> model) throws Exception {
+        final MockHttpServletResponse response = new MockHttpServletResponse();
+        view.render(model, new MockHttpServletRequest(new MockServletContext()), response);
+        return response;
+    }
+}
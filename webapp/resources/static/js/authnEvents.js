@@ -5,12 +5,43 @@ $('#myTabs a').click(function (e) {
 
 var authnEvents = (function () {
 
+    var eventTypes = ["CasTicketGrantingTicketCreatedEvent", "CasAuthenticationTransactionFailureEvent",
+        "CasAuthenticationPolicyFailureEvent", "CasRiskyAuthenticationDetectedEvent"];
+
     var getData = function () {
+        $.getJSON(urls.getEventCounts, function (data) {
+            authnEventCountsTable(data);
+        });
+    };
+
+    var getEvents = function () {
         $.getJSON(urls.getEvents, function (data) {
             authnEventsTable(data);
         });
     };
 
+    var authnEventCountsTable = function (jsonData) {
+        var t = $('#authnEventCountsTable').DataTable({
+            "order": [[0, "desc"]],
+            retrieve: true
+        });
+        var hours = {};
+        for (var i = 0; i < eventTypes.length; i++) {
+            var counts = jsonData[eventTypes[i]] || {};
+            for (var hour in counts) {
+                if (counts.hasOwnProperty(hour)) {
+                    hours[hour] = hours[hour] || [0, 0, 0, 0];
+                    hours[hour][i] = counts[hour];
+                }
+            }
+        }
+        for (var h in hours) {
+            if (hours.hasOwnProperty(h)) {
+                t.row.add([new Date(h)].concat(hours[h])).draw(false);
+            }
+        }
+    };
+
     var authnEventsTable = function (jsonData) {
         var t = $('#authnEventsTable').DataTable({
             "order": [[2, "desc"]],
@@ -47,5 +78,8 @@ var authnEvents = (function () {
     // initialization *******
     (function init() {
         getData();
+        $('#myTabs a[href="#authnEventsTab"]').one('shown.bs.tab', function () {
+            getEvents();
+        });
     })();
 })();